@@ -0,0 +1,217 @@
+package org.gw.optimizationlagmanager.benchmarks;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPluginLoader;
+import org.gw.optimizationlagmanager.OptimizationLagManager;
+
+import java.io.File;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Сервер-заглушка на весь процесс: Bukkit позволяет установить сервер только один раз.
+// Бенчмарки берут его через get() без планировщика и шины событий, симуляция запускает свой через start()
+final class BenchmarkServer {
+    private static final int WORLD_SIZE = 32;
+    private static BenchmarkServer instance;
+
+    private final List<StubWorld> worlds = new ArrayList<>();
+    private final List<Player> players = new CopyOnWriteArrayList<>();
+    private final Map<Player, Location> playerLocations = new HashMap<>();
+    private final Thread mainThread = Thread.currentThread();
+    private volatile PluginCommand command;
+
+    private BenchmarkServer(int worldCount, int worldSize, SimulatedScheduler scheduler, SimulatedEvents events) {
+        for (int i = 0; i < worldCount; i++) {
+            worlds.add(new StubWorld(i == 0 ? "world" : "world_" + i, worldSize));
+        }
+        List<World> bukkitWorlds = new ArrayList<>();
+        for (StubWorld world : worlds) {
+            bukkitWorlds.add(world.getWorld());
+        }
+        Map<String, Stubs.Answer> answers = new HashMap<>();
+        answers.put("getName", args -> "Paper");
+        answers.put("getVersion", args -> "benchmark");
+        answers.put("getBukkitVersion", args -> "1.16.5-R0.1-SNAPSHOT");
+        answers.put("getMinecraftVersion", args -> "1.16.5");
+        answers.put("isPrimaryThread", args -> Thread.currentThread() == mainThread);
+        answers.put("getWorlds", args -> Collections.unmodifiableList(bukkitWorlds));
+        answers.put("getWorld", args -> {
+            for (StubWorld world : worlds) {
+                if (args[0] instanceof UUID ? world.getUid().equals(args[0]) : world.getWorld().getName().equals(args[0])) {
+                    return world.getWorld();
+                }
+            }
+            return null;
+        });
+        answers.put("getOnlinePlayers", args -> Collections.unmodifiableList(players));
+        answers.put("getPlayerExact", args -> findPlayer((String) args[0]));
+        answers.put("getPlayer", args -> args[0] instanceof String ? findPlayer((String) args[0]) : null);
+        answers.put("getPluginCommand", args -> command);
+        if (scheduler != null) {
+            answers.put("getScheduler", args -> scheduler.getScheduler());
+        }
+        if (events != null) {
+            PluginManager pluginManager = createPluginManager(events);
+            answers.put("getPluginManager", args -> pluginManager);
+        }
+        Server server = Stubs.create(Server.class, answers);
+        Bukkit.setServer(server);
+    }
+
+    static synchronized BenchmarkServer get() {
+        if (instance == null) {
+            instance = new BenchmarkServer(1, WORLD_SIZE, null, null);
+        }
+        return instance;
+    }
+
+    static synchronized BenchmarkServer start(int worldCount, int worldSize, SimulatedScheduler scheduler, SimulatedEvents events) {
+        if (instance != null) {
+            throw new IllegalStateException("Сервер-заглушка уже запущен в этом процессе");
+        }
+        instance = new BenchmarkServer(worldCount, worldSize, scheduler, events);
+        return instance;
+    }
+
+    StubWorld getWorld() {
+        return worlds.get(0);
+    }
+
+    List<StubWorld> getWorlds() {
+        return worlds;
+    }
+
+    List<Player> getPlayers() {
+        return players;
+    }
+
+    StubWorld getWorld(World world) {
+        for (StubWorld stubWorld : worlds) {
+            if (stubWorld.getWorld() == world) return stubWorld;
+        }
+        throw new IllegalArgumentException("Мир не принадлежит серверу-заглушке: " + world);
+    }
+
+    Player addPlayer(String name, StubWorld world, double x, double y, double z) {
+        UUID uniqueId = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes());
+        Player[] self = new Player[1];
+        Map<String, Stubs.Answer> answers = new HashMap<>();
+        answers.put("getName", args -> name);
+        answers.put("getDisplayName", args -> name);
+        answers.put("getUniqueId", args -> uniqueId);
+        answers.put("getType", args -> EntityType.PLAYER);
+        answers.put("isOnline", args -> true);
+        answers.put("isValid", args -> true);
+        answers.put("getWorld", args -> locationOf(self[0]).getWorld());
+        answers.put("getChunk", args -> locationOf(self[0]).getChunk());
+        answers.put("getLocation", args -> {
+            Location location = locationOf(self[0]);
+            if (args == null) return location.clone();
+            Location target = (Location) args[0];
+            target.setWorld(location.getWorld());
+            target.setX(location.getX());
+            target.setY(location.getY());
+            target.setZ(location.getZ());
+            return target;
+        });
+        Player player = Stubs.create(Player.class, answers);
+        self[0] = player;
+        synchronized (playerLocations) {
+            playerLocations.put(player, new Location(world.getWorld(), x, y, z));
+        }
+        players.add(player);
+        world.getPlayers().add(player);
+        return player;
+    }
+
+    // Переносит игрока, в том числе между мирами, как после успешной телепортации
+    void movePlayer(Player player, Location to) {
+        Location from;
+        synchronized (playerLocations) {
+            from = playerLocations.put(player, to.clone());
+        }
+        if (from != null && from.getWorld() != to.getWorld()) {
+            getWorld(from.getWorld()).getPlayers().remove(player);
+            getWorld(to.getWorld()).getPlayers().add(player);
+        }
+    }
+
+    // Возвращает миры в исходное состояние между сценариями симуляции
+    void reset() {
+        for (StubWorld world : worlds) {
+            world.clear();
+        }
+        players.clear();
+        synchronized (playerLocations) {
+            playerLocations.clear();
+        }
+    }
+
+    OptimizationLagManager enablePlugin(File dataFolder) throws Exception {
+        PluginDescriptionFile description;
+        try (InputStream in = OptimizationLagManager.class.getResourceAsStream("/plugin.yml")) {
+            description = new PluginDescriptionFile(in);
+        }
+        OptimizationLagManager plugin = new OptimizationLagManager(new JavaPluginLoader(Bukkit.getServer()), description,
+                dataFolder, new File(dataFolder, "OptimizationLagManager.jar")) {
+        };
+        Constructor<PluginCommand> constructor = PluginCommand.class.getDeclaredConstructor(String.class, Plugin.class);
+        constructor.setAccessible(true);
+        command = constructor.newInstance("optimizationlagmanager", plugin);
+        plugin.onEnable();
+        return plugin;
+    }
+
+    private Location locationOf(Player player) {
+        synchronized (playerLocations) {
+            return playerLocations.get(player);
+        }
+    }
+
+    private Player findPlayer(String name) {
+        for (Player player : players) {
+            if (player.getName().equalsIgnoreCase(name)) return player;
+        }
+        return null;
+    }
+
+    private static PluginManager createPluginManager(SimulatedEvents events) {
+        Map<String, Stubs.Answer> answers = new HashMap<>();
+        answers.put("registerEvents", args -> {
+            events.registerEvents((Listener) args[0]);
+            return null;
+        });
+        answers.put("registerEvent", args -> {
+            @SuppressWarnings("unchecked")
+            Class<? extends Event> eventType = (Class<? extends Event>) args[0];
+            boolean ignoreCancelled = args.length > 5 && (Boolean) args[5];
+            events.register(eventType, (Listener) args[1], (EventPriority) args[2], ignoreCancelled, (EventExecutor) args[3]);
+            return null;
+        });
+        answers.put("callEvent", args -> {
+            events.call((Event) args[0]);
+            return null;
+        });
+        return Stubs.create(PluginManager.class, answers);
+    }
+}
@@ -0,0 +1,73 @@
+package org.gw.optimizationlagmanager.benchmarks;
+
+import java.util.Arrays;
+
+// Гистограмма задержек фиксированного размера: 16 делений на каждую степень двойки, погрешность до 1/16.
+// Память не растёт с числом событий, поэтому не искажает замер удержанной кучи
+final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[64 << SUB_BUCKET_BITS];
+    private long count = 0L;
+    private long totalNanos = 0L;
+    private long maxNanos = 0L;
+
+    void record(long nanos) {
+        if (nanos < 0L) nanos = 0L;
+        counts[index(nanos)]++;
+        count++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) maxNanos = nanos;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    long getTotalNanos() {
+        return totalNanos;
+    }
+
+    long getMaxNanos() {
+        return maxNanos;
+    }
+
+    double getMeanNanos() {
+        return count == 0L ? 0.0 : (double) totalNanos / count;
+    }
+
+    // Верхняя граница деления, в которое попал перцентиль
+    long getPercentileNanos(double percentile) {
+        if (count == 0L) return 0L;
+        long target = Math.max(1L, (long) Math.ceil(percentile * count));
+        long seen = 0L;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) return Math.min(upperBound(i), maxNanos);
+        }
+        return maxNanos;
+    }
+
+    void reset() {
+        Arrays.fill(counts, 0L);
+        count = 0L;
+        totalNanos = 0L;
+        maxNanos = 0L;
+    }
+
+    private static int index(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) | subBucket;
+    }
+
+    private static long upperBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exponent = (index >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+        int subBucket = index & (SUB_BUCKETS - 1);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((long) (SUB_BUCKETS + subBucket) << shift) + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,84 @@
+package org.gw.optimizationlagmanager.benchmarks;
+
+import org.gw.optimizationlagmanager.managers.ConfigManager;
+import org.gw.optimizationlagmanager.utils.HexColors;
+import org.gw.optimizationlagmanager.utils.MessageTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MessagesBenchmark {
+    private static final String HEX_MESSAGE = "&#FFFF00◆ &#FFF700O&#FFF300p&#FFEF00t&#FFEB00i&#FFE800m&#FFE400i&#FFE000z&#FFDC00a&#FFD800t&#FFD400i&#FFD000o&#FFCC00n &f| &fПлагин &#FFFF00успешно &fперезагружен!";
+    private static final String LEGACY_MESSAGE = "&fЛаг-машины: &eОтключены &7(&c{count}&7)";
+    private static final MessageTemplate.Placeholders LAG_MACHINE_PLACEHOLDERS = new MessageTemplate.Placeholders("world", "x", "y", "z", "count", "type");
+    private static final Object[] LAG_MACHINE_VALUES = {"world", 128, 64, -256, 3, "редстоун/стойки для брони"};
+
+    private ConfigManager configManager;
+
+    @Setup(Level.Trial)
+    public void setUp(PluginState pluginState) {
+        this.configManager = pluginState.getPlugin().getConfigManager();
+    }
+
+    @Benchmark
+    public List<String> getMessagesSingle() {
+        return configManager.getMessages("no-permission");
+    }
+
+    @Benchmark
+    public List<String> getMessagesList() {
+        return configManager.getMessages("alerts.lag-machine-detected");
+    }
+
+    @Benchmark
+    public int renderLagMachineAlert() {
+        int length = 0;
+        for (MessageTemplate template : configManager.getMessageTemplates("alerts.lag-machine-detected")) {
+            length += template.render(LAG_MACHINE_PLACEHOLDERS, LAG_MACHINE_VALUES).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int replaceLagMachineAlert() {
+        int length = 0;
+        for (String message : configManager.getMessages("alerts.lag-machine-detected")) {
+            length += message
+                    .replace("{world}", "world")
+                    .replace("{x}", "128")
+                    .replace("{y}", "64")
+                    .replace("{z}", "-256")
+                    .replace("{count}", "3")
+                    .replace("{type}", "редстоун/стойки для брони")
+                    .length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public String translateHex() {
+        return HexColors.translate(HEX_MESSAGE);
+    }
+
+    @Benchmark
+    public String translateLegacy() {
+        return HexColors.translate(LEGACY_MESSAGE);
+    }
+}
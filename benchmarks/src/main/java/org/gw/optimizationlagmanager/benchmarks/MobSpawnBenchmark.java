@@ -0,0 +1,58 @@
+package org.gw.optimizationlagmanager.benchmarks;
+
+import org.bukkit.entity.EntityType;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.gw.optimizationlagmanager.managers.MobSpawnManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MobSpawnBenchmark {
+    private static final int SPAWNS = 256;
+
+    @Param({"NATURAL", "SPAWNER"})
+    public String spawnReason;
+
+    private MobSpawnManager mobSpawnManager;
+    private CreatureSpawnEvent[] events;
+    private int cursor = 0;
+
+    @Setup(Level.Trial)
+    public void setUp(PluginState pluginState) {
+        this.mobSpawnManager = pluginState.getPlugin().getMobSpawnManager();
+        StubWorld world = pluginState.getWorld();
+        CreatureSpawnEvent.SpawnReason reason = CreatureSpawnEvent.SpawnReason.valueOf(spawnReason);
+        Random random = new Random(42);
+        int span = world.getSize() << 4;
+        events = new CreatureSpawnEvent[SPAWNS];
+        for (int i = 0; i < SPAWNS; i++) {
+            events[i] = new CreatureSpawnEvent(world.livingEntity(EntityType.ZOMBIE, random.nextInt(span) + 0.5, 64.0, random.nextInt(span) + 0.5), reason);
+        }
+    }
+
+    @Benchmark
+    public boolean onCreatureSpawn() {
+        CreatureSpawnEvent event = events[cursor++ & (SPAWNS - 1)];
+        event.setCancelled(false);
+        mobSpawnManager.onCreatureSpawn(event);
+        return event.isCancelled();
+    }
+}
@@ -0,0 +1,64 @@
+package org.gw.optimizationlagmanager.benchmarks;
+
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.event.block.BlockPhysicsEvent;
+import org.gw.optimizationlagmanager.managers.PhysicsManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PhysicsBenchmark {
+    private static final int BLOCKS = 1024;
+    private static final int UPDATES_PER_TICK = 512;
+    // Примерная смесь обновлений физики: в основном обычные блоки и жидкости, немного песка, люков и редстоуна
+    private static final Material[] MATERIALS = {
+            Material.STONE, Material.GRASS_BLOCK, Material.WATER, Material.STONE, Material.LAVA, Material.SAND,
+            Material.OAK_TRAPDOOR, Material.REDSTONE_WIRE
+    };
+
+    private PluginState pluginState;
+    private PhysicsManager physicsManager;
+    private BlockPhysicsEvent[] events;
+    private int cursor = 0;
+
+    @Setup(Level.Trial)
+    public void setUp(PluginState pluginState) {
+        this.pluginState = pluginState;
+        this.physicsManager = pluginState.getPlugin().getPhysicsManager();
+        StubWorld world = pluginState.getWorld();
+        BlockData blockData = Stubs.create(BlockData.class);
+        Random random = new Random(42);
+        int span = world.getSize() << 4;
+        events = new BlockPhysicsEvent[BLOCKS];
+        for (int i = 0; i < BLOCKS; i++) {
+            events[i] = new BlockPhysicsEvent(world.block(random.nextInt(span), 64, random.nextInt(span), MATERIALS[i % MATERIALS.length]), blockData);
+        }
+    }
+
+    @Benchmark
+    public boolean onBlockPhysics() {
+        if (++cursor % UPDATES_PER_TICK == 0) pluginState.nextTick();
+        BlockPhysicsEvent event = events[cursor & (BLOCKS - 1)];
+        event.setCancelled(false);
+        physicsManager.onBlockPhysics(event);
+        return event.isCancelled();
+    }
+}
@@ -0,0 +1,54 @@
+package org.gw.optimizationlagmanager.benchmarks;
+
+import com.destroystokyo.paper.event.server.ServerTickStartEvent;
+import org.gw.optimizationlagmanager.OptimizationLagManager;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+// Плагин, включённый на сервере-заглушке; таймеры Bukkit не выполняются, тики двигаются вручную через nextTick()
+@State(Scope.Benchmark)
+public class PluginState {
+    private StubWorld world;
+    private OptimizationLagManager plugin;
+    private File dataFolder;
+    private int tick = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkServer server = BenchmarkServer.get();
+        world = server.getWorld();
+        dataFolder = Files.createTempDirectory("olm-benchmark").toFile();
+        plugin = server.enablePlugin(dataFolder);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        plugin.onDisable();
+        try (Stream<Path> paths = Files.walk(dataFolder.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    public OptimizationLagManager getPlugin() {
+        return plugin;
+    }
+
+    StubWorld getWorld() {
+        return world;
+    }
+
+    // Без смены тика оконные счётчики копят события бесконечно, и бенчмарк меряет только ветку отказа
+    public void nextTick() {
+        plugin.getTickMonitor().onTickStart(new ServerTickStartEvent(++tick));
+    }
+}
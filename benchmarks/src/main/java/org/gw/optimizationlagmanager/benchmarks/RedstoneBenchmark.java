@@ -0,0 +1,78 @@
+package org.gw.optimizationlagmanager.benchmarks;
+
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.event.block.BlockRedstoneEvent;
+import org.gw.optimizationlagmanager.managers.RedstoneManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RedstoneBenchmark {
+    private static final int BLOCKS = 1024;
+    private static final int UPDATES_PER_TICK = 256;
+    private static final Material[] COMPONENTS = {Material.REDSTONE_WIRE, Material.REPEATER, Material.COMPARATOR, Material.REDSTONE_TORCH};
+
+    private PluginState pluginState;
+    private RedstoneManager redstoneManager;
+    private BlockRedstoneEvent[] events;
+    private Block[] blocks;
+    private Chunk[] chunks;
+    private int cursor = 0;
+
+    @Setup(Level.Trial)
+    public void setUp(PluginState pluginState) {
+        this.pluginState = pluginState;
+        this.redstoneManager = pluginState.getPlugin().getRedstoneManager();
+        StubWorld world = pluginState.getWorld();
+        Random random = new Random(42);
+        int span = world.getSize() << 4;
+        events = new BlockRedstoneEvent[BLOCKS];
+        blocks = new Block[BLOCKS];
+        chunks = new Chunk[BLOCKS];
+        for (int i = 0; i < BLOCKS; i++) {
+            Block block = world.block(random.nextInt(span), 64, random.nextInt(span), COMPONENTS[i % COMPONENTS.length]);
+            blocks[i] = block;
+            chunks[i] = block.getChunk();
+            events[i] = new BlockRedstoneEvent(block, 0, 15);
+        }
+    }
+
+    @Benchmark
+    public int onRedstone() {
+        int index = next();
+        BlockRedstoneEvent event = events[index];
+        event.setNewCurrent(15);
+        redstoneManager.onRedstone(event);
+        return event.getNewCurrent();
+    }
+
+    @Benchmark
+    public boolean allowRedstoneUpdate() {
+        int index = next();
+        return redstoneManager.allowRedstoneUpdate(chunks[index], blocks[index]);
+    }
+
+    private int next() {
+        if (++cursor % UPDATES_PER_TICK == 0) pluginState.nextTick();
+        return cursor & (BLOCKS - 1);
+    }
+}
@@ -0,0 +1,65 @@
+package org.gw.optimizationlagmanager.benchmarks;
+
+// Сценарий нагрузки: setUp строит постройки в мирах, tick генерирует события одного тика.
+// Пороги задают, при каких результатах прогон считается проваленным
+abstract class Scenario {
+    private final String name;
+    private final String description;
+    private long minEventsPerSecond = 20_000L;
+    private long maxP99Micros = 1_000L;
+    private int maxPendingGrowth = 256;
+    private long maxRetainedKilobytes = 16L * 1024L;
+
+    Scenario(String name, String description) {
+        this.name = name;
+        this.description = description;
+    }
+
+    abstract void setUp(Simulation simulation);
+
+    abstract void tick(Simulation simulation, int tick);
+
+    String getName() {
+        return name;
+    }
+
+    String getDescription() {
+        return description;
+    }
+
+    long getMinEventsPerSecond() {
+        return minEventsPerSecond;
+    }
+
+    long getMaxP99Micros() {
+        return maxP99Micros;
+    }
+
+    int getMaxPendingGrowth() {
+        return maxPendingGrowth;
+    }
+
+    long getMaxRetainedKilobytes() {
+        return maxRetainedKilobytes;
+    }
+
+    Scenario minEventsPerSecond(long minEventsPerSecond) {
+        this.minEventsPerSecond = minEventsPerSecond;
+        return this;
+    }
+
+    Scenario maxP99Micros(long maxP99Micros) {
+        this.maxP99Micros = maxP99Micros;
+        return this;
+    }
+
+    Scenario maxPendingGrowth(int maxPendingGrowth) {
+        this.maxPendingGrowth = maxPendingGrowth;
+        return this;
+    }
+
+    Scenario maxRetainedKilobytes(long maxRetainedKilobytes) {
+        this.maxRetainedKilobytes = maxRetainedKilobytes;
+        return this;
+    }
+}
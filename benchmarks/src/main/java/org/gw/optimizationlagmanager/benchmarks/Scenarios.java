@@ -0,0 +1,411 @@
+package org.gw.optimizationlagmanager.benchmarks;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockPhysicsEvent;
+import org.bukkit.event.block.BlockRedstoneEvent;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.InventoryView;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Сценарии нагрузки: типичные лаг-машины в нескольких чанках каждого мира на фоне обычной активности
+final class Scenarios {
+    private Scenarios() {
+    }
+
+    static List<Scenario> all() {
+        return Arrays.asList(
+                new RedstoneClock(),
+                new SandDuper(),
+                new MobFarm(),
+                new HopperFarm(),
+                new TeleportStorm(),
+                new Mixed(new RedstoneClock(), new SandDuper(), new MobFarm(), new HopperFarm(), new TeleportStorm()));
+    }
+
+    // Случайный чанк мира, не ближе двух чанков к краю, чтобы соседние чанки тоже были загружены
+    private static int[] randomChunk(StubWorld world, Random random) {
+        int margin = Math.min(2, world.getSize() / 4);
+        int span = Math.max(1, world.getSize() - margin * 2);
+        return new int[]{margin + random.nextInt(span), margin + random.nextInt(span)};
+    }
+
+    private static Block randomBlock(Simulation simulation, Material type) {
+        Random random = simulation.getRandom();
+        StubWorld world = simulation.getWorlds().get(random.nextInt(simulation.getWorlds().size()));
+        int span = world.getSize() << 4;
+        return world.block(random.nextInt(span), 64, random.nextInt(span), type);
+    }
+
+    // Часы из повторителей с факелом и линией пыли: каждый компонент переключается каждый тик
+    static final class RedstoneClock extends Scenario {
+        private static final int CLOCKS_PER_WORLD = 4;
+        private static final int BACKGROUND_PER_TICK = 16;
+
+        private final List<Block> components = new ArrayList<>();
+        private final List<Material> types = new ArrayList<>();
+        private final List<Block> background = new ArrayList<>();
+
+        RedstoneClock() {
+            super("redstone-clock", "Редстоун-часы в нескольких чанках каждого мира");
+        }
+
+        @Override
+        void setUp(Simulation simulation) {
+            components.clear();
+            types.clear();
+            background.clear();
+            for (StubWorld world : simulation.getWorlds()) {
+                for (int i = 0; i < CLOCKS_PER_WORLD; i++) {
+                    int[] chunk = randomChunk(world, simulation.getRandom());
+                    int baseX = chunk[0] << 4;
+                    int baseZ = chunk[1] << 4;
+                    place(world, baseX + 4, baseZ + 4, Material.REPEATER);
+                    place(world, baseX + 5, baseZ + 4, Material.REPEATER);
+                    place(world, baseX + 5, baseZ + 5, Material.REPEATER);
+                    place(world, baseX + 4, baseZ + 5, Material.REDSTONE_TORCH);
+                    for (int x = 0; x < 8; x++) {
+                        place(world, baseX + 6 + x, baseZ + 5, Material.REDSTONE_WIRE);
+                    }
+                    place(world, baseX + 14, baseZ + 6, Material.COMPARATOR);
+                }
+            }
+            for (int i = 0; i < 256; i++) {
+                background.add(randomBlock(simulation, Material.REDSTONE_WIRE));
+            }
+        }
+
+        @Override
+        void tick(Simulation simulation, int tick) {
+            int current = (tick & 1) == 0 ? 15 : 0;
+            for (int i = 0; i < components.size(); i++) {
+                Block block = components.get(i);
+                // Сломанные плагином часы больше не тикают, как и на настоящем сервере
+                if (block.getType() != types.get(i)) continue;
+                simulation.fire(new BlockRedstoneEvent(block, 15 - current, current));
+            }
+            Random random = simulation.getRandom();
+            for (int i = 0; i < BACKGROUND_PER_TICK; i++) {
+                Block block = background.get(random.nextInt(background.size()));
+                if (block.getType() == Material.REDSTONE_WIRE) {
+                    simulation.fire(new BlockRedstoneEvent(block, 0, random.nextInt(16)));
+                }
+            }
+        }
+
+        private void place(StubWorld world, int x, int z, Material type) {
+            components.add(world.block(x, 64, z, type));
+            types.add(type);
+        }
+    }
+
+    // Дюпер песка: столбы песка и люки дёргают физику каждый тик, падающий песок превращается в сущности
+    static final class SandDuper extends Scenario {
+        private static final int DUPERS_PER_WORLD = 4;
+        private static final int FALLING_LIFETIME_TICKS = 40;
+        private static final int BACKGROUND_PER_TICK = 32;
+        private static final Material[] BACKGROUND = {Material.STONE, Material.GRASS_BLOCK, Material.WATER, Material.LAVA};
+
+        private final List<Block> sources = new ArrayList<>();
+        private final List<Block> background = new ArrayList<>();
+        private final ArrayDeque<Object[]> falling = new ArrayDeque<>();
+        private BlockData blockData;
+
+        SandDuper() {
+            super("sand-duper", "Дюперы песка с люками и падающими блоками");
+        }
+
+        @Override
+        void setUp(Simulation simulation) {
+            sources.clear();
+            background.clear();
+            falling.clear();
+            blockData = Stubs.create(BlockData.class);
+            for (StubWorld world : simulation.getWorlds()) {
+                for (int i = 0; i < DUPERS_PER_WORLD; i++) {
+                    int[] chunk = randomChunk(world, simulation.getRandom());
+                    int baseX = (chunk[0] << 4) + 8;
+                    int baseZ = (chunk[1] << 4) + 8;
+                    for (int y = 64; y < 72; y++) {
+                        sources.add(world.block(baseX, y, baseZ, Material.SAND));
+                    }
+                    for (BlockFace face : new BlockFace[]{BlockFace.NORTH, BlockFace.SOUTH, BlockFace.EAST, BlockFace.WEST}) {
+                        sources.add(world.block(baseX + face.getModX(), 64, baseZ + face.getModZ(), Material.OAK_TRAPDOOR));
+                    }
+                }
+            }
+            Random random = simulation.getRandom();
+            for (int i = 0; i < 512; i++) {
+                background.add(randomBlock(simulation, BACKGROUND[random.nextInt(BACKGROUND.length)]));
+            }
+        }
+
+        @Override
+        void tick(Simulation simulation, int tick) {
+            while (!falling.isEmpty() && (Integer) falling.peek()[1] <= tick) {
+                ((Entity) falling.poll()[0]).remove();
+            }
+            for (Block block : sources) {
+                Material type = block.getType();
+                if (type == Material.AIR) continue;
+                simulation.fire(new BlockPhysicsEvent(block, blockData));
+                if (type == Material.SAND && (tick & 1) == 0 && block.getY() == 64) {
+                    StubWorld world = simulation.getServer().getWorld(block.getWorld());
+                    LivingEntity entity = world.spawn(EntityType.FALLING_BLOCK, block.getX() + 0.5, block.getY(), block.getZ() + 0.5);
+                    falling.add(new Object[]{entity, tick + FALLING_LIFETIME_TICKS});
+                    simulation.fire(new EntityChangeBlockEvent(entity, block, blockData));
+                }
+            }
+            Random random = simulation.getRandom();
+            for (int i = 0; i < BACKGROUND_PER_TICK; i++) {
+                simulation.fire(new BlockPhysicsEvent(background.get(random.nextInt(background.size())), blockData));
+            }
+        }
+    }
+
+    // Ферма мобов на спавнерах плюс естественный спавн по миру; мобы живут ограниченное время
+    static final class MobFarm extends Scenario {
+        private static final int FARMS_PER_WORLD = 3;
+        private static final int SPAWNS_PER_FARM = 4;
+        private static final int NATURAL_PER_TICK = 8;
+        private static final int MOB_LIFETIME_TICKS = 300;
+        private static final EntityType[] FARM_MOBS = {EntityType.ZOMBIE, EntityType.SKELETON};
+        private static final EntityType[] NATURAL_MOBS = {EntityType.ZOMBIE, EntityType.CREEPER, EntityType.COW, EntityType.SHEEP};
+
+        private final List<Location> farms = new ArrayList<>();
+        private final ArrayDeque<Object[]> alive = new ArrayDeque<>();
+
+        MobFarm() {
+            super("mob-farm", "Фермы мобов на спавнерах и естественный спавн");
+        }
+
+        @Override
+        void setUp(Simulation simulation) {
+            farms.clear();
+            alive.clear();
+            for (StubWorld world : simulation.getWorlds()) {
+                for (int i = 0; i < FARMS_PER_WORLD; i++) {
+                    int[] chunk = randomChunk(world, simulation.getRandom());
+                    Block spawner = world.block((chunk[0] << 4) + 8, 64, (chunk[1] << 4) + 8, Material.SPAWNER);
+                    farms.add(spawner.getLocation());
+                }
+            }
+        }
+
+        @Override
+        void tick(Simulation simulation, int tick) {
+            while (!alive.isEmpty() && (Integer) alive.peek()[1] <= tick) {
+                ((Entity) alive.poll()[0]).remove();
+            }
+            Random random = simulation.getRandom();
+            for (Location farm : farms) {
+                StubWorld world = simulation.getServer().getWorld(farm.getWorld());
+                for (int i = 0; i < SPAWNS_PER_FARM; i++) {
+                    spawn(simulation, world, FARM_MOBS[random.nextInt(FARM_MOBS.length)],
+                            farm.getX() + random.nextInt(9) - 4 + 0.5, farm.getY(), farm.getZ() + random.nextInt(9) - 4 + 0.5,
+                            CreatureSpawnEvent.SpawnReason.SPAWNER, tick);
+                }
+            }
+            for (int i = 0; i < NATURAL_PER_TICK; i++) {
+                StubWorld world = simulation.getWorlds().get(random.nextInt(simulation.getWorlds().size()));
+                int span = world.getSize() << 4;
+                spawn(simulation, world, NATURAL_MOBS[random.nextInt(NATURAL_MOBS.length)],
+                        random.nextInt(span) + 0.5, 64.0, random.nextInt(span) + 0.5, CreatureSpawnEvent.SpawnReason.NATURAL, tick);
+            }
+        }
+
+        private void spawn(Simulation simulation, StubWorld world, EntityType type, double x, double y, double z,
+                           CreatureSpawnEvent.SpawnReason reason, int tick) {
+            LivingEntity entity = world.livingEntity(type, x, y, z);
+            CreatureSpawnEvent event = simulation.fire(new CreatureSpawnEvent(entity, reason));
+            if (event.isCancelled()) return;
+            world.addEntity(entity);
+            alive.add(new Object[]{entity, tick + MOB_LIFETIME_TICKS});
+        }
+    }
+
+    // Игроки у складов с воронками и сундуками постоянно открывают контейнеры
+    static final class HopperFarm extends Scenario {
+        private static final int FARMS_PER_WORLD = 4;
+        private static final int CONTAINERS_PER_FARM = 16;
+
+        private final List<List<Inventory>> farms = new ArrayList<>();
+        private final List<Block> farmBlocks = new ArrayList<>();
+        private final Map<Player, Integer> assignments = new HashMap<>();
+
+        HopperFarm() {
+            super("hopper-farm", "Склады с воронками и сундуками, которые игроки открывают каждый тик");
+        }
+
+        @Override
+        void setUp(Simulation simulation) {
+            farms.clear();
+            farmBlocks.clear();
+            assignments.clear();
+            for (StubWorld world : simulation.getWorlds()) {
+                for (int i = 0; i < FARMS_PER_WORLD; i++) {
+                    int[] chunk = randomChunk(world, simulation.getRandom());
+                    List<Inventory> containers = new ArrayList<>();
+                    for (int c = 0; c < CONTAINERS_PER_FARM; c++) {
+                        Material type = (c & 1) == 0 ? Material.HOPPER : Material.CHEST;
+                        Block block = world.block((chunk[0] << 4) + (c & 3) * 2, 64, (chunk[1] << 4) + (c >> 2) * 2, type);
+                        containers.add(inventory(block, type == Material.HOPPER ? InventoryType.HOPPER : InventoryType.CHEST));
+                        farmBlocks.add(block);
+                    }
+                    farms.add(containers);
+                }
+            }
+            // Игроки переходят к складам своего мира и дальше стоят там
+            List<Player> players = simulation.getPlayers();
+            for (int i = 0; i < players.size(); i++) {
+                Player player = players.get(i);
+                int farm = pickFarm(simulation, player, i);
+                assignments.put(player, farm);
+                Location location = farmBlocks.get(farm * CONTAINERS_PER_FARM).getLocation().add(0.5, 1.0, 0.5);
+                simulation.getServer().movePlayer(player, location);
+            }
+        }
+
+        @Override
+        void tick(Simulation simulation, int tick) {
+            Random random = simulation.getRandom();
+            for (Player player : simulation.getPlayers()) {
+                if (random.nextInt(4) != 0) continue;
+                Integer farm = assignments.get(player);
+                if (farm == null) continue;
+                int index = random.nextInt(CONTAINERS_PER_FARM);
+                Block block = farmBlocks.get(farm * CONTAINERS_PER_FARM + index);
+                PlayerInteractEvent interact = simulation.fire(new PlayerInteractEvent(player, Action.RIGHT_CLICK_BLOCK, null, block, BlockFace.UP));
+                if (interact.isCancelled()) continue;
+                simulation.fire(new InventoryOpenEvent(view(player, farms.get(farm).get(index))));
+            }
+        }
+
+        private int pickFarm(Simulation simulation, Player player, int index) {
+            int worldIndex = simulation.getWorlds().indexOf(simulation.getServer().getWorld(player.getWorld()));
+            return worldIndex * FARMS_PER_WORLD + index % FARMS_PER_WORLD;
+        }
+
+        private static Inventory inventory(Block block, InventoryType type) {
+            Inventory[] inventory = new Inventory[1];
+            Map<String, Stubs.Answer> holderAnswers = new HashMap<>();
+            holderAnswers.put("getInventory", args -> inventory[0]);
+            InventoryHolder holder = Stubs.create(InventoryHolder.class, holderAnswers);
+            Location location = block.getLocation();
+            Map<String, Stubs.Answer> answers = new HashMap<>();
+            answers.put("getHolder", args -> holder);
+            answers.put("getLocation", args -> location.clone());
+            answers.put("getType", args -> type);
+            answers.put("getSize", args -> type.getDefaultSize());
+            inventory[0] = Stubs.create(Inventory.class, answers);
+            return inventory[0];
+        }
+
+        private static InventoryView view(Player player, Inventory top) {
+            Inventory bottom = Stubs.create(Inventory.class);
+            return new InventoryView() {
+                @Override
+                public Inventory getTopInventory() {
+                    return top;
+                }
+
+                @Override
+                public Inventory getBottomInventory() {
+                    return bottom;
+                }
+
+                @Override
+                public HumanEntity getPlayer() {
+                    return player;
+                }
+
+                @Override
+                public InventoryType getType() {
+                    return top.getType();
+                }
+
+                @Override
+                public String getTitle() {
+                    return top.getType().getDefaultTitle();
+                }
+            };
+        }
+    }
+
+    // Игроки массово телепортируются по мирам, цель телепортации догружается
+    static final class TeleportStorm extends Scenario {
+        TeleportStorm() {
+            super("teleport-storm", "Массовые телепортации игроков между мирами");
+        }
+
+        @Override
+        void setUp(Simulation simulation) {
+        }
+
+        @Override
+        void tick(Simulation simulation, int tick) {
+            List<Player> players = simulation.getPlayers();
+            if (players.isEmpty()) return;
+            Random random = simulation.getRandom();
+            int teleports = Math.max(1, players.size() / 10);
+            for (int i = 0; i < teleports; i++) {
+                Player player = players.get(random.nextInt(players.size()));
+                StubWorld world = simulation.getWorlds().get(random.nextInt(simulation.getWorlds().size()));
+                int span = world.getSize() << 4;
+                Location to = new Location(world.getWorld(), random.nextInt(span) + 0.5, 64.0, random.nextInt(span) + 0.5);
+                PlayerTeleportEvent event = simulation.fire(new PlayerTeleportEvent(player, player.getLocation(), to, PlayerTeleportEvent.TeleportCause.COMMAND));
+                if (event.isCancelled()) continue;
+                simulation.getServer().movePlayer(player, event.getTo());
+                simulation.fire(new ChunkLoadEvent(world.chunk(to.getBlockX() >> 4, to.getBlockZ() >> 4), false));
+            }
+        }
+    }
+
+    // Все сценарии одновременно, каждый в своих чанках
+    static final class Mixed extends Scenario {
+        private final List<Scenario> parts;
+
+        Mixed(Scenario... parts) {
+            super("mixed", "Все лаг-машины и телепортации одновременно");
+            this.parts = Arrays.asList(parts);
+        }
+
+        @Override
+        void setUp(Simulation simulation) {
+            for (Scenario part : parts) {
+                part.setUp(simulation);
+            }
+        }
+
+        @Override
+        void tick(Simulation simulation, int tick) {
+            for (Scenario part : parts) {
+                part.tick(simulation, tick);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.gw.optimizationlagmanager.benchmarks;
+
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Шина событий сервера-заглушки: собирает обработчики из registerEvents и registerEvent и вызывает их
+// по приоритетам с учётом ignoreCancelled, как это делает сервер
+final class SimulatedEvents {
+    private static final Logger LOGGER = Logger.getLogger("OptimizationLagManager-Simulation");
+    private static final Handler[] NO_HANDLERS = new Handler[0];
+
+    private final List<Handler> handlers = new ArrayList<>();
+    private final Map<Class<?>, Handler[]> handlersByEvent = new HashMap<>();
+    private int errors = 0;
+
+    private static final class Handler {
+        final Class<?> eventType;
+        final Listener listener;
+        final EventPriority priority;
+        final boolean ignoreCancelled;
+        final EventExecutor executor;
+
+        Handler(Class<?> eventType, Listener listener, EventPriority priority, boolean ignoreCancelled, EventExecutor executor) {
+            this.eventType = eventType;
+            this.listener = listener;
+            this.priority = priority;
+            this.ignoreCancelled = ignoreCancelled;
+            this.executor = executor;
+        }
+    }
+
+    void registerEvents(Listener listener) {
+        for (Method method : listener.getClass().getMethods()) {
+            EventHandler annotation = method.getAnnotation(EventHandler.class);
+            if (annotation == null || method.getParameterCount() != 1 || !Event.class.isAssignableFrom(method.getParameterTypes()[0])) continue;
+            method.setAccessible(true);
+            register(method.getParameterTypes()[0], listener, annotation.priority(), annotation.ignoreCancelled(), (target, event) -> {
+                try {
+                    method.invoke(target, event);
+                } catch (InvocationTargetException e) {
+                    throw new EventException(e.getCause());
+                } catch (IllegalAccessException e) {
+                    throw new EventException(e);
+                }
+            });
+        }
+    }
+
+    void register(Class<?> eventType, Listener listener, EventPriority priority, boolean ignoreCancelled, EventExecutor executor) {
+        handlers.add(new Handler(eventType, listener, priority, ignoreCancelled, executor));
+        handlersByEvent.clear();
+    }
+
+    void call(Event event) {
+        for (Handler handler : handlersFor(event.getClass())) {
+            if (handler.ignoreCancelled && event instanceof Cancellable && ((Cancellable) event).isCancelled()) continue;
+            try {
+                handler.executor.execute(handler.listener, event);
+            } catch (Throwable e) {
+                errors++;
+                Throwable cause = e instanceof EventException && e.getCause() != null ? e.getCause() : e;
+                LOGGER.log(Level.SEVERE, "Обработчик " + handler.listener.getClass().getSimpleName() + " упал на " + event.getClass().getSimpleName(), cause);
+            }
+        }
+    }
+
+    int getErrorCount() {
+        return errors;
+    }
+
+    void clear() {
+        handlers.clear();
+        handlersByEvent.clear();
+        errors = 0;
+    }
+
+    private Handler[] handlersFor(Class<?> eventClass) {
+        Handler[] cached = handlersByEvent.get(eventClass);
+        if (cached != null) return cached;
+        List<Handler> matching = new ArrayList<>();
+        for (Handler handler : handlers) {
+            if (handler.eventType.isAssignableFrom(eventClass)) matching.add(handler);
+        }
+        matching.sort(Comparator.comparingInt(handler -> handler.priority.ordinal()));
+        Handler[] resolved = matching.isEmpty() ? NO_HANDLERS : matching.toArray(NO_HANDLERS);
+        handlersByEvent.put(eventClass, resolved);
+        return resolved;
+    }
+}
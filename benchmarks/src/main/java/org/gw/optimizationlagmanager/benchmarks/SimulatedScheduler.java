@@ -0,0 +1,171 @@
+package org.gw.optimizationlagmanager.benchmarks;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Планировщик сервера-заглушки: задачи выполняются в runTick по номерам тиков. Асинхронные задачи тоже выполняются
+// в основном потоке, чтобы прогон был воспроизводимым; потоки анализа чанков плагин заводит сам
+final class SimulatedScheduler {
+    private static final Logger LOGGER = Logger.getLogger("OptimizationLagManager-Simulation");
+
+    private final BukkitScheduler scheduler;
+    private final PriorityQueue<Task> queue = new PriorityQueue<>((a, b) -> a.nextRun != b.nextRun
+            ? Integer.compare(a.nextRun, b.nextRun) : Integer.compare(a.id, b.id));
+    private final Map<Integer, Task> tasks = new HashMap<>();
+    private final Queue<Runnable> mainThreadCommands = new ConcurrentLinkedQueue<>();
+    private int nextId = 1;
+    private int currentTick = 0;
+    private long executed = 0L;
+    private int errors = 0;
+
+    private final class Task {
+        final int id;
+        final Plugin owner;
+        final Consumer<BukkitTask> body;
+        final boolean sync;
+        final long period;
+        final BukkitTask handle;
+        int nextRun;
+        boolean cancelled = false;
+
+        Task(int id, Plugin owner, Consumer<BukkitTask> body, boolean sync, long delay, long period) {
+            this.id = id;
+            this.owner = owner;
+            this.body = body;
+            this.sync = sync;
+            this.period = period;
+            this.nextRun = currentTick + (int) Math.max(1L, delay);
+            Map<String, Stubs.Answer> answers = new HashMap<>();
+            answers.put("getTaskId", args -> id);
+            answers.put("getOwner", args -> owner);
+            answers.put("isSync", args -> sync);
+            answers.put("isCancelled", args -> cancelled);
+            answers.put("cancel", args -> {
+                cancel(id);
+                return null;
+            });
+            this.handle = Stubs.create(BukkitTask.class, answers);
+        }
+    }
+
+    SimulatedScheduler() {
+        Map<String, Stubs.Answer> answers = new HashMap<>();
+        answers.put("runTask", args -> schedule(args, true, 0L, -1L));
+        answers.put("runTaskAsynchronously", args -> schedule(args, false, 0L, -1L));
+        answers.put("runTaskLater", args -> schedule(args, true, (Long) args[2], -1L));
+        answers.put("runTaskLaterAsynchronously", args -> schedule(args, false, (Long) args[2], -1L));
+        answers.put("runTaskTimer", args -> schedule(args, true, (Long) args[2], (Long) args[3]));
+        answers.put("runTaskTimerAsynchronously", args -> schedule(args, false, (Long) args[2], (Long) args[3]));
+        answers.put("getMainThreadExecutor", args -> (Executor) mainThreadCommands::add);
+        answers.put("cancelTask", args -> {
+            cancel((Integer) args[0]);
+            return null;
+        });
+        answers.put("cancelTasks", args -> {
+            for (Task task : new ArrayList<>(tasks.values())) {
+                if (task.owner == args[0]) cancel(task.id);
+            }
+            return null;
+        });
+        answers.put("isQueued", args -> tasks.containsKey((Integer) args[0]));
+        answers.put("isCurrentlyRunning", args -> false);
+        answers.put("getPendingTasks", args -> {
+            List<BukkitTask> pending = new ArrayList<>(tasks.size());
+            for (Task task : tasks.values()) {
+                pending.add(task.handle);
+            }
+            return pending;
+        });
+        this.scheduler = Stubs.create(BukkitScheduler.class, answers);
+    }
+
+    BukkitScheduler getScheduler() {
+        return scheduler;
+    }
+
+    // Выполняет все задачи, срок которых наступил к этому тику; задачи, поставленные по ходу, попадут в следующие тики
+    void runTick(int tick) {
+        currentTick = tick;
+        Runnable command;
+        while ((command = mainThreadCommands.poll()) != null) {
+            Runnable next = command;
+            run(-1, task -> next.run(), null);
+        }
+        Task task;
+        while ((task = queue.peek()) != null && task.nextRun <= tick) {
+            queue.poll();
+            if (task.cancelled) continue;
+            run(task.id, task.body, task.handle);
+            if (task.cancelled) continue;
+            if (task.period > 0) {
+                task.nextRun = tick + (int) task.period;
+                queue.add(task);
+            } else {
+                tasks.remove(task.id);
+            }
+        }
+    }
+
+    int getPendingCount() {
+        return tasks.size() + mainThreadCommands.size();
+    }
+
+    long getExecutedCount() {
+        return executed;
+    }
+
+    int getErrorCount() {
+        return errors;
+    }
+
+    void clear() {
+        queue.clear();
+        tasks.clear();
+        mainThreadCommands.clear();
+        executed = 0L;
+        errors = 0;
+    }
+
+    private void run(int id, Consumer<BukkitTask> body, BukkitTask handle) {
+        try {
+            body.accept(handle);
+            executed++;
+        } catch (Throwable e) {
+            errors++;
+            LOGGER.log(Level.SEVERE, id < 0 ? "Задача основного потока завершилась с ошибкой" : "Задача #" + id + " завершилась с ошибкой", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private BukkitTask schedule(Object[] args, boolean sync, long delay, long period) {
+        Consumer<BukkitTask> body = args[1] instanceof Runnable
+                ? task -> ((Runnable) args[1]).run()
+                : (Consumer<BukkitTask>) args[1];
+        return submit((Plugin) args[0], body, sync, delay, period);
+    }
+
+    private BukkitTask submit(Plugin owner, Consumer<BukkitTask> body, boolean sync, long delay, long period) {
+        Task task = new Task(nextId++, owner, body, sync, delay, period);
+        tasks.put(task.id, task);
+        queue.add(task);
+        return task.handle;
+    }
+
+    private void cancel(int id) {
+        Task task = tasks.remove(id);
+        if (task != null) task.cancelled = true;
+    }
+}
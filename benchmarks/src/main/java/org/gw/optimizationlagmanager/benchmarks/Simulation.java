@@ -0,0 +1,249 @@
+package org.gw.optimizationlagmanager.benchmarks;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import com.destroystokyo.paper.event.server.ServerTickStartEvent;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.gw.optimizationlagmanager.OptimizationLagManager;
+import org.gw.optimizationlagmanager.managers.ChunkScanner;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.stream.Stream;
+
+// Прогоняет сценарии на сервере-заглушке с настоящим планировщиком тиков и шиной событий.
+// Первая пятая часть тиков прогревает плагин, замеры задержек, очередей и кучи берутся с остальных
+final class Simulation {
+    private static final long NANOS_PER_TICK = 50_000_000L;
+
+    private final BenchmarkServer server;
+    private final SimulatedScheduler scheduler;
+    private final SimulatedEvents events;
+    private final int playerCount;
+    private final int ticks;
+    private final Map<Class<?>, LatencyHistogram> latencies = new LinkedHashMap<>();
+    private final LatencyHistogram tickTimes = new LatencyHistogram();
+    private OptimizationLagManager plugin;
+    private Random random;
+    private int currentTick = 0;
+    private int severeLogs = 0;
+
+    static final class Result {
+        final Scenario scenario;
+        final List<String> lines = new ArrayList<>();
+        final List<String> failures = new ArrayList<>();
+
+        Result(Scenario scenario) {
+            this.scenario = scenario;
+        }
+
+        boolean isPassed() {
+            return failures.isEmpty();
+        }
+    }
+
+    Simulation(int worldCount, int worldSize, int playerCount, int ticks) {
+        this.scheduler = new SimulatedScheduler();
+        this.events = new SimulatedEvents();
+        this.server = BenchmarkServer.start(worldCount, worldSize, scheduler, events);
+        this.playerCount = playerCount;
+        this.ticks = ticks;
+    }
+
+    List<StubWorld> getWorlds() {
+        return server.getWorlds();
+    }
+
+    List<Player> getPlayers() {
+        return server.getPlayers();
+    }
+
+    BenchmarkServer getServer() {
+        return server;
+    }
+
+    OptimizationLagManager getPlugin() {
+        return plugin;
+    }
+
+    Random getRandom() {
+        return random;
+    }
+
+    // Вызывает обработчики плагина и записывает задержку под типом события
+    <T extends Event> T fire(T event) {
+        long startTime = System.nanoTime();
+        events.call(event);
+        long elapsed = System.nanoTime() - startTime;
+        LatencyHistogram histogram = latencies.get(event.getClass());
+        if (histogram == null) {
+            histogram = new LatencyHistogram();
+            latencies.put(event.getClass(), histogram);
+        }
+        histogram.record(elapsed);
+        return event;
+    }
+
+    Result run(Scenario scenario) throws Exception {
+        File dataFolder = Files.createTempDirectory("olm-simulation").toFile();
+        server.reset();
+        events.clear();
+        scheduler.clear();
+        latencies.clear();
+        tickTimes.reset();
+        severeLogs = 0;
+        random = new Random(42);
+
+        plugin = server.enablePlugin(dataFolder);
+        Handler severeCounter = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                if (record.getLevel().intValue() >= Level.SEVERE.intValue()) severeLogs++;
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        plugin.getLogger().addHandler(severeCounter);
+
+        Result result = new Result(scenario);
+        try {
+            for (int i = 0; i < playerCount; i++) {
+                StubWorld world = getWorlds().get(i % getWorlds().size());
+                int span = world.getSize() << 4;
+                server.addPlayer("Player" + i, world, random.nextInt(span) + 0.5, 64.0, random.nextInt(span) + 0.5);
+            }
+            scenario.setUp(this);
+
+            int warmupTicks = ticks / 5;
+            for (int i = 0; i < warmupTicks; i++) {
+                tick(scenario);
+            }
+            for (LatencyHistogram histogram : latencies.values()) {
+                histogram.reset();
+            }
+            tickTimes.reset();
+            long baselineHeap = retainedHeap();
+            int baselinePending = scheduler.getPendingCount();
+            int maxPending = baselinePending;
+
+            for (int i = warmupTicks; i < ticks; i++) {
+                tick(scenario);
+                maxPending = Math.max(maxPending, scheduler.getPendingCount());
+            }
+            int endPending = scheduler.getPendingCount();
+            long retainedKilobytes = (retainedHeap() - baselineHeap) / 1024L;
+
+            report(result, baselinePending, maxPending, endPending, retainedKilobytes);
+        } finally {
+            plugin.getLogger().removeHandler(severeCounter);
+            plugin.onDisable();
+            deleteRecursively(dataFolder);
+        }
+        return result;
+    }
+
+    private void tick(Scenario scenario) {
+        int tick = ++currentTick;
+        long startTime = System.nanoTime();
+        events.call(new ServerTickStartEvent(tick));
+        scheduler.runTick(tick);
+        scenario.tick(this, tick);
+        long elapsed = System.nanoTime() - startTime;
+        tickTimes.record(elapsed);
+        events.call(new ServerTickEndEvent(tick, elapsed / 1_000_000.0, Math.max(0L, NANOS_PER_TICK - elapsed)));
+    }
+
+    private void report(Result result, int baselinePending, int maxPending, int endPending, long retainedKilobytes) {
+        Scenario scenario = result.scenario;
+        long totalEvents = 0L;
+        long totalNanos = 0L;
+        long worstP99 = 0L;
+        for (Map.Entry<Class<?>, LatencyHistogram> entry : latencies.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            totalEvents += histogram.getCount();
+            totalNanos += histogram.getTotalNanos();
+            worstP99 = Math.max(worstP99, histogram.getPercentileNanos(0.99));
+            result.lines.add(String.format("%-24s событий: %8d  среднее: %8.2f мкс  p50: %8.2f мкс  p99: %8.2f мкс  макс: %9.2f мкс",
+                    entry.getKey().getSimpleName(), histogram.getCount(), histogram.getMeanNanos() / 1000.0,
+                    histogram.getPercentileNanos(0.5) / 1000.0, histogram.getPercentileNanos(0.99) / 1000.0, histogram.getMaxNanos() / 1000.0));
+        }
+        long eventsPerSecond = totalNanos == 0L ? 0L : totalEvents * 1_000_000_000L / totalNanos;
+        ChunkScanner chunkScanner = plugin.getChunkScanner();
+        int errors = scheduler.getErrorCount() + events.getErrorCount() + severeLogs;
+
+        result.lines.add(String.format("Пропускная способность: %d событий/с (минимум %d)", eventsPerSecond, scenario.getMinEventsPerSecond()));
+        result.lines.add(String.format("Тик: среднее %.2f мс, p99 %.2f мс, максимум %.2f мс", tickTimes.getMeanNanos() / 1_000_000.0,
+                tickTimes.getPercentileNanos(0.99) / 1_000_000.0, tickTimes.getMaxNanos() / 1_000_000.0));
+        result.lines.add(String.format("Очередь планировщика: после прогрева %d, максимум %d, в конце %d (допустимый рост %d), выполнено задач: %d",
+                baselinePending, maxPending, endPending, scenario.getMaxPendingGrowth(), scheduler.getExecutedCount()));
+        result.lines.add(String.format("Очередь сканирования чанков: ожидают %d, в работе %d; сущностей в мирах: %d",
+                chunkScanner.getPendingCount(), chunkScanner.getInFlightCount(), countEntities()));
+        result.lines.add(String.format("Удержано в куче после прогрева: %+d КБ (лимит %d КБ)", retainedKilobytes, scenario.getMaxRetainedKilobytes()));
+        result.lines.add(String.format("Ошибок: %d (задачи %d, обработчики %d, SEVERE в логе %d)",
+                errors, scheduler.getErrorCount(), events.getErrorCount(), severeLogs));
+
+        if (totalEvents > 0 && eventsPerSecond < scenario.getMinEventsPerSecond()) {
+            result.failures.add("пропускная способность " + eventsPerSecond + " событий/с ниже минимума " + scenario.getMinEventsPerSecond());
+        }
+        if (worstP99 / 1000L > scenario.getMaxP99Micros()) {
+            result.failures.add("p99 задержки " + worstP99 / 1000L + " мкс выше порога " + scenario.getMaxP99Micros() + " мкс");
+        }
+        if (endPending - baselinePending > scenario.getMaxPendingGrowth()) {
+            result.failures.add("очередь планировщика выросла на " + (endPending - baselinePending) + " задач");
+        }
+        if (chunkScanner.getPendingCount() > getWorlds().size() * getWorlds().get(0).getSize() * getWorlds().get(0).getSize()) {
+            result.failures.add("очередь сканирования чанков больше числа загруженных чанков: " + chunkScanner.getPendingCount());
+        }
+        if (retainedKilobytes > scenario.getMaxRetainedKilobytes()) {
+            result.failures.add("удержано " + retainedKilobytes + " КБ кучи, похоже на утечку");
+        }
+        if (errors > 0) {
+            result.failures.add("ошибок во время прогона: " + errors);
+        }
+    }
+
+    private int countEntities() {
+        int count = 0;
+        for (StubWorld world : getWorlds()) {
+            count += world.countEntities();
+        }
+        return count;
+    }
+
+    // Занятая куча после нескольких сборок мусора; потоки анализа успевают доделать начатые снимки
+    private static long retainedHeap() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50L);
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+
+    private static void deleteRecursively(File folder) throws IOException {
+        try (Stream<Path> paths = Files.walk(folder.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.gw.optimizationlagmanager.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Прогон сценариев нагрузки с итоговым отчётом; код выхода 1, если хотя бы один сценарий провален.
+// Аргументы - имена сценариев (по умолчанию все), размеры задаются свойствами olm.simulation.*
+public final class SimulationRunner {
+    private SimulationRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int worlds = Integer.getInteger("olm.simulation.worlds", 2);
+        int worldSize = Integer.getInteger("olm.simulation.world-size", 24);
+        int players = Integer.getInteger("olm.simulation.players", 20);
+        int ticks = Integer.getInteger("olm.simulation.ticks", 1200);
+
+        List<Scenario> scenarios = new ArrayList<>();
+        for (Scenario scenario : Scenarios.all()) {
+            if (args.length == 0 || Arrays.asList(args).contains(scenario.getName())) scenarios.add(scenario);
+        }
+        if (scenarios.isEmpty()) {
+            System.err.println("Неизвестные сценарии: " + String.join(", ", args));
+            System.exit(2);
+        }
+
+        System.out.printf("Симуляция: миров %d, чанков в мире %d, игроков %d, тиков на сценарий %d%n",
+                worlds, worldSize * worldSize, players, ticks);
+        Simulation simulation = new Simulation(worlds, worldSize, players, ticks);
+        int failed = 0;
+        for (Scenario scenario : scenarios) {
+            Simulation.Result result = simulation.run(scenario);
+            System.out.println();
+            System.out.println("=== " + scenario.getName() + ": " + scenario.getDescription());
+            for (String line : result.lines) {
+                System.out.println("  " + line);
+            }
+            if (result.isPassed()) {
+                System.out.println("  Результат: ПРОЙДЕН");
+            } else {
+                failed++;
+                System.out.println("  Результат: ПРОВАЛЕН");
+                for (String failure : result.failures) {
+                    System.out.println("    - " + failure);
+                }
+            }
+        }
+
+        System.out.println();
+        System.out.printf("Сценариев: %d, провалено: %d%n", scenarios.size(), failed);
+        System.exit(failed == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,306 @@
+package org.gw.optimizationlagmanager.benchmarks;
+
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Мир из size×size загруженных чанков с координатами от 0 до size - 1. Блоки и сущности хранятся по чанкам,
+// так что изменения, сделанные плагином через setType и remove, видны следующим событиям и снимкам
+final class StubWorld {
+    private static final Entity[] NO_ENTITIES = new Entity[0];
+
+    private final String name;
+    private final UUID uid;
+    private final int size;
+    private final World world;
+    private final ChunkData[] chunks;
+    private final List<Player> players = new CopyOnWriteArrayList<>();
+
+    private final class ChunkData {
+        final Chunk chunk;
+        final Map<Integer, Material> blocks = new ConcurrentHashMap<>();
+        final List<Entity> entities = new CopyOnWriteArrayList<>();
+
+        ChunkData(int chunkX, int chunkZ) {
+            this.chunk = createChunk(chunkX, chunkZ, this);
+        }
+    }
+
+    StubWorld(String name, int size) {
+        this.name = name;
+        this.uid = UUID.nameUUIDFromBytes(name.getBytes());
+        this.size = size;
+        this.chunks = new ChunkData[size * size];
+        Map<String, Stubs.Answer> answers = new HashMap<>();
+        answers.put("getName", args -> this.name);
+        answers.put("getUID", args -> uid);
+        answers.put("getMinHeight", args -> 0);
+        answers.put("getMaxHeight", args -> 256);
+        answers.put("getViewDistance", args -> 10);
+        answers.put("getEnvironment", args -> World.Environment.NORMAL);
+        answers.put("getPlayers", args -> new ArrayList<>(players));
+        answers.put("getLoadedChunks", args -> {
+            Chunk[] loaded = new Chunk[chunks.length];
+            for (int i = 0; i < chunks.length; i++) {
+                loaded[i] = chunks[i].chunk;
+            }
+            return loaded;
+        });
+        answers.put("isChunkLoaded", args -> args.length == 2 && isInside((Integer) args[0], (Integer) args[1]));
+        answers.put("getChunkAt", args -> {
+            if (args.length == 2) return chunk((Integer) args[0], (Integer) args[1]);
+            Location location = args[0] instanceof Location ? (Location) args[0] : ((Block) args[0]).getLocation();
+            return chunk(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        });
+        answers.put("getBlockAt", args -> {
+            if (args.length == 3) return block((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+            Location location = (Location) args[0];
+            return block(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        });
+        answers.put("getNearbyEntities", args -> {
+            Location center = (Location) args[0];
+            return nearbyEntities(center, (Double) args[1], (Double) args[2], (Double) args[3]);
+        });
+        this.world = Stubs.create(World.class, answers);
+        for (int x = 0; x < size; x++) {
+            for (int z = 0; z < size; z++) {
+                chunks[x * size + z] = new ChunkData(x, z);
+            }
+        }
+    }
+
+    World getWorld() {
+        return world;
+    }
+
+    UUID getUid() {
+        return uid;
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    List<Player> getPlayers() {
+        return players;
+    }
+
+    Chunk chunk(int x, int z) {
+        return isInside(x, z) ? chunks[x * size + z].chunk : createChunk(x, z, null);
+    }
+
+    // Ставит блок и возвращает его; блоки за пределами мира всегда воздух
+    Block block(int x, int y, int z, Material type) {
+        setType(x, y, z, type);
+        return block(x, y, z);
+    }
+
+    Block block(int x, int y, int z) {
+        Map<String, Stubs.Answer> answers = new HashMap<>();
+        answers.put("getType", args -> getType(x, y, z));
+        answers.put("setType", args -> {
+            setType(x, y, z, (Material) args[0]);
+            return null;
+        });
+        answers.put("isEmpty", args -> getType(x, y, z) == Material.AIR);
+        answers.put("breakNaturally", args -> {
+            setType(x, y, z, Material.AIR);
+            return true;
+        });
+        answers.put("getX", args -> x);
+        answers.put("getY", args -> y);
+        answers.put("getZ", args -> z);
+        answers.put("getWorld", args -> world);
+        answers.put("getChunk", args -> chunk(x >> 4, z >> 4));
+        answers.put("getLocation", args -> new Location(world, x, y, z));
+        answers.put("getRelative", args -> {
+            if (args.length == 3) return block(x + (Integer) args[0], y + (Integer) args[1], z + (Integer) args[2]);
+            BlockFace face = (BlockFace) args[0];
+            int distance = args.length == 2 ? (Integer) args[1] : 1;
+            return block(x + face.getModX() * distance, y + face.getModY() * distance, z + face.getModZ() * distance);
+        });
+        answers.put("getState", args -> blockState(x, y, z));
+        return Stubs.create(Block.class, answers);
+    }
+
+    Material getType(int x, int y, int z) {
+        ChunkData data = data(x >> 4, z >> 4);
+        if (data == null) return Material.AIR;
+        Material type = data.blocks.get(pack(x & 15, y, z & 15));
+        return type != null ? type : Material.AIR;
+    }
+
+    void setType(int x, int y, int z, Material type) {
+        ChunkData data = data(x >> 4, z >> 4);
+        if (data == null) return;
+        if (type == Material.AIR) {
+            data.blocks.remove(pack(x & 15, y, z & 15));
+        } else {
+            data.blocks.put(pack(x & 15, y, z & 15), type);
+        }
+    }
+
+    LivingEntity livingEntity(EntityType type, double x, double y, double z) {
+        Map<String, Stubs.Answer> answers = new HashMap<>();
+        UUID uniqueId = UUID.randomUUID();
+        answers.put("getType", args -> type);
+        answers.put("getUniqueId", args -> uniqueId);
+        answers.put("getWorld", args -> world);
+        answers.put("getChunk", args -> chunk((int) Math.floor(x) >> 4, (int) Math.floor(z) >> 4));
+        answers.put("getLocation", args -> fill(args, x, y, z));
+        LivingEntity[] self = new LivingEntity[1];
+        answers.put("isValid", args -> isSpawned(self[0]));
+        answers.put("isDead", args -> !isSpawned(self[0]));
+        answers.put("remove", args -> {
+            despawn(self[0]);
+            return null;
+        });
+        self[0] = Stubs.create(LivingEntity.class, answers);
+        return self[0];
+    }
+
+    // Сущность, добавленная в свой чанк: её видят getEntities, снимки и getNearbyEntities, пока её не уберут
+    LivingEntity spawn(EntityType type, double x, double y, double z) {
+        LivingEntity entity = livingEntity(type, x, y, z);
+        addEntity(entity);
+        return entity;
+    }
+
+    void addEntity(Entity entity) {
+        Location location = entity.getLocation();
+        ChunkData data = data(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        if (data != null) data.entities.add(entity);
+    }
+
+    void despawn(Entity entity) {
+        Location location = entity.getLocation();
+        ChunkData data = data(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        if (data != null) data.entities.remove(entity);
+    }
+
+    int countEntities() {
+        int count = 0;
+        for (ChunkData data : chunks) {
+            count += data.entities.size();
+        }
+        return count;
+    }
+
+    // Убирает все блоки, сущности и игроков; чанки остаются загруженными
+    void clear() {
+        for (ChunkData data : chunks) {
+            data.blocks.clear();
+            data.entities.clear();
+        }
+        players.clear();
+    }
+
+    private boolean isSpawned(Entity entity) {
+        Location location = entity.getLocation();
+        ChunkData data = data(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        return data != null && data.entities.contains(entity);
+    }
+
+    private List<Entity> nearbyEntities(Location center, double dx, double dy, double dz) {
+        List<Entity> found = new ArrayList<>();
+        int minChunkX = (int) Math.floor(center.getX() - dx) >> 4;
+        int maxChunkX = (int) Math.floor(center.getX() + dx) >> 4;
+        int minChunkZ = (int) Math.floor(center.getZ() - dz) >> 4;
+        int maxChunkZ = (int) Math.floor(center.getZ() + dz) >> 4;
+        Location location = new Location(world, 0.0, 0.0, 0.0);
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                ChunkData data = data(chunkX, chunkZ);
+                if (data == null) continue;
+                for (Entity entity : data.entities) {
+                    entity.getLocation(location);
+                    if (Math.abs(location.getX() - center.getX()) <= dx && Math.abs(location.getY() - center.getY()) <= dy
+                            && Math.abs(location.getZ() - center.getZ()) <= dz) {
+                        found.add(entity);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private BlockState blockState(int x, int y, int z) {
+        Material type = getType(x, y, z);
+        Map<String, Stubs.Answer> answers = new HashMap<>();
+        answers.put("getType", args -> type);
+        answers.put("getX", args -> x);
+        answers.put("getY", args -> y);
+        answers.put("getZ", args -> z);
+        answers.put("getWorld", args -> world);
+        answers.put("getBlock", args -> block(x, y, z));
+        answers.put("getLocation", args -> new Location(world, x, y, z));
+        answers.put("update", args -> true);
+        return Stubs.create(BlockState.class, answers);
+    }
+
+    private Location fill(Object[] args, double x, double y, double z) {
+        if (args == null) return new Location(world, x, y, z);
+        Location location = (Location) args[0];
+        location.setWorld(world);
+        location.setX(x);
+        location.setY(y);
+        location.setZ(z);
+        return location;
+    }
+
+    private boolean isInside(int x, int z) {
+        return x >= 0 && x < size && z >= 0 && z < size;
+    }
+
+    private ChunkData data(int chunkX, int chunkZ) {
+        return isInside(chunkX, chunkZ) ? chunks[chunkX * size + chunkZ] : null;
+    }
+
+    private static int pack(int x, int y, int z) {
+        return (y << 8) | (x << 4) | z;
+    }
+
+    private Chunk createChunk(int chunkX, int chunkZ, ChunkData data) {
+        Map<String, Stubs.Answer> answers = new HashMap<>();
+        answers.put("getX", args -> chunkX);
+        answers.put("getZ", args -> chunkZ);
+        answers.put("getWorld", args -> world);
+        answers.put("isLoaded", args -> data != null);
+        answers.put("getEntities", args -> data != null ? data.entities.toArray(new Entity[0]) : NO_ENTITIES);
+        answers.put("getBlock", args -> block((chunkX << 4) + (Integer) args[0], (Integer) args[1], (chunkZ << 4) + (Integer) args[2]));
+        answers.put("getChunkSnapshot", args -> snapshot(chunkX, chunkZ, data));
+        return Stubs.create(Chunk.class, answers);
+    }
+
+    // Копия блоков чанка на момент снятия, как у настоящего снимка; читается из потоков анализа
+    private ChunkSnapshot snapshot(int chunkX, int chunkZ, ChunkData data) {
+        Map<Integer, Material> blocks = data != null ? new HashMap<>(data.blocks) : Collections.<Integer, Material>emptyMap();
+        Map<String, Stubs.Answer> answers = new HashMap<>();
+        answers.put("getX", args -> chunkX);
+        answers.put("getZ", args -> chunkZ);
+        answers.put("getWorldName", args -> name);
+        answers.put("getBlockType", args -> {
+            Material type = blocks.get(pack((Integer) args[0], (Integer) args[1], (Integer) args[2]));
+            return type != null ? type : Material.AIR;
+        });
+        return Stubs.create(ChunkSnapshot.class, answers);
+    }
+}
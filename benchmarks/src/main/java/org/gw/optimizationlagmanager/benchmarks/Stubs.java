@@ -0,0 +1,89 @@
+package org.gw.optimizationlagmanager.benchmarks;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Logger;
+
+final class Stubs {
+    private static final Logger LOGGER = Logger.getLogger("OptimizationLagManager-Benchmark");
+
+    // Ответ на вызов метода по имени; перегрузки различаются по args внутри ответа
+    interface Answer {
+        Object answer(Object[] args);
+    }
+
+    private Stubs() {
+    }
+
+    // Заглушка интерфейса Bukkit: заданные методы отвечают через answers, остальные возвращают пустые значения,
+    // а для методов, возвращающих интерфейс, создаётся и запоминается вложенная заглушка
+    static <T> T create(Class<T> type, Map<String, Answer> answers) {
+        return type.cast(Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[]{type}, new Handler(type, answers)));
+    }
+
+    static <T> T create(Class<T> type) {
+        return create(type, Collections.<String, Answer>emptyMap());
+    }
+
+    private static final class Handler implements InvocationHandler {
+        private final Class<?> type;
+        private final Map<String, Answer> answers;
+        private final Map<Method, Object> defaults = new HashMap<>();
+
+        Handler(Class<?> type, Map<String, Answer> answers) {
+            this.type = type;
+            this.answers = answers;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            Answer answer = answers.get(method.getName());
+            if (answer != null) return answer.answer(args);
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        return type.getSimpleName() + "Stub";
+                }
+            }
+            Object value = defaults.get(method);
+            if (value == null) {
+                value = defaultValue(method.getReturnType());
+                if (value != null) defaults.put(method, value);
+            }
+            return value;
+        }
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0.0;
+        if (type == float.class) return 0.0f;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        if (type == char.class) return '\0';
+        if (type == String.class) return "";
+        if (type.isArray()) return Array.newInstance(type.getComponentType(), 0);
+        if (type == List.class || type == Collection.class) return Collections.emptyList();
+        if (type == Set.class) return Collections.emptySet();
+        if (type == Map.class) return Collections.emptyMap();
+        if (type == Optional.class) return Optional.empty();
+        if (type == Logger.class) return LOGGER;
+        if (type.isInterface()) return create(type);
+        return null;
+    }
+}
@@ -0,0 +1,88 @@
+package org.gw.optimizationlagmanager.managers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Лежит в пакете managers, потому что ChunkManager.ChunkCoord не виден снаружи пакета
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ChunkCoordBenchmark {
+    @Param({"32", "128"})
+    public int side;
+
+    private Set<ChunkManager.ChunkCoord> coords;
+    private ChunkManager.ChunkCoord[] hits;
+    private ChunkManager.ChunkCoord[] misses;
+    private int[] xs;
+    private int[] zs;
+    private int mask;
+    private int cursor = 0;
+
+    // Квадрат side×side чанков вокруг нуля, как кэш предзагрузки вокруг спавна; промахи сдвинуты за его край
+    @Setup(Level.Trial)
+    public void setUp() {
+        int count = side * side;
+        coords = new HashSet<>();
+        hits = new ChunkManager.ChunkCoord[count];
+        misses = new ChunkManager.ChunkCoord[count];
+        xs = new int[count];
+        zs = new int[count];
+        int half = side / 2;
+        for (int i = 0; i < count; i++) {
+            int x = i / side - half;
+            int z = i % side - half;
+            xs[i] = x;
+            zs[i] = z;
+            coords.add(new ChunkManager.ChunkCoord(x, z));
+            hits[i] = new ChunkManager.ChunkCoord(x, z);
+            misses[i] = new ChunkManager.ChunkCoord(x + side, z);
+        }
+        mask = Integer.highestOneBit(count) - 1;
+    }
+
+    @Benchmark
+    public int hashCodeOnly() {
+        return hits[cursor++ & mask].hashCode();
+    }
+
+    @Benchmark
+    public boolean containsHit() {
+        return coords.contains(hits[cursor++ & mask]);
+    }
+
+    @Benchmark
+    public boolean containsMiss() {
+        return coords.contains(misses[cursor++ & mask]);
+    }
+
+    @Benchmark
+    public boolean containsNewCoord() {
+        int index = cursor++ & mask;
+        return coords.contains(new ChunkManager.ChunkCoord(xs[index], zs[index]));
+    }
+
+    @Benchmark
+    public boolean removeAndAdd() {
+        ChunkManager.ChunkCoord hit = hits[cursor++ & mask];
+        coords.remove(hit);
+        return coords.add(hit);
+    }
+}
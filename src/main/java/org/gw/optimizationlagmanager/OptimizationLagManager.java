@@ -1,18 +1,34 @@
 package org.gw.optimizationlagmanager;
 
 import org.bukkit.Bukkit;
+import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
 import org.gw.optimizationlagmanager.commands.*;
 import org.gw.optimizationlagmanager.listeners.CommandSendListener;
 import org.gw.optimizationlagmanager.managers.*;
+import org.gw.optimizationlagmanager.utils.DebugLogger;
 import org.gw.optimizationlagmanager.utils.HexColors;
+import org.gw.optimizationlagmanager.utils.LogCategory;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 
 public class OptimizationLagManager extends JavaPlugin {
+    private DebugLogger debugLogger;
     private ConfigManager configManager;
+    private TickMonitor tickMonitor;
+    private ChunkProfiler chunkProfiler;
+    private MetricsManager metricsManager;
+    private ListenerRegistrar listenerRegistrar;
+    private AdaptiveLimits adaptiveLimits;
+    private PlayerIndex playerIndex;
+    private ChunkScanner chunkScanner;
+    private ChunkComposition chunkComposition;
+    private ScanScheduler scanScheduler;
+    private EnforcementQueue enforcementQueue;
+    private LagMachineRegistry lagMachineRegistry;
     private ChunkManager chunkManager;
     private MobSpawnManager mobSpawnManager;
     private RedstoneManager redstoneManager;
@@ -21,13 +37,34 @@ public class OptimizationLagManager extends JavaPlugin {
     private WorldGenManager worldGenManager;
     private ContainerManager containerManager;
 
+    public OptimizationLagManager() {
+        super();
+    }
+
+    // Для запуска вне сервера (бенчмарки): загрузчик и описание плагина передаются напрямую
+    protected OptimizationLagManager(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+        super(loader, description, dataFolder, file);
+    }
+
     @Override
     public void onEnable() {
         long startTime = System.currentTimeMillis();
 
+        debugLogger = new DebugLogger(this);
         configManager = new ConfigManager(this);
         configManager.loadConfig();
 
+        tickMonitor = new TickMonitor(this);
+        chunkProfiler = new ChunkProfiler(this);
+        metricsManager = new MetricsManager(this, configManager);
+        listenerRegistrar = new ListenerRegistrar(this);
+        adaptiveLimits = new AdaptiveLimits(this, configManager);
+        playerIndex = new PlayerIndex(this);
+        chunkScanner = new ChunkScanner(this, configManager);
+        chunkComposition = new ChunkComposition(this);
+        scanScheduler = new ScanScheduler(this, configManager);
+        enforcementQueue = new EnforcementQueue(this, configManager);
+        lagMachineRegistry = new LagMachineRegistry(this, configManager);
         chunkManager = new ChunkManager(this, configManager);
         mobSpawnManager = new MobSpawnManager(this, configManager);
         redstoneManager = new RedstoneManager(this, configManager);
@@ -35,13 +72,16 @@ public class OptimizationLagManager extends JavaPlugin {
         entityManager = new EntityManager(this, configManager);
         worldGenManager = new WorldGenManager(this, configManager);
         containerManager = new ContainerManager(this, configManager);
+        lagMachineRegistry.warmStart();
 
         ReloadCommand reloadCommand = new ReloadCommand(this, configManager, redstoneManager);
         RedstoneLagCommand redstoneLagCommand = new RedstoneLagCommand(this, configManager, redstoneManager);
         AlertsCommand alertsCommand = new AlertsCommand(this, configManager);
         PhysicsCommand physicsCommand = new PhysicsCommand(this, configManager);
+        StatusCommand statusCommand = new StatusCommand(this, configManager);
+        ProfileCommand profileCommand = new ProfileCommand(this, configManager);
 
-        getCommand("olm").setExecutor(new CommandsHandler(this, configManager, reloadCommand, redstoneLagCommand, alertsCommand, physicsCommand));
+        getCommand("olm").setExecutor(new CommandsHandler(this, configManager, reloadCommand, redstoneLagCommand, alertsCommand, physicsCommand, statusCommand, profileCommand));
         getCommand("olm").setTabCompleter(new CommandsTabCompleter(configManager));
 
         getServer().getPluginManager().registerEvents(new CommandSendListener(), this);
@@ -68,8 +108,8 @@ public class OptimizationLagManager extends JavaPlugin {
 
         try {
             chunkManager.savePreloadedChunkCache();
-            if (configManager.isConsoleLoggingEnabled()) {
-                getLogger().info("Кэш предзагруженных чанков сохранён при выключении плагина.");
+            if (debugLogger.isEnabled(LogCategory.GENERAL)) {
+                debugLogger.debug(LogCategory.GENERAL, "Кэш предзагруженных чанков сохранён при выключении плагина.");
             }
         } catch (Exception e) {
             getLogger().severe("Ошибка сохранения кэша чанков при выключении: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
@@ -81,6 +121,14 @@ public class OptimizationLagManager extends JavaPlugin {
             getLogger().severe("Ошибка при сбросе кулдаунов редстоуна: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
         }
 
+        chunkProfiler.stop();
+        metricsManager.stop();
+        lagMachineRegistry.shutdown();
+        enforcementQueue.shutdown();
+        scanScheduler.shutdown();
+        chunkScanner.shutdown();
+        debugLogger.shutdown();
+
         long unloadTime = System.currentTimeMillis() - startTime;
         getLogger().info(HexColors.colorize("&e ", false, getLogger()));
         getLogger().info(HexColors.colorize("&#FFFF00█▀█ █▀█ ▀█▀ █ █▀▄▀█ █ ▀█ ▄▀█ ▀█▀ █ █▀█ █▄░█ █░░ ▄▀█ █▀▀ █▀▄▀█ ▄▀█ █▄░█ ▄▀█ █▀▀ █▀▀ █▀█", false, getLogger()));
@@ -121,8 +169,8 @@ public class OptimizationLagManager extends JavaPlugin {
                                     "         ◆ И также, данный плагин был полностью написан для моего, наверно уже открытого или ещё не открытого, \n" +
                                     "            сервера GornaWorld.fun и для моих подписчиков в моём телеграм-канале - https://t.me/gornasquad\n"
                     );
-                    if (configManager.isConsoleLoggingEnabled()) {
-                        getLogger().info("Создан файл 'Опа, попался! Прочитал = гей.txt' в папке плагина.");
+                    if (debugLogger.isEnabled(LogCategory.GENERAL)) {
+                        debugLogger.debug(LogCategory.GENERAL, "Создан файл 'Опа, попался! Прочитал = гей.txt' в папке плагина.");
                     }
                 } catch (IOException e) {
                     getLogger().severe("Ошибка при создании файла 'Опа, попался! Прочитал = гей.txt': " + e.getMessage());
@@ -136,4 +184,64 @@ public class OptimizationLagManager extends JavaPlugin {
     public ConfigManager getConfigManager() {
         return configManager;
     }
+
+    public RedstoneManager getRedstoneManager() {
+        return redstoneManager;
+    }
+
+    public PhysicsManager getPhysicsManager() {
+        return physicsManager;
+    }
+
+    public MobSpawnManager getMobSpawnManager() {
+        return mobSpawnManager;
+    }
+
+    public TickMonitor getTickMonitor() {
+        return tickMonitor;
+    }
+
+    public ChunkProfiler getChunkProfiler() {
+        return chunkProfiler;
+    }
+
+    public MetricsManager getMetricsManager() {
+        return metricsManager;
+    }
+
+    public ListenerRegistrar getListenerRegistrar() {
+        return listenerRegistrar;
+    }
+
+    public AdaptiveLimits getAdaptiveLimits() {
+        return adaptiveLimits;
+    }
+
+    public PlayerIndex getPlayerIndex() {
+        return playerIndex;
+    }
+
+    public ChunkScanner getChunkScanner() {
+        return chunkScanner;
+    }
+
+    public ChunkComposition getChunkComposition() {
+        return chunkComposition;
+    }
+
+    public ScanScheduler getScanScheduler() {
+        return scanScheduler;
+    }
+
+    public EnforcementQueue getEnforcementQueue() {
+        return enforcementQueue;
+    }
+
+    public LagMachineRegistry getLagMachineRegistry() {
+        return lagMachineRegistry;
+    }
+
+    public DebugLogger getDebugLogger() {
+        return debugLogger;
+    }
 }
\ No newline at end of file
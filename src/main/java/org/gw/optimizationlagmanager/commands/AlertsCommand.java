@@ -5,11 +5,15 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.gw.optimizationlagmanager.OptimizationLagManager;
 import org.gw.optimizationlagmanager.managers.ConfigManager;
+import org.gw.optimizationlagmanager.utils.LogCategory;
+import org.gw.optimizationlagmanager.utils.MessageTemplate;
 
 import java.util.HashMap;
 import java.util.Map;
 
 public class AlertsCommand implements OptimizationCommand {
+    private static final MessageTemplate.Placeholders PLAYER_PLACEHOLDERS = new MessageTemplate.Placeholders("player");
+
     private final OptimizationLagManager plugin;
     private final ConfigManager configManager;
     private final Map<String, Boolean> alertSettings;
@@ -48,7 +52,7 @@ public class AlertsCommand implements OptimizationCommand {
             targetPlayer = args[argIndex];
             Player target = Bukkit.getPlayerExact(targetPlayer);
             if (target == null) {
-                sender.sendMessage(configManager.getMessage("alerts.player-not-found").replace("{player}", targetPlayer));
+                sendMessages(sender, "alerts.player-not-found", targetPlayer);
                 return;
             }
         }
@@ -57,20 +61,22 @@ public class AlertsCommand implements OptimizationCommand {
             boolean currentState = isAlertsEnabled(targetPlayer);
             if (currentState == toggle) {
                 String messageKey = toggle ? "alerts.already-enabled" : "alerts.already-disabled";
-                sender.sendMessage(configManager.getMessage(messageKey).replace("{player}", targetPlayer));
+                sendMessages(sender, messageKey, targetPlayer);
                 return;
             }
 
             setAlertsEnabled(targetPlayer, toggle);
-            String statusMessage = toggle ? configManager.getMessage("alerts.enabled") : configManager.getMessage("alerts.disabled");
-            statusMessage = statusMessage.replace("{player}", targetPlayer);
-            sender.sendMessage(statusMessage);
-            if (configManager.isConsoleLoggingEnabled()) {
-                plugin.getLogger().info("Уведомления о лаг-машинах для игрока " + targetPlayer + " " + (toggle ? "включены" : "выключены") + " командой /olm alerts");
+            sendMessages(sender, toggle ? "alerts.enabled" : "alerts.disabled", targetPlayer);
+            if (plugin.getDebugLogger().isEnabled(LogCategory.GENERAL)) {
+                plugin.getDebugLogger().debug(LogCategory.GENERAL, "Уведомления о лаг-машинах для игрока {} {} командой /olm alerts", targetPlayer, (toggle ? "включены" : "выключены"));
             }
         } catch (Exception e) {
             configManager.getMessages("alerts.error").forEach(sender::sendMessage);
             plugin.getLogger().severe("Ошибка при выполнении команды alerts: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
         }
     }
+
+    private void sendMessages(CommandSender sender, String path, String player) {
+        configManager.getMessageTemplates(path).forEach(template -> sender.sendMessage(template.render(PLAYER_PLACEHOLDERS, player)));
+    }
 }
\ No newline at end of file
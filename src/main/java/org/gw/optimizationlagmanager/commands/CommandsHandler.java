@@ -17,12 +17,15 @@ public class CommandsHandler implements CommandExecutor {
 
     public CommandsHandler(OptimizationLagManager plugin, ConfigManager configManager,
                            ReloadCommand reloadCommand, RedstoneLagCommand redstoneLagCommand,
-                           AlertsCommand alertsCommand, PhysicsCommand physicsCommand) {
+                           AlertsCommand alertsCommand, PhysicsCommand physicsCommand, StatusCommand statusCommand,
+                           ProfileCommand profileCommand) {
         this.plugin = plugin;
         this.configManager = configManager;
         this.alertsCommand = alertsCommand;
         this.commands = new HashMap<>();
         commands.put("reload", reloadCommand);
+        commands.put("status", statusCommand);
+        commands.put("profile", profileCommand);
         if (configManager.isPhysicsOptimizationEnabled()) {
             commands.put("physics", physicsCommand);
         }
@@ -39,7 +42,7 @@ public class CommandsHandler implements CommandExecutor {
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         if (args.length == 0) {
-            if (sender.hasPermission("olm.reload") ||
+            if (sender.hasPermission("olm.reload") || sender.hasPermission("olm.status") || sender.hasPermission("olm.profile") ||
                     (configManager.isRedstoneOptimizationEnabled() && (sender.hasPermission("olm.redstonelag") || sender.hasPermission("olm.alerts"))) ||
                     (configManager.isPhysicsOptimizationEnabled() && sender.hasPermission("olm.physics"))) {
                 configManager.getMessages("help").forEach(sender::sendMessage);
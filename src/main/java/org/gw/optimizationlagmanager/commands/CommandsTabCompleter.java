@@ -26,6 +26,12 @@ public class CommandsTabCompleter implements TabCompleter {
             if (sender.hasPermission("olm.reload")) {
                 suggestions.add("reload");
             }
+            if (sender.hasPermission("olm.status")) {
+                suggestions.add("status");
+            }
+            if (sender.hasPermission("olm.profile")) {
+                suggestions.add("profile");
+            }
             if (configManager.isRedstoneOptimizationEnabled()) {
                 if (sender.hasPermission("olm.redstonelag")) {
                     suggestions.add("redstonelag");
@@ -49,6 +55,9 @@ public class CommandsTabCompleter implements TabCompleter {
             if (args[0].equalsIgnoreCase("physics") && configManager.isPhysicsOptimizationEnabled() && sender.hasPermission("olm.physics")) {
                 return Arrays.asList("on", "off");
             }
+            if (args[0].equalsIgnoreCase("profile") && sender.hasPermission("olm.profile")) {
+                return Arrays.asList("start", "stop", "report");
+            }
         }
         if (args.length == 3 && args[0].equalsIgnoreCase("physics") && configManager.isPhysicsOptimizationEnabled() && sender.hasPermission("olm.physics")) {
             return Arrays.asList("fallingblocks", "water", "lava");
@@ -3,8 +3,12 @@ package org.gw.optimizationlagmanager.commands;
 import org.bukkit.command.CommandSender;
 import org.gw.optimizationlagmanager.OptimizationLagManager;
 import org.gw.optimizationlagmanager.managers.ConfigManager;
+import org.gw.optimizationlagmanager.utils.LogCategory;
+import org.gw.optimizationlagmanager.utils.MessageTemplate;
 
 public class PhysicsCommand implements OptimizationCommand {
+    private static final MessageTemplate.Placeholders TYPE_PLACEHOLDERS = new MessageTemplate.Placeholders("type");
+
     private final OptimizationLagManager plugin;
     private final ConfigManager configManager;
 
@@ -69,31 +73,27 @@ public class PhysicsCommand implements OptimizationCommand {
     private void handleAllPhysics(CommandSender sender, boolean enable) {
         if (enable) {
             if (!configManager.isDisableFallingBlocks() && !configManager.isDisableWaterFlow() && !configManager.isDisableLavaFlow()) {
-                configManager.getMessages("physics.already-enabled").forEach(msg ->
-                        sender.sendMessage(msg.replace("{type}", "всех типов")));
+                sendMessages(sender, "physics.already-enabled", "всех типов");
                 return;
             }
             configManager.setDisableFallingBlocks(false);
             configManager.setDisableWaterFlow(false);
             configManager.setDisableLavaFlow(false);
-            configManager.getMessages("physics.enabled").forEach(msg ->
-                    sender.sendMessage(msg.replace("{type}", "всех типов")));
-            if (configManager.isConsoleLoggingEnabled()) {
-                plugin.getLogger().info("Физика всех типов включена командой /olm physics" + (args.length > 1 ? " on" : ""));
+            sendMessages(sender, "physics.enabled", "всех типов");
+            if (plugin.getDebugLogger().isEnabled(LogCategory.PHYSICS)) {
+                plugin.getDebugLogger().debug(LogCategory.PHYSICS, "Физика всех типов включена командой /olm physics{}", (args.length > 1 ? " on" : ""));
             }
         } else {
             if (configManager.isDisableFallingBlocks() && configManager.isDisableWaterFlow() && configManager.isDisableLavaFlow()) {
-                configManager.getMessages("physics.already-disabled").forEach(msg ->
-                        sender.sendMessage(msg.replace("{type}", "всех типов")));
+                sendMessages(sender, "physics.already-disabled", "всех типов");
                 return;
             }
             configManager.setDisableFallingBlocks(true);
             configManager.setDisableWaterFlow(true);
             configManager.setDisableLavaFlow(true);
-            configManager.getMessages("physics.disabled").forEach(msg ->
-                    sender.sendMessage(msg.replace("{type}", "всех типов")));
-            if (configManager.isConsoleLoggingEnabled()) {
-                plugin.getLogger().info("Физика всех типов отключена командой /olm physics" + (args.length > 1 ? " off" : ""));
+            sendMessages(sender, "physics.disabled", "всех типов");
+            if (plugin.getDebugLogger().isEnabled(LogCategory.PHYSICS)) {
+                plugin.getDebugLogger().debug(LogCategory.PHYSICS, "Физика всех типов отключена командой /olm physics{}", (args.length > 1 ? " off" : ""));
             }
         }
     }
@@ -101,27 +101,23 @@ public class PhysicsCommand implements OptimizationCommand {
     private void handleFallingBlocks(CommandSender sender, boolean enable) {
         if (enable) {
             if (!configManager.isDisableFallingBlocks()) {
-                configManager.getMessages("physics.already-enabled").forEach(msg ->
-                        sender.sendMessage(msg.replace("{type}", "падающих блоков")));
+                sendMessages(sender, "physics.already-enabled", "падающих блоков");
                 return;
             }
             configManager.setDisableFallingBlocks(false);
-            configManager.getMessages("physics.enabled").forEach(msg ->
-                    sender.sendMessage(msg.replace("{type}", "падающих блоков")));
-            if (configManager.isConsoleLoggingEnabled()) {
-                plugin.getLogger().info("Физика падающих блоков включена командой /olm physics on fallingblocks");
+            sendMessages(sender, "physics.enabled", "падающих блоков");
+            if (plugin.getDebugLogger().isEnabled(LogCategory.PHYSICS)) {
+                plugin.getDebugLogger().debug(LogCategory.PHYSICS, "Физика падающих блоков включена командой /olm physics on fallingblocks");
             }
         } else {
             if (configManager.isDisableFallingBlocks()) {
-                configManager.getMessages("physics.already-disabled").forEach(msg ->
-                        sender.sendMessage(msg.replace("{type}", "падающих блоков")));
+                sendMessages(sender, "physics.already-disabled", "падающих блоков");
                 return;
             }
             configManager.setDisableFallingBlocks(true);
-            configManager.getMessages("physics.disabled").forEach(msg ->
-                    sender.sendMessage(msg.replace("{type}", "падающих блоков")));
-            if (configManager.isConsoleLoggingEnabled()) {
-                plugin.getLogger().info("Физика падающих блоков отключена командой /olm physics off fallingblocks");
+            sendMessages(sender, "physics.disabled", "падающих блоков");
+            if (plugin.getDebugLogger().isEnabled(LogCategory.PHYSICS)) {
+                plugin.getDebugLogger().debug(LogCategory.PHYSICS, "Физика падающих блоков отключена командой /olm physics off fallingblocks");
             }
         }
     }
@@ -129,27 +125,23 @@ public class PhysicsCommand implements OptimizationCommand {
     private void handleWaterFlow(CommandSender sender, boolean enable) {
         if (enable) {
             if (!configManager.isDisableWaterFlow()) {
-                configManager.getMessages("physics.already-enabled").forEach(msg ->
-                        sender.sendMessage(msg.replace("{type}", "течения воды")));
+                sendMessages(sender, "physics.already-enabled", "течения воды");
                 return;
             }
             configManager.setDisableWaterFlow(false);
-            configManager.getMessages("physics.enabled").forEach(msg ->
-                    sender.sendMessage(msg.replace("{type}", "течения воды")));
-            if (configManager.isConsoleLoggingEnabled()) {
-                plugin.getLogger().info("Физика течения воды включена командой /olm physics on water");
+            sendMessages(sender, "physics.enabled", "течения воды");
+            if (plugin.getDebugLogger().isEnabled(LogCategory.PHYSICS)) {
+                plugin.getDebugLogger().debug(LogCategory.PHYSICS, "Физика течения воды включена командой /olm physics on water");
             }
         } else {
             if (configManager.isDisableWaterFlow()) {
-                configManager.getMessages("physics.already-disabled").forEach(msg ->
-                        sender.sendMessage(msg.replace("{type}", "течения воды")));
+                sendMessages(sender, "physics.already-disabled", "течения воды");
                 return;
             }
             configManager.setDisableWaterFlow(true);
-            configManager.getMessages("physics.disabled").forEach(msg ->
-                    sender.sendMessage(msg.replace("{type}", "течения воды")));
-            if (configManager.isConsoleLoggingEnabled()) {
-                plugin.getLogger().info("Физика течения воды отключена командой /olm physics off water");
+            sendMessages(sender, "physics.disabled", "течения воды");
+            if (plugin.getDebugLogger().isEnabled(LogCategory.PHYSICS)) {
+                plugin.getDebugLogger().debug(LogCategory.PHYSICS, "Физика течения воды отключена командой /olm physics off water");
             }
         }
     }
@@ -157,30 +149,30 @@ public class PhysicsCommand implements OptimizationCommand {
     private void handleLavaFlow(CommandSender sender, boolean enable) {
         if (enable) {
             if (!configManager.isDisableLavaFlow()) {
-                configManager.getMessages("physics.already-enabled").forEach(msg ->
-                        sender.sendMessage(msg.replace("{type}", "течения лавы")));
+                sendMessages(sender, "physics.already-enabled", "течения лавы");
                 return;
             }
             configManager.setDisableLavaFlow(false);
-            configManager.getMessages("physics.enabled").forEach(msg ->
-                    sender.sendMessage(msg.replace("{type}", "течения лавы")));
-            if (configManager.isConsoleLoggingEnabled()) {
-                plugin.getLogger().info("Физика течения лавы включена командой /olm physics on lava");
+            sendMessages(sender, "physics.enabled", "течения лавы");
+            if (plugin.getDebugLogger().isEnabled(LogCategory.PHYSICS)) {
+                plugin.getDebugLogger().debug(LogCategory.PHYSICS, "Физика течения лавы включена командой /olm physics on lava");
             }
         } else {
             if (configManager.isDisableLavaFlow()) {
-                configManager.getMessages("physics.already-disabled").forEach(msg ->
-                        sender.sendMessage(msg.replace("{type}", "течения лавы")));
+                sendMessages(sender, "physics.already-disabled", "течения лавы");
                 return;
             }
             configManager.setDisableLavaFlow(true);
-            configManager.getMessages("physics.disabled").forEach(msg ->
-                    sender.sendMessage(msg.replace("{type}", "течения лавы")));
-            if (configManager.isConsoleLoggingEnabled()) {
-                plugin.getLogger().info("Физика течения лавы отключена командой /olm physics off lava");
+            sendMessages(sender, "physics.disabled", "течения лавы");
+            if (plugin.getDebugLogger().isEnabled(LogCategory.PHYSICS)) {
+                plugin.getDebugLogger().debug(LogCategory.PHYSICS, "Физика течения лавы отключена командой /olm physics off lava");
             }
         }
     }
 
     private String[] args;
+
+    private void sendMessages(CommandSender sender, String path, String type) {
+        configManager.getMessageTemplates(path).forEach(template -> sender.sendMessage(template.render(TYPE_PLACEHOLDERS, type)));
+    }
 }
\ No newline at end of file
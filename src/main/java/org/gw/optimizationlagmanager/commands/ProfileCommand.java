@@ -0,0 +1,143 @@
+package org.gw.optimizationlagmanager.commands;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.gw.optimizationlagmanager.OptimizationLagManager;
+import org.gw.optimizationlagmanager.managers.ChunkProfiler;
+import org.gw.optimizationlagmanager.managers.ConfigManager;
+import org.gw.optimizationlagmanager.utils.ChunkKeys;
+import org.gw.optimizationlagmanager.utils.LogCategory;
+import org.gw.optimizationlagmanager.utils.MessageTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+public class ProfileCommand implements OptimizationCommand {
+    private static final int MIN_SECONDS = 5;
+    private static final int MAX_SECONDS = 600;
+    private static final MessageTemplate.Placeholders STARTED_PLACEHOLDERS = new MessageTemplate.Placeholders("seconds");
+    private static final MessageTemplate.Placeholders FOOTER_PLACEHOLDERS = new MessageTemplate.Placeholders("file");
+    private static final MessageTemplate.Placeholders HEADER_PLACEHOLDERS = new MessageTemplate.Placeholders("seconds", "chunks");
+    private static final MessageTemplate.Placeholders ENTRY_PLACEHOLDERS = new MessageTemplate.Placeholders("place", "world", "x", "z", "event", "events", "ms");
+
+    private final OptimizationLagManager plugin;
+    private final ConfigManager configManager;
+    private final ChunkProfiler chunkProfiler;
+
+    public ProfileCommand(OptimizationLagManager plugin, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.chunkProfiler = plugin.getChunkProfiler();
+    }
+
+    @Override
+    public void execute(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("olm.profile")) {
+            configManager.getMessages("no-permission").forEach(sender::sendMessage);
+            return;
+        }
+
+        if (args.length < 2) {
+            configManager.getMessages("profile.usage").forEach(sender::sendMessage);
+            return;
+        }
+
+        try {
+            switch (args[1].toLowerCase()) {
+                case "start":
+                    int seconds = configManager.getProfileDefaultSeconds();
+                    if (args.length > 2) {
+                        try {
+                            seconds = Integer.parseInt(args[2]);
+                        } catch (NumberFormatException e) {
+                            configManager.getMessages("profile.usage").forEach(sender::sendMessage);
+                            return;
+                        }
+                    }
+                    seconds = Math.max(MIN_SECONDS, Math.min(MAX_SECONDS, seconds));
+                    chunkProfiler.start(seconds, () -> sendReport(sender));
+                    int duration = seconds;
+                    configManager.getMessageTemplates("profile.started").forEach(template -> sender.sendMessage(template.render(STARTED_PLACEHOLDERS, duration)));
+                    break;
+                case "stop":
+                    if (!chunkProfiler.isRunning()) {
+                        configManager.getMessages("profile.not-running").forEach(sender::sendMessage);
+                        return;
+                    }
+                    chunkProfiler.stop();
+                    configManager.getMessages("profile.stopped").forEach(sender::sendMessage);
+                    sendReport(sender);
+                    break;
+                case "report":
+                    sendReport(sender);
+                    break;
+                default:
+                    configManager.getMessages("profile.usage").forEach(sender::sendMessage);
+            }
+        } catch (Exception e) {
+            configManager.getMessages("profile.error").forEach(sender::sendMessage);
+            plugin.getLogger().severe("Ошибка при выполнении команды profile: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+        }
+    }
+
+    private void sendReport(CommandSender sender) {
+        if (!chunkProfiler.hasData()) {
+            configManager.getMessages("profile.no-data").forEach(sender::sendMessage);
+            return;
+        }
+        ChunkProfiler.Report report = chunkProfiler.report();
+        List<ChunkProfiler.Entry> entries = report.getEntries();
+        if (entries.isEmpty()) {
+            configManager.getMessages("profile.no-data").forEach(sender::sendMessage);
+            return;
+        }
+
+        String fileName = "profile-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".csv";
+        String seconds = String.format("%.1f", report.getElapsedTicks() / 20.0);
+        configManager.getMessageTemplates("profile.header").forEach(template -> sender.sendMessage(template.render(HEADER_PLACEHOLDERS, seconds, entries.size())));
+
+        List<String> lines = new ArrayList<>(entries.size() + 1);
+        lines.add("rank,world,chunk_x,chunk_z,dominant_event,events,events_per_second,handler_ms,ms_per_tick");
+        int top = configManager.getProfileTopChunks();
+        List<MessageTemplate> entryTemplates = configManager.getMessageTemplates("profile.entry");
+        for (int i = 0; i < entries.size(); i++) {
+            ChunkProfiler.Entry entry = entries.get(i);
+            World world = ChunkKeys.world(entry.getChunkKey());
+            String worldName = world != null ? world.getName() : "?";
+            int x = ChunkKeys.x(entry.getChunkKey());
+            int z = ChunkKeys.z(entry.getChunkKey());
+            String event = report.getDominantEvent(entry);
+            if (i < top) {
+                Object[] values = {i + 1, worldName, x, z, event,
+                        String.format("%.1f", report.getEventsPerSecond(entry)), String.format("%.3f", report.getMsPerTick(entry))};
+                for (MessageTemplate template : entryTemplates) {
+                    sender.sendMessage(template.render(ENTRY_PLACEHOLDERS, values));
+                }
+            }
+            lines.add(String.format(Locale.ROOT, "%d,%s,%d,%d,%s,%d,%.2f,%.3f,%.4f", i + 1, worldName, x, z, event,
+                    entry.getEvents(), report.getEventsPerSecond(entry), entry.getNanos() / 1_000_000.0, report.getMsPerTick(entry)));
+        }
+
+        configManager.getMessageTemplates("profile.footer").forEach(template -> sender.sendMessage(template.render(FOOTER_PLACEHOLDERS, "profiles/" + fileName)));
+        File file = new File(new File(plugin.getDataFolder(), "profiles"), fileName);
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                file.getParentFile().mkdirs();
+                Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+                if (plugin.getDebugLogger().isEnabled(LogCategory.GENERAL)) {
+                    plugin.getDebugLogger().debug(LogCategory.GENERAL, "Отчёт профилирования сохранён в {}, чанков: {}", file.getName(), lines.size() - 1);
+                }
+            } catch (IOException e) {
+                plugin.getLogger().severe("Ошибка сохранения отчёта профилирования: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+            }
+        });
+    }
+}
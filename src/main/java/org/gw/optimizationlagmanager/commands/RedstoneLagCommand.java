@@ -2,12 +2,14 @@ package org.gw.optimizationlagmanager.commands;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
+import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.command.CommandSender;
 import org.gw.optimizationlagmanager.OptimizationLagManager;
 import org.gw.optimizationlagmanager.managers.ConfigManager;
 import org.gw.optimizationlagmanager.managers.RedstoneManager;
+import org.gw.optimizationlagmanager.utils.LogCategory;
 
 public class RedstoneLagCommand implements OptimizationCommand {
     private final OptimizationLagManager plugin;
@@ -53,8 +55,8 @@ public class RedstoneLagCommand implements OptimizationCommand {
                 redstoneManager.disableProtectionForChunks();
                 redstoneManager.disableLagMachines();
                 configManager.getMessages("redstonelag.enabled").forEach(sender::sendMessage);
-                if (configManager.isConsoleLoggingEnabled()) {
-                    plugin.getLogger().info("Лаг-машины отключены командой /olm redstonelag on");
+                if (plugin.getDebugLogger().isEnabled(LogCategory.REDSTONE)) {
+                    plugin.getDebugLogger().debug(LogCategory.REDSTONE, "Лаг-машины отключены командой /olm redstonelag on");
                 }
             } else {
                 if (!redstoneManager.isLagDetectionActive()) {
@@ -72,7 +74,7 @@ public class RedstoneLagCommand implements OptimizationCommand {
                             for (int z = 0; z < 16; z++) {
                                 for (int y = world.getMinHeight(); y <= world.getMaxHeight(); y++) {
                                     Block block = chunk.getBlock(x, y, z);
-                                    if (block.getType().name().equals("REDSTONE_WIRE")) {
+                                    if (block.getType() == Material.REDSTONE_WIRE) {
                                         block.setType(block.getType(), true);
                                     }
                                 }
@@ -81,8 +83,8 @@ public class RedstoneLagCommand implements OptimizationCommand {
                     }
                 }
                 configManager.getMessages("redstonelag.disabled").forEach(sender::sendMessage);
-                if (configManager.isConsoleLoggingEnabled()) {
-                    plugin.getLogger().info("Лаг-машины включены командой /olm redstonelag off");
+                if (plugin.getDebugLogger().isEnabled(LogCategory.REDSTONE)) {
+                    plugin.getDebugLogger().debug(LogCategory.REDSTONE, "Лаг-машины включены командой /olm redstonelag off");
                 }
             }
         } catch (Exception e) {
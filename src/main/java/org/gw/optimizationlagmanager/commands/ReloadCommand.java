@@ -4,6 +4,7 @@ import org.bukkit.command.CommandSender;
 import org.gw.optimizationlagmanager.OptimizationLagManager;
 import org.gw.optimizationlagmanager.managers.ConfigManager;
 import org.gw.optimizationlagmanager.managers.RedstoneManager;
+import org.gw.optimizationlagmanager.utils.LogCategory;
 
 import java.io.File;
 import java.io.FileWriter;
@@ -32,6 +33,10 @@ public class ReloadCommand implements OptimizationCommand {
                 redstoneManager.resetRedstoneCooldowns();
                 configManager.reloadConfig();
                 redstoneManager.setLagDetectionActive(configManager.isLagDetectionEnabled());
+                plugin.getMetricsManager().reload();
+                plugin.getListenerRegistrar().refresh();
+                plugin.getLagMachineRegistry().refresh();
+                plugin.getAdaptiveLimits().reset();
 
                 File file = new File(plugin.getDataFolder(), "Опа, попался! Прочитал = гей.txt");
                 if (!file.exists()) {
@@ -59,8 +64,8 @@ public class ReloadCommand implements OptimizationCommand {
                                             "         ◆ И также, данный плагин был полностью написан для моего, наверно уже открытого или ещё не открытого, \n" +
                                             "            сервера GornaWorld.fun и для моих подписчиков в моём телеграм-канале - https://t.me/gornasquad\n"
                             );
-                            if (configManager.isConsoleLoggingEnabled()) {
-                                plugin.getLogger().info("Создан файл 'Опа, попался! Прочитал = гей.txt' при перезагрузке плагина.");
+                            if (plugin.getDebugLogger().isEnabled(LogCategory.GENERAL)) {
+                                plugin.getDebugLogger().debug(LogCategory.GENERAL, "Создан файл 'Опа, попался! Прочитал = гей.txt' при перезагрузке плагина.");
                             }
                         } catch (IOException e) {
                             plugin.getLogger().severe("Ошибка при создании файла 'Опа, попался! Прочитал = гей.txt' при перезагрузке: " + e.getMessage());
@@ -71,8 +76,8 @@ public class ReloadCommand implements OptimizationCommand {
                 }
 
                 configManager.getMessages("reload.success").forEach(sender::sendMessage);
-                if (configManager.isConsoleLoggingEnabled()) {
-                    plugin.getLogger().info("Конфигурация перезагружена, редстоун-ограничения сброшены");
+                if (plugin.getDebugLogger().isEnabled(LogCategory.GENERAL)) {
+                    plugin.getDebugLogger().debug(LogCategory.GENERAL, "Конфигурация перезагружена, редстоун-ограничения сброшены");
                 }
             } catch (Exception e) {
                 configManager.getMessages("reload.error").forEach(sender::sendMessage);
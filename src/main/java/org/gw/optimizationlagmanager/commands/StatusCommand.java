@@ -0,0 +1,56 @@
+package org.gw.optimizationlagmanager.commands;
+
+import org.bukkit.command.CommandSender;
+import org.gw.optimizationlagmanager.OptimizationLagManager;
+import org.gw.optimizationlagmanager.managers.AdaptiveLimits;
+import org.gw.optimizationlagmanager.managers.ChunkScanner;
+import org.gw.optimizationlagmanager.managers.ConfigManager;
+import org.gw.optimizationlagmanager.managers.ScanScheduler;
+import org.gw.optimizationlagmanager.managers.TickStats;
+import org.gw.optimizationlagmanager.utils.MessageTemplate;
+
+public class StatusCommand implements OptimizationCommand {
+    private static final MessageTemplate.Placeholders PLACEHOLDERS = new MessageTemplate.Placeholders(
+            "tps", "mspt", "p95", "chunks", "progress", "last-cycle", "coverage", "scan-time", "hot", "pending", "in-flight", "adaptive");
+
+    private final OptimizationLagManager plugin;
+    private final ConfigManager configManager;
+
+    public StatusCommand(OptimizationLagManager plugin, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+    }
+
+    @Override
+    public void execute(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("olm.status")) {
+            configManager.getMessages("no-permission").forEach(sender::sendMessage);
+            return;
+        }
+
+        TickStats stats = plugin.getTickMonitor().getStats();
+        ScanScheduler scanScheduler = plugin.getScanScheduler();
+        ChunkScanner chunkScanner = plugin.getChunkScanner();
+        int cycleSize = scanScheduler.getCycleSize();
+        int progress = cycleSize == 0 ? 100 : scanScheduler.getCycleProgress() * 100 / cycleSize;
+        String lastCycle = scanScheduler.getLastCycleTicks() < 0 ? "-" : String.valueOf(scanScheduler.getLastCycleTicks());
+        AdaptiveLimits adaptiveLimits = plugin.getAdaptiveLimits();
+        String adaptive = adaptiveLimits.isEnabled() ? Math.round(adaptiveLimits.getLevel() * 100) + "%" : "-";
+
+        Object[] values = {
+                String.format("%.2f", stats.getTps()),
+                String.format("%.2f", stats.getAverageMspt10s()),
+                String.format("%.2f", stats.getP95Mspt()),
+                cycleSize,
+                progress,
+                lastCycle,
+                configManager.getCoverageIntervalTicks(),
+                scanScheduler.getLastCycleMicrosPerTick(),
+                scanScheduler.getHotQueueSize(),
+                chunkScanner.getPendingCount(),
+                chunkScanner.getInFlightCount(),
+                adaptive
+        };
+        configManager.getMessageTemplates("status").forEach(template -> sender.sendMessage(template.render(PLACEHOLDERS, values)));
+    }
+}
@@ -0,0 +1,88 @@
+package org.gw.optimizationlagmanager.managers;
+
+import org.gw.optimizationlagmanager.OptimizationLagManager;
+import org.gw.optimizationlagmanager.utils.DebugLogger;
+import org.gw.optimizationlagmanager.utils.LogCategory;
+
+public class AdaptiveLimits {
+    private final ConfigManager configManager;
+    private final DebugLogger debugLogger;
+    // Уровень лимитов: 0 - все лимиты на минимуме, 1 - на максимуме. Пишется и читается в основном потоке
+    private double level = 1.0;
+    private double integral = 1.0;
+
+    public AdaptiveLimits(OptimizationLagManager plugin, ConfigManager configManager) {
+        this.configManager = configManager;
+        this.debugLogger = plugin.getDebugLogger();
+        plugin.getMetricsManager().getMetrics().gauge("olm_adaptive_level", "Adaptive limit level between floors (0) and ceilings (1)")
+                .labels().setSource(this::getLevel);
+        plugin.getTickMonitor().subscribe(this::update);
+    }
+
+    public boolean isEnabled() {
+        return configManager.isAdaptiveEnabled();
+    }
+
+    public double getLevel() {
+        return configManager.isAdaptiveEnabled() ? level : 1.0;
+    }
+
+    public int getMaxRedstoneUpdatesPerTick() {
+        if (!configManager.isAdaptiveEnabled()) return configManager.getMaxRedstoneUpdatesPerTick();
+        return scale(configManager.getAdaptiveRedstoneUpdatesMin(), configManager.getAdaptiveRedstoneUpdatesMax());
+    }
+
+    public int getMaxMobsPerChunk() {
+        if (!configManager.isAdaptiveEnabled()) return configManager.getMaxMobsPerChunk();
+        return scale(configManager.getAdaptiveMobsPerChunkMin(), configManager.getAdaptiveMobsPerChunkMax());
+    }
+
+    public int getMaxOpenContainersPerChunk() {
+        if (!configManager.isAdaptiveEnabled()) return configManager.getMaxOpenContainersPerChunk();
+        return scale(configManager.getAdaptiveContainersPerChunkMin(), configManager.getAdaptiveContainersPerChunkMax());
+    }
+
+    public int getLoadDistance() {
+        if (!configManager.isAdaptiveEnabled()) return configManager.getChunkLoadDistance();
+        return scale(configManager.getAdaptiveLoadDistanceMin(), configManager.getAdaptiveLoadDistanceMax());
+    }
+
+    // После перезагрузки конфига регулятор начинает с максимальных лимитов
+    public void reset() {
+        level = 1.0;
+        integral = 1.0;
+    }
+
+    private int scale(int min, int max) {
+        return (int) Math.round(min + (max - min) * level);
+    }
+
+    // ПИ-регулятор раз в секунду: ошибка - запас времени тика относительно цели, в долях целевого MSPT
+    private void update(TickStats stats) {
+        if (!configManager.isAdaptiveEnabled()) return;
+        double target = configManager.getAdaptiveTargetMspt();
+        double deviation = target - stats.getAverageMspt1s();
+        double deadband = configManager.getAdaptiveDeadbandMspt();
+        // Внутри зоны нечувствительности уровень не меняется, за её пределами ошибка отсчитывается от края зоны
+        double error = Math.abs(deviation) <= deadband ? 0.0 : (deviation - Math.copySign(deadband, deviation)) / target;
+
+        double nextIntegral = clamp(integral + configManager.getAdaptiveIntegralGain() * error);
+        double output = clamp(nextIntegral + configManager.getAdaptiveProportionalGain() * error);
+        double maxStep = configManager.getAdaptiveMaxStep();
+        double step = Math.max(-maxStep, Math.min(maxStep, output - level));
+        // Пока уровень упирается в ограничение скорости, интеграл не копится, иначе после догона уровень проскочит цель
+        if (step == output - level) integral = nextIntegral;
+        double previous = level;
+        level = clamp(level + step);
+
+        if (level != previous && debugLogger.isEnabled(LogCategory.GENERAL)) {
+            debugLogger.debug(LogCategory.GENERAL, "Адаптивные лимиты: MSPT {} при цели {}, уровень {} -> {}",
+                    String.format("%.2f", stats.getAverageMspt1s()), String.format("%.1f", target),
+                    String.format("%.2f", previous), String.format("%.2f", level));
+        }
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0.0, Math.min(1.0, value));
+    }
+}
@@ -0,0 +1,274 @@
+package org.gw.optimizationlagmanager.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.PistonMoveReaction;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.gw.optimizationlagmanager.OptimizationLagManager;
+import org.gw.optimizationlagmanager.utils.ChunkKeys;
+import org.gw.optimizationlagmanager.utils.DebugLogger;
+import org.gw.optimizationlagmanager.utils.LogCategory;
+import org.gw.optimizationlagmanager.utils.LongObjectHashMap;
+import org.gw.optimizationlagmanager.utils.MaterialFlags;
+
+import java.util.List;
+
+public class ChunkComposition implements Listener {
+    // Считаются только категории, которые кто-то читает: песок и паутина - лимит падающих блоков,
+    // отслеживаемые блоки - обход редстоуна
+    public static final int STATIC_SAND = 0;
+    public static final int COBWEB = 1;
+    public static final int MONITORED = 2;
+
+    // Флаг MaterialFlags для каждой категории, индекс совпадает с константой категории
+    private static final int[] CATEGORY_FLAGS = {MaterialFlags.STATIC_SAND, MaterialFlags.COBWEB, MaterialFlags.MONITORED};
+    private static final int TRACKED_FLAGS = MaterialFlags.STATIC_SAND | MaterialFlags.COBWEB | MaterialFlags.MONITORED;
+
+    private final DebugLogger debugLogger;
+    private final ChunkScanner chunkScanner;
+    private final ConfigManager configManager;
+    private final LongObjectHashMap<Counts> chunks = new LongObjectHashMap<>();
+    private boolean enabled = false;
+
+    private static class Counts {
+        final int[] values = new int[CATEGORY_FLAGS.length];
+        boolean seeded = false;
+        int flagsVersion;
+        // Последний снятый для пересчёта снимок и изменения, случившиеся после него: они прибавляются к результату
+        ChunkScan capture;
+        int[] sinceCapture;
+        // Категории, превышенные при прошлой проверке: пересчёт ставится только при переходе через порог
+        int exceededCategories = 0;
+    }
+
+    private final ChunkScanner.Detector<Counts> seedDetector = new ChunkScanner.Detector<Counts>() {
+        @Override
+        public void captured(ChunkScan scan) {
+            Counts counts = chunks.get(scan.getChunkKey());
+            if (counts == null) return;
+            counts.capture = scan;
+            counts.sinceCapture = new int[CATEGORY_FLAGS.length];
+        }
+
+        @Override
+        public Counts analyse(ChunkScan scan) {
+            return countBlocks(scan);
+        }
+
+        @Override
+        public void apply(ChunkScan scan, Counts result) {
+            seed(scan, result);
+        }
+    };
+
+    public ChunkComposition(OptimizationLagManager plugin) {
+        this.debugLogger = plugin.getDebugLogger();
+        this.chunkScanner = plugin.getChunkScanner();
+        this.configManager = plugin.getConfigManager();
+        plugin.getMetricsManager().cacheSize("chunk_composition", chunks::size);
+        plugin.getListenerRegistrar().registerEvents(this, "composition", this::isNeeded, this::setEnabled);
+    }
+
+    // Счётчики читают только обход редстоуна и лимит падающих блоков: без них события блоков не обрабатываются вовсе
+    private boolean isNeeded() {
+        return (configManager.isRedstoneOptimizationEnabled() && (configManager.isPatternScanEnabled() || configManager.isLagDetectionEnabled()))
+                || (configManager.isPhysicsOptimizationEnabled() && configManager.isFallingBlockLimitEnabled());
+    }
+
+    // Выключение сбрасывает счётчики, пока обработчики сняты, они бы устарели; включение заново считает загруженные чанки
+    private void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        chunks.clear();
+        if (!enabled) return;
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                track(ChunkKeys.of(chunk));
+            }
+        }
+    }
+
+    // Пока счётчик не посчитан по снимку или состав не отслеживается, считается превышенным. При переходе через порог вместе с вызывающим
+    // детектором ставится пересчёт: оба используют один снимок, а накопленная погрешность сбрасывается
+    public boolean exceeds(long chunkKey, int category, int threshold) {
+        if (!enabled) return true;
+        Counts counts = chunks.get(chunkKey);
+        if (counts == null || !isValid(counts)) {
+            chunkScanner.submit(chunkKey, seedDetector);
+            return true;
+        }
+        int bit = 1 << category;
+        if (counts.values[category] <= threshold) {
+            counts.exceededCategories &= ~bit;
+            return false;
+        }
+        if ((counts.exceededCategories & bit) == 0) {
+            counts.exceededCategories |= bit;
+            chunkScanner.submit(chunkKey, seedDetector);
+        }
+        return true;
+    }
+
+    // Есть ли в чанке хоть один блок категории; пересчёт ставится, только пока счётчик не посчитан
+    public boolean hasAny(long chunkKey, int category) {
+        if (!enabled) return true;
+        Counts counts = chunks.get(chunkKey);
+        if (counts != null && isValid(counts)) return counts.values[category] > 0;
+        chunkScanner.submit(chunkKey, seedDetector);
+        return true;
+    }
+
+    // -1, если счётчик ещё не посчитан
+    public int getCount(long chunkKey, int category) {
+        Counts counts = chunks.get(chunkKey);
+        return counts != null && isValid(counts) ? counts.values[category] : -1;
+    }
+
+    public int getTrackedChunks() {
+        return chunks.size();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        track(ChunkKeys.of(event.getChunk()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        chunks.remove(ChunkKeys.of(event.getChunk()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        Block block = event.getBlockPlaced();
+        change(block, event.getBlockReplacedState().getType(), block.getType());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        change(event.getBlock(), event.getBlock().getType(), Material.AIR);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFromTo(BlockFromToEvent event) {
+        Block toBlock = event.getToBlock();
+        change(toBlock, toBlock.getType(), event.getBlock().getType());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        change(event.getBlock(), event.getBlock().getType(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        moveBlocks(event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        moveBlocks(event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        removeBlocks(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        removeBlocks(event.blockList());
+    }
+
+    private void track(long chunkKey) {
+        if (chunks.containsKey(chunkKey)) return;
+        chunks.put(chunkKey, new Counts());
+        chunkScanner.submit(chunkKey, seedDetector);
+    }
+
+    private boolean isValid(Counts counts) {
+        return counts.seeded && counts.flagsVersion == configManager.getMaterialFlags().getVersion();
+    }
+
+    // Список поршня содержит и сдвигаемые, и ломаемые блоки; на новое место попадают только первые
+    private void moveBlocks(List<Block> blocks, BlockFace direction) {
+        for (Block block : blocks) {
+            change(block, block.getType(), Material.AIR);
+        }
+        for (Block block : blocks) {
+            if (block.getPistonMoveReaction() == PistonMoveReaction.BREAK) continue;
+            change(block.getRelative(direction), Material.AIR, block.getType());
+        }
+    }
+
+    private void removeBlocks(List<Block> blocks) {
+        for (Block block : blocks) {
+            change(block, block.getType(), Material.AIR);
+        }
+    }
+
+    private void change(Block block, Material from, Material to) {
+        MaterialFlags materialFlags = configManager.getMaterialFlags();
+        if (from == to || (!materialFlags.has(from, TRACKED_FLAGS) && !materialFlags.has(to, TRACKED_FLAGS))) return;
+        Counts counts = chunks.get(ChunkKeys.of(block));
+        if (counts == null || (!counts.seeded && counts.capture == null)) return;
+        for (int category = 0; category < CATEGORY_FLAGS.length; category++) {
+            int delta = (materialFlags.has(to, CATEGORY_FLAGS[category]) ? 1 : 0) - (materialFlags.has(from, CATEGORY_FLAGS[category]) ? 1 : 0);
+            if (delta == 0) continue;
+            if (counts.seeded) counts.values[category] = Math.max(0, counts.values[category] + delta);
+            if (counts.capture != null) counts.sinceCapture[category] += delta;
+        }
+    }
+
+    private Counts countBlocks(ChunkScan scan) {
+        Counts result = new Counts();
+        MaterialFlags materialFlags = configManager.getMaterialFlags();
+        result.flagsVersion = materialFlags.getVersion();
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                for (int y = scan.getMinHeight(); y < scan.getMaxHeight(); y++) {
+                    Material blockType = scan.getType(x, y, z);
+                    if (!materialFlags.has(blockType, TRACKED_FLAGS)) continue;
+                    for (int category = 0; category < CATEGORY_FLAGS.length; category++) {
+                        if (materialFlags.has(blockType, CATEGORY_FLAGS[category])) result.values[category]++;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private void seed(ChunkScan scan, Counts result) {
+        long chunkKey = scan.getChunkKey();
+        Counts counts = chunks.get(chunkKey);
+        // Результат устаревшего снимка не применяется: после него уже снят следующий
+        if (counts == null || counts.capture != scan) return;
+        // Изменения после снимка в нём не учтены и прибавляются к результату: чанк, меняющийся каждый тик, тоже досчитывается
+        for (int category = 0; category < counts.values.length; category++) {
+            counts.values[category] = Math.max(0, result.values[category] + counts.sinceCapture[category]);
+        }
+        counts.capture = null;
+        counts.sinceCapture = null;
+        counts.flagsVersion = result.flagsVersion;
+        counts.seeded = true;
+        if (debugLogger.isEnabled(LogCategory.CHUNKS)) {
+            debugLogger.debug(LogCategory.CHUNKS, "Посчитан состав чанка {}: песок {}, паутина {}, отслеживаемые блоки {}",
+                    ChunkKeys.toString(chunkKey), counts.values[STATIC_SAND], counts.values[COBWEB], counts.values[MONITORED]);
+        }
+    }
+}
@@ -5,24 +5,36 @@ import org.bukkit.Chunk;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.event.world.ChunkLoadEvent;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.gw.optimizationlagmanager.OptimizationLagManager;
+import org.gw.optimizationlagmanager.utils.ChunkCacheFile;
+import org.gw.optimizationlagmanager.utils.DebugLogger;
+import org.gw.optimizationlagmanager.utils.LogCategory;
 import org.yaml.snakeyaml.Yaml;
 
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileReader;
 import java.io.IOException;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public class ChunkManager implements Listener {
+    private static final String CHUNK_CACHE_FILE = "preloaded-chunks.bin";
+    private static final String LEGACY_CHUNK_CACHE_FILE = "preloaded-chunks.yml";
+
     private final OptimizationLagManager plugin;
     private final ConfigManager configManager;
+    private final TickMonitor tickMonitor;
+    private final AdaptiveLimits adaptiveLimits;
+    private final DebugLogger debugLogger;
     private final Map<Player, Set<Chunk>> playerChunkCache = new HashMap<>();
     private final Map<String, Set<ChunkCoord>> preloadedChunkCache = new HashMap<>();
     private final Map<Player, Long> playerNetworkUsage = new HashMap<>();
@@ -33,11 +45,18 @@ public class ChunkManager implements Listener {
     public ChunkManager(OptimizationLagManager plugin, ConfigManager configManager) {
         this.plugin = plugin;
         this.configManager = configManager;
+        this.tickMonitor = plugin.getTickMonitor();
+        this.adaptiveLimits = plugin.getAdaptiveLimits();
+        this.debugLogger = plugin.getDebugLogger();
         String version = Bukkit.getBukkitVersion().split("-")[0];
         isModernVersion = isVersionAtLeast(version, "1.19");
         isPurpur = Bukkit.getServer().getName().toLowerCase().contains("purpur");
         loadChunkAsyncMethod = getLoadChunkAsyncMethod();
-        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        MetricsManager metricsManager = plugin.getMetricsManager();
+        metricsManager.cacheSize("chunk_player_chunks", playerChunkCache::size);
+        metricsManager.cacheSize("chunk_preloaded", this::countPreloadedChunks);
+        metricsManager.cacheSize("chunk_player_network", playerNetworkUsage::size);
+        plugin.getListenerRegistrar().registerEvents(this, "chunks", () -> configManager.isChunkOptimizationEnabled() || configManager.isTeleportChunkLoadingEnabled());
         startChunkOptimization();
         startChunkPreloading();
         loadPreloadedChunkCache();
@@ -59,6 +78,14 @@ public class ChunkManager implements Listener {
         }
     }
 
+    private int countPreloadedChunks() {
+        int count = 0;
+        for (Set<ChunkCoord> chunks : preloadedChunkCache.values()) {
+            count += chunks.size();
+        }
+        return count;
+    }
+
     private Method getLoadChunkAsyncMethod() {
         if (!isPurpur) return null;
         try {
@@ -70,11 +97,37 @@ public class ChunkManager implements Listener {
     }
 
     private void loadPreloadedChunkCache() {
-        File file = new File(plugin.getDataFolder(), "preloaded-chunks.yml");
-        if (!file.exists()) return;
+        File file = new File(plugin.getDataFolder(), CHUNK_CACHE_FILE);
+        File legacyFile = new File(plugin.getDataFolder(), LEGACY_CHUNK_CACHE_FILE);
+        if (!file.exists()) {
+            if (legacyFile.exists()) migrateLegacyChunkCache(file, legacyFile);
+            return;
+        }
+        try {
+            long startTime = System.nanoTime();
+            for (Map.Entry<String, long[]> entry : ChunkCacheFile.read(file).entrySet()) {
+                Set<ChunkCoord> chunkCoords = new HashSet<>(entry.getValue().length * 4 / 3 + 1);
+                for (long key : entry.getValue()) {
+                    chunkCoords.add(new ChunkCoord(ChunkCacheFile.x(key), ChunkCacheFile.z(key)));
+                }
+                preloadedChunkCache.put(entry.getKey(), chunkCoords);
+            }
+            if (debugLogger.isEnabled(LogCategory.CHUNKS)) {
+                debugLogger.debug(LogCategory.CHUNKS, "Кэш предзагруженных чанков загружен: {} чанков за {} мс", countPreloadedChunks(), (System.nanoTime() - startTime) / 1_000_000);
+            }
+        } catch (Exception e) {
+            plugin.getLogger().severe("Ошибка загрузки кэша чанков: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+        }
+    }
+
+    // Разовый перенос кэша из старого YAML-файла, старый файл сохраняется с расширением .old
+    private void migrateLegacyChunkCache(File file, File legacyFile) {
         try {
             Yaml yaml = new Yaml();
-            Map<String, Object> data = yaml.load(new java.io.FileReader(file));
+            Map<String, Object> data;
+            try (FileReader reader = new FileReader(legacyFile)) {
+                data = yaml.load(reader);
+            }
             if (data != null) {
                 for (Map.Entry<String, Object> entry : data.entrySet()) {
                     String worldName = entry.getKey();
@@ -89,51 +142,68 @@ public class ChunkManager implements Listener {
                     preloadedChunkCache.put(worldName, chunkCoords);
                 }
             }
+            writeChunkCache(file, snapshotChunkCache());
+            Files.move(legacyFile.toPath(), new File(plugin.getDataFolder(), LEGACY_CHUNK_CACHE_FILE + ".old").toPath(), StandardCopyOption.REPLACE_EXISTING);
+            plugin.getLogger().info("Кэш чанков перенесён из " + LEGACY_CHUNK_CACHE_FILE + " в " + CHUNK_CACHE_FILE + ": " + countPreloadedChunks() + " чанков");
         } catch (Exception e) {
-            plugin.getLogger().severe("Ошибка загрузки кэша чанков: " + e.getMessage());
+            plugin.getLogger().severe("Ошибка переноса кэша чанков из " + LEGACY_CHUNK_CACHE_FILE + ": " + (e.getMessage() != null ? e.getMessage() : e.toString()));
         }
     }
 
-    public void savePreloadedChunkCache() {
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                File file = new File(plugin.getDataFolder(), "preloaded-chunks.yml");
-                try {
-                    Yaml yaml = new Yaml();
-                    Map<String, Object> data = new HashMap<>();
-                    for (Map.Entry<String, Set<ChunkCoord>> entry : preloadedChunkCache.entrySet()) {
-                        List<String> coords = entry.getValue().stream()
-                                .map(coord -> coord.x + "," + coord.z)
-                                .collect(Collectors.toList());
-                        data.put(entry.getKey(), coords);
-                    }
-                    try (FileWriter writer = new FileWriter(file)) {
-                        yaml.dump(data, writer);
-                    }
-                    if (configManager.isConsoleLoggingEnabled()) {
-                        plugin.getLogger().info("Кэш предзагруженных чанков сохранён в файл.");
-                    }
-                } catch (IOException e) {
-                    plugin.getLogger().severe("Ошибка сохранения кэша чанков: " + e.getMessage());
-                }
+    // Только из основного потока: снимок кэша, который можно записать в другом потоке
+    private Map<String, long[]> snapshotChunkCache() {
+        Map<String, long[]> snapshot = new HashMap<>();
+        for (Map.Entry<String, Set<ChunkCoord>> entry : preloadedChunkCache.entrySet()) {
+            long[] keys = new long[entry.getValue().size()];
+            int count = 0;
+            for (ChunkCoord coord : entry.getValue()) {
+                if (count == keys.length) keys = Arrays.copyOf(keys, count + 16);
+                keys[count++] = ChunkCacheFile.pack(coord.x, coord.z);
             }
-        }.runTaskAsynchronously(plugin);
+            snapshot.put(entry.getKey(), count == keys.length ? keys : Arrays.copyOf(keys, count));
+        }
+        return snapshot;
+    }
+
+    private synchronized void writeChunkCache(File file, Map<String, long[]> snapshot) throws IOException {
+        long startTime = System.nanoTime();
+        file.getParentFile().mkdirs();
+        ChunkCacheFile.write(file, snapshot);
+        if (debugLogger.isEnabled(LogCategory.CHUNKS)) {
+            debugLogger.debug(LogCategory.CHUNKS, "Кэш предзагруженных чанков сохранён в файл: {} байт за {} мс", file.length(), (System.nanoTime() - startTime) / 1_000_000);
+        }
+    }
+
+    // Синхронное сохранение, вызывается при выключении плагина
+    public void savePreloadedChunkCache() {
+        try {
+            writeChunkCache(new File(plugin.getDataFolder(), CHUNK_CACHE_FILE), snapshotChunkCache());
+        } catch (IOException e) {
+            plugin.getLogger().severe("Ошибка сохранения кэша чанков: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+        }
     }
 
     private void startPeriodicChunkCacheSave() {
         new BukkitRunnable() {
             @Override
             public void run() {
-                savePreloadedChunkCache();
+                Map<String, long[]> snapshot = snapshotChunkCache();
+                File file = new File(plugin.getDataFolder(), CHUNK_CACHE_FILE);
+                Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                    try {
+                        writeChunkCache(file, snapshot);
+                    } catch (IOException e) {
+                        plugin.getLogger().severe("Ошибка сохранения кэша чанков: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+                    }
+                });
             }
-        }.runTaskTimerAsynchronously(plugin, configManager.getChunkCacheSaveInterval(), configManager.getChunkCacheSaveInterval());
+        }.runTaskTimer(plugin, configManager.getChunkCacheSaveInterval(), configManager.getChunkCacheSaveInterval());
     }
 
     private void startChunkOptimization() {
         if (!configManager.isChunkOptimizationEnabled()) {
-            if (configManager.isConsoleLoggingEnabled()) {
-                plugin.getLogger().info("Оптимизация чанков отключена в конфигурации");
+            if (debugLogger.isEnabled(LogCategory.CHUNKS)) {
+                debugLogger.debug(LogCategory.CHUNKS, "Оптимизация чанков отключена в конфигурации");
             }
             return;
         }
@@ -143,12 +213,12 @@ public class ChunkManager implements Listener {
             public void run() {
                 try {
                     long startTime = System.nanoTime();
-                    double tps = Bukkit.getTPS()[0];
-                    int loadDistance = Math.min(configManager.getChunkLoadDistance(), configManager.getMaxViewDistance());
-                    if (configManager.isDynamicLoadDistanceEnabled() && tps < configManager.getDynamicTpsThreshold()) {
+                    double tps = tickMonitor.getStats().getTps();
+                    int loadDistance = Math.min(adaptiveLimits.getLoadDistance(), configManager.getMaxViewDistance());
+                    if (configManager.isDynamicLoadDistanceEnabled() && !adaptiveLimits.isEnabled() && tps < configManager.getDynamicTpsThreshold()) {
                         loadDistance = Math.max(configManager.getMinLoadDistance(), loadDistance - 2);
-                        if (configManager.isConsoleLoggingEnabled()) {
-                            plugin.getLogger().info("TPS " + String.format("%.2f", tps) + " ниже порога, уменьшена дистанция прогрузки до " + loadDistance);
+                        if (debugLogger.isEnabled(LogCategory.CHUNKS)) {
+                            debugLogger.debug(LogCategory.CHUNKS, "TPS {} ниже порога, уменьшена дистанция прогрузки до {}", String.format("%.2f", tps), loadDistance);
                         }
                     }
 
@@ -162,8 +232,8 @@ public class ChunkManager implements Listener {
                         int targetViewDistance = Math.min(loadDistance, serverViewDistance);
                         if (world.getViewDistance() != targetViewDistance) {
                             world.setViewDistance(targetViewDistance);
-                            if (configManager.isConsoleLoggingEnabled()) {
-                                plugin.getLogger().info("Установлена дистанция прогрузки для мира " + world.getName() + ": " + targetViewDistance);
+                            if (debugLogger.isEnabled(LogCategory.CHUNKS)) {
+                                debugLogger.debug(LogCategory.CHUNKS, "Установлена дистанция прогрузки для мира {}: {}", world.getName(), targetViewDistance);
                             }
                         }
 
@@ -175,8 +245,8 @@ public class ChunkManager implements Listener {
                                 if (processed >= chunksPerTick) break;
                                 if (chunk == null || !chunk.isLoaded()) {
                                     playerChunks.remove(chunk);
-                                    if (configManager.isConsoleLoggingEnabled()) {
-                                        plugin.getLogger().info("Удалён из кэша невалидный или выгруженный чанк для игрока " + player.getName());
+                                    if (debugLogger.isEnabled(LogCategory.CHUNKS)) {
+                                        debugLogger.debug(LogCategory.CHUNKS, "Удалён из кэша невалидный или выгруженный чанк для игрока {}", player.getName());
                                     }
                                     continue;
                                 }
@@ -193,22 +263,22 @@ public class ChunkManager implements Listener {
                                             if (loadLevel != entityTicking) {
                                                 chunk.unload(true);
                                                 playerChunks.remove(chunk);
-                                                if (configManager.isConsoleLoggingEnabled()) {
-                                                    plugin.getLogger().info("Выгружен чанк (" + chunk.getX() + ", " + chunk.getZ() + ") для игрока " + player.getName() + " в мире " + world.getName());
+                                                if (debugLogger.isEnabled(LogCategory.CHUNKS)) {
+                                                    debugLogger.debug(LogCategory.CHUNKS, "Выгружен чанк ({}, {}) для игрока {} в мире {}", chunk.getX(), chunk.getZ(), player.getName(), world.getName());
                                                 }
                                             }
                                         } catch (Exception e) {
                                             chunk.unload(true);
                                             playerChunks.remove(chunk);
-                                            if (configManager.isConsoleLoggingEnabled()) {
-                                                plugin.getLogger().info("Выгружен чанк (" + chunk.getX() + ", " + chunk.getZ() + ") для игрока " + player.getName() + " в мире " + world.getName());
+                                            if (debugLogger.isEnabled(LogCategory.CHUNKS)) {
+                                                debugLogger.debug(LogCategory.CHUNKS, "Выгружен чанк ({}, {}) для игрока {} в мире {}", chunk.getX(), chunk.getZ(), player.getName(), world.getName());
                                             }
                                         }
                                     } else {
                                         chunk.unload(true);
                                         playerChunks.remove(chunk);
-                                        if (configManager.isConsoleLoggingEnabled()) {
-                                            plugin.getLogger().info("Выгружен чанк (" + chunk.getX() + ", " + chunk.getZ() + ") для игрока " + player.getName() + " в мире " + world.getName());
+                                        if (debugLogger.isEnabled(LogCategory.CHUNKS)) {
+                                            debugLogger.debug(LogCategory.CHUNKS, "Выгружен чанк ({}, {}) для игрока {} в мире {}", chunk.getX(), chunk.getZ(), player.getName(), world.getName());
                                         }
                                     }
                                 }
@@ -218,8 +288,8 @@ public class ChunkManager implements Listener {
                         }
                     }
                     long duration = (System.nanoTime() - startTime) / 1_000_000;
-                    if (duration > 50 && configManager.isConsoleLoggingEnabled()) {
-                        plugin.getLogger().warning("Задача оптимизации чанков заняла " + duration + " мс, обработано чанков: " + totalProcessed);
+                    if (duration > 50 && debugLogger.isEnabled(LogCategory.CHUNKS)) {
+                        debugLogger.warning(LogCategory.CHUNKS, "Задача оптимизации чанков заняла {} мс, обработано чанков: {}", duration, totalProcessed);
                     }
                 } catch (Exception e) {
                     plugin.getLogger().severe("Ошибка в задаче оптимизации чанков: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
@@ -230,8 +300,8 @@ public class ChunkManager implements Listener {
 
     private void startChunkPreloading() {
         if (!configManager.isChunkOptimizationEnabled()) {
-            if (configManager.isConsoleLoggingEnabled()) {
-                plugin.getLogger().info("Предзагрузка чанков отключена в конфигурации");
+            if (debugLogger.isEnabled(LogCategory.CHUNKS)) {
+                debugLogger.debug(LogCategory.CHUNKS, "Предзагрузка чанков отключена в конфигурации");
             }
             return;
         }
@@ -268,8 +338,8 @@ public class ChunkManager implements Listener {
                                             if (preloadedChunks.contains(coord) && world.isChunkLoaded(targetX, targetZ)) {
                                                 Chunk chunk = world.getChunkAt(targetX, targetZ);
                                                 playerChunks.add(chunk);
-                                                if (configManager.isConsoleLoggingEnabled()) {
-                                                    plugin.getLogger().info("Чанк (" + targetX + ", " + targetZ + ") из кэша добавлен для игрока " + player.getName() + " в мире " + world.getName());
+                                                if (debugLogger.isEnabled(LogCategory.CHUNKS)) {
+                                                    debugLogger.debug(LogCategory.CHUNKS, "Чанк ({}, {}) из кэша добавлен для игрока {} в мире {}", targetX, targetZ, player.getName(), world.getName());
                                                 }
                                             } else if (configManager.isAsyncChunkLoadingEnabled()) {
                                                 loadChunkSafely(world, targetX, targetZ, playerChunks, preloadedChunks, player);
@@ -283,8 +353,8 @@ public class ChunkManager implements Listener {
                         }
                     }
                     long duration = (System.nanoTime() - startTime) / 1_000_000;
-                    if (duration > 50 && configManager.isConsoleLoggingEnabled()) {
-                        plugin.getLogger().warning("Предзагрузка чанков заняла " + duration + " мс, обработано чанков: " + totalProcessed);
+                    if (duration > 50 && debugLogger.isEnabled(LogCategory.CHUNKS)) {
+                        debugLogger.warning(LogCategory.CHUNKS, "Предзагрузка чанков заняла {} мс, обработано чанков: {}", duration, totalProcessed);
                     }
                 } catch (Exception e) {
                     plugin.getLogger().severe("Ошибка предзагрузки чанков: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
@@ -302,8 +372,8 @@ public class ChunkManager implements Listener {
                         playerChunks.add((Chunk) chunk);
                         preloadedChunks.add(new ChunkCoord(x, z));
                         playerNetworkUsage.merge(player, 1024L * 1024L, Long::sum);
-                        if (configManager.isConsoleLoggingEnabled()) {
-                            plugin.getLogger().info("Асинхронно предзагружен чанк (" + x + ", " + z + ") для игрока " + player.getName() + " в мире " + world.getName());
+                        if (debugLogger.isEnabled(LogCategory.CHUNKS)) {
+                            debugLogger.debug(LogCategory.CHUNKS, "Асинхронно предзагружен чанк ({}, {}) для игрока {} в мире {}", x, z, player.getName(), world.getName());
                         }
                     }
                 }, Bukkit.getScheduler().getMainThreadExecutor(plugin));
@@ -326,8 +396,8 @@ public class ChunkManager implements Listener {
                     playerChunks.add(chunk);
                     preloadedChunks.add(new ChunkCoord(x, z));
                     playerNetworkUsage.merge(player, 1024L * 1024L, Long::sum);
-                    if (configManager.isConsoleLoggingEnabled()) {
-                        plugin.getLogger().info("Синхронно загружен чанк (" + x + ", " + z + ") для игрока " + player.getName() + " в мире " + world.getName());
+                    if (debugLogger.isEnabled(LogCategory.CHUNKS)) {
+                        debugLogger.debug(LogCategory.CHUNKS, "Синхронно загружен чанк ({}, {}) для игрока {} в мире {}", x, z, player.getName(), world.getName());
                     }
                 } catch (Exception e) {
                     plugin.getLogger().warning("Ошибка синхронной загрузки чанка (" + x + ", " + z + "): " + e.getMessage());
@@ -336,7 +406,7 @@ public class ChunkManager implements Listener {
         }.runTask(plugin);
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR)
     public void onChunkLoad(ChunkLoadEvent event) {
         if (!configManager.isChunkOptimizationEnabled()) return;
         try {
@@ -351,8 +421,8 @@ public class ChunkManager implements Listener {
                 int chunkDistance = Math.max(Math.abs(chunkX - chunk.getX()), Math.abs(chunkZ - chunk.getZ()));
                 if (chunkDistance <= configManager.getMaxViewDistance()) {
                     playerChunkCache.computeIfAbsent(player, k -> new HashSet<>()).add(chunk);
-                    if (configManager.isConsoleLoggingEnabled()) {
-                        plugin.getLogger().info("Чанк (" + chunk.getX() + ", " + chunk.getZ() + ") добавлен в кэш игрока " + player.getName() + " в мире " + chunk.getWorld().getName());
+                    if (debugLogger.isEnabled(LogCategory.CHUNKS)) {
+                        debugLogger.debug(LogCategory.CHUNKS, "Чанк ({}, {}) добавлен в кэш игрока {} в мире {}", chunk.getX(), chunk.getZ(), player.getName(), chunk.getWorld().getName());
                     }
                 }
             }
@@ -361,7 +431,7 @@ public class ChunkManager implements Listener {
         }
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerTeleport(PlayerTeleportEvent event) {
         if (!configManager.isTeleportChunkLoadingEnabled()) return;
         try {
@@ -384,18 +454,18 @@ public class ChunkManager implements Listener {
                 @Override
                 public void run() {
                     try {
-                        double tps = Bukkit.getTPS()[0];
+                        double tps = tickMonitor.getStats().getTps();
                         if (tps < configManager.getDynamicTpsThreshold()) {
                             chunksPerTick[0] = Math.max(1, chunksPerTick[0] / 2);
-                            if (configManager.isConsoleLoggingEnabled()) {
-                                plugin.getLogger().info("TPS " + String.format("%.2f", tps) + " ниже порога, уменьшено кол-во чанков за тик до " + chunksPerTick[0]);
+                            if (debugLogger.isEnabled(LogCategory.CHUNKS)) {
+                                debugLogger.debug(LogCategory.CHUNKS, "TPS {} ниже порога, уменьшено кол-во чанков за тик до {}", String.format("%.2f", tps), chunksPerTick[0]);
                             }
                         }
 
                         long networkUsage = playerNetworkUsage.getOrDefault(player, 0L);
                         if (networkUsage > networkLimit) {
-                            if (configManager.isConsoleLoggingEnabled()) {
-                                plugin.getLogger().info("Превышен лимит сети для игрока " + player.getName() + ": " + networkUsage + " байт");
+                            if (debugLogger.isEnabled(LogCategory.CHUNKS)) {
+                                debugLogger.debug(LogCategory.CHUNKS, "Превышен лимит сети для игрока {}: {} байт", player.getName(), networkUsage);
                             }
                             return;
                         }
@@ -412,8 +482,8 @@ public class ChunkManager implements Listener {
                                             Chunk chunk = world.getChunkAt(targetX, targetZ);
                                             playerChunks.add(chunk);
                                             playerNetworkUsage.merge(player, 1024L * 1024L, Long::sum);
-                                            if (configManager.isConsoleLoggingEnabled()) {
-                                                plugin.getLogger().info("Чанк (" + targetX + ", " + targetZ + ") из кэша добавлен для игрока " + player.getName() + " в мире " + world.getName());
+                                            if (debugLogger.isEnabled(LogCategory.CHUNKS)) {
+                                                debugLogger.debug(LogCategory.CHUNKS, "Чанк ({}, {}) из кэша добавлен для игрока {} в мире {}", targetX, targetZ, player.getName(), world.getName());
                                             }
                                         } else {
                                             loadChunkSafely(world, targetX, targetZ, playerChunks, preloadedChunks, player);
@@ -437,7 +507,7 @@ public class ChunkManager implements Listener {
         }
     }
 
-    private static class ChunkCoord {
+    static final class ChunkCoord {
         private final int x;
         private final int z;
 
@@ -0,0 +1,229 @@
+package org.gw.optimizationlagmanager.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.BlockEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityEvent;
+import org.bukkit.event.entity.EntitySpawnEvent;
+import org.bukkit.event.inventory.InventoryEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.gw.optimizationlagmanager.OptimizationLagManager;
+import org.gw.optimizationlagmanager.utils.ChunkKeys;
+import org.gw.optimizationlagmanager.utils.DebugLogger;
+import org.gw.optimizationlagmanager.utils.LogCategory;
+import org.gw.optimizationlagmanager.utils.LongObjectHashMap;
+import org.gw.optimizationlagmanager.utils.TickWindowCounter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ChunkProfiler {
+    // Время обработчиков копится в единицах по 100 нс, чтобы сумма за окно помещалась в int
+    private static final int TIME_UNIT_NANOS = 100;
+    private static final int BUCKETS = 10;
+
+    private final OptimizationLagManager plugin;
+    private final TickMonitor tickMonitor;
+    private final DebugLogger debugLogger;
+    private final List<Class<? extends Event>> eventTypes = new ArrayList<>();
+    private TickWindowCounter[] counts = new TickWindowCounter[0];
+    private TickWindowCounter[] times = new TickWindowCounter[0];
+    private volatile boolean running = false;
+    private int startTick = 0;
+    private int endTick = 0;
+    private int windowTicks = 0;
+    private BukkitRunnable stopTask;
+
+    public static class Entry {
+        private final long chunkKey;
+        private int events = 0;
+        private long timeUnits = 0L;
+        private int dominantType = -1;
+        private long dominantWeight = 0L;
+
+        private Entry(long chunkKey) {
+            this.chunkKey = chunkKey;
+        }
+
+        public long getChunkKey() {
+            return chunkKey;
+        }
+
+        public int getEvents() {
+            return events;
+        }
+
+        public long getNanos() {
+            return timeUnits * TIME_UNIT_NANOS;
+        }
+    }
+
+    public static class Report {
+        private final List<Entry> entries;
+        private final List<Class<? extends Event>> eventTypes;
+        private final int elapsedTicks;
+
+        private Report(List<Entry> entries, List<Class<? extends Event>> eventTypes, int elapsedTicks) {
+            this.entries = entries;
+            this.eventTypes = eventTypes;
+            this.elapsedTicks = elapsedTicks;
+        }
+
+        public List<Entry> getEntries() {
+            return entries;
+        }
+
+        public int getElapsedTicks() {
+            return elapsedTicks;
+        }
+
+        public String getDominantEvent(Entry entry) {
+            return entry.dominantType < 0 ? "-" : eventTypes.get(entry.dominantType).getSimpleName();
+        }
+
+        public double getEventsPerSecond(Entry entry) {
+            return entry.events * 20.0 / elapsedTicks;
+        }
+
+        public double getMsPerTick(Entry entry) {
+            return entry.getNanos() / 1_000_000.0 / elapsedTicks;
+        }
+    }
+
+    public ChunkProfiler(OptimizationLagManager plugin) {
+        this.plugin = plugin;
+        this.tickMonitor = plugin.getTickMonitor();
+        this.debugLogger = plugin.getDebugLogger();
+    }
+
+    // Вызывается при регистрации обработчиков, до первого запуска профилирования
+    public int registerEventType(Class<? extends Event> eventClass) {
+        int index = eventTypes.indexOf(eventClass);
+        if (index >= 0) return index;
+        eventTypes.add(eventClass);
+        return eventTypes.size() - 1;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean hasData() {
+        return counts.length > 0;
+    }
+
+    public void start(int seconds, Runnable onFinish) {
+        stop();
+        windowTicks = seconds * 20;
+        int bucketTicks = (windowTicks + BUCKETS - 1) / BUCKETS;
+        // Лишняя корзина: начало замера не совпадает с границей корзины и не должно выпасть из окна к концу замера
+        counts = new TickWindowCounter[eventTypes.size()];
+        times = new TickWindowCounter[eventTypes.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new TickWindowCounter(bucketTicks * (BUCKETS + 1), BUCKETS + 1);
+            times[i] = new TickWindowCounter(bucketTicks * (BUCKETS + 1), BUCKETS + 1);
+        }
+        startTick = tickMonitor.getCurrentTick();
+        running = true;
+        plugin.getListenerRegistrar().refreshExecutors();
+        stopTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                stopTask = null;
+                stop();
+                onFinish.run();
+            }
+        };
+        stopTask.runTaskLater(plugin, windowTicks);
+        if (debugLogger.isEnabled(LogCategory.GENERAL)) {
+            debugLogger.debug(LogCategory.GENERAL, "Профилирование чанков запущено на {} секунд, типов событий: {}", seconds, counts.length);
+        }
+    }
+
+    public void stop() {
+        if (stopTask != null) {
+            stopTask.cancel();
+            stopTask = null;
+        }
+        if (!running) return;
+        running = false;
+        endTick = tickMonitor.getCurrentTick();
+        plugin.getListenerRegistrar().refreshExecutors();
+        if (debugLogger.isEnabled(LogCategory.GENERAL)) {
+            debugLogger.debug(LogCategory.GENERAL, "Профилирование чанков остановлено через {} тиков", endTick - startTick);
+        }
+    }
+
+    // Только из основного потока, вызывается обёрткой обработчика из ListenerRegistrar
+    public void record(int type, Event event, long nanos) {
+        if (!running || type >= counts.length || !Bukkit.isPrimaryThread()) return;
+        long chunkKey = chunkKeyOf(event);
+        if (chunkKey < 0) return;
+        int tick = tickMonitor.getCurrentTick();
+        counts[type].increment(chunkKey, tick);
+        times[type].add(chunkKey, tick, (int) Math.min(Integer.MAX_VALUE, (nanos + TIME_UNIT_NANOS / 2) / TIME_UNIT_NANOS));
+    }
+
+    // Чанки по убыванию времени обработчиков
+    public Report report() {
+        int tick = running ? tickMonitor.getCurrentTick() : endTick;
+        int elapsedTicks = Math.max(1, Math.min(windowTicks, tick - startTick));
+        LongObjectHashMap<Entry> entries = new LongObjectHashMap<>();
+        List<Entry> ranked = new ArrayList<>();
+        // Основной тип события - с наибольшим временем, для чанков с одними быстрыми обработчиками - с наибольшим числом событий
+        for (int type = 0; type < times.length; type++) {
+            int currentType = type;
+            times[type].forEach(tick, (chunkKey, time) -> {
+                Entry entry = entry(entries, ranked, chunkKey);
+                entry.timeUnits += time;
+                if (time > entry.dominantWeight) {
+                    entry.dominantWeight = time;
+                    entry.dominantType = currentType;
+                }
+            });
+        }
+        for (int type = 0; type < counts.length; type++) {
+            int currentType = type;
+            counts[type].forEach(tick, (chunkKey, count) -> {
+                Entry entry = entry(entries, ranked, chunkKey);
+                entry.events += count;
+                if (entry.timeUnits == 0 && count > entry.dominantWeight) {
+                    entry.dominantWeight = count;
+                    entry.dominantType = currentType;
+                }
+            });
+        }
+        ranked.sort((a, b) -> a.timeUnits != b.timeUnits ? Long.compare(b.timeUnits, a.timeUnits) : Integer.compare(b.events, a.events));
+        return new Report(ranked, new ArrayList<>(eventTypes), elapsedTicks);
+    }
+
+    private static Entry entry(LongObjectHashMap<Entry> entries, List<Entry> ranked, long chunkKey) {
+        Entry entry = entries.get(chunkKey);
+        if (entry == null) {
+            entry = new Entry(chunkKey);
+            entries.put(chunkKey, entry);
+            ranked.add(entry);
+        }
+        return entry;
+    }
+
+    private static long chunkKeyOf(Event event) {
+        if (event instanceof BlockEvent) return ChunkKeys.of(((BlockEvent) event).getBlock());
+        if (event instanceof EntityChangeBlockEvent) return ChunkKeys.of(((EntityChangeBlockEvent) event).getBlock());
+        if (event instanceof EntitySpawnEvent) return ChunkKeys.of(((EntitySpawnEvent) event).getLocation());
+        if (event instanceof EntityEvent) return ChunkKeys.of(((EntityEvent) event).getEntity().getLocation());
+        if (event instanceof PlayerInteractEvent) {
+            Block block = ((PlayerInteractEvent) event).getClickedBlock();
+            return block != null ? ChunkKeys.of(block) : -1L;
+        }
+        if (event instanceof InventoryEvent) {
+            Location location = ((InventoryEvent) event).getInventory().getLocation();
+            return location != null && location.getWorld() != null ? ChunkKeys.of(location) : -1L;
+        }
+        return -1L;
+    }
+}
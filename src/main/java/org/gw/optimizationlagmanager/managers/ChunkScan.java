@@ -0,0 +1,161 @@
+package org.gw.optimizationlagmanager.managers;
+
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class ChunkScan {
+    private static final EntityType[] ENTITY_TYPES = EntityType.values();
+
+    private final long chunkKey;
+    private final ChunkSnapshot snapshot;
+    private final int minHeight;
+    private final int maxHeight;
+    private final long capturedAt;
+    private final int capturedTick;
+    private final int[] entityTypes;
+    private final int[] entityPositions;
+    private final int[] entityTypeCounts;
+
+    // Позиции блоков внутри чанка, собранные при анализе снимка; count может быть больше числа позиций,
+    // если детектор считает блоки, но сохраняет только подходящие для удаления
+    public static final class Positions {
+        private int[] positions = new int[16];
+        private int size = 0;
+        private int count = 0;
+
+        public void count() {
+            count++;
+        }
+
+        public void add(int x, int y, int z) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size << 1);
+            }
+            positions[size++] = pack(x, y, z);
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        // Упакованная позиция, см. pack
+        public int get(int index) {
+            return positions[index];
+        }
+
+        // Только из основного потока
+        public List<Block> toBlocks(Chunk chunk) {
+            List<Block> blocks = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                blocks.add(blockAt(chunk, positions[i]));
+            }
+            return blocks;
+        }
+    }
+
+    public static int pack(int x, int y, int z) {
+        return (y << 8) | (x << 4) | z;
+    }
+
+    public static Block blockAt(Chunk chunk, int packed) {
+        return chunk.getBlock((packed >> 4) & 15, packed >> 8, packed & 15);
+    }
+
+    // Снимается в основном потоке, дальше только читается из потоков анализа
+    ChunkScan(long chunkKey, Chunk chunk, int capturedTick) {
+        this.chunkKey = chunkKey;
+        this.snapshot = chunk.getChunkSnapshot(false, false, false);
+        this.minHeight = chunk.getWorld().getMinHeight();
+        this.maxHeight = chunk.getWorld().getMaxHeight();
+        this.capturedAt = System.currentTimeMillis();
+        this.capturedTick = capturedTick;
+
+        Entity[] entities = chunk.getEntities();
+        this.entityTypes = new int[entities.length];
+        this.entityPositions = new int[entities.length * 3];
+        this.entityTypeCounts = new int[ENTITY_TYPES.length];
+        Location location = new Location(null, 0.0, 0.0, 0.0);
+        for (int i = 0; i < entities.length; i++) {
+            int type = entities[i].getType().ordinal();
+            entities[i].getLocation(location);
+            entityTypes[i] = type;
+            entityPositions[i * 3] = location.getBlockX() & 15;
+            entityPositions[i * 3 + 1] = location.getBlockY();
+            entityPositions[i * 3 + 2] = location.getBlockZ() & 15;
+            entityTypeCounts[type]++;
+        }
+    }
+
+    public long getChunkKey() {
+        return chunkKey;
+    }
+
+    public ChunkSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public int getMinHeight() {
+        return minHeight;
+    }
+
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+
+    public long getCapturedAt() {
+        return capturedAt;
+    }
+
+    public int getCapturedTick() {
+        return capturedTick;
+    }
+
+    // Координаты внутри чанка; всё, что за его пределами, считается воздухом
+    public Material getType(int x, int y, int z) {
+        if (x < 0 || x > 15 || z < 0 || z > 15 || y < minHeight || y >= maxHeight) return Material.AIR;
+        return snapshot.getBlockType(x, y, z);
+    }
+
+    // Только для координат внутри чанка
+    public BlockData getBlockData(int x, int y, int z) {
+        return snapshot.getBlockData(x, y, z);
+    }
+
+    public int countEntities(EntityType type) {
+        return entityTypeCounts[type.ordinal()];
+    }
+
+    public int getEntityCount() {
+        return entityTypes.length;
+    }
+
+    public EntityType getEntityType(int index) {
+        return ENTITY_TYPES[entityTypes[index]];
+    }
+
+    public int getEntityX(int index) {
+        return entityPositions[index * 3];
+    }
+
+    public int getEntityY(int index) {
+        return entityPositions[index * 3 + 1];
+    }
+
+    public int getEntityZ(int index) {
+        return entityPositions[index * 3 + 2];
+    }
+}
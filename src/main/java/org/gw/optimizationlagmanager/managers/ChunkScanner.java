@@ -0,0 +1,180 @@
+package org.gw.optimizationlagmanager.managers;
+
+import org.bukkit.Chunk;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.gw.optimizationlagmanager.OptimizationLagManager;
+import org.gw.optimizationlagmanager.utils.ChunkKeys;
+import org.gw.optimizationlagmanager.utils.DebugLogger;
+import org.gw.optimizationlagmanager.utils.LogCategory;
+import org.gw.optimizationlagmanager.utils.LongObjectHashMap;
+import org.gw.optimizationlagmanager.utils.Metrics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ChunkScanner {
+    private final OptimizationLagManager plugin;
+    private final ConfigManager configManager;
+    private final TickMonitor tickMonitor;
+    private final DebugLogger debugLogger;
+    private final ArrayDeque<ScanRequest> pending = new ArrayDeque<>();
+    private final LongObjectHashMap<ScanRequest> pendingByChunk = new LongObjectHashMap<>();
+    private final Queue<Runnable> completed = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Metrics.Counter chunksScanned;
+    private final ExecutorService workers;
+    private final BukkitRunnable tickTask;
+
+    // analyse вызывается в потоке анализа и работает только со снимком,
+    // apply вызывается в основном потоке, если analyse вернул не null.
+    // captured вызывается в основном потоке сразу после снятия снимка: изменения чанка после него в снимок не попали
+    public interface Detector<T> {
+        default void captured(ChunkScan scan) {
+        }
+
+        T analyse(ChunkScan scan);
+
+        void apply(ChunkScan scan, T result);
+    }
+
+    private static class ScanRequest {
+        final long chunkKey;
+        final List<Detector<?>> detectors = new ArrayList<>(2);
+
+        ScanRequest(long chunkKey) {
+            this.chunkKey = chunkKey;
+        }
+    }
+
+    public ChunkScanner(OptimizationLagManager plugin, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.tickMonitor = plugin.getTickMonitor();
+        this.debugLogger = plugin.getDebugLogger();
+        MetricsManager metricsManager = plugin.getMetricsManager();
+        this.chunksScanned = metricsManager.chunksScanned();
+        metricsManager.queueSize("chunk_scan_pending", pending::size);
+        metricsManager.queueSize("chunk_scan_in_flight", inFlight::get);
+        metricsManager.queueSize("chunk_scan_results", completed::size);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(configManager.getScanWorkerThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "OptimizationLagManager-Scan-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.tickTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                applyResults();
+                captureSnapshots();
+            }
+        };
+        tickTask.runTaskTimer(plugin, 1L, 1L);
+    }
+
+    // Только из основного потока. Повторная заявка на тот же чанк до снятия снимка объединяется с первой
+    public boolean submit(Chunk chunk, Detector<?> detector) {
+        return submit(ChunkKeys.of(chunk), detector);
+    }
+
+    public boolean submit(long chunkKey, Detector<?> detector) {
+        ScanRequest request = pendingByChunk.get(chunkKey);
+        if (request == null) {
+            request = new ScanRequest(chunkKey);
+            pendingByChunk.put(chunkKey, request);
+            pending.add(request);
+        } else if (request.detectors.contains(detector)) {
+            return false;
+        }
+        request.detectors.add(detector);
+        return true;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    public void shutdown() {
+        tickTask.cancel();
+        workers.shutdownNow();
+        pending.clear();
+        pendingByChunk.clear();
+        completed.clear();
+    }
+
+    private void applyResults() {
+        Runnable result;
+        while ((result = completed.poll()) != null) {
+            try {
+                result.run();
+            } catch (Exception e) {
+                plugin.getLogger().severe("Ошибка применения результата сканирования чанка: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+            }
+        }
+    }
+
+    private void captureSnapshots() {
+        if (pending.isEmpty()) return;
+        long startTime = System.nanoTime();
+        long budgetNanos = configManager.getScanTickBudgetMicros() * 1000L;
+        int maxSnapshots = configManager.getScanSnapshotsPerTick();
+        int maxInFlight = maxSnapshots * 4;
+        int captured = 0;
+
+        while (captured < maxSnapshots && inFlight.get() < maxInFlight && !pending.isEmpty()) {
+            ScanRequest request = pending.poll();
+            pendingByChunk.remove(request.chunkKey);
+            Chunk chunk = ChunkKeys.chunkIfLoaded(request.chunkKey);
+            if (chunk == null) continue;
+
+            ChunkScan scan = new ChunkScan(request.chunkKey, chunk, tickMonitor.getCurrentTick());
+            captured++;
+            for (Detector<?> detector : request.detectors) {
+                detector.captured(scan);
+            }
+            inFlight.incrementAndGet();
+            try {
+                workers.execute(() -> {
+                    try {
+                        for (Detector<?> detector : request.detectors) {
+                            analyse(scan, detector);
+                        }
+                        chunksScanned.inc();
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.decrementAndGet();
+                return;
+            }
+            if (System.nanoTime() - startTime >= budgetNanos) break;
+        }
+
+        if (captured > 0 && debugLogger.isEnabled(LogCategory.CHUNKS)) {
+            debugLogger.debug(LogCategory.CHUNKS, "Снято снимков чанков: {} за {} мкс, в очереди: {}", captured, (System.nanoTime() - startTime) / 1000, pending.size());
+        }
+    }
+
+    private <T> void analyse(ChunkScan scan, Detector<T> detector) {
+        try {
+            T result = detector.analyse(scan);
+            if (result != null) {
+                completed.add(() -> detector.apply(scan, result));
+            }
+        } catch (Exception e) {
+            plugin.getLogger().severe("Ошибка анализа снимка чанка " + ChunkKeys.toString(scan.getChunkKey()) + ": " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+        }
+    }
+}
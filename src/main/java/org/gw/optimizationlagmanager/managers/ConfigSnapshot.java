@@ -0,0 +1,459 @@
+package org.gw.optimizationlagmanager.managers;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.gw.optimizationlagmanager.utils.MaterialFlags;
+import org.gw.optimizationlagmanager.utils.MessageTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+// Неизменяемый снимок настроек: собирается целиком из конфига и публикуется в ConfigManager одной ссылкой.
+// Обработчик события или поток анализа, взявший снимок, до конца работы видит согласованный набор значений.
+// Производные значения (задержки в миллисекундах, множество исключённых миров) считаются здесь один раз
+public final class ConfigSnapshot {
+    private final boolean consoleLoggingEnabled;
+    private final boolean consoleNotificationsEnabled;
+    private final int scanSnapshotsPerTick;
+    private final int scanTickBudgetMicros;
+    private final int scanWorkerThreads;
+    private final int schedulerBudgetMicros;
+    private final int coverageIntervalTicks;
+    private final int enforcementBudgetMicros;
+    private final boolean lagMachineRegistryEnabled;
+    private final int registryFlushIntervalTicks;
+    private final int registryCompactIntervalMinutes;
+    private final int registryRetentionDays;
+    private final int registryMaxEntries;
+    private final boolean registryRestoreCooldowns;
+    private final boolean metricsEnabled;
+    private final String metricsHost;
+    private final int metricsPort;
+    private final int profileDefaultSeconds;
+    private final int profileTopChunks;
+    private final boolean adaptiveEnabled;
+    private final double adaptiveTargetMspt;
+    private final double adaptiveProportionalGain;
+    private final double adaptiveIntegralGain;
+    private final double adaptiveDeadbandMspt;
+    private final double adaptiveMaxStep;
+    private final int adaptiveRedstoneUpdatesMin;
+    private final int adaptiveRedstoneUpdatesMax;
+    private final int adaptiveMobsPerChunkMin;
+    private final int adaptiveMobsPerChunkMax;
+    private final int adaptiveContainersPerChunkMin;
+    private final int adaptiveContainersPerChunkMax;
+    private final int adaptiveLoadDistanceMin;
+    private final int adaptiveLoadDistanceMax;
+
+    private final boolean chunkOptimizationEnabled;
+    private final int chunkLoadDistance;
+    private final int chunkUnloadDelay;
+    private final int chunkCacheSaveInterval;
+    private final boolean dynamicLoadDistanceEnabled;
+    private final double dynamicTpsThreshold;
+    private final int minLoadDistance;
+    private final boolean teleportChunkLoadingEnabled;
+    private final boolean asyncChunkLoadingEnabled;
+    private final int chunksPerTickTeleport;
+    private final int maxViewDistance;
+    private final int sendDelayTicks;
+    private final long playerSendMaxBytes;
+
+    private final boolean mobSpawningEnabled;
+    private final int maxMobsPerChunk;
+    private final boolean spawnRateReductionEnabled;
+    private final double tpsThreshold;
+    private final int reductionPercentage;
+    private final boolean spawnerLimitEnabled;
+    private final int maxMobsPerSpawner;
+    private final int spawnerDelay;
+    private final int spawnerRadiusCheck;
+
+    private final boolean redstoneOptimizationEnabled;
+    private final int maxRedstoneUpdatesPerTick;
+    private final boolean redstoneTokenBucketEnabled;
+    private final double redstoneRefillPerTick;
+    private final int redstoneBurst;
+    private final int redstoneBucketRegionSize;
+    private final boolean redstoneThrottleEnabled;
+    private final int redstoneThrottleDelayTicks;
+    private final int redstoneThrottleApplyPerTick;
+    private final double criticalTpsThreshold;
+    private final boolean disableRedstoneLowTps;
+    private final double redstoneTpsThreshold;
+    private final boolean playerRadiusCheckEnabled;
+    private final int redstonePlayerRadius;
+    private final boolean patternScanEnabled;
+    private final int patternScanInterval;
+    private final boolean lagDetectionEnabled;
+    private final int lagDetectionThreshold;
+    private final int clusterActivityThreshold;
+    private final int regionActivityThreshold;
+    private final int lagDetectionCooldown;
+    private final long lagDetectionCooldownMillis;
+    private final int minRedstoneComponents;
+    private final int maxClockPeriodTicks;
+    private final boolean oscillationEnabled;
+    private final OscillationTracker.Criteria oscillationCriteria;
+    private final boolean destroyComponentsEnabled;
+    private final int maxDestroyedComponents;
+    private final List<String> whitelistBlocks;
+    private final List<String> monitoredBlocks;
+    private final MaterialFlags materialFlags;
+
+    private final boolean physicsOptimizationEnabled;
+    private final List<String> excludedWorlds;
+    private final Set<String> excludedWorldSet;
+    private final boolean disableFallingBlocks;
+    private final boolean disableWaterFlow;
+    private final boolean disableLavaFlow;
+    private final boolean trapdoorLimitEnabled;
+    private final int maxTrapdoorUpdatesPerTick;
+    private final int clusterTrapdoorUpdatesPerTick;
+    private final int regionTrapdoorUpdatesPerTick;
+    private final boolean fallingBlockLimitEnabled;
+    private final int maxFallingBlocksPerChunk;
+    private final boolean destroyStaticSandEnabled;
+    private final int maxStaticSandPerChunk;
+    private final boolean cobwebDetectionEnabled;
+    private final boolean destroyCobwebsEnabled;
+    private final int maxCobwebsPerChunk;
+
+    private final boolean entityOptimizationEnabled;
+    private final int maxEntitiesPerChunk;
+    private final int removeDropsAfter;
+    private final boolean disableAiLowTps;
+    private final double entityTpsThreshold;
+    private final boolean minecartLimitEnabled;
+    private final int maxMinecartsPerChunk;
+    private final boolean railDetectionEnabled;
+    private final int maxRailsPerChunk;
+    private final boolean destroyRailsEnabled;
+
+    private final boolean containerOptimizationEnabled;
+    private final int maxOpenContainersPerChunk;
+    private final int containerOpenDelayTicks;
+    private final long containerOpenDelayMillis;
+    private final boolean disableContainersLowTps;
+    private final double containerTpsThreshold;
+
+    private final boolean worldGenOptimizationEnabled;
+    private final boolean pregenerateChunks;
+    private final int pregenerateRadius;
+    private final int chunksPerTick;
+
+    // Сообщения компилируются вместе со снимком: перевод цветов и разбор плейсхолдеров не повторяются при отправке
+    private final Map<String, List<MessageTemplate>> messageTemplates = new HashMap<>();
+    private final Map<String, List<String>> messages = new HashMap<>();
+
+    // Таблица флагов материалов переходит из прошлого снимка, пока списки блоков в конфиге не менялись
+    ConfigSnapshot(FileConfiguration config, ConfigSnapshot previous, Logger logger) {
+        consoleLoggingEnabled = config.getBoolean("settings.logs-in-console.enabled", false);
+        consoleNotificationsEnabled = config.getBoolean("settings.console-notifications.enabled", true);
+        scanSnapshotsPerTick = Math.max(1, config.getInt("settings.chunk-scan.snapshots-per-tick", 4));
+        scanTickBudgetMicros = Math.max(100, config.getInt("settings.chunk-scan.tick-budget-micros", 2000));
+        scanWorkerThreads = Math.max(1, config.getInt("settings.chunk-scan.worker-threads", 1));
+        schedulerBudgetMicros = Math.max(50, config.getInt("settings.chunk-scan.scheduler-budget-micros", 500));
+        coverageIntervalTicks = Math.max(20, config.getInt("settings.chunk-scan.coverage-interval-ticks", 600));
+        enforcementBudgetMicros = Math.max(50, config.getInt("settings.enforcement.tick-budget-micros", 1000));
+        lagMachineRegistryEnabled = config.getBoolean("settings.lag-machine-registry.enabled", true);
+        registryFlushIntervalTicks = Math.max(20, config.getInt("settings.lag-machine-registry.flush-interval-ticks", 200));
+        registryCompactIntervalMinutes = Math.max(1, config.getInt("settings.lag-machine-registry.compact-interval-minutes", 30));
+        registryRetentionDays = Math.max(1, config.getInt("settings.lag-machine-registry.retention-days", 14));
+        registryMaxEntries = Math.max(1, config.getInt("settings.lag-machine-registry.max-entries", 5000));
+        registryRestoreCooldowns = config.getBoolean("settings.lag-machine-registry.restore-cooldowns", true);
+        metricsEnabled = config.getBoolean("settings.metrics.enabled", false);
+        metricsHost = config.getString("settings.metrics.host", "127.0.0.1");
+        metricsPort = Math.max(1, Math.min(65535, config.getInt("settings.metrics.port", 9225)));
+        profileDefaultSeconds = Math.max(1, config.getInt("settings.profile.default-seconds", 60));
+        profileTopChunks = Math.max(1, config.getInt("settings.profile.top-chunks", 10));
+        adaptiveEnabled = config.getBoolean("settings.adaptive.enabled", false);
+        adaptiveTargetMspt = Math.max(1.0, config.getDouble("settings.adaptive.target-mspt", 45.0));
+        adaptiveProportionalGain = Math.max(0.0, config.getDouble("settings.adaptive.proportional-gain", 0.5));
+        adaptiveIntegralGain = Math.max(0.0, config.getDouble("settings.adaptive.integral-gain", 0.1));
+        adaptiveDeadbandMspt = Math.max(0.0, config.getDouble("settings.adaptive.deadband-mspt", 3.0));
+        adaptiveMaxStep = Math.max(0.01, Math.min(1.0, config.getDouble("settings.adaptive.max-step-per-second", 0.05)));
+        adaptiveRedstoneUpdatesMin = Math.max(1, config.getInt("settings.adaptive.redstone-updates-per-tick.min", 1000));
+        adaptiveRedstoneUpdatesMax = Math.max(adaptiveRedstoneUpdatesMin, config.getInt("settings.adaptive.redstone-updates-per-tick.max", 4000));
+        adaptiveMobsPerChunkMin = Math.max(1, config.getInt("settings.adaptive.mobs-per-chunk.min", 10));
+        adaptiveMobsPerChunkMax = Math.max(adaptiveMobsPerChunkMin, config.getInt("settings.adaptive.mobs-per-chunk.max", 30));
+        adaptiveContainersPerChunkMin = Math.max(1, config.getInt("settings.adaptive.open-containers-per-chunk.min", 3));
+        adaptiveContainersPerChunkMax = Math.max(adaptiveContainersPerChunkMin, config.getInt("settings.adaptive.open-containers-per-chunk.max", 10));
+        adaptiveLoadDistanceMin = Math.max(2, config.getInt("settings.adaptive.load-distance.min", 3));
+        adaptiveLoadDistanceMax = Math.max(adaptiveLoadDistanceMin, config.getInt("settings.adaptive.load-distance.max", 5));
+        chunkOptimizationEnabled = config.getBoolean("optimization.chunks.enabled", true);
+        chunkLoadDistance = config.getInt("optimization.chunks.load-distance", 5);
+        chunkUnloadDelay = config.getInt("optimization.chunks.unload-delay", 800);
+        chunkCacheSaveInterval = config.getInt("optimization.chunks.cache-save-interval-ticks", 6000);
+        dynamicLoadDistanceEnabled = config.getBoolean("optimization.chunks.dynamic-load-distance.enabled", true);
+        dynamicTpsThreshold = config.getDouble("optimization.chunks.dynamic-load-distance.tps-threshold", 17.0);
+        minLoadDistance = config.getInt("optimization.chunks.dynamic-load-distance.min-distance", 3);
+        teleportChunkLoadingEnabled = config.getBoolean("optimization.chunks.teleport-chunk-loading.enabled", true);
+        asyncChunkLoadingEnabled = config.getBoolean("optimization.chunks.teleport-chunk-loading.async-chunk-loading.enabled", true);
+        chunksPerTickTeleport = config.getInt("optimization.chunks.teleport-chunk-loading.async-chunk-loading.chunks-per-tick", 2);
+        maxViewDistance = config.getInt("optimization.chunks.extended-view-distance.max-view-distance", 10);
+        sendDelayTicks = config.getInt("optimization.chunks.extended-view-distance.send-delay-ticks", 40);
+        playerSendMaxBytes = config.getLong("optimization.chunks.extended-view-distance.player-send-max-bytes", 2097152);
+        mobSpawningEnabled = config.getBoolean("optimization.mob-spawning.enabled", true);
+        maxMobsPerChunk = config.getInt("optimization.mob-spawning.max-mobs-per-chunk", 50);
+        spawnRateReductionEnabled = config.getBoolean("optimization.mob-spawning.spawn-rate-reduction.enabled", true);
+        tpsThreshold = config.getDouble("optimization.mob-spawning.spawn-rate-reduction.tps-threshold", 15.0);
+        reductionPercentage = config.getInt("optimization.mob-spawning.spawn-rate-reduction.reduction-percentage", 50);
+        spawnerLimitEnabled = config.getBoolean("optimization.mob-spawning.spawner-limit.enabled", false);
+        maxMobsPerSpawner = config.getInt("optimization.mob-spawning.spawner-limit.max-mobs-per-spawner", 6);
+        spawnerDelay = config.getInt("optimization.mob-spawning.spawner-limit.spawn-delay", 200);
+        spawnerRadiusCheck = config.getInt("optimization.mob-spawning.spawner-limit.radius-check", 16);
+        redstoneOptimizationEnabled = config.getBoolean("optimization.redstone.enabled", true);
+        maxRedstoneUpdatesPerTick = Math.max(1, config.getInt("optimization.redstone.max-redstone-updates-per-tick", 200));
+        redstoneTokenBucketEnabled = config.getBoolean("optimization.redstone.token-bucket.enabled", false);
+        redstoneRefillPerTick = Math.max(0.01, config.getDouble("optimization.redstone.token-bucket.refill-per-tick", 500.0));
+        redstoneBurst = Math.max(1, config.getInt("optimization.redstone.token-bucket.burst", 20000));
+        redstoneBucketRegionSize = Math.max(1, config.getInt("optimization.redstone.token-bucket.region-size", 1));
+        redstoneThrottleEnabled = config.getBoolean("optimization.redstone.throttle.enabled", false);
+        redstoneThrottleDelayTicks = Math.max(1, config.getInt("optimization.redstone.throttle.delay-ticks", 4));
+        redstoneThrottleApplyPerTick = Math.max(1, config.getInt("optimization.redstone.throttle.apply-per-tick", 200));
+        criticalTpsThreshold = config.getDouble("optimization.redstone.critical-tps-threshold", 5.0);
+        disableRedstoneLowTps = config.getBoolean("optimization.redstone.disable-during-low-tps.enabled", false);
+        redstoneTpsThreshold = config.getDouble("optimization.redstone.disable-during-low-tps.tps-threshold", 10.0);
+        playerRadiusCheckEnabled = config.getBoolean("optimization.redstone.player-radius-check.enabled", true);
+        redstonePlayerRadius = Math.max(0, config.getInt("optimization.redstone.player-radius-check.radius", 128));
+        patternScanEnabled = config.getBoolean("optimization.redstone.pattern-scan.enabled", true);
+        patternScanInterval = Math.max(20, config.getInt("optimization.redstone.pattern-scan.scan-interval-ticks", 6000));
+        lagDetectionEnabled = config.getBoolean("optimization.redstone.lag-detection.enabled", true);
+        lagDetectionThreshold = config.getInt("optimization.redstone.lag-detection.activity-threshold", 3600);
+        clusterActivityThreshold = Math.max(0, config.getInt("optimization.redstone.lag-detection.cluster-activity-threshold", 12000));
+        regionActivityThreshold = Math.max(0, config.getInt("optimization.redstone.lag-detection.region-activity-threshold", 0));
+        lagDetectionCooldown = Math.max(1, Math.min(86400, config.getInt("optimization.redstone.lag-detection.cooldown-seconds", 30))) * 20;
+        lagDetectionCooldownMillis = lagDetectionCooldown * 50L;
+        minRedstoneComponents = config.getInt("optimization.redstone.lag-detection.min-redstone-components", 10);
+        maxClockPeriodTicks = Math.max(1, config.getInt("optimization.redstone.lag-detection.max-clock-period-ticks", 40));
+        oscillationEnabled = config.getBoolean("optimization.redstone.lag-detection.oscillation.enabled", true);
+        oscillationCriteria = new OscillationTracker.Criteria(
+                Math.max(0.1, config.getDouble("optimization.redstone.lag-detection.oscillation.min-frequency-hz", 2.0)),
+                Math.max(20, config.getInt("optimization.redstone.lag-detection.oscillation.window-ticks", 100)),
+                Math.max(1, config.getInt("optimization.redstone.lag-detection.oscillation.min-positions", 2)));
+        destroyComponentsEnabled = config.getBoolean("optimization.redstone.lag-detection.destroy-components.enabled", false);
+        maxDestroyedComponents = config.getInt("optimization.redstone.lag-detection.destroy-components.max-destroyed", 3);
+        whitelistBlocks = unmodifiable(config.getStringList("optimization.redstone.whitelist-blocks"));
+        monitoredBlocks = unmodifiable(config.getStringList("optimization.redstone.lag-detection.monitored-blocks"));
+        materialFlags = previous != null && previous.monitoredBlocks.equals(monitoredBlocks) && previous.whitelistBlocks.equals(whitelistBlocks)
+                ? previous.materialFlags : new MaterialFlags(logger, monitoredBlocks, whitelistBlocks);
+        physicsOptimizationEnabled = config.getBoolean("optimization.physics.enabled", false);
+        excludedWorlds = unmodifiable(config.getStringList("optimization.physics.excluded-worlds"));
+        excludedWorldSet = Collections.unmodifiableSet(new HashSet<>(excludedWorlds));
+        disableFallingBlocks = config.getBoolean("optimization.physics.disable-falling-blocks", false);
+        disableWaterFlow = config.getBoolean("optimization.physics.disable-water-flow", false);
+        disableLavaFlow = config.getBoolean("optimization.physics.disable-lava-flow", false);
+        trapdoorLimitEnabled = config.getBoolean("optimization.physics.trapdoor-limit.enabled", true);
+        maxTrapdoorUpdatesPerTick = config.getInt("optimization.physics.trapdoor-limit.max-updates-per-tick", 100);
+        clusterTrapdoorUpdatesPerTick = Math.max(0, config.getInt("optimization.physics.trapdoor-limit.cluster-max-updates-per-tick", 200));
+        regionTrapdoorUpdatesPerTick = Math.max(0, config.getInt("optimization.physics.trapdoor-limit.region-max-updates-per-tick", 0));
+        fallingBlockLimitEnabled = config.getBoolean("optimization.physics.falling-block-limit.enabled", true);
+        maxFallingBlocksPerChunk = config.getInt("optimization.physics.falling-block-limit.max-falling-blocks-per-chunk", 25);
+        destroyStaticSandEnabled = config.getBoolean("optimization.physics.falling-block-limit.destroy-static-sand", true);
+        maxStaticSandPerChunk = config.getInt("optimization.physics.falling-block-limit.max-static-sand-per-chunk", 100);
+        cobwebDetectionEnabled = config.getBoolean("optimization.physics.cobweb-detection.enabled", true);
+        destroyCobwebsEnabled = config.getBoolean("optimization.physics.cobweb-detection.destroy-cobwebs", true);
+        maxCobwebsPerChunk = config.getInt("optimization.physics.cobweb-detection.max-cobwebs-per-chunk", 50);
+        entityOptimizationEnabled = config.getBoolean("optimization.entities.enabled", true);
+        maxEntitiesPerChunk = config.getInt("optimization.entities.max-entities-per-chunk", 100);
+        removeDropsAfter = config.getInt("optimization.entities.remove-drops-after", 6000);
+        disableAiLowTps = config.getBoolean("optimization.entities.disable-ai-low-tps.enabled", true);
+        entityTpsThreshold = config.getDouble("optimization.entities.disable-ai-low-tps.tps-threshold", 12.0);
+        minecartLimitEnabled = config.getBoolean("optimization.entities.minecart-limit.enabled", true);
+        maxMinecartsPerChunk = config.getInt("optimization.entities.minecart-limit.max-minecarts-per-chunk", 10);
+        railDetectionEnabled = config.getBoolean("optimization.entities.rail-detection.enabled", true);
+        maxRailsPerChunk = config.getInt("optimization.entities.rail-detection.max-rails-per-chunk", 50);
+        destroyRailsEnabled = config.getBoolean("optimization.entities.rail-detection.destroy-rails", true);
+        containerOptimizationEnabled = config.getBoolean("optimization.containers.enabled", true);
+        maxOpenContainersPerChunk = config.getInt("optimization.containers.max-open-containers-per-chunk", 10);
+        containerOpenDelayTicks = config.getInt("optimization.containers.open-delay-ticks", 10);
+        containerOpenDelayMillis = containerOpenDelayTicks * 50L;
+        disableContainersLowTps = config.getBoolean("optimization.containers.disable-on-low-tps.enabled", true);
+        containerTpsThreshold = config.getDouble("optimization.containers.disable-on-low-tps.tps-threshold", 14.0);
+        worldGenOptimizationEnabled = config.getBoolean("optimization.world-generation.enabled", true);
+        pregenerateChunks = config.getBoolean("optimization.world-generation.pregenerate-chunks.enabled", false);
+        pregenerateRadius = config.getInt("optimization.world-generation.pregenerate-radius", 500);
+        chunksPerTick = config.getInt("optimization.world-generation.pregenerate-chunks.chunks-per-tick", 2);
+
+        ConfigurationSection messageSection = config.getConfigurationSection("messages");
+        if (messageSection != null) {
+            for (String path : messageSection.getKeys(true)) {
+                compileMessage(path, messageSection.get(path));
+            }
+        }
+    }
+
+    public boolean isConsoleLoggingEnabled() { return consoleLoggingEnabled; }
+    public boolean isConsoleNotificationsEnabled() { return consoleNotificationsEnabled; }
+    public int getScanSnapshotsPerTick() { return scanSnapshotsPerTick; }
+    public int getScanTickBudgetMicros() { return scanTickBudgetMicros; }
+    public int getScanWorkerThreads() { return scanWorkerThreads; }
+    public int getSchedulerBudgetMicros() { return schedulerBudgetMicros; }
+    public int getCoverageIntervalTicks() { return coverageIntervalTicks; }
+    public int getEnforcementBudgetMicros() { return enforcementBudgetMicros; }
+    public boolean isLagMachineRegistryEnabled() { return lagMachineRegistryEnabled; }
+    public int getRegistryFlushIntervalTicks() { return registryFlushIntervalTicks; }
+    public int getRegistryCompactIntervalMinutes() { return registryCompactIntervalMinutes; }
+    public int getRegistryRetentionDays() { return registryRetentionDays; }
+    public int getRegistryMaxEntries() { return registryMaxEntries; }
+    public boolean isRegistryRestoreCooldowns() { return registryRestoreCooldowns; }
+    public boolean isMetricsEnabled() { return metricsEnabled; }
+    public String getMetricsHost() { return metricsHost; }
+    public int getMetricsPort() { return metricsPort; }
+    public int getProfileDefaultSeconds() { return profileDefaultSeconds; }
+    public int getProfileTopChunks() { return profileTopChunks; }
+    public boolean isAdaptiveEnabled() { return adaptiveEnabled; }
+    public double getAdaptiveTargetMspt() { return adaptiveTargetMspt; }
+    public double getAdaptiveProportionalGain() { return adaptiveProportionalGain; }
+    public double getAdaptiveIntegralGain() { return adaptiveIntegralGain; }
+    public double getAdaptiveDeadbandMspt() { return adaptiveDeadbandMspt; }
+    public double getAdaptiveMaxStep() { return adaptiveMaxStep; }
+    public int getAdaptiveRedstoneUpdatesMin() { return adaptiveRedstoneUpdatesMin; }
+    public int getAdaptiveRedstoneUpdatesMax() { return adaptiveRedstoneUpdatesMax; }
+    public int getAdaptiveMobsPerChunkMin() { return adaptiveMobsPerChunkMin; }
+    public int getAdaptiveMobsPerChunkMax() { return adaptiveMobsPerChunkMax; }
+    public int getAdaptiveContainersPerChunkMin() { return adaptiveContainersPerChunkMin; }
+    public int getAdaptiveContainersPerChunkMax() { return adaptiveContainersPerChunkMax; }
+    public int getAdaptiveLoadDistanceMin() { return adaptiveLoadDistanceMin; }
+    public int getAdaptiveLoadDistanceMax() { return adaptiveLoadDistanceMax; }
+
+    public boolean isChunkOptimizationEnabled() { return chunkOptimizationEnabled; }
+    public int getChunkLoadDistance() { return chunkLoadDistance; }
+    public int getChunkUnloadDelay() { return chunkUnloadDelay; }
+    public int getChunkCacheSaveInterval() { return chunkCacheSaveInterval; }
+    public boolean isDynamicLoadDistanceEnabled() { return dynamicLoadDistanceEnabled; }
+    public double getDynamicTpsThreshold() { return dynamicTpsThreshold; }
+    public int getMinLoadDistance() { return minLoadDistance; }
+    public boolean isTeleportChunkLoadingEnabled() { return teleportChunkLoadingEnabled; }
+    public boolean isAsyncChunkLoadingEnabled() { return asyncChunkLoadingEnabled; }
+    public int getChunksPerTickTeleport() { return chunksPerTickTeleport; }
+    public int getMaxViewDistance() { return maxViewDistance; }
+    public int getSendDelayTicks() { return sendDelayTicks; }
+    public long getPlayerSendMaxBytes() { return playerSendMaxBytes; }
+
+    public boolean isMobSpawningEnabled() { return mobSpawningEnabled; }
+    public int getMaxMobsPerChunk() { return maxMobsPerChunk; }
+    public boolean isSpawnRateReductionEnabled() { return spawnRateReductionEnabled; }
+    public double getTpsThreshold() { return tpsThreshold; }
+    public int getReductionPercentage() { return reductionPercentage; }
+    public boolean isSpawnerLimitEnabled() { return spawnerLimitEnabled; }
+    public int getMaxMobsPerSpawner() { return maxMobsPerSpawner; }
+    public int getSpawnerDelay() { return spawnerDelay; }
+    public int getSpawnerRadiusCheck() { return spawnerRadiusCheck; }
+
+    public boolean isRedstoneOptimizationEnabled() { return redstoneOptimizationEnabled; }
+    public int getMaxRedstoneUpdatesPerTick() { return maxRedstoneUpdatesPerTick; }
+    public boolean isRedstoneTokenBucketEnabled() { return redstoneTokenBucketEnabled; }
+    public double getRedstoneRefillPerTick() { return redstoneRefillPerTick; }
+    public int getRedstoneBurst() { return redstoneBurst; }
+    public int getRedstoneBucketRegionSize() { return redstoneBucketRegionSize; }
+    public boolean isRedstoneThrottleEnabled() { return redstoneThrottleEnabled; }
+    public int getRedstoneThrottleDelayTicks() { return redstoneThrottleDelayTicks; }
+    public int getRedstoneThrottleApplyPerTick() { return redstoneThrottleApplyPerTick; }
+    public double getCriticalTpsThreshold() { return criticalTpsThreshold; }
+    public boolean isDisableRedstoneLowTps() { return disableRedstoneLowTps; }
+    public double getRedstoneTpsThreshold() { return redstoneTpsThreshold; }
+    public boolean isPlayerRadiusCheckEnabled() { return playerRadiusCheckEnabled; }
+    public int getRedstonePlayerRadius() { return redstonePlayerRadius; }
+    public boolean isPatternScanEnabled() { return patternScanEnabled; }
+    public int getPatternScanInterval() { return patternScanInterval; }
+    public boolean isLagDetectionEnabled() { return lagDetectionEnabled; }
+    public int getLagDetectionThreshold() { return lagDetectionThreshold; }
+    public int getClusterActivityThreshold() { return clusterActivityThreshold; }
+    public int getRegionActivityThreshold() { return regionActivityThreshold; }
+    public int getLagDetectionCooldown() { return lagDetectionCooldown; }
+    public long getLagDetectionCooldownMillis() { return lagDetectionCooldownMillis; }
+    public int getMinRedstoneComponents() { return minRedstoneComponents; }
+    public int getMaxClockPeriodTicks() { return maxClockPeriodTicks; }
+    public boolean isOscillationEnabled() { return oscillationEnabled; }
+    public OscillationTracker.Criteria getOscillationCriteria() { return oscillationCriteria; }
+    public boolean isDestroyComponentsEnabled() { return destroyComponentsEnabled; }
+    public int getMaxDestroyedComponents() { return maxDestroyedComponents; }
+    public List<String> getWhitelistBlocks() { return whitelistBlocks; }
+    public List<String> getMonitoredBlocks() { return monitoredBlocks; }
+    public MaterialFlags getMaterialFlags() { return materialFlags; }
+
+    public boolean isPhysicsOptimizationEnabled() { return physicsOptimizationEnabled; }
+    public List<String> getExcludedWorlds() { return excludedWorlds; }
+    public boolean isDisableFallingBlocks() { return disableFallingBlocks; }
+    public boolean isDisableWaterFlow() { return disableWaterFlow; }
+    public boolean isDisableLavaFlow() { return disableLavaFlow; }
+    public boolean isTrapdoorLimitEnabled() { return trapdoorLimitEnabled; }
+    public int getMaxTrapdoorUpdatesPerTick() { return maxTrapdoorUpdatesPerTick; }
+    public int getClusterTrapdoorUpdatesPerTick() { return clusterTrapdoorUpdatesPerTick; }
+    public int getRegionTrapdoorUpdatesPerTick() { return regionTrapdoorUpdatesPerTick; }
+    public boolean isFallingBlockLimitEnabled() { return fallingBlockLimitEnabled; }
+    public int getMaxFallingBlocksPerChunk() { return maxFallingBlocksPerChunk; }
+    public boolean isDestroyStaticSandEnabled() { return destroyStaticSandEnabled; }
+    public int getMaxStaticSandPerChunk() { return maxStaticSandPerChunk; }
+    public boolean isCobwebDetectionEnabled() { return cobwebDetectionEnabled; }
+    public boolean isDestroyCobwebsEnabled() { return destroyCobwebsEnabled; }
+    public int getMaxCobwebsPerChunk() { return maxCobwebsPerChunk; }
+
+    public boolean isEntityOptimizationEnabled() { return entityOptimizationEnabled; }
+    public int getMaxEntitiesPerChunk() { return maxEntitiesPerChunk; }
+    public int getRemoveDropsAfter() { return removeDropsAfter; }
+    public boolean isDisableAiLowTps() { return disableAiLowTps; }
+    public double getEntityTpsThreshold() { return entityTpsThreshold; }
+    public boolean isMinecartLimitEnabled() { return minecartLimitEnabled; }
+    public int getMaxMinecartsPerChunk() { return maxMinecartsPerChunk; }
+    public boolean isRailDetectionEnabled() { return railDetectionEnabled; }
+    public int getMaxRailsPerChunk() { return maxRailsPerChunk; }
+    public boolean isDestroyRailsEnabled() { return destroyRailsEnabled; }
+
+    public boolean isContainerOptimizationEnabled() { return containerOptimizationEnabled; }
+    public int getMaxOpenContainersPerChunk() { return maxOpenContainersPerChunk; }
+    public int getContainerOpenDelayTicks() { return containerOpenDelayTicks; }
+    public long getContainerOpenDelayMillis() { return containerOpenDelayMillis; }
+    public boolean isDisableContainersLowTps() { return disableContainersLowTps; }
+    public double getContainerTpsThreshold() { return containerTpsThreshold; }
+
+    public boolean isWorldGenOptimizationEnabled() { return worldGenOptimizationEnabled; }
+    public boolean isPregenerateChunks() { return pregenerateChunks; }
+    public int getPregenerateRadius() { return pregenerateRadius; }
+    public int getChunksPerTick() { return chunksPerTick; }
+
+    public boolean isWorldExcluded(String worldName) {
+        return excludedWorldSet.contains(worldName);
+    }
+
+    // Отсутствующий путь даёт одну пустую строку, секция или число - пустой список, как при чтении из конфига напрямую
+    public List<String> getMessages(String path) {
+        List<String> lines = messages.get(path);
+        return lines != null ? lines : Collections.singletonList("");
+    }
+
+    public List<MessageTemplate> getMessageTemplates(String path) {
+        List<MessageTemplate> templates = messageTemplates.get(path);
+        return templates != null ? templates : Collections.singletonList(MessageTemplate.compile(""));
+    }
+
+    private void compileMessage(String path, Object value) {
+        List<MessageTemplate> templates = new ArrayList<>();
+        if (value instanceof String) {
+            templates.add(MessageTemplate.compile((String) value));
+        } else if (value instanceof List) {
+            for (Object line : (List<?>) value) {
+                templates.add(MessageTemplate.compile(String.valueOf(line)));
+            }
+        }
+        List<String> lines = new ArrayList<>(templates.size());
+        for (MessageTemplate template : templates) {
+            lines.add(template.getText());
+        }
+        messageTemplates.put(path, Collections.unmodifiableList(templates));
+        messages.put(path, Collections.unmodifiableList(lines));
+    }
+
+    private static List<String> unmodifiable(List<String> values) {
+        return Collections.unmodifiableList(new ArrayList<>(values));
+    }
+}
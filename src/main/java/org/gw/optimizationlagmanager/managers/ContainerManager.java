@@ -1,107 +1,82 @@
 package org.gw.optimizationlagmanager.managers;
 
-import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
-import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.inventory.InventoryInteractEvent;
 import org.bukkit.event.inventory.InventoryOpenEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.InventoryHolder;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.gw.optimizationlagmanager.OptimizationLagManager;
-
-import java.util.*;
+import org.gw.optimizationlagmanager.utils.ChunkKeys;
+import org.gw.optimizationlagmanager.utils.DebugLogger;
+import org.gw.optimizationlagmanager.utils.LogCategory;
+import org.gw.optimizationlagmanager.utils.LongLongHashMap;
+import org.gw.optimizationlagmanager.utils.Metrics;
+import org.gw.optimizationlagmanager.utils.TickWindowCounter;
 
 public class ContainerManager implements Listener {
     private final OptimizationLagManager plugin;
     private final ConfigManager configManager;
-    private final Map<Chunk, Integer> openContainers = new HashMap<>();
-    private final Map<Chunk, Long> lastOpenTime = new HashMap<>();
+    private final TickMonitor tickMonitor;
+    private final AdaptiveLimits adaptiveLimits;
+    private final DebugLogger debugLogger;
+    private final TickWindowCounter openContainers = new TickWindowCounter(20, 20);
+    private final LongLongHashMap lastOpenTime = new LongLongHashMap();
+    private final Metrics.Counter cancelledLowTps;
+    private final Metrics.Counter cancelledCooldown;
+    private final Metrics.Counter cancelledChunkLimit;
     private boolean isContainersGloballyDisabled = false;
-    private double cachedTps = 20.0;
-    private long lastTpsCheck = 0;
-
-    private static final Set<Material> CONTAINER_BLOCKS = new HashSet<>(Arrays.asList(
-            Material.CHEST,
-            Material.TRAPPED_CHEST,
-            Material.FURNACE,
-            Material.BLAST_FURNACE,
-            Material.SMOKER,
-            Material.BARREL,
-            Material.DISPENSER,
-            Material.DROPPER,
-            Material.HOPPER,
-            Material.BREWING_STAND,
-            Material.ENDER_CHEST,
-            Material.SHULKER_BOX,
-            Material.BLACK_SHULKER_BOX,
-            Material.BLUE_SHULKER_BOX,
-            Material.BROWN_SHULKER_BOX,
-            Material.CYAN_SHULKER_BOX,
-            Material.GRAY_SHULKER_BOX,
-            Material.GREEN_SHULKER_BOX,
-            Material.LIGHT_BLUE_SHULKER_BOX,
-            Material.LIGHT_GRAY_SHULKER_BOX,
-            Material.LIME_SHULKER_BOX,
-            Material.MAGENTA_SHULKER_BOX,
-            Material.ORANGE_SHULKER_BOX,
-            Material.PINK_SHULKER_BOX,
-            Material.PURPLE_SHULKER_BOX,
-            Material.RED_SHULKER_BOX,
-            Material.WHITE_SHULKER_BOX,
-            Material.YELLOW_SHULKER_BOX
-    ));
 
     public ContainerManager(OptimizationLagManager plugin, ConfigManager configManager) {
         this.plugin = plugin;
         this.configManager = configManager;
-        plugin.getServer().getPluginManager().registerEvents(this, plugin);
-        startTpsMonitor();
+        this.tickMonitor = plugin.getTickMonitor();
+        this.adaptiveLimits = plugin.getAdaptiveLimits();
+        this.debugLogger = plugin.getDebugLogger();
+        MetricsManager metricsManager = plugin.getMetricsManager();
+        this.cancelledLowTps = metricsManager.cancelled("containers", "low-tps");
+        this.cancelledCooldown = metricsManager.cancelled("containers", "cooldown");
+        this.cancelledChunkLimit = metricsManager.cancelled("containers", "chunk-limit");
+        metricsManager.cacheSize("container_open_windows", openContainers::size);
+        metricsManager.cacheSize("container_last_open", lastOpenTime::size);
+        plugin.getListenerRegistrar().registerEvents(this, "containers", configManager::isContainerOptimizationEnabled);
+        tickMonitor.subscribe(this::checkTps);
     }
 
-    private double getCachedTps() {
+    private void checkTps(TickStats stats) {
+        long openDelayMillis = configManager.getContainerOpenDelayMillis();
         long currentTime = System.currentTimeMillis();
-        if (currentTime - lastTpsCheck >= 1000) {
-            cachedTps = Bukkit.getTPS()[0];
-            lastTpsCheck = currentTime;
-        }
-        return cachedTps;
-    }
-
-    private void startTpsMonitor() {
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                double tps = getCachedTps();
-                if (configManager.isDisableContainersLowTps() && tps < configManager.getContainerTpsThreshold() && !isContainersGloballyDisabled) {
-                    isContainersGloballyDisabled = true;
-                    if (configManager.isConsoleLoggingEnabled()) {
-                        plugin.getLogger().warning("Критически низкий TPS (" + String.format("%.2f", tps) + "), обновления контейнеров временно отключены!");
-                    }
-                } else if (tps >= configManager.getContainerTpsThreshold() && isContainersGloballyDisabled) {
-                    isContainersGloballyDisabled = false;
-                    if (configManager.isConsoleLoggingEnabled()) {
-                        plugin.getLogger().info("TPS восстановлен (" + String.format("%.2f", tps) + "), обновления контейнеров снова включены");
-                    }
-                }
+        openContainers.purgeIdle(stats.getTick());
+        lastOpenTime.removeIf((chunkKey, openedAt) -> currentTime - openedAt >= openDelayMillis);
+
+        double tps = stats.getTps();
+        if (configManager.isDisableContainersLowTps() && tps < configManager.getContainerTpsThreshold() && !isContainersGloballyDisabled) {
+            isContainersGloballyDisabled = true;
+            if (debugLogger.isEnabled(LogCategory.CONTAINERS)) {
+                debugLogger.warning(LogCategory.CONTAINERS, "Критически низкий TPS ({}), обновления контейнеров временно отключены!", stats);
+            }
+        } else if (tps >= configManager.getContainerTpsThreshold() && isContainersGloballyDisabled) {
+            isContainersGloballyDisabled = false;
+            if (debugLogger.isEnabled(LogCategory.CONTAINERS)) {
+                debugLogger.debug(LogCategory.CONTAINERS, "TPS восстановлен ({}), обновления контейнеров снова включены", stats);
             }
-        }.runTaskTimer(plugin, 0L, 20L);
+        }
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
     public void onPlayerInteract(PlayerInteractEvent event) {
-        if (!configManager.isContainerOptimizationEnabled() || isContainersGloballyDisabled) {
-            if (isContainersGloballyDisabled && event.getAction() == Action.RIGHT_CLICK_BLOCK && event.getClickedBlock() != null
-                    && CONTAINER_BLOCKS.contains(event.getClickedBlock().getType())) {
+        if (isContainersGloballyDisabled) {
+            if (event.getAction() == Action.RIGHT_CLICK_BLOCK && event.getClickedBlock() != null
+                    && configManager.getMaterialFlags().isContainer(event.getClickedBlock().getType())) {
                 event.setCancelled(true);
-                if (configManager.isConsoleLoggingEnabled()) {
-                    plugin.getLogger().info("Взаимодействие с контейнером в чанке (" + event.getClickedBlock().getChunk().getX() + ", " +
-                            event.getClickedBlock().getChunk().getZ() + ") отменено: обновления контейнеров глобально отключены");
+                cancelledLowTps.inc();
+                if (debugLogger.isEnabled(LogCategory.CONTAINERS, DebugLogger.Level.DEBUG)) {
+                    debugLogger.debug(LogCategory.CONTAINERS, "Взаимодействие с контейнером в чанке ({}, {}) отменено: обновления контейнеров глобально отключены", event.getClickedBlock().getChunk().getX(), event.getClickedBlock().getChunk().getZ());
                 }
                 Player player = event.getPlayer();
                 Block block = event.getClickedBlock();
@@ -113,41 +88,45 @@ public class ContainerManager implements Listener {
         if (event.getAction() != Action.RIGHT_CLICK_BLOCK || event.getClickedBlock() == null) return;
 
         Block block = event.getClickedBlock();
-        if (!CONTAINER_BLOCKS.contains(block.getType())) return;
+        if (!configManager.getMaterialFlags().isContainer(block.getType())) return;
 
         Chunk chunk = block.getChunk();
+        long chunkKey = ChunkKeys.of(block);
         long currentTime = System.currentTimeMillis();
-        Long lastOpen = lastOpenTime.getOrDefault(chunk, 0L);
+        long lastOpen = lastOpenTime.get(chunkKey, 0L);
 
-        if (currentTime - lastOpen < configManager.getContainerOpenDelayTicks() * 50L) {
+        if (currentTime - lastOpen < configManager.getContainerOpenDelayMillis()) {
             event.setCancelled(true);
-            if (configManager.isConsoleLoggingEnabled()) {
-                plugin.getLogger().info("Взаимодействие с контейнером в чанке (" + chunk.getX() + ", " + chunk.getZ() + ") отменено: на кулдауне");
+            cancelledCooldown.inc();
+            if (debugLogger.isEnabled(LogCategory.CONTAINERS, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.CONTAINERS, "Взаимодействие с контейнером в чанке ({}, {}) отменено: на кулдауне", chunk.getX(), chunk.getZ());
             }
             Player player = event.getPlayer();
             player.sendBlockChange(block.getLocation(), block.getBlockData());
             return;
         }
 
-        int openCount = openContainers.getOrDefault(chunk, 0) + 1;
-        if (openCount > configManager.getMaxOpenContainersPerChunk()) {
+        int openCount = openContainers.get(chunkKey, tickMonitor.getCurrentTick()) + 1;
+        int maxOpen = adaptiveLimits.getMaxOpenContainersPerChunk();
+        if (openCount > maxOpen) {
             event.setCancelled(true);
-            if (configManager.isConsoleLoggingEnabled()) {
-                plugin.getLogger().info("Взаимодействие с контейнером в чанке (" + chunk.getX() + ", " + chunk.getZ() + ") отменено: превышен лимит " +
-                        configManager.getMaxOpenContainersPerChunk());
+            cancelledChunkLimit.inc();
+            if (debugLogger.isEnabled(LogCategory.CONTAINERS, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.CONTAINERS, "Взаимодействие с контейнером в чанке ({}, {}) отменено: превышен лимит {}", chunk.getX(), chunk.getZ(), maxOpen);
             }
             Player player = event.getPlayer();
             player.sendBlockChange(block.getLocation(), block.getBlockData());
         }
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
     public void onInventoryOpen(InventoryOpenEvent event) {
-        if (!configManager.isContainerOptimizationEnabled() || isContainersGloballyDisabled) {
-            if (isContainersGloballyDisabled && configManager.isConsoleLoggingEnabled()) {
-                plugin.getLogger().info("Открытие контейнера отменено: обновления контейнеров глобально отключены");
+        if (isContainersGloballyDisabled) {
+            if (debugLogger.isEnabled(LogCategory.CONTAINERS, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.CONTAINERS, "Открытие контейнера отменено: обновления контейнеров глобально отключены");
             }
-            event.setCancelled(isContainersGloballyDisabled);
+            event.setCancelled(true);
+            cancelledLowTps.inc();
             return;
         }
 
@@ -157,55 +136,48 @@ public class ContainerManager implements Listener {
             if (holder.getInventory().getLocation() == null) return;
 
             Chunk chunk = holder.getInventory().getLocation().getChunk();
+            long chunkKey = ChunkKeys.of(chunk);
             long currentTime = System.currentTimeMillis();
-            Long lastOpen = lastOpenTime.getOrDefault(chunk, 0L);
+            long lastOpen = lastOpenTime.get(chunkKey, 0L);
 
-            if (currentTime - lastOpen < configManager.getContainerOpenDelayTicks() * 50L) {
+            if (currentTime - lastOpen < configManager.getContainerOpenDelayMillis()) {
                 event.setCancelled(true);
-                if (configManager.isConsoleLoggingEnabled()) {
-                    plugin.getLogger().info("Открытие контейнера в чанке (" + chunk.getX() + ", " + chunk.getZ() + ") отменено: на кулдауне");
+                cancelledCooldown.inc();
+                if (debugLogger.isEnabled(LogCategory.CONTAINERS, DebugLogger.Level.DEBUG)) {
+                    debugLogger.debug(LogCategory.CONTAINERS, "Открытие контейнера в чанке ({}, {}) отменено: на кулдауне", chunk.getX(), chunk.getZ());
                 }
                 return;
             }
 
-            int openCount = openContainers.getOrDefault(chunk, 0) + 1;
-            if (openCount > configManager.getMaxOpenContainersPerChunk()) {
+            int openCount = openContainers.get(chunkKey, tickMonitor.getCurrentTick()) + 1;
+            int maxOpen = adaptiveLimits.getMaxOpenContainersPerChunk();
+            if (openCount > maxOpen) {
                 event.setCancelled(true);
-                if (configManager.isConsoleLoggingEnabled()) {
-                    plugin.getLogger().info("Открытие контейнера в чанке (" + chunk.getX() + ", " + chunk.getZ() + ") отменено: превышен лимит " +
-                            configManager.getMaxOpenContainersPerChunk());
+                cancelledChunkLimit.inc();
+                if (debugLogger.isEnabled(LogCategory.CONTAINERS, DebugLogger.Level.DEBUG)) {
+                    debugLogger.debug(LogCategory.CONTAINERS, "Открытие контейнера в чанке ({}, {}) отменено: превышен лимит {}", chunk.getX(), chunk.getZ(), maxOpen);
                 }
                 return;
             }
 
-            openContainers.put(chunk, openCount);
-            lastOpenTime.put(chunk, currentTime);
-            if (configManager.isConsoleLoggingEnabled()) {
-                plugin.getLogger().info("Контейнер открыт в чанке (" + chunk.getX() + ", " + chunk.getZ() + "), текущих открытых: " + openCount);
+            openContainers.increment(chunkKey, tickMonitor.getCurrentTick());
+            lastOpenTime.put(chunkKey, currentTime);
+            if (debugLogger.isEnabled(LogCategory.CONTAINERS, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.CONTAINERS, "Контейнер открыт в чанке ({}, {}), текущих открытых: {}", chunk.getX(), chunk.getZ(), openCount);
             }
-
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    openContainers.put(chunk, openContainers.getOrDefault(chunk, 1) - 1);
-                    if (configManager.isConsoleLoggingEnabled()) {
-                        plugin.getLogger().info("Контейнер закрыт в чанке (" + chunk.getX() + ", " + chunk.getZ() + "), текущих открытых: " +
-                                openContainers.getOrDefault(chunk, 0));
-                    }
-                }
-            }.runTaskLater(plugin, 20L);
         } catch (Exception e) {
             plugin.getLogger().severe("Ошибка обработки открытия контейнера: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
         }
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
     public void onInventoryInteract(InventoryInteractEvent event) {
-        if (!configManager.isContainerOptimizationEnabled() || isContainersGloballyDisabled) {
-            if (isContainersGloballyDisabled && configManager.isConsoleLoggingEnabled()) {
-                plugin.getLogger().info("Взаимодействие с контейнером отменено: обновления контейнеров глобально отключены");
+        if (isContainersGloballyDisabled) {
+            if (debugLogger.isEnabled(LogCategory.CONTAINERS, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.CONTAINERS, "Взаимодействие с контейнером отменено: обновления контейнеров глобально отключены");
             }
-            event.setCancelled(isContainersGloballyDisabled);
+            event.setCancelled(true);
+            cancelledLowTps.inc();
         }
     }
 }
\ No newline at end of file
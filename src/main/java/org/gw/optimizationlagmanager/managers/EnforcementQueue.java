@@ -0,0 +1,287 @@
+package org.gw.optimizationlagmanager.managers;
+
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.gw.optimizationlagmanager.OptimizationLagManager;
+import org.gw.optimizationlagmanager.utils.ChunkKeys;
+import org.gw.optimizationlagmanager.utils.DebugLogger;
+import org.gw.optimizationlagmanager.utils.LogCategory;
+import org.gw.optimizationlagmanager.utils.LongObjectHashMap;
+import org.gw.optimizationlagmanager.utils.Metrics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Общая очередь удаления компонентов лаг-машин. Работа собирается по чанкам: блоки и сущности одного чанка
+// применяются подряд, повторная позиция в чанке, который уже стоит в очереди, отбрасывается.
+// За тик очередь работает не дольше tick-budget-micros, но хотя бы одно удаление выполняется всегда.
+// Чанки с меньшим номером приоритета обрабатываются первыми; только из основного потока
+public class EnforcementQueue {
+    public static final int PRIORITY_HIGH = 0;
+    public static final int PRIORITY_NORMAL = 1;
+    private static final int PRIORITIES = 2;
+
+    private final OptimizationLagManager plugin;
+    private final ConfigManager configManager;
+    private final DebugLogger debugLogger;
+    private final List<ArrayDeque<ChunkWork>> queues = new ArrayList<>(PRIORITIES);
+    private final LongObjectHashMap<ChunkWork> pendingByChunk = new LongObjectHashMap<>();
+    private final Metrics.Counter blocksRemoved;
+    private final Metrics.Counter blocksSkipped;
+    private final Metrics.Counter entitiesRemoved;
+    private final Metrics.Counter entitiesSkipped;
+    private final BukkitRunnable tickTask;
+    private int pendingCount = 0;
+
+    // Как удалять блок: блок удаляется, только если всё ещё подходит под materialMask.
+    // afterRemove вызывается для удалённых блоков чанка после того, как применена вся их партия за тик,
+    // в том же шаге: его время входит в лимит шага, поэтому работу в нём не стоит откладывать в планировщик
+    public static final class BlockRemoval {
+        private final int materialMask;
+        private final boolean applyPhysics;
+        private final LogCategory category;
+        private final Consumer<Block> afterRemove;
+
+        public BlockRemoval(int materialMask, boolean applyPhysics, LogCategory category, Consumer<Block> afterRemove) {
+            this.materialMask = materialMask;
+            this.applyPhysics = applyPhysics;
+            this.category = category;
+            this.afterRemove = afterRemove;
+        }
+    }
+
+    private static class ChunkWork {
+        final long chunkKey;
+        int priority;
+        int[] positions = new int[8];
+        BlockRemoval[] removals = new BlockRemoval[8];
+        int blockCount = 0;
+        int blockIndex = 0;
+        final List<Entity> entities = new ArrayList<>();
+        final List<LogCategory> entityCategories = new ArrayList<>();
+        int entityIndex = 0;
+
+        ChunkWork(long chunkKey, int priority) {
+            this.chunkKey = chunkKey;
+            this.priority = priority;
+        }
+
+        int remaining() {
+            return blockCount - blockIndex + entities.size() - entityIndex;
+        }
+    }
+
+    public EnforcementQueue(OptimizationLagManager plugin, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.debugLogger = plugin.getDebugLogger();
+        for (int priority = 0; priority < PRIORITIES; priority++) {
+            queues.add(new ArrayDeque<>());
+        }
+        MetricsManager metricsManager = plugin.getMetricsManager();
+        Metrics.Family<Metrics.Counter> removed = metricsManager.getMetrics().counter("olm_enforcement_removals_total",
+                "Lag machine components processed by the enforcement queue", "kind", "result");
+        this.blocksRemoved = removed.labels("block", "removed");
+        this.blocksSkipped = removed.labels("block", "skipped");
+        this.entitiesRemoved = removed.labels("entity", "removed");
+        this.entitiesSkipped = removed.labels("entity", "skipped");
+        metricsManager.queueSize("enforcement_pending", () -> pendingCount);
+        metricsManager.queueSize("enforcement_chunks", pendingByChunk::size);
+        this.tickTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        };
+        tickTask.runTaskTimer(plugin, 1L, 1L);
+    }
+
+    // Блоки должны лежать в чанке chunkKey. Возвращает число принятых блоков без повторов
+    public int removeBlocks(long chunkKey, List<Block> blocks, int priority, BlockRemoval removal) {
+        if (blocks.isEmpty()) return 0;
+        ChunkWork work = workFor(chunkKey, priority);
+        int accepted = 0;
+        for (Block block : blocks) {
+            int packed = ChunkScan.pack(block.getX() & 15, block.getY(), block.getZ() & 15);
+            if (contains(work, packed)) continue;
+            if (work.blockCount == work.positions.length) {
+                work.positions = Arrays.copyOf(work.positions, work.blockCount << 1);
+                work.removals = Arrays.copyOf(work.removals, work.blockCount << 1);
+            }
+            work.positions[work.blockCount] = packed;
+            work.removals[work.blockCount] = removal;
+            work.blockCount++;
+            accepted++;
+        }
+        pendingCount += accepted;
+        return accepted;
+    }
+
+    // Возвращает число принятых сущностей без повторов
+    public int removeEntities(long chunkKey, List<Entity> entities, int priority, LogCategory category) {
+        if (entities.isEmpty()) return 0;
+        ChunkWork work = workFor(chunkKey, priority);
+        int accepted = 0;
+        for (Entity entity : entities) {
+            if (work.entities.contains(entity)) continue;
+            work.entities.add(entity);
+            work.entityCategories.add(category);
+            accepted++;
+        }
+        pendingCount += accepted;
+        return accepted;
+    }
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    public void shutdown() {
+        tickTask.cancel();
+        for (ArrayDeque<ChunkWork> queue : queues) {
+            queue.clear();
+        }
+        pendingByChunk.clear();
+        pendingCount = 0;
+    }
+
+    // Чанк уже в очереди: работа добавляется к нему, более высокий приоритет переносит чанк в свою очередь.
+    // Запись в прежней очереди остаётся и пропускается при обходе
+    private ChunkWork workFor(long chunkKey, int priority) {
+        ChunkWork work = pendingByChunk.get(chunkKey);
+        if (work == null) {
+            work = new ChunkWork(chunkKey, priority);
+            pendingByChunk.put(chunkKey, work);
+            queues.get(priority).add(work);
+        } else if (priority < work.priority) {
+            work.priority = priority;
+            queues.get(priority).add(work);
+        }
+        return work;
+    }
+
+    // Позиций в чанке немного (не больше лимита удаляемых компонентов), поэтому проверка линейная
+    private static boolean contains(ChunkWork work, int packed) {
+        for (int i = 0; i < work.blockCount; i++) {
+            if (work.positions[i] == packed) return true;
+        }
+        return false;
+    }
+
+    private void drain() {
+        if (pendingByChunk.isEmpty()) return;
+        long startTime = System.nanoTime();
+        long budgetNanos = configManager.getEnforcementBudgetMicros() * 1000L;
+        int applied = 0;
+        for (int priority = 0; priority < PRIORITIES; priority++) {
+            ArrayDeque<ChunkWork> queue = queues.get(priority);
+            ChunkWork work;
+            while ((work = queue.peek()) != null) {
+                if (work.priority != priority || pendingByChunk.get(work.chunkKey) != work) {
+                    queue.poll();
+                    continue;
+                }
+                try {
+                    applied += apply(work, startTime, budgetNanos, applied);
+                } catch (Exception e) {
+                    plugin.getLogger().severe("Ошибка удаления компонентов лаг-машины в чанке " + ChunkKeys.toString(work.chunkKey) + ": " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+                    skip(work);
+                }
+                if (work.remaining() > 0) {
+                    logDrain(applied, startTime);
+                    return;
+                }
+                queue.poll();
+                pendingByChunk.remove(work.chunkKey);
+            }
+        }
+        logDrain(applied, startTime);
+    }
+
+    // Применяет работу чанка, пока не кончится лимит времени; возвращает число выполненных удалений
+    private int apply(ChunkWork work, long startTime, long budgetNanos, int appliedBefore) {
+        Chunk chunk = ChunkKeys.chunkIfLoaded(work.chunkKey);
+        if (chunk == null) {
+            if (debugLogger.isEnabled(LogCategory.GENERAL)) {
+                debugLogger.debug(LogCategory.GENERAL, "Чанк {} выгружен, пропущено удалений: {}", ChunkKeys.toString(work.chunkKey), work.remaining());
+            }
+            skip(work);
+            return 0;
+        }
+        int applied = 0;
+        List<Block> removedBlocks = null;
+        List<BlockRemoval> removedBy = null;
+        while (work.blockIndex < work.blockCount) {
+            if (appliedBefore + applied > 0 && System.nanoTime() - startTime >= budgetNanos) break;
+            int index = work.blockIndex++;
+            pendingCount--;
+            applied++;
+            BlockRemoval removal = work.removals[index];
+            work.removals[index] = null;
+            // Блок могли сломать или заменить, пока чанк стоял в очереди
+            Block block = ChunkScan.blockAt(chunk, work.positions[index]);
+            Material blockType = block.getType();
+            if (!configManager.getMaterialFlags().has(blockType, removal.materialMask)) {
+                blocksSkipped.inc();
+                continue;
+            }
+            block.setType(Material.AIR, removal.applyPhysics);
+            blocksRemoved.inc();
+            if (debugLogger.isEnabled(removal.category)) {
+                debugLogger.debug(removal.category, "Удалён блок {} в чанке ({}, {}) на координатах ({}, {}, {})", blockType.name(), chunk.getX(), chunk.getZ(), block.getX(), block.getY(), block.getZ());
+            }
+            if (removal.afterRemove != null) {
+                if (removedBlocks == null) {
+                    removedBlocks = new ArrayList<>();
+                    removedBy = new ArrayList<>();
+                }
+                removedBlocks.add(block);
+                removedBy.add(removal);
+            }
+        }
+        if (removedBlocks != null) {
+            for (int i = 0; i < removedBlocks.size(); i++) {
+                removedBy.get(i).afterRemove.accept(removedBlocks.get(i));
+            }
+        }
+        while (work.blockIndex == work.blockCount && work.entityIndex < work.entities.size()) {
+            if (appliedBefore + applied > 0 && System.nanoTime() - startTime >= budgetNanos) break;
+            int index = work.entityIndex++;
+            pendingCount--;
+            applied++;
+            Entity entity = work.entities.set(index, null);
+            if (!entity.isValid()) {
+                entitiesSkipped.inc();
+                continue;
+            }
+            entity.remove();
+            entitiesRemoved.inc();
+            LogCategory category = work.entityCategories.get(index);
+            if (debugLogger.isEnabled(category)) {
+                debugLogger.debug(category, "Удалена сущность {} в чанке ({}, {}) на координатах ({}, {}, {})", entity.getType().name(), chunk.getX(), chunk.getZ(), entity.getLocation().getX(), entity.getLocation().getY(), entity.getLocation().getZ());
+            }
+        }
+        return applied;
+    }
+
+    private void skip(ChunkWork work) {
+        int remaining = work.remaining();
+        blocksSkipped.add(work.blockCount - work.blockIndex);
+        entitiesSkipped.add(work.entities.size() - work.entityIndex);
+        work.blockIndex = work.blockCount;
+        work.entityIndex = work.entities.size();
+        pendingCount -= remaining;
+    }
+
+    private void logDrain(int applied, long startTime) {
+        if (applied > 0 && debugLogger.isEnabled(LogCategory.GENERAL)) {
+            debugLogger.debug(LogCategory.GENERAL, "Выполнено удалений компонентов лаг-машин: {} за {} мкс, в очереди: {}", applied, (System.nanoTime() - startTime) / 1000, pendingCount);
+        }
+    }
+}
@@ -7,35 +7,44 @@ import org.bukkit.World;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Item;
 import org.bukkit.entity.LivingEntity;
-import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntitySpawnEvent;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.gw.optimizationlagmanager.OptimizationLagManager;
-
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import org.gw.optimizationlagmanager.utils.ChunkKeys;
+import org.gw.optimizationlagmanager.utils.DebugLogger;
+import org.gw.optimizationlagmanager.utils.LogCategory;
+import org.gw.optimizationlagmanager.utils.LongIntHashMap;
+import org.gw.optimizationlagmanager.utils.Metrics;
 
 public class EntityManager implements Listener {
     private final OptimizationLagManager plugin;
     private final ConfigManager configManager;
-    private final Map<Chunk, List<Entity>> entityCache = new HashMap<>();
+    private final TickMonitor tickMonitor;
+    private final DebugLogger debugLogger;
+    private final PlayerIndex playerIndex;
+    private final LongIntHashMap entityCountCache = new LongIntHashMap();
+    private final Metrics.Counter cancelledChunkLimit;
 
     public EntityManager(OptimizationLagManager plugin, ConfigManager configManager) {
         this.plugin = plugin;
         this.configManager = configManager;
-        plugin.getServer().getPluginManager().registerEvents(this, plugin);
-        configManager.isConsoleLoggingEnabled();
+        this.tickMonitor = plugin.getTickMonitor();
+        this.debugLogger = plugin.getDebugLogger();
+        this.playerIndex = plugin.getPlayerIndex();
+        MetricsManager metricsManager = plugin.getMetricsManager();
+        this.cancelledChunkLimit = metricsManager.cancelled("entities", "chunk-limit");
+        metricsManager.cacheSize("entity_count", entityCountCache::size);
+        plugin.getListenerRegistrar().registerEvents(this, "entities", configManager::isEntityOptimizationEnabled);
         startEntityCleanup();
     }
 
     private void startEntityCleanup() {
         if (!configManager.isEntityOptimizationEnabled()) {
-            if (configManager.isConsoleLoggingEnabled()) {
-                plugin.getLogger().info("Оптимизация сущностей отключена в конфигурации");
+            if (debugLogger.isEnabled(LogCategory.ENTITIES)) {
+                debugLogger.debug(LogCategory.ENTITIES, "Оптимизация сущностей отключена в конфигурации");
             }
             return;
         }
@@ -46,20 +55,21 @@ public class EntityManager implements Listener {
                 try {
                     long startTime = System.nanoTime();
                     int totalRemoved = 0;
+                    entityCountCache.clear();
                     for (World world : Bukkit.getWorlds()) {
                         if (world == null) continue;
                         for (Chunk chunk : world.getLoadedChunks()) {
                             if (chunk == null) continue;
-                            List<Entity> entities = Arrays.asList(chunk.getEntities());
-                            entityCache.put(chunk, entities);
-                            if (entities.size() > configManager.getMaxEntitiesPerChunk()) {
+                            Entity[] entities = chunk.getEntities();
+                            entityCountCache.put(ChunkKeys.of(chunk), entities.length);
+                            if (entities.length > configManager.getMaxEntitiesPerChunk()) {
                                 for (Entity entity : entities) {
                                     if (entity instanceof Item && entity.getTicksLived() > configManager.getRemoveDropsAfter()) {
                                         if (configManager.getRedstonePlayerRadius() > 0 && !hasPlayersNearby(entity.getLocation())) {
                                             entity.remove();
                                             totalRemoved++;
-                                            if (configManager.isConsoleLoggingEnabled()) {
-                                                plugin.getLogger().info("Удалён предмет " + entity.getType().name() + " в чанке (" + chunk.getX() + ", " + chunk.getZ() + ") в мире " + world.getName() + ", возраст: " + entity.getTicksLived() + " тиков");
+                                            if (debugLogger.isEnabled(LogCategory.ENTITIES)) {
+                                                debugLogger.debug(LogCategory.ENTITIES, "Удалён предмет {} в чанке ({}, {}) в мире {}, возраст: {} тиков", entity.getType().name(), chunk.getX(), chunk.getZ(), world.getName(), entity.getTicksLived());
                                             }
                                         }
                                     }
@@ -68,8 +78,8 @@ public class EntityManager implements Listener {
                         }
                     }
                     long duration = (System.nanoTime() - startTime) / 1_000_000;
-                    if (duration > 50 && configManager.isConsoleLoggingEnabled()) {
-                        plugin.getLogger().warning("Очистка сущностей заняла " + duration + " мс, удалено сущностей: " + totalRemoved);
+                    if (duration > 50 && debugLogger.isEnabled(LogCategory.ENTITIES)) {
+                        debugLogger.warning(LogCategory.ENTITIES, "Очистка сущностей заняла {} мс, удалено сущностей: {}", duration, totalRemoved);
                     }
                 } catch (Exception e) {
                     plugin.getLogger().severe("Ошибка в задаче очистки сущностей: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
@@ -80,39 +90,42 @@ public class EntityManager implements Listener {
 
     private boolean hasPlayersNearby(Location location) {
         int radius = configManager.getRedstonePlayerRadius();
-        boolean hasPlayers = location.getWorld().getNearbyEntities(location, radius, radius, radius)
-                .stream().anyMatch(e -> e instanceof Player);
-        if (configManager.isConsoleLoggingEnabled()) {
-            plugin.getLogger().info("Проверка игроков в радиусе " + radius + " от " + location.toString() + ": " + (hasPlayers ? "игроки найдены" : "игроки не найдены"));
+        boolean hasPlayers = playerIndex.hasPlayersNearby(location, radius);
+        if (debugLogger.isEnabled(LogCategory.ENTITIES)) {
+            debugLogger.debug(LogCategory.ENTITIES, "Проверка игроков в радиусе {} от {}: {}", radius, location.toString(), (hasPlayers ? "игроки найдены" : "игроки не найдены"));
         }
         return hasPlayers;
     }
 
     public boolean shouldDisableAI() {
         if (!configManager.isDisableAiLowTps()) return false;
-        boolean disableAI = Bukkit.getTPS()[0] < configManager.getEntityTpsThreshold();
-        if (disableAI && configManager.isConsoleLoggingEnabled()) {
-            plugin.getLogger().info("TPS " + String.format("%.2f", Bukkit.getTPS()[0]) + " ниже порога " + configManager.getEntityTpsThreshold() + ", отключается ИИ мобов");
+        double tps = tickMonitor.getStats().getTps();
+        boolean disableAI = tps < configManager.getEntityTpsThreshold();
+        if (disableAI && debugLogger.isEnabled(LogCategory.ENTITIES)) {
+            debugLogger.debug(LogCategory.ENTITIES, "TPS {} ниже порога {}, отключается ИИ мобов", String.format("%.2f", tps), configManager.getEntityTpsThreshold());
         }
         return disableAI;
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
     public void onEntitySpawn(EntitySpawnEvent event) {
-        if (!configManager.isEntityOptimizationEnabled()) return;
         try {
             Chunk chunk = event.getLocation().getChunk();
-            List<Entity> entities = entityCache.getOrDefault(chunk, Arrays.asList(chunk.getEntities()));
-            if (entities.size() >= configManager.getMaxEntitiesPerChunk()) {
+            int entityCount = entityCountCache.get(ChunkKeys.of(chunk), -1);
+            if (entityCount < 0) {
+                entityCount = chunk.getEntities().length;
+            }
+            if (entityCount >= configManager.getMaxEntitiesPerChunk()) {
                 event.setCancelled(true);
-                if (configManager.isConsoleLoggingEnabled()) {
-                    plugin.getLogger().info("Отменён спавн сущности " + event.getEntityType().name() + " в чанке (" + chunk.getX() + ", " + chunk.getZ() + ") в мире " + chunk.getWorld().getName() + ": превышен лимит " + configManager.getMaxEntitiesPerChunk());
+                cancelledChunkLimit.inc();
+                if (debugLogger.isEnabled(LogCategory.ENTITIES, DebugLogger.Level.DEBUG)) {
+                    debugLogger.debug(LogCategory.ENTITIES, "Отменён спавн сущности {} в чанке ({}, {}) в мире {}: превышен лимит {}", event.getEntityType().name(), chunk.getX(), chunk.getZ(), chunk.getWorld().getName(), configManager.getMaxEntitiesPerChunk());
                 }
             }
             if (event.getEntity() instanceof LivingEntity && shouldDisableAI()) {
                 ((LivingEntity) event.getEntity()).setAI(false);
-                if (configManager.isConsoleLoggingEnabled()) {
-                    plugin.getLogger().info("Отключён ИИ для сущности " + event.getEntityType().name() + " в чанке (" + chunk.getX() + ", " + chunk.getZ() + ") в мире " + chunk.getWorld().getName());
+                if (debugLogger.isEnabled(LogCategory.ENTITIES, DebugLogger.Level.DEBUG)) {
+                    debugLogger.debug(LogCategory.ENTITIES, "Отключён ИИ для сущности {} в чанке ({}, {}) в мире {}", event.getEntityType().name(), chunk.getX(), chunk.getZ(), chunk.getWorld().getName());
                 }
             }
         } catch (Exception e) {
@@ -0,0 +1,272 @@
+package org.gw.optimizationlagmanager.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.gw.optimizationlagmanager.OptimizationLagManager;
+import org.gw.optimizationlagmanager.utils.ChunkCacheFile;
+import org.gw.optimizationlagmanager.utils.ChunkKeys;
+import org.gw.optimizationlagmanager.utils.DebugLogger;
+import org.gw.optimizationlagmanager.utils.LagMachineRegistryFile;
+import org.gw.optimizationlagmanager.utils.LogCategory;
+import org.gw.optimizationlagmanager.utils.LongHashSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Реестр найденных лаг-машин, переживающий перезапуск. Обнаружения копятся в основном потоке и дописываются в файл
+// одним фоновым потоком, поэтому дописывания и сжатия применяются к файлу строго по очереди.
+// При запуске известные чанки первыми ставятся в горячую очередь обхода, незагруженные - при загрузке
+public class LagMachineRegistry implements Listener {
+    private static final String REGISTRY_FILE = "lag-machines.bin";
+
+    private final OptimizationLagManager plugin;
+    private final ConfigManager configManager;
+    private final DebugLogger debugLogger;
+    private final ScanScheduler scanScheduler;
+    private final File file;
+    // Ключ - мир, чанк и тип: в одном чанке могут жить машины разных типов
+    private final Map<String, LagMachineRegistryFile.Record> records = new LinkedHashMap<>();
+    private final List<LagMachineRegistryFile.Record> pendingAppends = new ArrayList<>();
+    private final LongHashSet warmChunks = new LongHashSet();
+    private final ExecutorService writer;
+    private final BukkitRunnable flushTask;
+    private final BukkitRunnable compactTask;
+    private int appendedSinceCompaction = 0;
+    private boolean loaded = false;
+
+    public LagMachineRegistry(OptimizationLagManager plugin, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.debugLogger = plugin.getDebugLogger();
+        this.scanScheduler = plugin.getScanScheduler();
+        this.file = new File(plugin.getDataFolder(), REGISTRY_FILE);
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "OptimizationLagManager-Registry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        MetricsManager metricsManager = plugin.getMetricsManager();
+        metricsManager.cacheSize("lag_machine_registry", records::size);
+        metricsManager.cacheSize("lag_machine_registry_warm", warmChunks::size);
+        metricsManager.queueSize("lag_machine_registry_appends", pendingAppends::size);
+        plugin.getListenerRegistrar().registerEvents(this, "registry", configManager::isLagMachineRegistryEnabled);
+        if (configManager.isLagMachineRegistryEnabled()) {
+            load();
+        }
+
+        this.flushTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        };
+        flushTask.runTaskTimer(plugin, configManager.getRegistryFlushIntervalTicks(), configManager.getRegistryFlushIntervalTicks());
+        long compactInterval = configManager.getRegistryCompactIntervalMinutes() * 1200L;
+        this.compactTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                compact();
+            }
+        };
+        compactTask.runTaskTimer(plugin, compactInterval, compactInterval);
+    }
+
+    // Только из основного потока. Оценка - сколько раз машина обнаружена в этом чанке; владелец переносится из прошлой записи.
+    // cooldownEnd - конец кулдауна в миллисекундах эпохи или 0, если кулдаун не ставился
+    public void record(String type, long chunkKey, long cooldownEnd) {
+        if (!configManager.isLagMachineRegistryEnabled()) return;
+        World world = ChunkKeys.world(chunkKey);
+        if (world == null) return;
+        String key = key(world.getName(), ChunkCacheFile.pack(ChunkKeys.x(chunkKey), ChunkKeys.z(chunkKey)), type);
+        LagMachineRegistryFile.Record previous = records.remove(key);
+        LagMachineRegistryFile.Record record = new LagMachineRegistryFile.Record(world.getName(),
+                ChunkCacheFile.pack(ChunkKeys.x(chunkKey), ChunkKeys.z(chunkKey)), type,
+                previous != null ? previous.getScore() + 1 : 1, System.currentTimeMillis(), cooldownEnd,
+                previous != null ? previous.getOwner() : null);
+        records.put(key, record);
+        pendingAppends.add(record);
+    }
+
+    // Снимает сохранённые кулдауны, например после ручного включения редстоуна командой
+    public void clearCooldowns() {
+        for (Map.Entry<String, LagMachineRegistryFile.Record> entry : records.entrySet()) {
+            LagMachineRegistryFile.Record record = entry.getValue();
+            if (record.getCooldownEnd() == 0L) continue;
+            LagMachineRegistryFile.Record cleared = new LagMachineRegistryFile.Record(record.getWorld(), record.getChunk(), record.getType(),
+                    record.getScore(), record.getLastSeen(), 0L, record.getOwner());
+            entry.setValue(cleared);
+            pendingAppends.add(cleared);
+        }
+    }
+
+    // После перезагрузки конфига: реестр, включённый впервые с запуска, читается с диска и прогревает очередь обхода
+    public void refresh() {
+        if (loaded || !configManager.isLagMachineRegistryEnabled()) return;
+        load();
+        warmStart();
+    }
+
+    // Вызывается после создания менеджеров: чанки с самой высокой оценкой попадают в горячую очередь первыми
+    public void warmStart() {
+        if (!configManager.isLagMachineRegistryEnabled() || records.isEmpty()) return;
+        List<LagMachineRegistryFile.Record> seeds = new ArrayList<>(records.values());
+        seeds.sort((a, b) -> a.getScore() != b.getScore() ? Integer.compare(b.getScore(), a.getScore()) : Long.compare(b.getLastSeen(), a.getLastSeen()));
+        RedstoneManager redstoneManager = plugin.getRedstoneManager();
+        long currentTime = System.currentTimeMillis();
+        int queued = 0;
+        int restored = 0;
+        for (LagMachineRegistryFile.Record record : seeds) {
+            World world = Bukkit.getWorld(record.getWorld());
+            if (world == null) continue;
+            int x = ChunkCacheFile.x(record.getChunk());
+            int z = ChunkCacheFile.z(record.getChunk());
+            long chunkKey = ChunkKeys.of(world, x, z);
+            if (configManager.isRegistryRestoreCooldowns() && record.getCooldownEnd() > currentTime && "redstone".equals(record.getType())) {
+                redstoneManager.restoreCooldown(chunkKey, record.getCooldownEnd());
+                restored++;
+            }
+            if (world.isChunkLoaded(x, z)) {
+                if (scanScheduler.prioritise(chunkKey)) queued++;
+            } else {
+                warmChunks.add(chunkKey);
+            }
+        }
+        if (debugLogger.isEnabled(LogCategory.GENERAL)) {
+            debugLogger.debug(LogCategory.GENERAL, "Реестр лаг-машин: {} чанков поставлено в очередь обхода, {} ждут загрузки, восстановлено кулдаунов: {}", queued, warmChunks.size(), restored);
+        }
+    }
+
+    // Синхронное сохранение при выключении плагина: очередь записи дожидается, затем файл сжимается
+    public void shutdown() {
+        flushTask.cancel();
+        compactTask.cancel();
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!configManager.isLagMachineRegistryEnabled()) return;
+        pendingAppends.clear();
+        try {
+            writeCompacted(snapshot());
+        } catch (IOException e) {
+            plugin.getLogger().severe("Ошибка сохранения реестра лаг-машин: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        if (warmChunks.isEmpty()) return;
+        long chunkKey = ChunkKeys.of(event.getChunk());
+        if (warmChunks.remove(chunkKey)) {
+            scanScheduler.prioritise(chunkKey);
+        }
+    }
+
+    private void load() {
+        loaded = true;
+        if (!file.exists()) return;
+        try {
+            long startTime = System.nanoTime();
+            List<LagMachineRegistryFile.Record> fileRecords = LagMachineRegistryFile.read(file);
+            for (LagMachineRegistryFile.Record record : fileRecords) {
+                String key = key(record.getWorld(), record.getChunk(), record.getType());
+                records.remove(key);
+                records.put(key, record);
+            }
+            purgeExpired();
+            if (debugLogger.isEnabled(LogCategory.GENERAL)) {
+                debugLogger.debug(LogCategory.GENERAL, "Реестр лаг-машин загружен: {} записей из {} за {} мс", records.size(), fileRecords.size(), (System.nanoTime() - startTime) / 1_000_000);
+            }
+            // Повторы и возможный оборванный хвост убираются сразу, иначе новые записи легли бы за испорченной
+            compact();
+        } catch (Exception e) {
+            plugin.getLogger().severe("Ошибка загрузки реестра лаг-машин: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+        }
+    }
+
+    private void flush() {
+        if (pendingAppends.isEmpty()) return;
+        // Файл разросся повторами одних и тех же машин: сжатие заменяет дописывание
+        if (appendedSinceCompaction + pendingAppends.size() > Math.max(256, records.size() * 2)) {
+            compact();
+            return;
+        }
+        List<LagMachineRegistryFile.Record> batch = new ArrayList<>(pendingAppends);
+        pendingAppends.clear();
+        appendedSinceCompaction += batch.size();
+        submit(() -> {
+            file.getParentFile().mkdirs();
+            LagMachineRegistryFile.append(file, batch);
+        });
+    }
+
+    private void compact() {
+        if (!configManager.isLagMachineRegistryEnabled()) return;
+        purgeExpired();
+        pendingAppends.clear();
+        appendedSinceCompaction = 0;
+        List<LagMachineRegistryFile.Record> snapshot = snapshot();
+        submit(() -> writeCompacted(snapshot));
+    }
+
+    private void writeCompacted(List<LagMachineRegistryFile.Record> snapshot) throws IOException {
+        long startTime = System.nanoTime();
+        file.getParentFile().mkdirs();
+        LagMachineRegistryFile.write(file, snapshot);
+        if (debugLogger.isEnabled(LogCategory.GENERAL)) {
+            debugLogger.debug(LogCategory.GENERAL, "Реестр лаг-машин сжат: {} записей, {} байт за {} мс", snapshot.size(), file.length(), (System.nanoTime() - startTime) / 1_000_000);
+        }
+    }
+
+    // Удаляет записи старше срока хранения, при превышении лимита - самые давние
+    private void purgeExpired() {
+        long expiry = System.currentTimeMillis() - configManager.getRegistryRetentionDays() * 86_400_000L;
+        records.values().removeIf(record -> record.getLastSeen() < expiry);
+        int excess = records.size() - configManager.getRegistryMaxEntries();
+        if (excess <= 0) return;
+        List<LagMachineRegistryFile.Record> byAge = new ArrayList<>(records.values());
+        byAge.sort(Comparator.comparingLong(LagMachineRegistryFile.Record::getLastSeen));
+        for (int i = 0; i < excess; i++) {
+            LagMachineRegistryFile.Record record = byAge.get(i);
+            records.remove(key(record.getWorld(), record.getChunk(), record.getType()));
+        }
+    }
+
+    private List<LagMachineRegistryFile.Record> snapshot() {
+        return new ArrayList<>(records.values());
+    }
+
+    private interface FileTask {
+        void run() throws IOException;
+    }
+
+    private void submit(FileTask task) {
+        try {
+            writer.execute(() -> {
+                try {
+                    task.run();
+                } catch (IOException e) {
+                    plugin.getLogger().severe("Ошибка записи реестра лаг-машин: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            plugin.getLogger().severe("Ошибка записи реестра лаг-машин: поток записи остановлен");
+        }
+    }
+
+    private static String key(String world, long chunk, String type) {
+        return world + '/' + chunk + '/' + type;
+    }
+}
@@ -0,0 +1,147 @@
+package org.gw.optimizationlagmanager.managers;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.gw.optimizationlagmanager.OptimizationLagManager;
+import org.gw.optimizationlagmanager.utils.DebugLogger;
+import org.gw.optimizationlagmanager.utils.LogCategory;
+import org.gw.optimizationlagmanager.utils.Metrics;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+// Регистрация обработчиков подсистем. Обработчики висят в HandlerList, только пока подсистема включена в конфиге:
+// выключенная подсистема не получает событий вовсе. Обёртка со счётчиками и замером времени ставится, только когда
+// включены метрики или идёт профилирование, иначе регистрируется исполнитель самого обработчика
+public class ListenerRegistrar {
+    private final OptimizationLagManager plugin;
+    private final ConfigManager configManager;
+    private final DebugLogger debugLogger;
+    private final MetricsManager metricsManager;
+    private final ChunkProfiler chunkProfiler;
+    private final List<Registration> registrations = new ArrayList<>();
+    // С чем зарегистрированы обработчики сейчас: обёртка и счётчики метрик в ней
+    private boolean wrapped;
+    private boolean timed;
+
+    private static final class Registration {
+        private final Listener listener;
+        private final String subsystem;
+        private final BooleanSupplier enabled;
+        private final Consumer<Boolean> toggled;
+        private boolean registered = false;
+
+        private Registration(Listener listener, String subsystem, BooleanSupplier enabled, Consumer<Boolean> toggled) {
+            this.listener = listener;
+            this.subsystem = subsystem;
+            this.enabled = enabled;
+            this.toggled = toggled;
+        }
+    }
+
+    public ListenerRegistrar(OptimizationLagManager plugin) {
+        this.plugin = plugin;
+        this.configManager = plugin.getConfigManager();
+        this.debugLogger = plugin.getDebugLogger();
+        this.metricsManager = plugin.getMetricsManager();
+        this.chunkProfiler = plugin.getChunkProfiler();
+        this.timed = configManager.getSnapshot().isMetricsEnabled();
+        this.wrapped = timed || chunkProfiler.isRunning();
+    }
+
+    public void registerEvents(Listener listener, String subsystem, BooleanSupplier enabled) {
+        registerEvents(listener, subsystem, enabled, null);
+    }
+
+    // toggled получает новое состояние после регистрации или снятия обработчиков, в том числе при первой регистрации
+    public void registerEvents(Listener listener, String subsystem, BooleanSupplier enabled, Consumer<Boolean> toggled) {
+        Registration registration = new Registration(listener, subsystem, enabled, toggled);
+        registrations.add(registration);
+        refresh(registration);
+    }
+
+    // После перезагрузки конфига снимает или возвращает обработчики подсистем и включает или выключает метрики в обёртке
+    public void refresh() {
+        for (Registration registration : registrations) {
+            refresh(registration);
+        }
+        refreshExecutors();
+    }
+
+    // Вызывается при запуске и остановке профилирования и после перезагрузки конфига:
+    // обработчики перерегистрируются с обёрткой или без неё по текущему снимку настроек
+    public void refreshExecutors() {
+        boolean needsTiming = configManager.getSnapshot().isMetricsEnabled();
+        boolean needsWrapping = needsTiming || chunkProfiler.isRunning();
+        if ((needsWrapping == wrapped && needsTiming == timed) || !plugin.isEnabled()) return;
+        wrapped = needsWrapping;
+        timed = needsTiming;
+        for (Registration registration : registrations) {
+            if (!registration.registered) continue;
+            HandlerList.unregisterAll(registration.listener);
+            register(registration.listener, registration.subsystem);
+        }
+        if (debugLogger.isEnabled(LogCategory.GENERAL)) {
+            debugLogger.debug(LogCategory.GENERAL, "Обработчики событий перерегистрированы {} замера времени", wrapped ? "с обёрткой" : "без обёртки");
+        }
+    }
+
+    private void refresh(Registration registration) {
+        boolean enabled = registration.enabled.getAsBoolean();
+        if (enabled == registration.registered) return;
+        if (enabled) {
+            register(registration.listener, registration.subsystem);
+        } else {
+            HandlerList.unregisterAll(registration.listener);
+        }
+        registration.registered = enabled;
+        if (registration.toggled != null) registration.toggled.accept(enabled);
+        if (debugLogger.isEnabled(LogCategory.GENERAL)) {
+            debugLogger.debug(LogCategory.GENERAL, "Обработчики событий подсистемы {} {}", registration.subsystem, enabled ? "зарегистрированы" : "сняты");
+        }
+    }
+
+    // Замена PluginManager.registerEvents: при включённых метриках каждый обработчик считает события и время своей работы,
+    // во время профилирования время обработчика записывается на чанк события
+    private void register(Listener listener, String subsystem) {
+        for (Method method : listener.getClass().getMethods()) {
+            EventHandler annotation = method.getAnnotation(EventHandler.class);
+            if (annotation == null || method.isBridge() || method.isSynthetic() || method.getParameterCount() != 1) continue;
+            if (!Event.class.isAssignableFrom(method.getParameterTypes()[0])) continue;
+            Class<? extends Event> eventClass = method.getParameterTypes()[0].asSubclass(Event.class);
+            EventExecutor executor = EventExecutor.create(method, eventClass);
+            int profileType = chunkProfiler.registerEventType(eventClass);
+            if (!wrapped) {
+                plugin.getServer().getPluginManager().registerEvent(eventClass, listener, annotation.priority(), executor, plugin, annotation.ignoreCancelled());
+                continue;
+            }
+            Metrics.Counter events = timed ? metricsManager.events(subsystem, eventClass.getSimpleName()) : null;
+            Metrics.Histogram duration = timed ? metricsManager.handlerDuration(subsystem, eventClass.getSimpleName()) : null;
+            plugin.getServer().getPluginManager().registerEvent(eventClass, listener, annotation.priority(), (target, event) -> {
+                if (!eventClass.isInstance(event)) return;
+                boolean profiling = chunkProfiler.isRunning();
+                if (events == null && !profiling) {
+                    executor.execute(target, event);
+                    return;
+                }
+                long startTime = System.nanoTime();
+                try {
+                    executor.execute(target, event);
+                } finally {
+                    long elapsed = System.nanoTime() - startTime;
+                    if (events != null) {
+                        duration.record(elapsed);
+                        events.inc();
+                    }
+                    if (profiling) chunkProfiler.record(profileType, event, elapsed);
+                }
+            }, plugin, annotation.ignoreCancelled());
+        }
+    }
+}
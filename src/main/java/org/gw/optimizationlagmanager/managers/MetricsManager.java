@@ -0,0 +1,179 @@
+package org.gw.optimizationlagmanager.managers;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+import org.gw.optimizationlagmanager.OptimizationLagManager;
+import org.gw.optimizationlagmanager.utils.Metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.DoubleSupplier;
+
+public class MetricsManager {
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final OptimizationLagManager plugin;
+    private final ConfigManager configManager;
+    private final Metrics metrics = new Metrics();
+    private final Metrics.Family<Metrics.Counter> eventsTotal;
+    private final Metrics.Family<Metrics.Counter> eventsCancelled;
+    private final Metrics.Family<Metrics.Counter> eventsDeferred;
+    private final Metrics.Family<Metrics.Histogram> handlerDuration;
+    private final Metrics.Family<Metrics.Counter> chunksScanned;
+    private final Metrics.Family<Metrics.Counter> lagMachinesDetected;
+    private final Metrics.Family<Metrics.Counter> lagMachinesDestroyed;
+    private final Metrics.Family<Metrics.Gauge> cacheEntries;
+    private final Metrics.Family<Metrics.Gauge> queueEntries;
+    private final TickMonitor.Subscriber sampler = stats -> sampleGauges();
+    private HttpServer server;
+    private ExecutorService httpExecutor;
+
+    public MetricsManager(OptimizationLagManager plugin, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+
+        eventsTotal = metrics.counter("olm_events_total", "Events handled by the plugin listeners", "subsystem", "event");
+        eventsCancelled = metrics.counter("olm_events_cancelled_total", "Events cancelled or suppressed by the plugin", "subsystem", "reason");
+        eventsDeferred = metrics.counter("olm_events_deferred_total", "Events deferred by the plugin and applied later", "subsystem", "reason");
+        handlerDuration = metrics.histogram("olm_handler_duration_seconds", "Time spent in the plugin event handlers", "subsystem", "event");
+        chunksScanned = metrics.counter("olm_chunks_scanned_total", "Chunk snapshots analysed by the scan workers");
+        lagMachinesDetected = metrics.counter("olm_lag_machines_detected_total", "Lag machines detected", "type");
+        lagMachinesDestroyed = metrics.counter("olm_lag_machines_destroyed_total", "Lag machine components removed", "type");
+        cacheEntries = metrics.gauge("olm_cache_entries", "Entries in the plugin caches", "cache");
+        queueEntries = metrics.gauge("olm_queue_entries", "Work waiting in the plugin queues", "queue");
+
+        TickMonitor tickMonitor = plugin.getTickMonitor();
+        Metrics.Family<Metrics.Gauge> mspt = metrics.gauge("olm_mspt", "Milliseconds per tick", "window");
+        mspt.labels("1s").setSource(() -> tickMonitor.getStats().getAverageMspt1s());
+        mspt.labels("10s").setSource(() -> tickMonitor.getStats().getAverageMspt10s());
+        mspt.labels("60s").setSource(() -> tickMonitor.getStats().getAverageMspt60s());
+        mspt.labels("p95").setSource(() -> tickMonitor.getStats().getP95Mspt());
+        mspt.labels("p99").setSource(() -> tickMonitor.getStats().getP99Mspt());
+        metrics.gauge("olm_tps", "Ticks per second over the last 10 seconds").labels().setSource(() -> tickMonitor.getStats().getTps());
+        metrics.gauge("olm_scheduler_tasks", "Scheduler tasks queued by the plugin").labels().setSource(this::countScheduledTasks);
+
+        start();
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public Metrics.Counter events(String subsystem, String event) {
+        return eventsTotal.labels(subsystem, event);
+    }
+
+    public Metrics.Histogram handlerDuration(String subsystem, String event) {
+        return handlerDuration.labels(subsystem, event);
+    }
+
+    public Metrics.Counter cancelled(String subsystem, String reason) {
+        return eventsCancelled.labels(subsystem, reason);
+    }
+
+    public Metrics.Counter deferred(String subsystem, String reason) {
+        return eventsDeferred.labels(subsystem, reason);
+    }
+
+    public Metrics.Counter chunksScanned() {
+        return chunksScanned.labels();
+    }
+
+    public void recordLagMachine(String type, int destroyedCount) {
+        lagMachinesDetected.labels(type).inc();
+        lagMachinesDestroyed.labels(type).add(destroyedCount);
+    }
+
+    // Источники cacheSize и queueSize читаются в основном потоке раз в секунду
+    public void cacheSize(String cache, DoubleSupplier size) {
+        cacheEntries.labels(cache).setSource(size);
+    }
+
+    public void queueSize(String queue, DoubleSupplier size) {
+        queueEntries.labels(queue).setSource(size);
+    }
+
+    public void reload() {
+        stop();
+        start();
+    }
+
+    public void stop() {
+        plugin.getTickMonitor().unsubscribe(sampler);
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (httpExecutor != null) {
+            httpExecutor.shutdownNow();
+            httpExecutor = null;
+        }
+    }
+
+    private void start() {
+        if (!configManager.isMetricsEnabled()) return;
+        String host = configManager.getMetricsHost();
+        int port = configManager.getMetricsPort();
+        try {
+            sampleGauges();
+            plugin.getTickMonitor().subscribe(sampler);
+            server = HttpServer.create(new InetSocketAddress(host, port), 0);
+            httpExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "OptimizationLagManager-Metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            server.setExecutor(httpExecutor);
+            server.createContext("/metrics", this::handle);
+            server.start();
+            plugin.getLogger().info("Метрики Prometheus доступны на http://" + host + ":" + port + "/metrics");
+        } catch (Exception e) {
+            plugin.getLogger().severe("Ошибка запуска сервера метрик на " + host + ":" + port + ": " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+            stop();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = metrics.render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if (method.equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void sampleGauges() {
+        try {
+            metrics.sampleGauges();
+        } catch (Exception e) {
+            plugin.getLogger().severe("Ошибка сбора метрик: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+        }
+    }
+
+    private double countScheduledTasks() {
+        int count = 0;
+        for (BukkitTask task : Bukkit.getScheduler().getPendingTasks()) {
+            if (task.getOwner() == plugin) count++;
+        }
+        return count;
+    }
+}
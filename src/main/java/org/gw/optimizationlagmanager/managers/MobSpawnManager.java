@@ -6,32 +6,49 @@ import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.CreatureSpawnEvent;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.gw.optimizationlagmanager.OptimizationLagManager;
+import org.gw.optimizationlagmanager.utils.ChunkKeys;
+import org.gw.optimizationlagmanager.utils.DebugLogger;
+import org.gw.optimizationlagmanager.utils.LogCategory;
+import org.gw.optimizationlagmanager.utils.LongIntHashMap;
+import org.gw.optimizationlagmanager.utils.Metrics;
 
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
 
 public class MobSpawnManager implements Listener {
     private final OptimizationLagManager plugin;
     private final ConfigManager configManager;
-    private final Map<Chunk, Integer> mobCountCache = new HashMap<>();
+    private final TickMonitor tickMonitor;
+    private final AdaptiveLimits adaptiveLimits;
+    private final DebugLogger debugLogger;
+    private final LongIntHashMap mobCountCache = new LongIntHashMap();
+    private final Metrics.Counter cancelledSpawnerLimit;
+    private final Metrics.Counter cancelledChunkLimit;
+    private final Metrics.Counter cancelledSpawnReduction;
 
     public MobSpawnManager(OptimizationLagManager plugin, ConfigManager configManager) {
         this.plugin = plugin;
         this.configManager = configManager;
-        plugin.getServer().getPluginManager().registerEvents(this, plugin);
-        configManager.isConsoleLoggingEnabled();
+        this.tickMonitor = plugin.getTickMonitor();
+        this.adaptiveLimits = plugin.getAdaptiveLimits();
+        this.debugLogger = plugin.getDebugLogger();
+        MetricsManager metricsManager = plugin.getMetricsManager();
+        this.cancelledSpawnerLimit = metricsManager.cancelled("spawning", "spawner-limit");
+        this.cancelledChunkLimit = metricsManager.cancelled("spawning", "chunk-limit");
+        this.cancelledSpawnReduction = metricsManager.cancelled("spawning", "spawn-reduction");
+        metricsManager.cacheSize("mob_count", mobCountCache::size);
+        plugin.getListenerRegistrar().registerEvents(this, "spawning", configManager::isMobSpawningEnabled);
         startMobCountUpdate();
     }
 
     private void startMobCountUpdate() {
         if (!configManager.isMobSpawningEnabled()) {
-            if (configManager.isConsoleLoggingEnabled()) {
-                plugin.getLogger().info("Оптимизация спавна мобов отключена в конфигурации");
+            if (debugLogger.isEnabled(LogCategory.SPAWNING)) {
+                debugLogger.debug(LogCategory.SPAWNING, "Оптимизация спавна мобов отключена в конфигурации");
             }
             return;
         }
@@ -42,22 +59,23 @@ public class MobSpawnManager implements Listener {
                 try {
                     long startTime = System.nanoTime();
                     int totalChunksUpdated = 0;
+                    mobCountCache.clear();
                     for (World world : Bukkit.getWorlds()) {
                         if (world == null) continue;
                         for (Chunk chunk : world.getLoadedChunks()) {
                             if (chunk == null) continue;
                             int mobCount = (int) Arrays.stream(chunk.getEntities())
                                     .filter(e -> e instanceof LivingEntity).count();
-                            mobCountCache.put(chunk, mobCount);
+                            mobCountCache.put(ChunkKeys.of(chunk), mobCount);
                             totalChunksUpdated++;
-                            if (configManager.isConsoleLoggingEnabled()) {
-                                plugin.getLogger().info("Обновлён счётчик мобов в чанке (" + chunk.getX() + ", " + chunk.getZ() + ") в мире " + world.getName() + ": " + mobCount + " мобов");
+                            if (debugLogger.isEnabled(LogCategory.SPAWNING)) {
+                                debugLogger.debug(LogCategory.SPAWNING, "Обновлён счётчик мобов в чанке ({}, {}) в мире {}: {} мобов", chunk.getX(), chunk.getZ(), world.getName(), mobCount);
                             }
                         }
                     }
                     long duration = (System.nanoTime() - startTime) / 1_000_000;
-                    if (duration > 50 && configManager.isConsoleLoggingEnabled()) {
-                        plugin.getLogger().warning("Обновление счётчика мобов заняло " + duration + " мс, обработано чанков: " + totalChunksUpdated);
+                    if (duration > 50 && debugLogger.isEnabled(LogCategory.SPAWNING)) {
+                        debugLogger.warning(LogCategory.SPAWNING, "Обновление счётчика мобов заняло {} мс, обработано чанков: {}", duration, totalChunksUpdated);
                     }
                 } catch (Exception e) {
                     plugin.getLogger().severe("Ошибка в задаче обновления счётчика мобов: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
@@ -67,36 +85,39 @@ public class MobSpawnManager implements Listener {
     }
 
     public boolean shouldReduceSpawnRate() {
-        if (!configManager.isSpawnRateReductionEnabled()) return false;
-        boolean reduce = Bukkit.getTPS()[0] < configManager.getTpsThreshold();
-        if (reduce && configManager.isConsoleLoggingEnabled()) {
-            plugin.getLogger().info("TPS " + String.format("%.2f", Bukkit.getTPS()[0]) + " ниже порога " + configManager.getTpsThreshold() + ", уменьшается частота спавна мобов");
+        if (!configManager.isSpawnRateReductionEnabled() || adaptiveLimits.isEnabled()) return false;
+        double tps = tickMonitor.getStats().getTps();
+        boolean reduce = tps < configManager.getTpsThreshold();
+        if (reduce && debugLogger.isEnabled(LogCategory.SPAWNING)) {
+            debugLogger.debug(LogCategory.SPAWNING, "TPS {} ниже порога {}, уменьшается частота спавна мобов", String.format("%.2f", tps), configManager.getTpsThreshold());
         }
         return reduce;
     }
 
     public double getSpawnReductionMultiplier() {
         double multiplier = 1.0 + (configManager.getReductionPercentage() / 100.0);
-        if (configManager.isConsoleLoggingEnabled()) {
-            plugin.getLogger().info("Множитель уменьшения спавна: " + multiplier);
+        if (debugLogger.isEnabled(LogCategory.SPAWNING)) {
+            debugLogger.debug(LogCategory.SPAWNING, "Множитель уменьшения спавна: {}", multiplier);
         }
         return multiplier;
     }
 
     public int getMaxMobsPerChunk() {
-        return configManager.getMaxMobsPerChunk();
+        return adaptiveLimits.getMaxMobsPerChunk();
     }
 
     public int getMaxMobsPerSpawner() {
         return configManager.getMaxMobsPerSpawner();
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
     public void onCreatureSpawn(CreatureSpawnEvent event) {
-        if (!configManager.isMobSpawningEnabled()) return;
         try {
             Chunk chunk = event.getLocation().getChunk();
-            int mobCount = mobCountCache.getOrDefault(chunk, chunk.getEntities().length);
+            int mobCount = mobCountCache.get(ChunkKeys.of(chunk), -1);
+            if (mobCount < 0) {
+                mobCount = chunk.getEntities().length;
+            }
 
             if (event.getSpawnReason() == CreatureSpawnEvent.SpawnReason.SPAWNER) {
                 if (configManager.isSpawnerLimitEnabled()) {
@@ -105,22 +126,25 @@ public class MobSpawnManager implements Listener {
                             .stream().filter(e -> e instanceof LivingEntity).count();
                     if (nearbyMobs >= getMaxMobsPerSpawner()) {
                         event.setCancelled(true);
-                        if (configManager.isConsoleLoggingEnabled()) {
-                            plugin.getLogger().info("Отменён спавн моба " + event.getEntityType().name() + " из спавнера в чанке (" + chunk.getX() + ", " + chunk.getZ() + ") в мире " + chunk.getWorld().getName() + ": превышен лимит " + getMaxMobsPerSpawner());
+                        cancelledSpawnerLimit.inc();
+                        if (debugLogger.isEnabled(LogCategory.SPAWNING, DebugLogger.Level.DEBUG)) {
+                            debugLogger.debug(LogCategory.SPAWNING, "Отменён спавн моба {} из спавнера в чанке ({}, {}) в мире {}: превышен лимит {}", event.getEntityType().name(), chunk.getX(), chunk.getZ(), chunk.getWorld().getName(), getMaxMobsPerSpawner());
                         }
                     }
                 }
             } else if (mobCount >= getMaxMobsPerChunk()) {
                 event.setCancelled(true);
-                if (configManager.isConsoleLoggingEnabled()) {
-                    plugin.getLogger().info("Отменён спавн моба " + event.getEntityType().name() + " в чанке (" + chunk.getX() + ", " + chunk.getZ() + ") в мире " + chunk.getWorld().getName() + ": превышен лимит " + getMaxMobsPerChunk());
+                cancelledChunkLimit.inc();
+                if (debugLogger.isEnabled(LogCategory.SPAWNING, DebugLogger.Level.DEBUG)) {
+                    debugLogger.debug(LogCategory.SPAWNING, "Отменён спавн моба {} в чанке ({}, {}) в мире {}: превышен лимит {}", event.getEntityType().name(), chunk.getX(), chunk.getZ(), chunk.getWorld().getName(), getMaxMobsPerChunk());
                 }
             }
 
             if (shouldReduceSpawnRate() && Math.random() < (getSpawnReductionMultiplier() - 1.0)) {
                 event.setCancelled(true);
-                if (configManager.isConsoleLoggingEnabled()) {
-                    plugin.getLogger().info("Отменён спавн моба " + event.getEntityType().name() + " в чанке (" + chunk.getX() + ", " + chunk.getZ() + ") в мире " + chunk.getWorld().getName() + " из-за уменьшения частоты спавна");
+                cancelledSpawnReduction.inc();
+                if (debugLogger.isEnabled(LogCategory.SPAWNING, DebugLogger.Level.DEBUG)) {
+                    debugLogger.debug(LogCategory.SPAWNING, "Отменён спавн моба {} в чанке ({}, {}) в мире {} из-за уменьшения частоты спавна", event.getEntityType().name(), chunk.getX(), chunk.getZ(), chunk.getWorld().getName());
                 }
             }
         } catch (Exception e) {
@@ -0,0 +1,220 @@
+package org.gw.optimizationlagmanager.managers;
+
+import org.gw.optimizationlagmanager.utils.LongIntHashMap;
+import org.gw.optimizationlagmanager.utils.SlotPool;
+
+import java.util.Arrays;
+
+// Переключения сигнала по позициям блоков: на каждый чанк не больше positionsPerChunk позиций,
+// при нехватке места вытесняется позиция, которая дольше всех не переключалась.
+// По последним HISTORY переключениям позиции считаются частота и разброс периода; только из основного потока
+public final class OscillationTracker {
+    private static final int HISTORY = 8;
+
+    private final int positionsPerChunk;
+    private final LongIntHashMap slots = new LongIntHashMap();
+    // Данные позиции entry = slot * positionsPerChunk + i; пустая позиция отмечена -1 в positions
+    private int[] positions;
+    private int[] lastTicks;
+    private int[] runStarts;
+    private int[] heads;
+    private int[] toggleCounts;
+    private int[] history;
+    private int[] slotTicks;
+    private final SlotPool pool;
+
+    public OscillationTracker(int positionsPerChunk) {
+        if (positionsPerChunk <= 0) {
+            throw new IllegalArgumentException("Некорректное число позиций на чанк: " + positionsPerChunk);
+        }
+        this.positionsPerChunk = positionsPerChunk;
+        int capacity = 16;
+        int entries = capacity * positionsPerChunk;
+        this.positions = new int[entries];
+        this.lastTicks = new int[entries];
+        this.runStarts = new int[entries];
+        this.heads = new int[entries];
+        this.toggleCounts = new int[entries];
+        this.history = new int[entries * HISTORY];
+        this.slotTicks = new int[capacity];
+        this.pool = new SlotPool(capacity, grown -> {
+            int grownEntries = grown * positionsPerChunk;
+            positions = Arrays.copyOf(positions, grownEntries);
+            lastTicks = Arrays.copyOf(lastTicks, grownEntries);
+            runStarts = Arrays.copyOf(runStarts, grownEntries);
+            heads = Arrays.copyOf(heads, grownEntries);
+            toggleCounts = Arrays.copyOf(toggleCounts, grownEntries);
+            history = Arrays.copyOf(history, grownEntries * HISTORY);
+            slotTicks = Arrays.copyOf(slotTicks, grown);
+        });
+    }
+
+    // Условие колебания: минимальная частота полных циклов, длительность непрерывной серии и число таких позиций в чанке
+    public static final class Criteria {
+        private final double minFrequencyHz;
+        private final int windowTicks;
+        private final int minPositions;
+        private final int maxGapTicks;
+
+        public Criteria(double minFrequencyHz, int windowTicks, int minPositions) {
+            this.minFrequencyHz = minFrequencyHz;
+            this.windowTicks = windowTicks;
+            this.minPositions = minPositions;
+            // Пауза длиннее полного периода на минимальной частоте обрывает серию
+            this.maxGapTicks = (int) Math.ceil(20.0 / minFrequencyHz);
+        }
+
+        public double getMinFrequencyHz() {
+            return minFrequencyHz;
+        }
+    }
+
+    // Возвращает true, если после этого переключения чанк колеблется по criteria
+    public boolean record(long chunkKey, int packed, int tick, Criteria criteria) {
+        int slot = slots.get(chunkKey, -1);
+        if (slot < 0) {
+            slot = allocateSlot();
+            slots.put(chunkKey, slot);
+        }
+        slotTicks[slot] = tick;
+        int entry = findOrEvict(slot, packed);
+        if (toggleCounts[entry] > 0 && lastTicks[entry] == tick) return false;
+        int base = entry * HISTORY;
+        if (toggleCounts[entry] == 0 || tick - lastTicks[entry] > criteria.maxGapTicks) {
+            runStarts[entry] = tick;
+            toggleCounts[entry] = 0;
+        } else if (toggleCounts[entry] >= 3) {
+            // Серия ровная, пока каждый полный период совпадает с предыдущим: сбой периода начинает её заново
+            int period = tick - history[base + (heads[entry] + HISTORY - 2) % HISTORY];
+            int previous = lastTicks[entry] - history[base + (heads[entry] + HISTORY - 3) % HISTORY];
+            if (!isStable(Math.min(period, previous), Math.max(period, previous))) runStarts[entry] = tick;
+        }
+        history[base + heads[entry]] = tick;
+        heads[entry] = (heads[entry] + 1) % HISTORY;
+        toggleCounts[entry]++;
+        lastTicks[entry] = tick;
+        if (!oscillates(entry, tick, criteria)) return false;
+        return countOscillating(slot, tick, criteria) >= criteria.minPositions;
+    }
+
+    public boolean isOscillating(long chunkKey, int tick, Criteria criteria) {
+        int slot = slots.get(chunkKey, -1);
+        return slot >= 0 && countOscillating(slot, tick, criteria) >= criteria.minPositions;
+    }
+
+    // Колеблющиеся позиции чанка, первой идёт самая быстрая
+    public ChunkScan.Positions getOscillating(long chunkKey, int tick, Criteria criteria) {
+        ChunkScan.Positions result = new ChunkScan.Positions();
+        int slot = slots.get(chunkKey, -1);
+        if (slot < 0) return result;
+        int base = slot * positionsPerChunk;
+        int fastest = -1;
+        int fastestSpan = Integer.MAX_VALUE;
+        for (int entry = base; entry < base + positionsPerChunk; entry++) {
+            if (positions[entry] < 0 || !oscillates(entry, tick, criteria)) continue;
+            int span = span(entry);
+            if (span < fastestSpan) {
+                fastestSpan = span;
+                fastest = entry;
+            }
+        }
+        if (fastest < 0) return result;
+        add(result, positions[fastest]);
+        for (int entry = base; entry < base + positionsPerChunk; entry++) {
+            if (entry != fastest && positions[entry] >= 0 && oscillates(entry, tick, criteria)) {
+                add(result, positions[entry]);
+            }
+        }
+        return result;
+    }
+
+    public void remove(long chunkKey) {
+        int slot = slots.remove(chunkKey, -1);
+        if (slot >= 0) pool.release(slot);
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    public void clear() {
+        slots.clear();
+        pool.clear();
+    }
+
+    public int purgeIdle(int tick, int idleTicks) {
+        return slots.removeIf((key, slot) -> {
+            if (tick - slotTicks[slot] < idleTicks) return false;
+            pool.release(slot);
+            return true;
+        });
+    }
+
+    // Полная история, серия не оборвана, частота по размаху истории не ниже порога и полный период стабилен.
+    // Полный период берётся через переключение, поэтому скважность клока на него не влияет
+    private boolean oscillates(int entry, int tick, Criteria criteria) {
+        if (toggleCounts[entry] < HISTORY || tick - lastTicks[entry] > criteria.maxGapTicks) return false;
+        if (lastTicks[entry] - runStarts[entry] < criteria.windowTicks) return false;
+        int span = span(entry);
+        double frequencyHz = 20.0 * (HISTORY - 1) / (2.0 * Math.max(1, span));
+        if (frequencyHz < criteria.minFrequencyHz) return false;
+        int base = entry * HISTORY;
+        int minPeriod = Integer.MAX_VALUE;
+        int maxPeriod = 0;
+        for (int i = 2; i < HISTORY; i++) {
+            int period = history[base + (heads[entry] + i) % HISTORY] - history[base + (heads[entry] + i - 2) % HISTORY];
+            minPeriod = Math.min(minPeriod, period);
+            maxPeriod = Math.max(maxPeriod, period);
+        }
+        return isStable(minPeriod, maxPeriod);
+    }
+
+    // Допуск на сдвиг переключений между тиками
+    private static boolean isStable(int minPeriod, int maxPeriod) {
+        return maxPeriod - minPeriod <= Math.max(1, minPeriod / 4);
+    }
+
+    private int countOscillating(int slot, int tick, Criteria criteria) {
+        int count = 0;
+        int base = slot * positionsPerChunk;
+        for (int entry = base; entry < base + positionsPerChunk; entry++) {
+            if (positions[entry] >= 0 && oscillates(entry, tick, criteria)) count++;
+        }
+        return count;
+    }
+
+    // Размах истории: от самого старого переключения до самого нового
+    private int span(int entry) {
+        int base = entry * HISTORY;
+        return lastTicks[entry] - history[base + heads[entry]];
+    }
+
+    private int findOrEvict(int slot, int packed) {
+        int base = slot * positionsPerChunk;
+        int victim = base;
+        for (int entry = base; entry < base + positionsPerChunk; entry++) {
+            int position = positions[entry];
+            if (position == packed) return entry;
+            if (position < 0) {
+                if (positions[victim] >= 0) victim = entry;
+            } else if (positions[victim] >= 0 && lastTicks[entry] < lastTicks[victim]) {
+                victim = entry;
+            }
+        }
+        positions[victim] = packed;
+        toggleCounts[victim] = 0;
+        heads[victim] = 0;
+        return victim;
+    }
+
+    private int allocateSlot() {
+        int slot = pool.allocate();
+        int base = slot * positionsPerChunk;
+        Arrays.fill(positions, base, base + positionsPerChunk, -1);
+        return slot;
+    }
+
+    private static void add(ChunkScan.Positions result, int packed) {
+        result.add((packed >> 4) & 15, packed >> 8, packed & 15);
+    }
+}
@@ -2,14 +2,14 @@ package org.gw.optimizationlagmanager.managers;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
-import org.bukkit.Location;
+import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
-import org.bukkit.block.BlockFace;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockFromToEvent;
 import org.bukkit.event.block.BlockPhysicsEvent;
@@ -18,231 +18,268 @@ import org.bukkit.scheduler.BukkitRunnable;
 import org.gw.optimizationlagmanager.OptimizationLagManager;
 import org.gw.optimizationlagmanager.commands.AlertsCommand;
 import org.gw.optimizationlagmanager.commands.CommandsHandler;
-import org.gw.optimizationlagmanager.utils.HexColors;
+import org.gw.optimizationlagmanager.utils.ChunkKeys;
+import org.gw.optimizationlagmanager.utils.DebugLogger;
+import org.gw.optimizationlagmanager.utils.LogCategory;
+import org.gw.optimizationlagmanager.utils.LongLongHashMap;
+import org.gw.optimizationlagmanager.utils.MaterialFlags;
+import org.gw.optimizationlagmanager.utils.MessageTemplate;
+import org.gw.optimizationlagmanager.utils.Metrics;
+import org.gw.optimizationlagmanager.utils.RegionActivity;
 
 import java.util.*;
 
 public class PhysicsManager implements Listener {
     private final OptimizationLagManager plugin;
     private final ConfigManager configManager;
-    private final Map<String, Integer> trapdoorUpdates = new HashMap<>();
-    private final Map<String, Long> trapdoorCooldowns = new HashMap<>();
-    private final Map<String, Long> lastNotificationTime = new HashMap<>();
+    private final TickMonitor tickMonitor;
+    private final DebugLogger debugLogger;
+    private final PlayerIndex playerIndex;
+    private final ChunkScanner chunkScanner;
+    private final ChunkComposition chunkComposition;
+    private final ScanScheduler scanScheduler;
+    private final MetricsManager metricsManager;
+    private final EnforcementQueue enforcementQueue;
+    private final LagMachineRegistry lagMachineRegistry;
+    private final Metrics.Counter cancelledWaterFlow;
+    private final Metrics.Counter cancelledLavaFlow;
+    private final Metrics.Counter cancelledFallingBlocks;
+    private final Metrics.Counter cancelledLowTps;
+    private final Metrics.Counter cancelledTrapdoorCooldown;
+    private final Metrics.Counter cancelledTrapdoorLimit;
+    // Обновления люков за тик и кулдауны по чанкам, квадратам 4x4 и регионам 32x32
+    private final RegionActivity trapdoorUpdates = new RegionActivity(1, 1);
+    private final LongLongHashMap lastNotificationTime = new LongLongHashMap();
+    private final EnforcementQueue.BlockRemoval componentRemoval = new EnforcementQueue.BlockRemoval(
+            MaterialFlags.STATIC_SAND | MaterialFlags.COBWEB | MaterialFlags.RAIL | MaterialFlags.TRAPDOOR, true, LogCategory.PHYSICS, null);
     private boolean isPhysicsGloballyDisabled = false;
     private static final long NOTIFICATION_COOLDOWN = 600_000L;
-    private final Map<Chunk, Boolean> playerNearbyCache = new HashMap<>();
-    private final Map<Chunk, Long> playerNearbyCacheTime = new HashMap<>();
-    private final Map<Chunk, Integer> sandCache = new HashMap<>();
-    private final Map<Chunk, Long> sandCacheTime = new HashMap<>();
-    private final Map<Chunk, Integer> cobwebCache = new HashMap<>();
-    private final Map<Chunk, Long> cobwebCacheTime = new HashMap<>();
-    private static final long PLAYER_CACHE_DURATION = 500L;
-    private final boolean consoleLoggingEnabled;
-    private double cachedTps = 20.0;
-    private long lastTpsCheck = 0;
-    private static final long SAND_CACHE_DURATION = 60_000L;
-    private static final long COBWEB_CACHE_DURATION = 60_000L;
+    private static final int MONITOR_INTERVAL_TICKS = 600;
+    private static final MessageTemplate.Placeholders TPS_PLACEHOLDERS = new MessageTemplate.Placeholders("tps");
+    private static final MessageTemplate.Placeholders LAG_MACHINE_PLACEHOLDERS = new MessageTemplate.Placeholders("world", "x", "y", "z", "count", "type");
 
-    public PhysicsManager(OptimizationLagManager plugin, ConfigManager configManager) {
-        this.plugin = plugin;
-        this.configManager = configManager;
-        this.consoleLoggingEnabled = configManager.isConsoleLoggingEnabled();
-        plugin.getServer().getPluginManager().registerEvents(this, plugin);
-        startTpsMonitor();
-        startFallingBlockMonitor();
-        startMinecartMonitor();
-        clearCaches();
+    private static class FallingBlockScanResult {
+        final ChunkScan.Positions sand = new ChunkScan.Positions();
+        final ChunkScan.Positions cobwebs = new ChunkScan.Positions();
     }
 
-    private boolean hasPlayersNearby(Chunk chunk, int radius) {
-        long currentTime = System.currentTimeMillis();
-        Long lastChecked = playerNearbyCacheTime.get(chunk);
-        if (lastChecked != null && (currentTime - lastChecked) < PLAYER_CACHE_DURATION) {
-            return playerNearbyCache.getOrDefault(chunk, false);
+    private final ChunkScanner.Detector<FallingBlockScanResult> fallingBlockDetector = new ChunkScanner.Detector<FallingBlockScanResult>() {
+        @Override
+        public FallingBlockScanResult analyse(ChunkScan scan) {
+            ConfigSnapshot config = configManager.getSnapshot();
+            FallingBlockScanResult result = analyseFallingBlocks(scan);
+            boolean exceeded = scan.countEntities(EntityType.FALLING_BLOCK) > config.getMaxFallingBlocksPerChunk() ||
+                    result.sand.getCount() > config.getMaxStaticSandPerChunk() ||
+                    result.cobwebs.getCount() > config.getMaxCobwebsPerChunk();
+            return exceeded ? result : null;
+        }
+
+        @Override
+        public void apply(ChunkScan scan, FallingBlockScanResult result) {
+            Chunk chunk = ChunkKeys.chunkIfLoaded(scan.getChunkKey());
+            if (chunk == null) return;
+            metricsManager.recordLagMachine("falling-blocks", destroyFallingBlockLagMachine(scan.getChunkKey(), chunk, result));
+            lagMachineRegistry.record("falling-blocks", scan.getChunkKey(), 0L);
         }
+    };
 
-        Location center = chunk.getBlock(8, 64, 8).getLocation();
-        boolean hasPlayers = false;
-        for (Player player : chunk.getWorld().getPlayers()) {
-            if (player.getLocation().distanceSquared(center) <= radius * radius) {
-                hasPlayers = true;
-                break;
+    private final ChunkScanner.Detector<ChunkScan.Positions> minecartDetector = new ChunkScanner.Detector<ChunkScan.Positions>() {
+        @Override
+        public ChunkScan.Positions analyse(ChunkScan scan) {
+            ConfigSnapshot config = configManager.getSnapshot();
+            if (scan.countEntities(EntityType.MINECART) <= config.getMaxMinecartsPerChunk()) return null;
+            ChunkScan.Positions rails = new ChunkScan.Positions();
+            if (config.isRailDetectionEnabled()) {
+                collectBlocks(scan, MaterialFlags.RAIL, rails);
             }
+            return rails;
         }
 
-        playerNearbyCache.put(chunk, hasPlayers);
-        playerNearbyCacheTime.put(chunk, currentTime);
-        if (consoleLoggingEnabled) {
-            plugin.getLogger().info("Проверка игроков в радиусе " + radius + " от чанка (" + chunk.getX() + ", " + chunk.getZ() + "): " + (hasPlayers ? "игроки найдены" : "игроки не найдены"));
+        @Override
+        public void apply(ChunkScan scan, ChunkScan.Positions rails) {
+            Chunk chunk = ChunkKeys.chunkIfLoaded(scan.getChunkKey());
+            if (chunk == null) return;
+            destroyMinecartLagMachine(scan.getChunkKey(), chunk.getWorld().getName(), chunk, rails);
         }
-        return hasPlayers;
-    }
+    };
 
-    private double getCachedTps() {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastTpsCheck >= 1000) {
-            cachedTps = Bukkit.getTPS()[0];
-            lastTpsCheck = currentTime;
+    private final ChunkScanner.Detector<ChunkScan.Positions> trapdoorDetector = new ChunkScanner.Detector<ChunkScan.Positions>() {
+        @Override
+        public ChunkScan.Positions analyse(ChunkScan scan) {
+            ChunkScan.Positions trapdoors = new ChunkScan.Positions();
+            collectBlocks(scan, MaterialFlags.TRAPDOOR, trapdoors);
+            return trapdoors;
+        }
+
+        @Override
+        public void apply(ChunkScan scan, ChunkScan.Positions trapdoors) {
+            Chunk chunk = ChunkKeys.chunkIfLoaded(scan.getChunkKey());
+            if (chunk == null) return;
+            int destroyedCount = destroyLagMachineComponents(scan.getChunkKey(), chunk, trapdoors);
+            metricsManager.recordLagMachine("trapdoors", destroyedCount);
+            lagMachineRegistry.record("trapdoors", scan.getChunkKey(), 0L);
+            notifyLagMachineDetected(scan.getChunkKey(), chunk.getWorld().getName(), chunk.getX(), chunk.getZ(), destroyedCount, "люки");
         }
-        return cachedTps;
+    };
+
+    private final ScanScheduler.Visitor fallingBlockVisitor = new ScanScheduler.Visitor() {
+        @Override
+        public int getIntervalTicks() {
+            return MONITOR_INTERVAL_TICKS;
+        }
+
+        @Override
+        public void visit(Chunk chunk, long chunkKey) {
+            if (!configManager.isFallingBlockLimitEnabled() || configManager.isWorldExcluded(chunk.getWorld().getName())) return;
+            if (playerIndex.hasPlayersNearby(chunk, configManager.getRedstonePlayerRadius()) && mayHaveFallingBlockLagMachine(chunkKey, chunk)) {
+                chunkScanner.submit(chunkKey, fallingBlockDetector);
+            }
+        }
+    };
+
+    private final ScanScheduler.Visitor minecartVisitor = new ScanScheduler.Visitor() {
+        @Override
+        public int getIntervalTicks() {
+            return MONITOR_INTERVAL_TICKS;
+        }
+
+        @Override
+        public void visit(Chunk chunk, long chunkKey) {
+            if (!configManager.isMinecartLimitEnabled() || configManager.isWorldExcluded(chunk.getWorld().getName())) return;
+            if (playerIndex.hasPlayersNearby(chunk, configManager.getRedstonePlayerRadius())
+                    && countEntities(chunk, EntityType.MINECART, configManager.getMaxMinecartsPerChunk()) > configManager.getMaxMinecartsPerChunk()) {
+                chunkScanner.submit(chunkKey, minecartDetector);
+            }
+        }
+    };
+
+    public PhysicsManager(OptimizationLagManager plugin, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.tickMonitor = plugin.getTickMonitor();
+        this.debugLogger = plugin.getDebugLogger();
+        this.playerIndex = plugin.getPlayerIndex();
+        this.chunkScanner = plugin.getChunkScanner();
+        this.chunkComposition = plugin.getChunkComposition();
+        this.scanScheduler = plugin.getScanScheduler();
+        this.enforcementQueue = plugin.getEnforcementQueue();
+        this.lagMachineRegistry = plugin.getLagMachineRegistry();
+        this.metricsManager = plugin.getMetricsManager();
+        this.cancelledWaterFlow = metricsManager.cancelled("physics", "water-flow");
+        this.cancelledLavaFlow = metricsManager.cancelled("physics", "lava-flow");
+        this.cancelledFallingBlocks = metricsManager.cancelled("physics", "falling-blocks");
+        this.cancelledLowTps = metricsManager.cancelled("physics", "low-tps");
+        this.cancelledTrapdoorCooldown = metricsManager.cancelled("physics", "trapdoor-cooldown");
+        this.cancelledTrapdoorLimit = metricsManager.cancelled("physics", "trapdoor-limit");
+        metricsManager.cacheSize("physics_trapdoor_updates", trapdoorUpdates::size);
+        metricsManager.cacheSize("physics_trapdoor_cooldowns", trapdoorUpdates::cooldownCount);
+        metricsManager.cacheSize("physics_notifications", lastNotificationTime::size);
+        plugin.getListenerRegistrar().registerEvents(this, "physics", configManager::isPhysicsOptimizationEnabled);
+        tickMonitor.subscribe(this::checkTps);
+        scanScheduler.register(fallingBlockVisitor);
+        scanScheduler.register(minecartVisitor);
+        clearCaches();
     }
 
-    private void startTpsMonitor() {
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                double tps = getCachedTps();
-                if (tps < configManager.getCriticalTpsThreshold() && !isPhysicsGloballyDisabled) {
-                    isPhysicsGloballyDisabled = true;
-                    trapdoorCooldowns.clear();
-                    lastNotificationTime.clear();
-                    if (consoleLoggingEnabled) {
-                        plugin.getLogger().warning("Критически низкий TPS (" + String.format("%.2f", tps) + "), физика люков временно отключена глобально!");
-                    }
-                    notifyAdmins(configManager.getMessages("tps-critical"), tps);
-                } else if (tps >= configManager.getRedstoneTpsThreshold() && isPhysicsGloballyDisabled) {
-                    isPhysicsGloballyDisabled = false;
-                    if (consoleLoggingEnabled) {
-                        plugin.getLogger().info("TPS восстановлен (" + String.format("%.2f", tps) + "), физика люков снова включена");
-                    }
-                    notifyAdmins(configManager.getMessages("tps-restored"), tps);
-                }
+    private void checkTps(TickStats stats) {
+        double tps = stats.getTps();
+        if (tps < configManager.getCriticalTpsThreshold() && !isPhysicsGloballyDisabled) {
+            isPhysicsGloballyDisabled = true;
+            trapdoorUpdates.clearCooldowns();
+            lastNotificationTime.clear();
+            if (debugLogger.isEnabled(LogCategory.PHYSICS)) {
+                debugLogger.warning(LogCategory.PHYSICS, "Критически низкий TPS ({}), физика люков временно отключена глобально!", stats);
+            }
+            notifyAdmins(configManager.getMessageTemplates("tps-critical"), tps);
+        } else if (tps >= configManager.getRedstoneTpsThreshold() && isPhysicsGloballyDisabled) {
+            isPhysicsGloballyDisabled = false;
+            if (debugLogger.isEnabled(LogCategory.PHYSICS)) {
+                debugLogger.debug(LogCategory.PHYSICS, "TPS восстановлен ({}), физика люков снова включена", stats);
             }
-        }.runTaskTimer(plugin, 0L, 20L);
+            notifyAdmins(configManager.getMessageTemplates("tps-restored"), tps);
+        }
     }
 
-    private void notifyAdmins(List<String> messages, double tps) {
+    private void notifyAdmins(List<MessageTemplate> templates, double tps) {
+        String formattedTps = String.format("%.2f", tps);
+        List<String> messages = new ArrayList<>(templates.size());
+        for (MessageTemplate template : templates) {
+            messages.add(template.render(TPS_PLACEHOLDERS, formattedTps));
+        }
         AlertsCommand alertsCommand = ((CommandsHandler) plugin.getCommand("olm").getExecutor()).getAlertsCommand();
         for (Player player : Bukkit.getOnlinePlayers()) {
             if (player.hasPermission("olm.redstonelag") && alertsCommand.isAlertsEnabled(player.getName())) {
                 for (String message : messages) {
-                    player.sendMessage(message.replace("{tps}", String.format("%.2f", tps)));
+                    player.sendMessage(message);
                 }
             }
         }
         if (configManager.isConsoleNotificationsEnabled()) {
-            for (String message : messages) {
-                plugin.getLogger().info(HexColors.colorize(message.replace("{tps}", String.format("%.2f", tps)), true, plugin.getLogger()));
+            for (MessageTemplate template : templates) {
+                plugin.getLogger().info(template.renderConsole(TPS_PLACEHOLDERS, formattedTps));
             }
         }
     }
 
-    private void startFallingBlockMonitor() {
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (!configManager.isFallingBlockLimitEnabled() || Bukkit.getOnlinePlayers().isEmpty()) {
-                    if (consoleLoggingEnabled) plugin.getLogger().info("Мониторинг падающих блоков приостановлен: нет игроков или отключен");
-                    return;
-                }
-
-                long startTime = System.nanoTime();
-                int scannedChunks = 0;
-                List<Chunk> chunksToCheck = new ArrayList<>();
-
-                for (World world : Bukkit.getWorlds()) {
-                    if (configManager.getExcludedWorlds().contains(world.getName())) continue;
-                    for (Chunk chunk : world.getLoadedChunks()) {
-                        if (!hasPlayersNearby(chunk, configManager.getRedstonePlayerRadius())) continue;
-                        chunksToCheck.add(chunk);
-                        if (++scannedChunks >= 2) break;
-                    }
-                    if (scannedChunks >= 2) break;
-                }
-
-                if (!chunksToCheck.isEmpty()) {
-                    new BukkitRunnable() {
-                        @Override
-                        public void run() {
-                            for (Chunk chunk : chunksToCheck) {
-                                String chunkKey = chunk.getX() + "," + chunk.getZ();
-                                int fallingBlockCount = 0;
-                                List<Entity> fallingBlocks = new ArrayList<>();
-                                for (Entity entity : chunk.getEntities()) {
-                                    if (entity.getType() == EntityType.FALLING_BLOCK) {
-                                        fallingBlocks.add(entity);
-                                        fallingBlockCount++;
-                                    }
-                                }
-                                int sandCount = countStaticSandBlocks(chunk);
-                                int cobwebCount = countCobwebs(chunk);
-                                if (fallingBlockCount > configManager.getMaxFallingBlocksPerChunk() ||
-                                        sandCount > configManager.getMaxStaticSandPerChunk() ||
-                                        cobwebCount > configManager.getMaxCobwebsPerChunk()) {
-                                    Bukkit.getScheduler().runTask(plugin, () ->
-                                            destroyFallingBlockLagMachine(chunkKey, chunk.getWorld().getName(), chunk, fallingBlocks, sandCount, cobwebCount));
-                                }
-                            }
-                        }
-                    }.runTaskAsynchronously(plugin);
-                }
-
-                long duration = (System.nanoTime() - startTime) / 1_000_000;
-                if (duration > 20 && consoleLoggingEnabled) {
-                    plugin.getLogger().warning("Мониторинг падающих блоков занял " + duration + " мс, обработано чанков: " + scannedChunks);
-                }
-            }
-        }.runTaskTimer(plugin, 0L, 600L);
+    // Счётчики состава отсекают чанки без песка и паутины, снимок снимается только для поиска самих блоков
+    private boolean mayHaveFallingBlockLagMachine(long chunkKey, Chunk chunk) {
+        if (chunkComposition.exceeds(chunkKey, ChunkComposition.STATIC_SAND, configManager.getMaxStaticSandPerChunk()) ||
+                chunkComposition.exceeds(chunkKey, ChunkComposition.COBWEB, configManager.getMaxCobwebsPerChunk())) {
+            return true;
+        }
+        return countEntities(chunk, EntityType.FALLING_BLOCK, configManager.getMaxFallingBlocksPerChunk()) > configManager.getMaxFallingBlocksPerChunk();
     }
 
-    private int countStaticSandBlocks(Chunk chunk) {
-        long currentTime = System.currentTimeMillis();
-        Long lastChecked = sandCacheTime.get(chunk);
-        if (lastChecked != null && (currentTime - lastChecked) < SAND_CACHE_DURATION) {
-            return sandCache.getOrDefault(chunk, 0);
+    // Считает до первого превышения limit, точное число дальше не нужно
+    private int countEntities(Chunk chunk, EntityType type, int limit) {
+        int count = 0;
+        for (Entity entity : chunk.getEntities()) {
+            if (entity.getType() == type && ++count > limit) break;
         }
+        return count;
+    }
 
-        int sandCount = 0;
-        int minY = Math.max(chunk.getWorld().getMinHeight(), 0);
-        int maxY = Math.min(chunk.getWorld().getMaxHeight(), 128);
+    private FallingBlockScanResult analyseFallingBlocks(ChunkScan scan) {
+        MaterialFlags materialFlags = configManager.getMaterialFlags();
+        FallingBlockScanResult result = new FallingBlockScanResult();
         for (int bx = 0; bx < 16; bx++) {
             for (int bz = 0; bz < 16; bz++) {
-                for (int by = minY; by <= maxY; by++) {
-                    Block block = chunk.getBlock(bx, by, bz);
-                    String blockType = block.getType().name();
-                    if (blockType.equals("SAND") || blockType.equals("GRAVEL")) {
-                        boolean isInWater = false;
-                        for (BlockFace face : new BlockFace[]{BlockFace.UP, BlockFace.NORTH, BlockFace.SOUTH, BlockFace.EAST, BlockFace.WEST}) {
-                            if (block.getRelative(face).getType().name().contains("WATER")) {
-                                isInWater = true;
-                                break;
-                            }
-                        }
+                for (int by = scan.getMinHeight(); by < scan.getMaxHeight(); by++) {
+                    Material blockType = scan.getType(bx, by, bz);
+                    if (materialFlags.isStaticSand(blockType)) {
+                        boolean isInWater = materialFlags.isWater(scan.getType(bx, by + 1, bz)) ||
+                                materialFlags.isWater(scan.getType(bx, by, bz - 1)) ||
+                                materialFlags.isWater(scan.getType(bx, by, bz + 1)) ||
+                                materialFlags.isWater(scan.getType(bx + 1, by, bz)) ||
+                                materialFlags.isWater(scan.getType(bx - 1, by, bz));
                         if (!isInWater) {
-                            sandCount++;
+                            result.sand.count();
+                            if (hasNearbyLagComponents(scan, bx, by, bz)) {
+                                result.sand.add(bx, by, bz);
+                            }
                         }
+                    } else if (materialFlags.isCobweb(blockType)) {
+                        result.cobwebs.count();
+                        result.cobwebs.add(bx, by, bz);
                     }
                 }
             }
         }
-        sandCache.put(chunk, sandCount);
-        sandCacheTime.put(chunk, currentTime);
-        return sandCount;
+        return result;
     }
 
-    private int countCobwebs(Chunk chunk) {
-        long currentTime = System.currentTimeMillis();
-        Long lastChecked = cobwebCacheTime.get(chunk);
-        if (lastChecked != null && (currentTime - lastChecked) < COBWEB_CACHE_DURATION) {
-            return cobwebCache.getOrDefault(chunk, 0);
-        }
-
-        int cobwebCount = 0;
-        int minY = Math.max(chunk.getWorld().getMinHeight(), 0);
-        int maxY = Math.min(chunk.getWorld().getMaxHeight(), 128);
+    private void collectBlocks(ChunkScan scan, int flag, ChunkScan.Positions positions) {
+        MaterialFlags materialFlags = configManager.getMaterialFlags();
         for (int bx = 0; bx < 16; bx++) {
             for (int bz = 0; bz < 16; bz++) {
-                for (int by = minY; by <= maxY; by++) {
-                    Block block = chunk.getBlock(bx, by, bz);
-                    if (block.getType().name().equals("COBWEB")) {
-                        cobwebCount++;
+                for (int by = scan.getMinHeight(); by < scan.getMaxHeight(); by++) {
+                    if (materialFlags.has(scan.getType(bx, by, bz), flag)) {
+                        positions.count();
+                        positions.add(bx, by, bz);
                     }
                 }
             }
         }
-        cobwebCache.put(chunk, cobwebCount);
-        cobwebCacheTime.put(chunk, currentTime);
-        return cobwebCount;
     }
 
     private void clearCaches() {
@@ -250,331 +287,212 @@ public class PhysicsManager implements Listener {
             @Override
             public void run() {
                 long currentTime = System.currentTimeMillis();
-                playerNearbyCache.entrySet().removeIf(entry -> currentTime - playerNearbyCacheTime.get(entry.getKey()) > 60_000L);
-                sandCache.entrySet().removeIf(entry -> currentTime - sandCacheTime.get(entry.getKey()) > 60_000L);
-                cobwebCache.entrySet().removeIf(entry -> currentTime - cobwebCacheTime.get(entry.getKey()) > 60_000L);
-                if (consoleLoggingEnabled) {
-                    plugin.getLogger().info("Очищены кэши физики: " + playerNearbyCache.size() + " чанков в playerNearbyCache, " +
-                            sandCache.size() + " чанков в sandCache, " + cobwebCache.size() + " чанков в cobwebCache");
+                trapdoorUpdates.purge(tickMonitor.getCurrentTick(), currentTime);
+                lastNotificationTime.removeIf((chunkKey, notifiedAt) -> currentTime - notifiedAt >= NOTIFICATION_COOLDOWN);
+                if (debugLogger.isEnabled(LogCategory.PHYSICS)) {
+                    debugLogger.debug(LogCategory.PHYSICS, "Очищены кэши физики: {} областей с кулдауном люков", trapdoorUpdates.cooldownCount());
                 }
             }
         }.runTaskTimer(plugin, 0L, 1200L);
     }
 
-    private int destroyFallingBlockLagMachine(String chunkKey, String world, Chunk chunk, List<Entity> fallingBlocks, int sandCount, int cobwebCount) {
+    private int destroyFallingBlockLagMachine(long chunkKey, Chunk chunk, FallingBlockScanResult result) {
+        MaterialFlags materialFlags = configManager.getMaterialFlags();
         int destroyedCount = 0;
         int maxDestroyed = Math.min(configManager.getMaxDestroyedComponents(), 10);
 
         // Удаляем падающие блоки
-        List<Entity> entitiesToRemove = new ArrayList<>(fallingBlocks);
-        destroyedCount += destroyEntitiesInBatches(chunkKey, chunk, entitiesToRemove, maxDestroyed);
+        List<Entity> entitiesToRemove = new ArrayList<>();
+        for (Entity entity : chunk.getEntities()) {
+            if (entity.getType() == EntityType.FALLING_BLOCK) {
+                entitiesToRemove.add(entity);
+            }
+        }
+        if (entitiesToRemove.size() > configManager.getMaxFallingBlocksPerChunk()) {
+            destroyedCount += destroyEntities(chunkKey, entitiesToRemove, maxDestroyed);
+        }
 
         // Удаляем песок/гравий
-        if (configManager.isDestroyStaticSandEnabled() && sandCount > configManager.getMaxStaticSandPerChunk()) {
+        if (configManager.isDestroyStaticSandEnabled() && result.sand.getCount() > configManager.getMaxStaticSandPerChunk()) {
             List<Block> sandBlocks = new ArrayList<>();
-            List<String> monitoredBlocks = configManager.getMonitoredBlocks();
-            for (int bx = 0; bx < 16; bx++) {
-                for (int bz = 0; bz < 16; bz++) {
-                    for (int by = chunk.getWorld().getMinHeight(); by <= chunk.getWorld().getMaxHeight(); by++) {
-                        Block block = chunk.getBlock(bx, by, bz);
-                        String blockType = block.getType().name();
-                        if (blockType.equals("SAND") || blockType.equals("GRAVEL")) {
-                            boolean isInWater = block.getRelative(BlockFace.UP).getType().name().contains("WATER") ||
-                                    block.getRelative(BlockFace.NORTH).getType().name().contains("WATER") ||
-                                    block.getRelative(BlockFace.SOUTH).getType().name().contains("WATER") ||
-                                    block.getRelative(BlockFace.EAST).getType().name().contains("WATER") ||
-                                    block.getRelative(BlockFace.WEST).getType().name().contains("WATER");
-                            if (!isInWater && hasNearbyLagComponents(block, monitoredBlocks)) {
-                                sandBlocks.add(block);
-                            }
-                        }
-                    }
+            for (Block block : result.sand.toBlocks(chunk)) {
+                if (materialFlags.isStaticSand(block.getType())) {
+                    sandBlocks.add(block);
                 }
             }
             Collections.shuffle(sandBlocks);
-            destroyedCount += destroyBlocksInBatches(chunkKey, chunk, sandBlocks, maxDestroyed - destroyedCount);
+            destroyedCount += destroyBlocks(chunkKey, sandBlocks, maxDestroyed - destroyedCount, EnforcementQueue.PRIORITY_NORMAL);
         }
 
-        if (configManager.isCobwebDetectionEnabled() && cobwebCount > configManager.getMaxCobwebsPerChunk() && configManager.isDestroyCobwebsEnabled()) {
+        if (configManager.isCobwebDetectionEnabled() && result.cobwebs.getCount() > configManager.getMaxCobwebsPerChunk() && configManager.isDestroyCobwebsEnabled()) {
             List<Block> cobwebs = new ArrayList<>();
-            for (int bx = 0; bx < 16; bx++) {
-                for (int bz = 0; bz < 16; bz++) {
-                    for (int by = chunk.getWorld().getMinHeight(); by <= chunk.getWorld().getMaxHeight(); by++) {
-                        Block block = chunk.getBlock(bx, by, bz);
-                        if (block.getType().name().equals("COBWEB")) {
-                            cobwebs.add(block);
-                        }
-                    }
+            for (Block block : result.cobwebs.toBlocks(chunk)) {
+                if (materialFlags.isCobweb(block.getType())) {
+                    cobwebs.add(block);
                 }
             }
             Collections.shuffle(cobwebs);
-            destroyedCount += destroyBlocksInBatches(chunkKey, chunk, cobwebs, maxDestroyed - destroyedCount);
+            destroyedCount += destroyBlocks(chunkKey, cobwebs, maxDestroyed - destroyedCount, EnforcementQueue.PRIORITY_NORMAL);
         }
 
         return destroyedCount;
     }
 
-    private int destroyEntitiesInBatches(String chunkKey, Chunk chunk, List<Entity> entities, int maxDestroyed) {
-        final int[] destroyedCount = {0};
-        if (entities.isEmpty()) return destroyedCount[0];
-
-        int batchSize = Math.min(3, entities.size());
-        List<Entity> batch = entities.subList(0, Math.min(batchSize, entities.size()));
-
-        Bukkit.getScheduler().runTask(plugin, () -> {
-            for (Entity entity : batch) {
-                if (destroyedCount[0] >= maxDestroyed) return;
-                entity.remove();
-                destroyedCount[0]++;
-                if (consoleLoggingEnabled) {
-                    plugin.getLogger().info("Удалён падающий блок в чанке (" + chunk.getX() + ", " + chunk.getZ() +
-                            ") на координатах (" + entity.getLocation().getX() + ", " + entity.getLocation().getY() + ", " + entity.getLocation().getZ() + ")");
-                }
-            }
-        });
-
-        if (batchSize < entities.size()) {
-            int finalDestroyedCount = destroyedCount[0];
-            Bukkit.getScheduler().runTaskLater(plugin, () ->
-                    destroyEntitiesInBatches(chunkKey, chunk, entities.subList(batchSize, entities.size()), maxDestroyed - finalDestroyedCount), 5L);
-        }
-        return destroyedCount[0];
+    // Возвращает число поставленных в очередь удалений, не больше maxDestroyed
+    private int destroyEntities(long chunkKey, List<Entity> entities, int maxDestroyed) {
+        if (maxDestroyed <= 0) return 0;
+        return enforcementQueue.removeEntities(chunkKey, entities.subList(0, Math.min(maxDestroyed, entities.size())), EnforcementQueue.PRIORITY_NORMAL, LogCategory.PHYSICS);
     }
 
-    private int destroyBlocksInBatches(String chunkKey, Chunk chunk, List<Block> blocks, int maxDestroyed) {
-        final int[] destroyedCount = {0};
-        if (blocks.isEmpty()) return destroyedCount[0];
-
-        int batchSize = Math.min(3, blocks.size());
-        List<Block> batch = blocks.subList(0, Math.min(batchSize, blocks.size()));
-
-        Bukkit.getScheduler().runTask(plugin, () -> {
-            for (Block block : batch) {
-                if (destroyedCount[0] >= maxDestroyed) return;
-                block.setType(org.bukkit.Material.AIR);
-                destroyedCount[0]++;
-                if (consoleLoggingEnabled) {
-                    plugin.getLogger().info("Удалён блок " + block.getType().name() + " в чанке (" + chunk.getX() + ", " + chunk.getZ() +
-                            ") на координатах (" + block.getX() + ", " + block.getY() + ", " + block.getZ() + ")");
-                }
-            }
-        });
-
-        if (batchSize < blocks.size()) {
-            int finalDestroyedCount = destroyedCount[0];
-            Bukkit.getScheduler().runTaskLater(plugin, () ->
-                    destroyBlocksInBatches(chunkKey, chunk, blocks.subList(batchSize, blocks.size()), maxDestroyed - finalDestroyedCount), 5L);
-        }
-        return destroyedCount[0];
+    private int destroyBlocks(long chunkKey, List<Block> blocks, int maxDestroyed, int priority) {
+        if (maxDestroyed <= 0) return 0;
+        return enforcementQueue.removeBlocks(chunkKey, blocks.subList(0, Math.min(maxDestroyed, blocks.size())), priority, componentRemoval);
     }
 
-    private void notifyLagMachineDetected(String chunkKey, String world, int x, int z, int destroyedCount, String type) {
+    private void notifyLagMachineDetected(long chunkKey, String world, int x, int z, int destroyedCount, String type) {
         if (destroyedCount == 0) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Лаг-машина (" + type + ") в чанке (" + chunkKey + ") обнаружена, но компоненты не удалены");
+            if (debugLogger.isEnabled(LogCategory.PHYSICS)) {
+                debugLogger.debug(LogCategory.PHYSICS, "Лаг-машина ({}) в чанке ({}, {}) обнаружена, но компоненты не удалены", type, ChunkKeys.x(chunkKey), ChunkKeys.z(chunkKey));
             }
             return;
         }
 
         if (type.equals("падающие блоки/паутины")) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Уведомление о лаг-машине (" + type + ") в чанке (" + chunkKey + ") пропущено: тип связан с падающими блоками");
+            if (debugLogger.isEnabled(LogCategory.PHYSICS)) {
+                debugLogger.debug(LogCategory.PHYSICS, "Уведомление о лаг-машине ({}) в чанке ({}, {}) пропущено: тип связан с падающими блоками", type, ChunkKeys.x(chunkKey), ChunkKeys.z(chunkKey));
             }
             return;
         }
 
-        Long lastNotified = lastNotificationTime.get(chunkKey);
+        long lastNotified = lastNotificationTime.get(chunkKey, -1L);
         long currentTime = System.currentTimeMillis();
-        if (lastNotified != null && (currentTime - lastNotified) < NOTIFICATION_COOLDOWN) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Уведомление о лаг-машине (" + type + ") в чанке (" + chunkKey + ") пропущено: на кулдауне");
+        if (lastNotified >= 0 && (currentTime - lastNotified) < NOTIFICATION_COOLDOWN) {
+            if (debugLogger.isEnabled(LogCategory.PHYSICS)) {
+                debugLogger.debug(LogCategory.PHYSICS, "Уведомление о лаг-машине ({}) в чанке ({}, {}) пропущено: на кулдауне", type, ChunkKeys.x(chunkKey), ChunkKeys.z(chunkKey));
             }
             return;
         }
         lastNotificationTime.put(chunkKey, currentTime);
 
         AlertsCommand alertsCommand = ((CommandsHandler) plugin.getCommand("olm").getExecutor()).getAlertsCommand();
-        configManager.getMessages("alerts.lag-machine-detected").forEach(message -> {
-            String formattedMessage = message
-                    .replace("{world}", world)
-                    .replace("{x}", String.valueOf(x * 16))
-                    .replace("{y}", String.valueOf(64))
-                    .replace("{z}", String.valueOf(z * 16))
-                    .replace("{count}", String.valueOf(destroyedCount))
-                    .replace("{type}", type);
+        Object[] values = {world, x * 16, 64, z * 16, destroyedCount, type};
+        for (MessageTemplate template : configManager.getMessageTemplates("alerts.lag-machine-detected")) {
+            String formattedMessage = template.render(LAG_MACHINE_PLACEHOLDERS, values);
             for (Player player : Bukkit.getOnlinePlayers()) {
                 if (player.hasPermission("olm.redstonelag") && alertsCommand.isAlertsEnabled(player.getName())) {
                     player.sendMessage(formattedMessage);
                 }
             }
             if (configManager.isConsoleNotificationsEnabled()) {
-                plugin.getLogger().info(HexColors.colorize(formattedMessage, true, plugin.getLogger()));
+                plugin.getLogger().info(template.renderConsole(LAG_MACHINE_PLACEHOLDERS, values));
             }
-        });
-
-        if (consoleLoggingEnabled) {
-            plugin.getLogger().warning("Обнаружена лаг-машина (" + type + ") в чанке (" + chunkKey + ") в мире " + world +
-                    ", удалено " + destroyedCount + " компонентов");
         }
-    }
 
-    private boolean hasNearbyLagComponents(Block block, List<String> monitoredBlocks) {
-        for (BlockFace face : new BlockFace[]{BlockFace.NORTH, BlockFace.SOUTH, BlockFace.EAST, BlockFace.WEST, BlockFace.UP, BlockFace.DOWN}) {
-            Block adjacent = block.getRelative(face);
-            String adjacentType = adjacent.getType().name();
-            if (monitoredBlocks.contains(adjacentType) || adjacentType.equals("COBWEB")) {
-                return true;
-            }
+        if (debugLogger.isEnabled(LogCategory.PHYSICS)) {
+            debugLogger.warning(LogCategory.PHYSICS, "Обнаружена лаг-машина ({}) в чанке ({}, {}) в мире {}, удалено {} компонентов", type, ChunkKeys.x(chunkKey), ChunkKeys.z(chunkKey), world, destroyedCount);
         }
-        return false;
     }
 
-    private void startMinecartMonitor() {
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (!configManager.isMinecartLimitEnabled() || Bukkit.getOnlinePlayers().isEmpty()) {
-                    if (consoleLoggingEnabled) plugin.getLogger().info("Мониторинг вагонеток приостановлен: нет игроков или отключен");
-                    return;
-                }
-
-                long startTime = System.nanoTime();
-                int scannedChunks = 0;
-                List<Chunk> chunksToCheck = new ArrayList<>();
-
-                for (World world : Bukkit.getWorlds()) {
-                    if (configManager.getExcludedWorlds().contains(world.getName())) continue;
-                    for (Chunk chunk : world.getLoadedChunks()) {
-                        if (!hasPlayersNearby(chunk, configManager.getRedstonePlayerRadius())) continue;
-                        chunksToCheck.add(chunk);
-                        if (++scannedChunks >= 2) break;
-                    }
-                    if (scannedChunks >= 2) break;
-                }
-
-                if (!chunksToCheck.isEmpty()) {
-                    new BukkitRunnable() {
-                        @Override
-                        public void run() {
-                            for (Chunk chunk : chunksToCheck) {
-                                int minecartCount = 0;
-                                List<Entity> minecarts = new ArrayList<>();
-                                for (Entity entity : chunk.getEntities()) {
-                                    if (entity.getType() == EntityType.MINECART) {
-                                        minecarts.add(entity);
-                                        minecartCount++;
-                                    }
-                                }
-                                if (minecartCount > configManager.getMaxMinecartsPerChunk()) {
-                                    String chunkKey = chunk.getX() + "," + chunk.getZ();
-                                    Bukkit.getScheduler().runTask(plugin, () ->
-                                            destroyMinecartLagMachine(chunkKey, chunk.getWorld().getName(), chunk, minecarts));
-                                }
-                            }
-                        }
-                    }.runTaskAsynchronously(plugin);
-                }
-
-                long duration = (System.nanoTime() - startTime) / 1_000_000;
-                if (duration > 20 && consoleLoggingEnabled) {
-                    plugin.getLogger().warning("Мониторинг вагонеток занял " + duration + " мс, обработано чанков: " + scannedChunks);
-                }
-            }
-        }.runTaskTimer(plugin, 0L, 600L);
+    private boolean hasNearbyLagComponents(ChunkScan scan, int x, int y, int z) {
+        MaterialFlags materialFlags = configManager.getMaterialFlags();
+        int mask = MaterialFlags.MONITORED | MaterialFlags.COBWEB;
+        return materialFlags.has(scan.getType(x, y, z - 1), mask) ||
+                materialFlags.has(scan.getType(x, y, z + 1), mask) ||
+                materialFlags.has(scan.getType(x + 1, y, z), mask) ||
+                materialFlags.has(scan.getType(x - 1, y, z), mask) ||
+                materialFlags.has(scan.getType(x, y + 1, z), mask) ||
+                materialFlags.has(scan.getType(x, y - 1, z), mask);
     }
 
-    private int destroyMinecartLagMachine(String chunkKey, String world, Chunk chunk, List<Entity> minecarts) {
+    private int destroyMinecartLagMachine(long chunkKey, String world, Chunk chunk, ChunkScan.Positions railPositions) {
+        MaterialFlags materialFlags = configManager.getMaterialFlags();
         int destroyedCount = 0;
         int maxDestroyed = Math.min(configManager.getMaxDestroyedComponents(), 10);
 
-        List<Entity> entitiesToRemove = new ArrayList<>(minecarts);
-        destroyedCount += destroyEntitiesInBatches(chunkKey, chunk, entitiesToRemove, maxDestroyed);
+        List<Entity> entitiesToRemove = new ArrayList<>();
+        for (Entity entity : chunk.getEntities()) {
+            if (entity.getType() == EntityType.MINECART) {
+                entitiesToRemove.add(entity);
+            }
+        }
+        destroyedCount += destroyEntities(chunkKey, entitiesToRemove, maxDestroyed);
 
-        if (configManager.isRailDetectionEnabled()) {
+        if (configManager.isRailDetectionEnabled() && railPositions.getCount() > configManager.getMaxRailsPerChunk() && configManager.isDestroyRailsEnabled()) {
             List<Block> rails = new ArrayList<>();
-            for (int bx = 0; bx < 16; bx++) {
-                for (int bz = 0; bz < 16; bz++) {
-                    for (int by = chunk.getWorld().getMinHeight(); by <= chunk.getWorld().getMaxHeight(); by++) {
-                        Block block = chunk.getBlock(bx, by, bz);
-                        String blockType = block.getType().name();
-                        if (blockType.equals("POWERED_RAIL") || blockType.equals("RAIL") || blockType.equals("ACTIVATOR_RAIL") || blockType.equals("DETECTOR_RAIL")) {
-                            rails.add(block);
-                        }
-                    }
+            for (Block block : railPositions.toBlocks(chunk)) {
+                if (materialFlags.isRail(block.getType())) {
+                    rails.add(block);
                 }
             }
-            if (rails.size() > configManager.getMaxRailsPerChunk() && configManager.isDestroyRailsEnabled()) {
-                Collections.shuffle(rails);
-                destroyedCount += destroyBlocksInBatches(chunkKey, chunk, rails, maxDestroyed - destroyedCount);
-            }
+            Collections.shuffle(rails);
+            destroyedCount += destroyBlocks(chunkKey, rails, maxDestroyed - destroyedCount, EnforcementQueue.PRIORITY_NORMAL);
         }
 
+        metricsManager.recordLagMachine("minecarts", destroyedCount);
+        lagMachineRegistry.record("minecarts", chunkKey, 0L);
         notifyLagMachineDetected(chunkKey, world, chunk.getX(), chunk.getZ(), destroyedCount, "вагонетки/рельсы");
         return destroyedCount;
     }
 
     public boolean isFallingBlocksDisabled(World world) {
-        if (configManager.getExcludedWorlds().contains(world.getName())) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Физика падающих блоков разрешена в мире " + world.getName() + " (в исключениях)");
+        if (configManager.isWorldExcluded(world.getName())) {
+            if (debugLogger.isEnabled(LogCategory.PHYSICS, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.PHYSICS, "Физика падающих блоков разрешена в мире {} (в исключениях)", world.getName());
             }
             return false;
         }
         boolean disabled = configManager.isDisableFallingBlocks();
-        if (disabled && consoleLoggingEnabled) {
-            plugin.getLogger().info("Физика падающих блоков отключена в мире " + world.getName());
+        if (disabled && debugLogger.isEnabled(LogCategory.PHYSICS, DebugLogger.Level.DEBUG)) {
+            debugLogger.debug(LogCategory.PHYSICS, "Физика падающих блоков отключена в мире {}", world.getName());
         }
         return disabled;
     }
 
     public boolean isWaterFlowDisabled(World world) {
-        if (configManager.getExcludedWorlds().contains(world.getName())) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Течение воды разрешено в мире " + world.getName() + " (в исключениях)");
+        if (configManager.isWorldExcluded(world.getName())) {
+            if (debugLogger.isEnabled(LogCategory.FLUIDS, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.FLUIDS, "Течение воды разрешено в мире {} (в исключениях)", world.getName());
             }
             return false;
         }
         boolean disabled = configManager.isDisableWaterFlow();
-        if (disabled && consoleLoggingEnabled) {
-            plugin.getLogger().info("Течение воды отключено в мире " + world.getName());
+        if (disabled && debugLogger.isEnabled(LogCategory.FLUIDS, DebugLogger.Level.DEBUG)) {
+            debugLogger.debug(LogCategory.FLUIDS, "Течение воды отключено в мире {}", world.getName());
         }
         return disabled;
     }
 
     public boolean isLavaFlowDisabled(World world) {
-        if (configManager.getExcludedWorlds().contains(world.getName())) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Течение лавы разрешено в мире " + world.getName() + " (в исключениях)");
+        if (configManager.isWorldExcluded(world.getName())) {
+            if (debugLogger.isEnabled(LogCategory.FLUIDS, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.FLUIDS, "Течение лавы разрешено в мире {} (в исключениях)", world.getName());
             }
             return false;
         }
         boolean disabled = configManager.isDisableLavaFlow();
-        if (disabled && consoleLoggingEnabled) {
-            plugin.getLogger().info("Течение лавы отключено в мире " + world.getName());
+        if (disabled && debugLogger.isEnabled(LogCategory.FLUIDS, DebugLogger.Level.DEBUG)) {
+            debugLogger.debug(LogCategory.FLUIDS, "Течение лавы отключено в мире {}", world.getName());
         }
         return disabled;
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
     public void onBlockFromTo(BlockFromToEvent event) {
-        if (!configManager.isPhysicsOptimizationEnabled()) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Оптимизация физики отключена в конфигурации");
-            }
-            return;
-        }
+        MaterialFlags materialFlags = configManager.getMaterialFlags();
         try {
             World world = event.getBlock().getWorld();
-            if (isWaterFlowDisabled(world) && event.getBlock().getType().name().contains("WATER")) {
+            if (isWaterFlowDisabled(world) && materialFlags.isWater(event.getBlock().getType())) {
                 event.setCancelled(true);
-                if (consoleLoggingEnabled) {
-                    plugin.getLogger().info("Отменено течение воды в блоке " + event.getBlock().getType().name() + " в мире " + world.getName() + " на координатах " + event.getBlock().getLocation().toString());
+                cancelledWaterFlow.inc();
+                if (debugLogger.isEnabled(LogCategory.FLUIDS, DebugLogger.Level.DEBUG)) {
+                    debugLogger.debug(LogCategory.FLUIDS, "Отменено течение воды в блоке {} в мире {} на координатах {}", event.getBlock().getType().name(), world.getName(), event.getBlock().getLocation().toString());
                 }
             }
-            if (isLavaFlowDisabled(world) && event.getBlock().getType().name().contains("LAVA")) {
+            if (isLavaFlowDisabled(world) && materialFlags.isLava(event.getBlock().getType())) {
                 event.setCancelled(true);
-                if (consoleLoggingEnabled) {
-                    plugin.getLogger().info("Отменено течение лавы в блоке " + event.getBlock().getType().name() + " в мире " + world.getName() + " на координатах " + event.getBlock().getLocation().toString());
+                cancelledLavaFlow.inc();
+                if (debugLogger.isEnabled(LogCategory.FLUIDS, DebugLogger.Level.DEBUG)) {
+                    debugLogger.debug(LogCategory.FLUIDS, "Отменено течение лавы в блоке {} в мире {} на координатах {}", event.getBlock().getType().name(), world.getName(), event.getBlock().getLocation().toString());
                 }
             }
         } catch (Exception e) {
@@ -582,93 +500,82 @@ public class PhysicsManager implements Listener {
         }
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
     public void onEntityChangeBlock(EntityChangeBlockEvent event) {
-        if (!configManager.isPhysicsOptimizationEnabled()) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Оптимизация физики отключена в конфигурации");
-            }
-            return;
-        }
         try {
-            if (isFallingBlocksDisabled(event.getEntity().getWorld()) && event.getEntity().getType() == EntityType.FALLING_BLOCK) {
+            if (event.getEntity().getType() != EntityType.FALLING_BLOCK) return;
+            if (isFallingBlocksDisabled(event.getEntity().getWorld())) {
                 event.setCancelled(true);
-                if (consoleLoggingEnabled) {
-                    plugin.getLogger().info("Отменено падение блока " + event.getEntity().getType().name() + " в мире " + event.getEntity().getWorld().getName() + " на координатах " + event.getEntity().getLocation().toString());
+                cancelledFallingBlocks.inc();
+                if (debugLogger.isEnabled(LogCategory.PHYSICS, DebugLogger.Level.DEBUG)) {
+                    debugLogger.debug(LogCategory.PHYSICS, "Отменено падение блока {} в мире {} на координатах {}", event.getEntity().getType().name(), event.getEntity().getWorld().getName(), event.getEntity().getLocation().toString());
                 }
+                return;
             }
+            scanScheduler.heat(ChunkKeys.of(event.getBlock()), 1);
         } catch (Exception e) {
             plugin.getLogger().severe("Ошибка обработки события падения блока: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
         }
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
     public void onBlockPhysics(BlockPhysicsEvent event) {
-        if (!configManager.isPhysicsOptimizationEnabled() || isPhysicsGloballyDisabled) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Оптимизация физики отключена или физика глобально заблокирована, обновление блока " +
-                        event.getBlock().getType().name() + " отменено");
+        if (isPhysicsGloballyDisabled) {
+            if (debugLogger.isEnabled(LogCategory.PHYSICS, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.PHYSICS, "Физика глобально заблокирована, обновление блока {} отменено", event.getBlock().getType().name());
             }
             event.setCancelled(true);
+            cancelledLowTps.inc();
             return;
         }
 
-        String blockType = event.getBlock().getType().name();
+        Material blockType = event.getBlock().getType();
+        ConfigSnapshot config = configManager.getSnapshot();
+        MaterialFlags materialFlags = config.getMaterialFlags();
         // Проверяем, является ли блок потенциально падающим
-        if (isFallingBlocksDisabled(event.getBlock().getWorld()) &&
-                (blockType.equals("SAND") || blockType.equals("GRAVEL") ||
-                        blockType.equals("ANVIL") || blockType.contains("CONCRETE_POWDER"))) {
+        if (isFallingBlocksDisabled(event.getBlock().getWorld()) && materialFlags.isFalling(blockType)) {
             event.setCancelled(true);
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Отменено событие физики для падающего блока " + blockType +
-                        " в мире " + event.getBlock().getWorld().getName() +
-                        " на координатах " + event.getBlock().getLocation().toString());
+            cancelledFallingBlocks.inc();
+            if (debugLogger.isEnabled(LogCategory.PHYSICS, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.PHYSICS, "Отменено событие физики для падающего блока {} в мире {} на координатах {}", blockType, event.getBlock().getWorld().getName(), event.getBlock().getLocation().toString());
             }
             return;
         }
 
-        if (blockType.equals("LEVER") || blockType.equals("BUTTON") || blockType.equals("REDSTONE_WIRE") ||
-                blockType.equals("REDSTONE_TORCH") || blockType.equals("REPEATER") || blockType.equals("COMPARATOR") ||
-                blockType.equals("PISTON") || blockType.equals("STICKY_PISTON") || blockType.equals("OBSERVER")) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Событие физики для блока " + blockType + " в чанке (" +
-                        event.getBlock().getChunk().getX() + ", " + event.getBlock().getChunk().getZ() + ") пропущено");
+        if (materialFlags.isRedstoneComponent(blockType)) {
+            if (debugLogger.isEnabled(LogCategory.PHYSICS, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.PHYSICS, "Событие физики для блока {} в чанке ({}, {}) пропущено", blockType, event.getBlock().getChunk().getX(), event.getBlock().getChunk().getZ());
             }
             return;
         }
 
         try {
-            if (configManager.isTrapdoorLimitEnabled() && blockType.equals("TRAPDOOR")) {
+            if (config.isTrapdoorLimitEnabled() && materialFlags.isTrapdoor(blockType)) {
                 Chunk chunk = event.getBlock().getChunk();
-                String chunkKey = chunk.getX() + "," + chunk.getZ();
-                Long cooldown = trapdoorCooldowns.get(chunkKey);
-                if (cooldown != null && System.currentTimeMillis() < cooldown) {
+                long chunkKey = ChunkKeys.of(chunk);
+                if (System.currentTimeMillis() < trapdoorUpdates.getCooldown(chunkKey)) {
                     event.setCancelled(true);
-                    if (consoleLoggingEnabled) {
-                        plugin.getLogger().info("Физика люка в чанке (" + chunk.getX() + ", " + chunk.getZ() + ") на кулдауне");
+                    cancelledTrapdoorCooldown.inc();
+                    if (debugLogger.isEnabled(LogCategory.PHYSICS, DebugLogger.Level.DEBUG)) {
+                        debugLogger.debug(LogCategory.PHYSICS, "Физика люка в чанке ({}, {}) на кулдауне", chunk.getX(), chunk.getZ());
                     }
                     return;
                 }
 
-                int updates = trapdoorUpdates.getOrDefault(chunkKey, 0) + 1;
-                trapdoorUpdates.put(chunkKey, updates);
-                if (updates > configManager.getMaxTrapdoorUpdatesPerTick()) {
+                // Лимиты строгие (больше лимита), поэтому порог уровня на единицу выше; 0 у квадратов и регионов отключает уровень
+                int area = trapdoorUpdates.increment(chunkKey, tickMonitor.getCurrentTick(), Math.max(1, config.getMaxTrapdoorUpdatesPerTick() + 1),
+                        limitThreshold(config.getClusterTrapdoorUpdatesPerTick()), limitThreshold(config.getRegionTrapdoorUpdatesPerTick()));
+                scanScheduler.heat(chunkKey, 1);
+                if (area >= 0) {
                     event.setCancelled(true);
-                    long cooldownMillis = configManager.getLagDetectionCooldown() * 50L;
-                    trapdoorCooldowns.put(chunkKey, System.currentTimeMillis() + cooldownMillis);
-                    notifyLagMachineDetected(chunkKey, event.getBlock().getWorld().getName(),
-                            chunk.getX(), chunk.getZ(),
-                            destroyLagMachineComponents(chunkKey, event.getBlock().getWorld().getName(),
-                                    chunk.getX(), chunk.getZ()), "люки");
-                    if (consoleLoggingEnabled) {
-                        plugin.getLogger().warning("Превышен лимит обновлений физики для люка в чанке (" +
-                                chunk.getX() + ", " + chunk.getZ() +
-                                "), кулдаун на " + (cooldownMillis / 1000) + " секунд");
+                    cancelledTrapdoorLimit.inc();
+                    long cooldownMillis = config.getLagDetectionCooldownMillis();
+                    trapdoorUpdates.setCooldown(area, chunkKey, System.currentTimeMillis() + cooldownMillis);
+                    chunkScanner.submit(chunkKey, trapdoorDetector);
+                    if (debugLogger.isEnabled(LogCategory.PHYSICS, DebugLogger.Level.WARNING)) {
+                        debugLogger.warning(LogCategory.PHYSICS, "Превышен лимит обновлений физики для люка ({}) у чанка ({}, {}), кулдаун на {} секунд", RegionActivity.name(area), chunk.getX(), chunk.getZ(), (cooldownMillis / 1000));
                     }
                 }
-                plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                    trapdoorUpdates.remove(chunkKey);
-                }, 1L);
             }
         } catch (Exception e) {
             plugin.getLogger().severe("Ошибка обработки события физики: " +
@@ -676,45 +583,36 @@ public class PhysicsManager implements Listener {
         }
     }
 
-    private int destroyLagMachineComponents(String chunkKey, String world, int x, int z) {
+    private static int limitThreshold(int limit) {
+        return limit > 0 ? limit + 1 : 0;
+    }
+
+    private int destroyLagMachineComponents(long chunkKey, Chunk chunk, ChunkScan.Positions trapdoors) {
+        MaterialFlags materialFlags = configManager.getMaterialFlags();
         if (!configManager.isDestroyComponentsEnabled()) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Разрушение компонентов отключено в конфиге для чанка (" + chunkKey + ")");
+            if (debugLogger.isEnabled(LogCategory.PHYSICS)) {
+                debugLogger.debug(LogCategory.PHYSICS, "Разрушение компонентов отключено в конфиге для чанка ({}, {})", ChunkKeys.x(chunkKey), ChunkKeys.z(chunkKey));
             }
             return 0;
         }
 
-        World bukkitWorld = Bukkit.getWorld(world);
-        if (bukkitWorld == null) {
-            plugin.getLogger().warning("Мир " + world + " не найден для чанка (" + chunkKey + ")");
-            return 0;
-        }
-
-        Chunk chunk = bukkitWorld.getChunkAt(x, z);
         List<Block> components = new ArrayList<>();
-        List<String> monitoredBlocks = configManager.getMonitoredBlocks();
-
-        for (int bx = 0; bx < 16; bx++) {
-            for (int bz = 0; bz < 16; bz++) {
-                for (int by = bukkitWorld.getMinHeight(); by <= bukkitWorld.getMaxHeight(); by++) {
-                    Block block = chunk.getBlock(bx, by, bz);
-                    String blockType = block.getType().name();
-                    if (blockType.equals("TRAPDOOR") && monitoredBlocks.contains(blockType)) {
-                        components.add(block);
-                    }
-                }
+        for (Block block : trapdoors.toBlocks(chunk)) {
+            Material blockType = block.getType();
+            if (materialFlags.isTrapdoor(blockType) && materialFlags.isMonitored(blockType)) {
+                components.add(block);
             }
         }
 
         if (components.isEmpty()) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Не найдено люков для удаления в чанке (" + chunkKey + ")");
+            if (debugLogger.isEnabled(LogCategory.PHYSICS)) {
+                debugLogger.debug(LogCategory.PHYSICS, "Не найдено люков для удаления в чанке ({}, {})", ChunkKeys.x(chunkKey), ChunkKeys.z(chunkKey));
             }
             return 0;
         }
 
         int maxDestroyed = Math.min(configManager.getMaxDestroyedComponents(), 10);
         Collections.shuffle(components);
-        return destroyBlocksInBatches(chunkKey, chunk, components, maxDestroyed);
+        return destroyBlocks(chunkKey, components, maxDestroyed, EnforcementQueue.PRIORITY_HIGH);
     }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package org.gw.optimizationlagmanager.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.gw.optimizationlagmanager.OptimizationLagManager;
+import org.gw.optimizationlagmanager.utils.ChunkKeys;
+import org.gw.optimizationlagmanager.utils.LongIntHashMap;
+
+import java.util.Arrays;
+
+public class PlayerIndex {
+    // Игроки раскладываются по регионам 4×4 чанка (64 блока), индекс перестраивается не чаще раза в тик.
+    // Только для основного потока
+    private static final int REGION_SHIFT = 6;
+
+    private final TickMonitor tickMonitor;
+    private final LongIntHashMap regionHeads = new LongIntHashMap();
+    private final Location scratch = new Location(null, 0.0, 0.0, 0.0);
+    private double[] xs = new double[64];
+    private double[] zs = new double[64];
+    private int[] worldIndexes = new int[64];
+    private int[] next = new int[64];
+    private int[] worldCounts = new int[8];
+    private int size = 0;
+    private int builtTick = Integer.MIN_VALUE;
+
+    public PlayerIndex(OptimizationLagManager plugin) {
+        this.tickMonitor = plugin.getTickMonitor();
+        plugin.getMetricsManager().cacheSize("player_index_regions", regionHeads::size);
+    }
+
+    public boolean hasPlayersNearby(Chunk chunk, int radius) {
+        return hasPlayersNearby(ChunkKeys.worldIndex(chunk.getWorld()), (chunk.getX() << 4) + 8.0, (chunk.getZ() << 4) + 8.0, radius);
+    }
+
+    public boolean hasPlayersNearby(long chunkKey, int radius) {
+        return hasPlayersNearby(ChunkKeys.worldIndex(chunkKey), (ChunkKeys.x(chunkKey) << 4) + 8.0, (ChunkKeys.z(chunkKey) << 4) + 8.0, radius);
+    }
+
+    public boolean hasPlayersNearby(Location location, int radius) {
+        return hasPlayersNearby(ChunkKeys.worldIndex(location.getWorld()), location.getX(), location.getZ(), radius);
+    }
+
+    public int getPlayerCount(World world) {
+        refresh();
+        int worldIndex = ChunkKeys.worldIndex(world);
+        return worldIndex < worldCounts.length ? worldCounts[worldIndex] : 0;
+    }
+
+    private boolean hasPlayersNearby(int worldIndex, double x, double z, int radius) {
+        refresh();
+        if (worldIndex >= worldCounts.length || worldCounts[worldIndex] == 0) return false;
+        double radiusSquared = (double) radius * radius;
+
+        int minRegionX = (int) Math.floor(x - radius) >> REGION_SHIFT;
+        int maxRegionX = (int) Math.floor(x + radius) >> REGION_SHIFT;
+        int minRegionZ = (int) Math.floor(z - radius) >> REGION_SHIFT;
+        int maxRegionZ = (int) Math.floor(z + radius) >> REGION_SHIFT;
+        long regionCount = (long) (maxRegionX - minRegionX + 1) * (maxRegionZ - minRegionZ + 1);
+
+        // Когда игроков меньше, чем регионов в радиусе, дешевле пройти по ним напрямую
+        if (regionCount >= worldCounts[worldIndex]) {
+            for (int i = 0; i < size; i++) {
+                if (worldIndexes[i] == worldIndex && isWithin(i, x, z, radiusSquared)) return true;
+            }
+            return false;
+        }
+
+        for (int regionX = minRegionX; regionX <= maxRegionX; regionX++) {
+            for (int regionZ = minRegionZ; regionZ <= maxRegionZ; regionZ++) {
+                for (int i = regionHeads.get(ChunkKeys.pack(worldIndex, regionX, regionZ), -1); i >= 0; i = next[i]) {
+                    if (isWithin(i, x, z, radiusSquared)) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isWithin(int i, double x, double z, double radiusSquared) {
+        double dx = xs[i] - x;
+        double dz = zs[i] - z;
+        return dx * dx + dz * dz <= radiusSquared;
+    }
+
+    private void refresh() {
+        int tick = tickMonitor.getCurrentTick();
+        if (tick == builtTick) return;
+        builtTick = tick;
+
+        regionHeads.clear();
+        Arrays.fill(worldCounts, 0);
+        size = 0;
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            player.getLocation(scratch);
+            World world = scratch.getWorld();
+            if (world == null) continue;
+            int worldIndex = ChunkKeys.worldIndex(world);
+            if (size == xs.length) grow();
+            if (worldIndex >= worldCounts.length) {
+                worldCounts = Arrays.copyOf(worldCounts, Math.max(worldIndex + 1, worldCounts.length << 1));
+            }
+
+            xs[size] = scratch.getX();
+            zs[size] = scratch.getZ();
+            worldIndexes[size] = worldIndex;
+            long regionKey = ChunkKeys.pack(worldIndex, scratch.getBlockX() >> REGION_SHIFT, scratch.getBlockZ() >> REGION_SHIFT);
+            next[size] = regionHeads.get(regionKey, -1);
+            regionHeads.put(regionKey, size);
+            worldCounts[worldIndex]++;
+            size++;
+        }
+        scratch.setWorld(null);
+    }
+
+    private void grow() {
+        int capacity = xs.length << 1;
+        xs = Arrays.copyOf(xs, capacity);
+        zs = Arrays.copyOf(zs, capacity);
+        worldIndexes = Arrays.copyOf(worldIndexes, capacity);
+        next = Arrays.copyOf(next, capacity);
+    }
+}
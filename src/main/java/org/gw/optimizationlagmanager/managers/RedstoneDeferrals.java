@@ -0,0 +1,133 @@
+package org.gw.optimizationlagmanager.managers;
+
+import org.gw.optimizationlagmanager.utils.LongIntHashMap;
+import org.gw.optimizationlagmanager.utils.SlotPool;
+
+import java.util.Arrays;
+
+// Отложенные изменения сигнала: на позицию блока одна запись, повторное откладывание срок не сдвигает.
+// Значение сигнала не хранится: при применении оно читается заново со входов блока.
+// Задержка у всех записей одна, поэтому очередь FIFO упорядочена по сроку; при смене задержки владелец
+// применяет очередь целиком через flush, иначе новые записи встали бы за более поздними. На чанк не больше perChunk записей;
+// только из основного потока
+public final class RedstoneDeferrals {
+    private final int perChunk;
+    private final LongIntHashMap slots = new LongIntHashMap();
+    private long[] slotChunkKeys;
+    private int[] slotSizes;
+    private final SlotPool pool;
+    // Запись entry = slot * perChunk + i; свободная запись отмечена -1 в positions
+    private int[] positions;
+    private int[] dueTicks;
+    private int[] queue;
+    private int head = 0;
+    private int size = 0;
+
+    public interface Consumer {
+        void accept(long chunkKey, int packed);
+    }
+
+    public RedstoneDeferrals(int perChunk) {
+        if (perChunk <= 0) {
+            throw new IllegalArgumentException("Некорректное число отложенных изменений на чанк: " + perChunk);
+        }
+        this.perChunk = perChunk;
+        int capacity = 16;
+        this.slotChunkKeys = new long[capacity];
+        this.slotSizes = new int[capacity];
+        this.positions = new int[capacity * perChunk];
+        this.dueTicks = new int[capacity * perChunk];
+        this.pool = new SlotPool(capacity, grown -> {
+            slotChunkKeys = Arrays.copyOf(slotChunkKeys, grown);
+            slotSizes = Arrays.copyOf(slotSizes, grown);
+            positions = Arrays.copyOf(positions, grown * perChunk);
+            dueTicks = Arrays.copyOf(dueTicks, grown * perChunk);
+        });
+        this.queue = new int[capacity];
+    }
+
+    // false, если в чанке уже perChunk других отложенных позиций
+    public boolean defer(long chunkKey, int packed, int dueTick) {
+        int slot = slots.get(chunkKey, -1);
+        if (slot < 0) {
+            slot = allocateSlot(chunkKey);
+            slots.put(chunkKey, slot);
+        }
+        int base = slot * perChunk;
+        int free = -1;
+        for (int entry = base; entry < base + perChunk; entry++) {
+            if (positions[entry] == packed) return true;
+            if (free < 0 && positions[entry] < 0) free = entry;
+        }
+        if (free < 0) return false;
+        positions[free] = packed;
+        dueTicks[free] = dueTick;
+        slotSizes[slot]++;
+        push(free);
+        return true;
+    }
+
+    // Применяет не больше budget записей со сроком не позже tick, возвращает число применённых
+    public int poll(int tick, int budget, Consumer consumer) {
+        return drain(tick, budget, false, consumer);
+    }
+
+    // Применяет все записи независимо от срока, возвращает число применённых
+    public int flush(Consumer consumer) {
+        return drain(0, Integer.MAX_VALUE, true, consumer);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        slots.clear();
+        pool.clear();
+        head = 0;
+        size = 0;
+    }
+
+    private int drain(int tick, int budget, boolean all, Consumer consumer) {
+        int applied = 0;
+        while (size > 0 && applied < budget) {
+            int entry = queue[head];
+            if (!all && dueTicks[entry] - tick > 0) break;
+            head = (head + 1) % queue.length;
+            size--;
+            int slot = entry / perChunk;
+            long chunkKey = slotChunkKeys[slot];
+            int packed = positions[entry];
+            positions[entry] = -1;
+            if (--slotSizes[slot] == 0) {
+                slots.remove(chunkKey, -1);
+                pool.release(slot);
+            }
+            consumer.accept(chunkKey, packed);
+            applied++;
+        }
+        return applied;
+    }
+
+    private void push(int entry) {
+        if (size == queue.length) {
+            int[] grown = new int[queue.length << 1];
+            for (int i = 0; i < size; i++) {
+                grown[i] = queue[(head + i) % queue.length];
+            }
+            queue = grown;
+            head = 0;
+        }
+        queue[(head + size) % queue.length] = entry;
+        size++;
+    }
+
+    private int allocateSlot(long chunkKey) {
+        int slot = pool.allocate();
+        slotChunkKeys[slot] = chunkKey;
+        slotSizes[slot] = 0;
+        int base = slot * perChunk;
+        Arrays.fill(positions, base, base + perChunk, -1);
+        return slot;
+    }
+}
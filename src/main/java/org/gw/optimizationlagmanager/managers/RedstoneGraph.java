@@ -0,0 +1,937 @@
+package org.gw.optimizationlagmanager.managers;
+
+import org.bukkit.Material;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Directional;
+import org.bukkit.block.data.type.RedstoneWire;
+import org.bukkit.block.data.type.Repeater;
+import org.gw.optimizationlagmanager.utils.ChunkKeys;
+import org.gw.optimizationlagmanager.utils.LongIntHashMap;
+import org.gw.optimizationlagmanager.utils.LongObjectHashMap;
+import org.gw.optimizationlagmanager.utils.MaterialFlags;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+// Ориентированный граф редстоун-схемы чанка: вершины - компоненты, связная сеть провода - одна вершина,
+// ребро - компонент меняет состояние другого (питание напрямую, через блок или наблюдатель).
+// Клок - цикл графа с ненулевой задержкой; период оценивается по задержкам компонентов на кратчайшем цикле.
+// Сигналы через границу чанка сохраняются портами, по ним сшиваются циклы соседних чанков в основном потоке
+public final class RedstoneGraph {
+    // Как сигнал попадает в клетку: только компоненту в ней, сильным или слабым питанием блока,
+    // или от запитанного блока его соседям
+    private static final int DIRECT = 0;
+    private static final int STRONG = 1;
+    private static final int WEAK = 2;
+    private static final int BLOCK_STRONG = 3;
+    private static final int BLOCK_WEAK = 4;
+
+    private static final int WIRE = 1;
+    private static final int TORCH = 2;
+    private static final int REPEATER = 3;
+    private static final int COMPARATOR = 4;
+    private static final int OBSERVER = 5;
+    private static final int PISTON = 6;
+    private static final int ACTUATOR = 7;
+
+    private static final int ENTRY = 0;
+    private static final int EXIT = 1;
+
+    // Направления: север, восток, юг, запад, верх, низ; горизонтальные идут по кругу
+    private static final int UP = 4;
+    private static final int DOWN = 5;
+    private static final int[] DX = {0, 1, 0, -1, 0, 0};
+    private static final int[] DY = {0, 0, 0, 0, 1, -1};
+    private static final int[] DZ = {-1, 0, 1, 0, 0, 0};
+    private static final BlockFace[] FACES = {BlockFace.NORTH, BlockFace.EAST, BlockFace.SOUTH, BlockFace.WEST, BlockFace.UP, BlockFace.DOWN};
+
+    // Поиск кратчайшего цикла ведётся не более чем от стольких вершин компоненты
+    private static final int MAX_CYCLE_SOURCES = 32;
+    private static final int MAX_TRANSIT_SOURCES = 64;
+
+    private final long chunkKey;
+    private final int monitoredCount;
+    private final ChunkScan.Positions clockCapable;
+    private final ChunkScan.Positions clockComponents = new ChunkScan.Positions();
+    private int clockCount = 0;
+    private int fastestClockPeriod = Integer.MAX_VALUE;
+    private int clockCenter = -1;
+
+    // Клетки и типы вершин нужны для выбора компонентов при сшивке
+    private final int[] cells;
+    private final int[] kinds;
+    private final long[] exitCells;
+    private final int[] exitModes;
+    private final int[] exitFaces;
+    private final int[] exitVertices;
+    private final long[] entryCells;
+    private final int[] entryFaces;
+    private final int[] entryMasks;
+    private final int[] entryVertices;
+    private final long[] observedCells;
+    private final int[] observedBy;
+    private final long[] exposedCells;
+    private final int[] exposedVertices;
+    private final int[] transitFrom;
+    private final int[] transitTo;
+    private final int[] transitDelay;
+    private final long[] linkedChunks;
+
+    // Клок из нескольких чанков, найденный сшивкой портов
+    public static final class Clock {
+        private final long[] chunkKeys;
+        private final int periodTicks;
+        private final ChunkScan.Positions components;
+        private final int center;
+
+        private Clock(long[] chunkKeys, int periodTicks, ChunkScan.Positions components, int center) {
+            this.chunkKeys = chunkKeys;
+            this.periodTicks = periodTicks;
+            this.components = components;
+            this.center = center;
+        }
+
+        public long[] getChunkKeys() {
+            return chunkKeys;
+        }
+
+        public int getPeriodTicks() {
+            return periodTicks;
+        }
+
+        // Компоненты петли в чанке, с которого начиналась сшивка
+        public ChunkScan.Positions getComponents() {
+            return components;
+        }
+
+        public int getCenter() {
+            return center;
+        }
+    }
+
+    private RedstoneGraph(long chunkKey, int monitoredCount, ChunkScan.Positions clockCapable, int[] cells, int[] kinds, Builder builder) {
+        this.chunkKey = chunkKey;
+        this.monitoredCount = monitoredCount;
+        this.clockCapable = clockCapable;
+        this.cells = cells;
+        this.kinds = kinds;
+        this.exitCells = builder.exitCells.toArray();
+        this.exitModes = builder.exitModes.toArray();
+        this.exitFaces = builder.exitFaces.toArray();
+        this.exitVertices = builder.exitVertices.toArray();
+        this.entryCells = builder.entryCells.toArray();
+        this.entryFaces = builder.entryFaces.toArray();
+        this.entryMasks = builder.entryMasks.toArray();
+        this.entryVertices = builder.entryVertices.toArray();
+        this.observedCells = builder.observedCells.toArray();
+        this.observedBy = builder.observedBy.toArray();
+        this.exposedCells = builder.exposedCells.toArray();
+        this.exposedVertices = builder.exposedVertices.toArray();
+        this.transitFrom = builder.transitFrom.toArray();
+        this.transitTo = builder.transitTo.toArray();
+        this.transitDelay = builder.transitDelay.toArray();
+        this.linkedChunks = builder.linkedChunks.toArray();
+    }
+
+    public long getChunkKey() {
+        return chunkKey;
+    }
+
+    public int getMonitoredCount() {
+        return monitoredCount;
+    }
+
+    // Отслеживаемые тактовые компоненты чанка целиком, как их собирал прежний детектор
+    public ChunkScan.Positions getClockCapable() {
+        return clockCapable;
+    }
+
+    public int getClockCount() {
+        return clockCount;
+    }
+
+    public int getFastestClockPeriod() {
+        return fastestClockPeriod;
+    }
+
+    public ChunkScan.Positions getClockComponents() {
+        return clockComponents;
+    }
+
+    public int getClockCenter() {
+        return clockCenter;
+    }
+
+    // Соседние чанки, куда уходят сигналы схемы: без их результатов петля через границу не видна
+    public long[] getLinkedChunks() {
+        return linkedChunks;
+    }
+
+    // Только в потоке анализа. Петли с оценкой периода выше maxPeriodTicks клоками не считаются
+    public static RedstoneGraph build(ChunkScan scan, MaterialFlags flags, int minY, int maxY, int maxPeriodTicks) {
+        return new Builder(scan, flags, minY, maxY).build(maxPeriodTicks);
+    }
+
+    // Только из основного потока: graphs[0] - чанк, с которого начинается поиск, остальные - соседи из кэша (могут быть null).
+    // Вершина графа портов - вход или выход вершины чанка, поэтому путь через одну граничную вершину не замыкается сам на себя
+    public static Clock findCrossChunkClock(RedstoneGraph[] graphs, int maxPeriodTicks) {
+        LongIntHashMap ids = new LongIntHashMap();
+        IntList owners = new IntList();
+        IntList locals = new IntList();
+        IntList from = new IntList();
+        IntList to = new IntList();
+        IntList weights = new IntList();
+        for (int g = 0; g < graphs.length; g++) {
+            RedstoneGraph graph = graphs[g];
+            if (graph == null) continue;
+            for (int i = 0; i < graph.transitFrom.length; i++) {
+                from.add(portVertex(ids, owners, locals, g, graph.transitFrom[i], ENTRY));
+                to.add(portVertex(ids, owners, locals, g, graph.transitTo[i], EXIT));
+                weights.add(graph.transitDelay[i]);
+            }
+        }
+        if (from.size() == 0) return null;
+
+        // Входы и наблюдаемые клетки всех чанков по клетке: пары (граф, индекс порта), стыковка ищет их по клетке выхода
+        LongObjectHashMap<IntList> entriesAt = new LongObjectHashMap<>();
+        LongObjectHashMap<IntList> observedAt = new LongObjectHashMap<>();
+        for (int g = 0; g < graphs.length; g++) {
+            RedstoneGraph graph = graphs[g];
+            if (graph == null) continue;
+            for (int j = 0; j < graph.entryCells.length; j++) {
+                indexPort(entriesAt, graph.entryCells[j], g, j);
+            }
+            for (int j = 0; j < graph.observedCells.length; j++) {
+                indexPort(observedAt, graph.observedCells[j], g, j);
+            }
+        }
+
+        // Стыковка: выход одного чанка в клетку другого и вход, принимающий такой сигнал; наблюдатель и вершина на границе
+        for (int a = 0; a < graphs.length; a++) {
+            RedstoneGraph source = graphs[a];
+            if (source == null) continue;
+            for (int i = 0; i < source.exitCells.length; i++) {
+                IntList ports = entriesAt.get(source.exitCells[i]);
+                if (ports == null) continue;
+                int fromId = ids.get(key(a, source.exitVertices[i], EXIT), -1);
+                if (fromId < 0) continue;
+                for (int p = 0; p < ports.size(); p += 2) {
+                    int b = ports.get(p);
+                    int j = ports.get(p + 1);
+                    RedstoneGraph target = graphs[b];
+                    if (a == b || target.entryFaces[j] != source.exitFaces[i]
+                            || (target.entryMasks[j] & (1 << source.exitModes[i])) == 0) continue;
+                    int toId = ids.get(key(b, target.entryVertices[j], ENTRY), -1);
+                    if (toId < 0) continue;
+                    from.add(fromId);
+                    to.add(toId);
+                    weights.add(0);
+                }
+            }
+            for (int i = 0; i < source.exposedCells.length; i++) {
+                IntList ports = observedAt.get(source.exposedCells[i]);
+                if (ports == null) continue;
+                int fromId = ids.get(key(a, source.exposedVertices[i], EXIT), -1);
+                if (fromId < 0) continue;
+                for (int p = 0; p < ports.size(); p += 2) {
+                    int b = ports.get(p);
+                    if (a == b) continue;
+                    int toId = ids.get(key(b, graphs[b].observedBy[ports.get(p + 1)], ENTRY), -1);
+                    if (toId < 0) continue;
+                    from.add(fromId);
+                    to.add(toId);
+                    weights.add(0);
+                }
+            }
+        }
+
+        Digraph digraph = new Digraph(owners.size(), from, to, weights);
+        int[] component = new int[owners.size()];
+        int componentCount = digraph.strongComponents(component);
+        int[] sizes = new int[componentCount];
+        for (int c : component) sizes[c]++;
+
+        int bestPeriod = Integer.MAX_VALUE;
+        int bestComponent = -1;
+        for (int c = 0; c < componentCount; c++) {
+            if (sizes[c] < 2) continue;
+            boolean touchesStart = false;
+            for (int v = 0; v < component.length && !touchesStart; v++) {
+                touchesStart = component[v] == c && owners.get(v) == 0;
+            }
+            if (!touchesStart) continue;
+            int delay = digraph.shortestCycle(component, c);
+            if (delay <= 0 || delay == Integer.MAX_VALUE) continue;
+            int period = periodTicks(delay);
+            if (period <= maxPeriodTicks && period < bestPeriod) {
+                bestPeriod = period;
+                bestComponent = c;
+            }
+        }
+        if (bestComponent < 0) return null;
+
+        LongList chunkKeys = new LongList();
+        ChunkScan.Positions components = new ChunkScan.Positions();
+        IntList added = new IntList();
+        int center = -1;
+        for (int v = 0; v < component.length; v++) {
+            if (component[v] != bestComponent) continue;
+            RedstoneGraph graph = graphs[owners.get(v)];
+            if (!chunkKeys.contains(graph.chunkKey)) chunkKeys.add(graph.chunkKey);
+            int local = locals.get(v);
+            if (owners.get(v) == 0 && graph.kinds[local] != WIRE && graph.kinds[local] != ACTUATOR && !added.contains(local)) {
+                added.add(local);
+                int cell = graph.cells[local];
+                components.add((cell >> 4) & 15, cell >> 8, cell & 15);
+                if (center < 0) center = cell;
+            }
+        }
+        return new Clock(chunkKeys.toArray(), bestPeriod, components, center);
+    }
+
+    private static int portVertex(LongIntHashMap ids, IntList owners, IntList locals, int graph, int vertex, int role) {
+        long key = key(graph, vertex, role);
+        int id = ids.get(key, -1);
+        if (id < 0) {
+            id = owners.size();
+            ids.put(key, id);
+            owners.add(graph);
+            locals.add(vertex);
+        }
+        return id;
+    }
+
+    private static void indexPort(LongObjectHashMap<IntList> index, long cell, int graph, int port) {
+        IntList ports = index.get(cell);
+        if (ports == null) {
+            ports = new IntList();
+            index.put(cell, ports);
+        }
+        ports.add(graph);
+        ports.add(port);
+    }
+
+    private static long key(int graph, int vertex, int role) {
+        return ((long) graph << 33) | ((long) role << 32) | (vertex & 0xFFFFFFFFL);
+    }
+
+    // Полный цикл клока - два переключения, каждое проходит петлю; редстоун-тик равен двум игровым
+    private static int periodTicks(int delayRedstoneTicks) {
+        return delayRedstoneTicks * 4;
+    }
+
+    private static int opposite(int face) {
+        return face < 4 ? (face + 2) & 3 : face ^ 1;
+    }
+
+    private static int faceIndex(BlockFace face) {
+        switch (face) {
+            case NORTH: return 0;
+            case EAST: return 1;
+            case SOUTH: return 2;
+            case WEST: return 3;
+            case UP: return UP;
+            default: return DOWN;
+        }
+    }
+
+    // Клетка в мировых координатах: x и z по 26 бит, y - 12 бит
+    private static long cellKey(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    private static int cellX(long key) {
+        return (int) (key >> 38);
+    }
+
+    private static int cellZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+
+    private static final class Builder {
+        private final ChunkScan scan;
+        private final MaterialFlags flags;
+        private final int minY;
+        private final int maxY;
+        private final int baseX;
+        private final int baseZ;
+        private final LongIntHashMap nodeAt = new LongIntHashMap();
+        private final LongIntHashMap pistonAt = new LongIntHashMap();
+        private final IntList nodeCells = new IntList();
+        private final IntList nodeKinds = new IntList();
+        private final IntList nodeFacing = new IntList();
+        private final IntList nodeDelay = new IntList();
+        private int[] parent = new int[0];
+        private final IntList edgeFrom = new IntList();
+        private final IntList edgeTo = new IntList();
+        private final IntList edgeWeight = new IntList();
+        private int monitoredCount = 0;
+
+        private final LongList exitCells = new LongList();
+        private final IntList exitModes = new IntList();
+        private final IntList exitFaces = new IntList();
+        private final IntList exitVertices = new IntList();
+        private final LongList entryCells = new LongList();
+        private final IntList entryFaces = new IntList();
+        private final IntList entryMasks = new IntList();
+        private final IntList entryVertices = new IntList();
+        private final LongList observedCells = new LongList();
+        private final IntList observedBy = new IntList();
+        private final LongList exposedCells = new LongList();
+        private final IntList exposedVertices = new IntList();
+        private final IntList transitFrom = new IntList();
+        private final IntList transitTo = new IntList();
+        private final IntList transitDelay = new IntList();
+        private final LongList linkedChunks = new LongList();
+
+        private Builder(ChunkScan scan, MaterialFlags flags, int minY, int maxY) {
+            this.scan = scan;
+            this.flags = flags;
+            this.minY = minY;
+            this.maxY = maxY;
+            this.baseX = ChunkKeys.x(scan.getChunkKey()) << 4;
+            this.baseZ = ChunkKeys.z(scan.getChunkKey()) << 4;
+        }
+
+        private RedstoneGraph build(int maxPeriodTicks) {
+            ChunkScan.Positions clockCapable = new ChunkScan.Positions();
+            for (int x = 0; x < 16; x++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int y = minY; y <= maxY; y++) {
+                        Material type = scan.getType(x, y, z);
+                        boolean monitored = flags.isMonitored(type);
+                        if (monitored) {
+                            monitoredCount++;
+                            if (flags.isClockCapable(type)) clockCapable.add(x, y, z);
+                        }
+                        int kind = kindOf(type, monitored);
+                        if (kind != 0) addNode(x, y, z, kind);
+                    }
+                }
+            }
+
+            int nodes = nodeCells.size();
+            parent = new int[nodes];
+            for (int i = 0; i < nodes; i++) parent[i] = i;
+            for (int n = 0; n < nodes; n++) {
+                if (nodeKinds.get(n) == WIRE) connectWire(n);
+            }
+            for (int n = 0; n < nodes; n++) {
+                emit(n);
+            }
+            collectBorderPorts();
+
+            Digraph digraph = new Digraph(nodes, edgeFrom, edgeTo, edgeWeight);
+            collectTransits(digraph);
+
+            RedstoneGraph graph = new RedstoneGraph(scan.getChunkKey(), monitoredCount, clockCapable, nodeCells.toArray(), nodeKinds.toArray(), this);
+            findLocalClocks(graph, digraph, maxPeriodTicks);
+            return graph;
+        }
+
+        private int kindOf(Material type, boolean monitored) {
+            switch (type) {
+                case REDSTONE_WIRE:
+                    return WIRE;
+                case REDSTONE_TORCH:
+                case REDSTONE_WALL_TORCH:
+                    return TORCH;
+                case REPEATER:
+                    return REPEATER;
+                case COMPARATOR:
+                    return COMPARATOR;
+                case OBSERVER:
+                    return OBSERVER;
+                case PISTON:
+                case STICKY_PISTON:
+                    return PISTON;
+                case REDSTONE_BLOCK:
+                    return 0;
+                default:
+                    // Прочие отслеживаемые блоки (люки, рельсы, лампы) меняют состояние от сигнала и видны наблюдателю
+                    return monitored && !flags.isRedstoneSource(type) ? ACTUATOR : 0;
+            }
+        }
+
+        private void addNode(int x, int y, int z, int kind) {
+            int node = nodeCells.size();
+            int facing = -1;
+            int delay = 0;
+            BlockData data = kind == ACTUATOR ? null : scan.getBlockData(x, y, z);
+            if (data instanceof Directional) facing = faceIndex(((Directional) data).getFacing());
+            switch (kind) {
+                case TORCH:
+                    // Для факела хранится сторона блока-опоры: у настенного - противоположная направлению
+                    facing = facing < 0 ? DOWN : opposite(facing);
+                    delay = 1;
+                    break;
+                case REPEATER:
+                    delay = data instanceof Repeater ? ((Repeater) data).getDelay() : 1;
+                    break;
+                case COMPARATOR:
+                case OBSERVER:
+                case PISTON:
+                    delay = 1;
+                    break;
+                default:
+                    break;
+            }
+            nodeCells.add(ChunkScan.pack(x, y, z));
+            nodeKinds.add(kind);
+            nodeFacing.add(facing);
+            nodeDelay.add(delay);
+            nodeAt.put(ChunkScan.pack(x, y, z), node);
+            if (kind == PISTON && facing >= 0) {
+                // Поршень двигает голову и блок перед ней: их изменения видит наблюдатель
+                for (int step = 1; step <= 2; step++) {
+                    int tx = x + DX[facing] * step;
+                    int ty = y + DY[facing] * step;
+                    int tz = z + DZ[facing] * step;
+                    if (inside(tx, ty, tz)) pistonAt.put(ChunkScan.pack(tx, ty, tz), node);
+                }
+            }
+        }
+
+        // Провод соединяется с соседним по горизонтали и ступенькой вверх или вниз, если её не перекрывает блок
+        private void connectWire(int node) {
+            int cell = nodeCells.get(node);
+            int x = (cell >> 4) & 15;
+            int y = cell >> 8;
+            int z = cell & 15;
+            for (int face = 0; face < 4; face++) {
+                int nx = x + DX[face];
+                int nz = z + DZ[face];
+                unionWire(node, nx, y, nz);
+                if (!isConductor(x, y + 1, z)) unionWire(node, nx, y + 1, nz);
+                if (!isConductor(nx, y, nz)) unionWire(node, nx, y - 1, nz);
+            }
+        }
+
+        private void unionWire(int node, int x, int y, int z) {
+            int other = nodeIndex(x, y, z);
+            if (other < 0 || nodeKinds.get(other) != WIRE) return;
+            int a = find(node);
+            int b = find(other);
+            if (a != b) parent[Math.max(a, b)] = Math.min(a, b);
+        }
+
+        private int find(int node) {
+            while (parent[node] != node) {
+                parent[node] = parent[parent[node]];
+                node = parent[node];
+            }
+            return node;
+        }
+
+        private int vertex(int node) {
+            return nodeKinds.get(node) == WIRE ? find(node) : node;
+        }
+
+        private void emit(int node) {
+            int cell = nodeCells.get(node);
+            int x = (cell >> 4) & 15;
+            int y = cell >> 8;
+            int z = cell & 15;
+            int facing = nodeFacing.get(node);
+            int source = vertex(node);
+            switch (nodeKinds.get(node)) {
+                case WIRE: {
+                    BlockData data = scan.getBlockData(x, y, z);
+                    for (int face = 0; face < 4; face++) {
+                        if (data instanceof RedstoneWire && ((RedstoneWire) data).getFace(FACES[face]) == RedstoneWire.Connection.NONE) continue;
+                        deliver(source, x + DX[face], y, z + DZ[face], opposite(face), WEAK);
+                    }
+                    deliver(source, x, y - 1, z, UP, WEAK);
+                    break;
+                }
+                case TORCH:
+                    deliver(source, x, y + 1, z, DOWN, STRONG);
+                    for (int face = 0; face < 4; face++) {
+                        if (face != facing) deliver(source, x + DX[face], y, z + DZ[face], opposite(face), DIRECT);
+                    }
+                    break;
+                case REPEATER:
+                case COMPARATOR:
+                case OBSERVER:
+                    if (facing < 0) break;
+                    // Выход - с противоположной направлению стороны, вход повторителя и компаратора - по направлению
+                    deliver(source, x - DX[facing], y - DY[facing], z - DZ[facing], facing, STRONG);
+                    if (nodeKinds.get(node) == OBSERVER) observe(node, x + DX[facing], y + DY[facing], z + DZ[facing]);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void observe(int observer, int x, int y, int z) {
+            if (y < minY || y > maxY) return;
+            if (!insideColumn(x, z)) {
+                long cell = cellKey(baseX + x, y, baseZ + z);
+                observedCells.add(cell);
+                observedBy.add(observer);
+                link(cell);
+                return;
+            }
+            int node = nodeIndex(x, y, z);
+            if (node >= 0) addEdge(vertex(node), observer);
+            int piston = pistonAt.get(ChunkScan.pack(x, y, z), -1);
+            if (piston >= 0 && piston != node) addEdge(piston, observer);
+        }
+
+        private void deliver(int source, int x, int y, int z, int from, int mode) {
+            if (y < minY || y > maxY) return;
+            if (!insideColumn(x, z)) {
+                long cell = cellKey(baseX + x, y, baseZ + z);
+                exitCells.add(cell);
+                exitFaces.add(from);
+                exitModes.add(mode);
+                exitVertices.add(source);
+                link(cell);
+                return;
+            }
+            int node = nodeIndex(x, y, z);
+            if (node >= 0) {
+                if (accepts(node, from, mode)) addEdge(source, vertex(node));
+                return;
+            }
+            // Запитанный блок передаёт сигнал соседям один раз, дальше по цепочке блоков сигнал не идёт
+            if ((mode == STRONG || mode == WEAK) && isConductor(x, y, z)) {
+                int relay = mode == STRONG ? BLOCK_STRONG : BLOCK_WEAK;
+                for (int face = 0; face < 6; face++) {
+                    if (face != from) deliver(source, x + DX[face], y + DY[face], z + DZ[face], opposite(face), relay);
+                }
+            }
+        }
+
+        private boolean accepts(int node, int from, int mode) {
+            int facing = nodeFacing.get(node);
+            boolean fromBlock = mode == BLOCK_STRONG || mode == BLOCK_WEAK;
+            switch (nodeKinds.get(node)) {
+                case WIRE:
+                    return mode != BLOCK_WEAK;
+                case TORCH:
+                    return fromBlock && from == facing;
+                case REPEATER:
+                    return from == facing;
+                case COMPARATOR:
+                    return from == facing || (!fromBlock && from < 4 && facing >= 0 && from != opposite(facing));
+                case OBSERVER:
+                    return false;
+                case PISTON:
+                    return from != facing;
+                default:
+                    return true;
+            }
+        }
+
+        private void addEdge(int from, int to) {
+            if (from == to) return;
+            edgeFrom.add(from);
+            edgeTo.add(to);
+            edgeWeight.add(nodeDelay.get(to));
+        }
+
+        // Входы на границе: какие вершины получают сигнал, пришедший в граничную клетку снаружи; граничные вершины видны наблюдателям соседей
+        private void collectBorderPorts() {
+            for (int x = 0; x < 16; x++) {
+                for (int z = 0; z < 16; z++) {
+                    if (x != 0 && x != 15 && z != 0 && z != 15) continue;
+                    for (int y = minY; y <= maxY; y++) {
+                        int node = nodeIndex(x, y, z);
+                        boolean conductor = node < 0 && isConductor(x, y, z);
+                        if (node < 0 && !conductor) continue;
+                        long cell = cellKey(baseX + x, y, baseZ + z);
+                        if (node >= 0) {
+                            exposedCells.add(cell);
+                            exposedVertices.add(vertex(node));
+                        }
+                        for (int face = 0; face < 4; face++) {
+                            if (insideColumn(x + DX[face], z + DZ[face])) continue;
+                            if (node >= 0) {
+                                addEntry(cell, face, node, DIRECT, STRONG, WEAK, BLOCK_STRONG, BLOCK_WEAK);
+                                continue;
+                            }
+                            for (int relay = 0; relay < 6; relay++) {
+                                if (relay == face) continue;
+                                int target = nodeIndex(x + DX[relay], y + DY[relay], z + DZ[relay]);
+                                if (target < 0) continue;
+                                int mask = (accepts(target, opposite(relay), BLOCK_STRONG) ? 1 << STRONG : 0)
+                                        | (accepts(target, opposite(relay), BLOCK_WEAK) ? 1 << WEAK : 0);
+                                if (mask != 0) {
+                                    entryCells.add(cell);
+                                    entryFaces.add(face);
+                                    entryMasks.add(mask);
+                                    entryVertices.add(vertex(target));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        private void addEntry(long cell, int face, int node, int... modes) {
+            int mask = 0;
+            for (int mode : modes) {
+                if (accepts(node, face, mode)) mask |= 1 << mode;
+            }
+            if (mask == 0) return;
+            entryCells.add(cell);
+            entryFaces.add(face);
+            entryMasks.add(mask);
+            entryVertices.add(vertex(node));
+        }
+
+        // Пути внутри чанка от входов к выходам с суммарной задержкой, включая задержку обоих концов
+        private void collectTransits(Digraph digraph) {
+            IntList sources = new IntList();
+            for (int i = 0; i < entryVertices.size() && sources.size() < MAX_TRANSIT_SOURCES; i++) {
+                if (!sources.contains(entryVertices.get(i))) sources.add(entryVertices.get(i));
+            }
+            for (int i = 0; i < observedBy.size() && sources.size() < MAX_TRANSIT_SOURCES; i++) {
+                if (!sources.contains(observedBy.get(i))) sources.add(observedBy.get(i));
+            }
+            if (sources.size() == 0) return;
+            boolean[] exit = new boolean[nodeCells.size()];
+            for (int i = 0; i < exitVertices.size(); i++) exit[exitVertices.get(i)] = true;
+            for (int i = 0; i < exposedVertices.size(); i++) exit[exposedVertices.get(i)] = true;
+            int[] distance = new int[nodeCells.size()];
+            for (int i = 0; i < sources.size(); i++) {
+                int source = sources.get(i);
+                digraph.distances(source, distance);
+                for (int v = 0; v < distance.length; v++) {
+                    if (!exit[v] || distance[v] == Integer.MAX_VALUE) continue;
+                    transitFrom.add(source);
+                    transitTo.add(v);
+                    transitDelay.add(nodeDelay.get(source) + distance[v]);
+                }
+            }
+        }
+
+        private void findLocalClocks(RedstoneGraph graph, Digraph digraph, int maxPeriodTicks) {
+            int[] component = new int[nodeCells.size()];
+            int componentCount = digraph.strongComponents(component);
+            int[] sizes = new int[componentCount];
+            for (int c : component) sizes[c]++;
+            for (int c = 0; c < componentCount; c++) {
+                if (sizes[c] < 2) continue;
+                int delay = digraph.shortestCycle(component, c);
+                if (delay <= 0 || delay == Integer.MAX_VALUE) continue;
+                int period = periodTicks(delay);
+                if (period > maxPeriodTicks) continue;
+                graph.clockCount++;
+                graph.fastestClockPeriod = Math.min(graph.fastestClockPeriod, period);
+                for (int node = 0; node < component.length; node++) {
+                    int kind = nodeKinds.get(node);
+                    if (component[node] != c || kind == WIRE || kind == ACTUATOR) continue;
+                    int cell = nodeCells.get(node);
+                    graph.clockComponents.add((cell >> 4) & 15, cell >> 8, cell & 15);
+                    if (graph.clockCenter < 0) graph.clockCenter = cell;
+                }
+            }
+        }
+
+        private void link(long cell) {
+            long neighbour = ChunkKeys.pack(ChunkKeys.worldIndex(scan.getChunkKey()), cellX(cell) >> 4, cellZ(cell) >> 4);
+            if (!linkedChunks.contains(neighbour)) linkedChunks.add(neighbour);
+        }
+
+        private int nodeIndex(int x, int y, int z) {
+            if (!inside(x, y, z)) return -1;
+            return nodeAt.get(ChunkScan.pack(x, y, z), -1);
+        }
+
+        private boolean inside(int x, int y, int z) {
+            return insideColumn(x, z) && y >= minY && y <= maxY;
+        }
+
+        private boolean insideColumn(int x, int z) {
+            return x >= 0 && x < 16 && z >= 0 && z < 16;
+        }
+
+        // Сигнал проводят только непрозрачные полные блоки
+        private boolean isConductor(int x, int y, int z) {
+            return scan.getType(x, y, z).isOccluding();
+        }
+    }
+
+    // Граф в виде списков смежности со смещениями; вес ребра - задержка вершины, в которую оно ведёт
+    private static final class Digraph {
+        private final int size;
+        private final int[] offsets;
+        private final int[] targets;
+        private final int[] weights;
+
+        private Digraph(int size, IntList from, IntList to, IntList weight) {
+            this.size = size;
+            this.offsets = new int[size + 1];
+            this.targets = new int[from.size()];
+            this.weights = new int[from.size()];
+            for (int i = 0; i < from.size(); i++) offsets[from.get(i) + 1]++;
+            for (int v = 0; v < size; v++) offsets[v + 1] += offsets[v];
+            int[] next = Arrays.copyOf(offsets, size);
+            for (int i = 0; i < from.size(); i++) {
+                int slot = next[from.get(i)]++;
+                targets[slot] = to.get(i);
+                weights[slot] = weight.get(i);
+            }
+        }
+
+        // Тарьян без рекурсии: номер компоненты сильной связности для каждой вершины, возвращает число компонент
+        private int strongComponents(int[] component) {
+            int[] index = new int[size];
+            int[] low = new int[size];
+            int[] edge = new int[size];
+            int[] stack = new int[size];
+            int[] calls = new int[size];
+            boolean[] onStack = new boolean[size];
+            Arrays.fill(index, -1);
+            int counter = 0;
+            int count = 0;
+            int stackSize = 0;
+            for (int root = 0; root < size; root++) {
+                if (index[root] >= 0) continue;
+                int depth = 0;
+                calls[depth++] = root;
+                index[root] = low[root] = counter++;
+                edge[root] = offsets[root];
+                stack[stackSize++] = root;
+                onStack[root] = true;
+                while (depth > 0) {
+                    int v = calls[depth - 1];
+                    if (edge[v] < offsets[v + 1]) {
+                        int w = targets[edge[v]++];
+                        if (index[w] < 0) {
+                            index[w] = low[w] = counter++;
+                            edge[w] = offsets[w];
+                            stack[stackSize++] = w;
+                            onStack[w] = true;
+                            calls[depth++] = w;
+                        } else if (onStack[w]) {
+                            low[v] = Math.min(low[v], index[w]);
+                        }
+                        continue;
+                    }
+                    depth--;
+                    if (depth > 0) {
+                        int caller = calls[depth - 1];
+                        low[caller] = Math.min(low[caller], low[v]);
+                    }
+                    if (low[v] == index[v]) {
+                        int w;
+                        do {
+                            w = stack[--stackSize];
+                            onStack[w] = false;
+                            component[w] = count;
+                        } while (w != v);
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        // Суммарная задержка кратчайшего цикла внутри компоненты: Дейкстра от нескольких её вершин
+        private int shortestCycle(int[] component, int c) {
+            int best = Integer.MAX_VALUE;
+            int[] distance = new int[size];
+            int sources = 0;
+            for (int source = 0; source < size && sources < MAX_CYCLE_SOURCES; source++) {
+                if (component[source] != c) continue;
+                sources++;
+                Arrays.fill(distance, Integer.MAX_VALUE);
+                distance[source] = 0;
+                PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+                queue.add(new long[]{0L, source});
+                while (!queue.isEmpty()) {
+                    long[] head = queue.poll();
+                    int v = (int) head[1];
+                    if (head[0] > distance[v] || head[0] >= best) continue;
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        int w = targets[e];
+                        if (component[w] != c) continue;
+                        int d = distance[v] + weights[e];
+                        if (w == source) {
+                            best = Math.min(best, d);
+                        } else if (d < distance[w]) {
+                            distance[w] = d;
+                            queue.add(new long[]{d, w});
+                        }
+                    }
+                }
+            }
+            return best;
+        }
+
+        private void distances(int source, int[] distance) {
+            Arrays.fill(distance, Integer.MAX_VALUE);
+            distance[source] = 0;
+            PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+            queue.add(new long[]{0L, source});
+            while (!queue.isEmpty()) {
+                long[] head = queue.poll();
+                int v = (int) head[1];
+                if (head[0] > distance[v]) continue;
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    int d = distance[v] + weights[e];
+                    if (d < distance[w]) {
+                        distance[w] = d;
+                        queue.add(new long[]{d, w});
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[8];
+        private int size = 0;
+
+        private void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size << 1);
+            values[size++] = value;
+        }
+
+        private int get(int index) {
+            return values[index];
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private boolean contains(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) return true;
+            }
+            return false;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class LongList {
+        private long[] values = new long[8];
+        private int size = 0;
+
+        private void add(long value) {
+            if (size == values.length) values = Arrays.copyOf(values, size << 1);
+            values[size++] = value;
+        }
+
+        private boolean contains(long value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) return true;
+            }
+            return false;
+        }
+
+        private long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
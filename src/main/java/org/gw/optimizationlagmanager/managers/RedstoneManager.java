@@ -3,13 +3,24 @@ package org.gw.optimizationlagmanager.managers;
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
+import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
+import org.bukkit.block.data.AnaloguePowerable;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Directional;
+import org.bukkit.block.data.Lightable;
+import org.bukkit.block.data.Openable;
+import org.bukkit.block.data.Powerable;
+import org.bukkit.block.data.type.Comparator;
+import org.bukkit.block.data.type.RedstoneWire;
+import org.bukkit.block.data.type.Repeater;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockRedstoneEvent;
@@ -17,54 +28,231 @@ import org.bukkit.scheduler.BukkitRunnable;
 import org.gw.optimizationlagmanager.OptimizationLagManager;
 import org.gw.optimizationlagmanager.commands.AlertsCommand;
 import org.gw.optimizationlagmanager.commands.CommandsHandler;
-import org.gw.optimizationlagmanager.utils.HexColors;
+import org.gw.optimizationlagmanager.utils.ChunkKeys;
+import org.gw.optimizationlagmanager.utils.DebugLogger;
+import org.gw.optimizationlagmanager.utils.LogCategory;
+import org.gw.optimizationlagmanager.utils.LongHashSet;
+import org.gw.optimizationlagmanager.utils.LongLongHashMap;
+import org.gw.optimizationlagmanager.utils.LongObjectHashMap;
+import org.gw.optimizationlagmanager.utils.MaterialFlags;
+import org.gw.optimizationlagmanager.utils.MessageTemplate;
+import org.gw.optimizationlagmanager.utils.Metrics;
+import org.gw.optimizationlagmanager.utils.RegionActivity;
+import org.gw.optimizationlagmanager.utils.TickWindowCounter;
+import org.gw.optimizationlagmanager.utils.TokenBuckets;
 
 import java.util.*;
 
 public class RedstoneManager implements Listener {
     private final OptimizationLagManager plugin;
     private final ConfigManager configManager;
-    private final WeakHashMap<Chunk, Integer> redstoneUpdates = new WeakHashMap<>();
-    private final WeakHashMap<Chunk, Integer> redstoneActivityCounter = new WeakHashMap<>();
-    private final WeakHashMap<Chunk, Long> redstoneCooldown = new WeakHashMap<>();
-    private final WeakHashMap<Chunk, Long> lastNotificationTime = new WeakHashMap<>();
-    private final Set<Chunk> lagMachineChunks = new HashSet<>();
-    private final Set<Chunk> protectedChunks = new HashSet<>();
-    private final Map<Chunk, Boolean> playerNearbyCache = new HashMap<>();
-    private final Map<Chunk, Long> playerNearbyCacheTime = new HashMap<>();
-    private final Map<Chunk, RedstoneScanResult> redstoneScanCache = new HashMap<>();
+    private final TickMonitor tickMonitor;
+    private final AdaptiveLimits adaptiveLimits;
+    private final DebugLogger debugLogger;
+    private final PlayerIndex playerIndex;
+    private final ChunkScanner chunkScanner;
+    private final ChunkComposition chunkComposition;
+    private final ScanScheduler scanScheduler;
+    private final MetricsManager metricsManager;
+    private final EnforcementQueue enforcementQueue;
+    private final LagMachineRegistry lagMachineRegistry;
+    private final Metrics.Counter cancelledLowTps;
+    private final Metrics.Counter cancelledLimit;
+    private final Metrics.Counter deferredLimit;
+    private final TickWindowCounter redstoneUpdates = new TickWindowCounter(1, 1);
+    private final RegionActivity redstoneActivity = new RegionActivity(200, 20);
+    private final TokenBuckets redstoneBuckets = new TokenBuckets();
+    // Размер области, по которому построены ключи корзин: ключ области одного размера совпадает с ключом чанка или области другого
+    private int bucketRegionSize = 1;
+    // Задержка, с которой стоят записи в redstoneDeferrals: очередь упорядочена по сроку, только пока задержка не менялась
+    private int deferralDelayTicks = -1;
+    private final RedstoneDeferrals redstoneDeferrals = new RedstoneDeferrals(MAX_DEFERRED_PER_CHUNK);
+    private final OscillationTracker oscillationTracker = new OscillationTracker(MAX_OSCILLATING_POSITIONS);
+    // Компоненты удаляются без физики, соседние блоки и провода обновляются после партии удалений чанка
+    private final EnforcementQueue.BlockRemoval componentRemoval = new EnforcementQueue.BlockRemoval(MaterialFlags.CLOCK_CAPABLE, false, LogCategory.REDSTONE, block -> updateNeighbours(block, false));
+    private final LongLongHashMap redstoneCooldown = new LongLongHashMap();
+    private final LongLongHashMap lastNotificationTime = new LongLongHashMap();
+    private final LongHashSet lagMachineChunks = new LongHashSet();
+    private final LongHashSet protectedChunks = new LongHashSet();
+    private final LongObjectHashMap<RedstoneScanResult> redstoneScanCache = new LongObjectHashMap<>();
     private boolean isLagDetectionActive = false;
     private boolean isRedstoneGloballyDisabled = false;
-    private final boolean consoleLoggingEnabled;
     private static final long NOTIFICATION_COOLDOWN = 300_000;
-    private static final long PLAYER_CACHE_DURATION = 200L;
     private static final long SCAN_CACHE_DURATION = 10_000L;
-    private static final int MAX_BLOCKS_PER_TICK = 3;
-    private double cachedTps = 20.0;
-    private long lastTpsCheck = 0;
-    private BukkitRunnable patternScanTask;
+    // Сколько чанков с результатами сканирования собирается вокруг чанка для поиска клока через границы
+    private static final int MAX_CLUSTER_CHUNKS = 9;
+    // Сколько переключающихся позиций отслеживается в одном чанке
+    private static final int MAX_OSCILLATING_POSITIONS = 32;
+    // Сколько отложенных изменений сигнала хранится в одном чанке, остальные отменяются как раньше
+    private static final int MAX_DEFERRED_PER_CHUNK = 64;
+    private static final int UPDATE_ALLOWED = 0;
+    private static final int UPDATE_THROTTLED = 1;
+    private static final int UPDATE_DENIED = 2;
+    private static final BlockFace[] NEIGHBOUR_FACES = {BlockFace.NORTH, BlockFace.SOUTH, BlockFace.EAST, BlockFace.WEST, BlockFace.UP, BlockFace.DOWN};
+    private static final MessageTemplate.Placeholders TPS_PLACEHOLDERS = new MessageTemplate.Placeholders("tps");
+    private static final MessageTemplate.Placeholders LAG_MACHINE_PLACEHOLDERS = new MessageTemplate.Placeholders("world", "x", "y", "z", "count", "type");
 
     private static class RedstoneScanResult {
-        boolean hasComplexClock;
+        RedstoneGraph graph;
+        boolean hasArmorStandMachine;
         int componentCount;
         long timestamp;
+        int center;
 
-        RedstoneScanResult(boolean hasComplexClock, int componentCount, long timestamp) {
-            this.hasComplexClock = hasComplexClock;
+        RedstoneScanResult(RedstoneGraph graph, boolean hasArmorStandMachine, int componentCount, long timestamp, int center) {
+            this.graph = graph;
+            this.hasArmorStandMachine = hasArmorStandMachine;
             this.componentCount = componentCount;
             this.timestamp = timestamp;
+            this.center = center;
         }
     }
 
+    // Найденная лаг-машина: чанки, которые она занимает, и компоненты для удаления в чанке сканирования
+    private static class LagMachine {
+        final long[] chunkKeys;
+        final int center;
+        final ChunkScan.Positions components;
+        final int periodTicks;
+
+        LagMachine(long[] chunkKeys, int center, ChunkScan.Positions components, int periodTicks) {
+            this.chunkKeys = chunkKeys;
+            this.center = center;
+            this.components = components;
+            this.periodTicks = periodTicks;
+        }
+    }
+
+    // Общий анализ снимка; подклассы решают, что делать с результатом в основном потоке
+    private abstract class RedstoneDetector implements ChunkScanner.Detector<RedstoneScanResult> {
+        @Override
+        public RedstoneScanResult analyse(ChunkScan scan) {
+            return analyseRedstone(scan);
+        }
+
+        @Override
+        public void apply(ChunkScan scan, RedstoneScanResult result) {
+            redstoneScanCache.put(scan.getChunkKey(), result);
+            Chunk chunk = ChunkKeys.chunkIfLoaded(scan.getChunkKey());
+            if (chunk != null) {
+                apply(chunk, result);
+            }
+        }
+
+        abstract void apply(Chunk chunk, RedstoneScanResult result);
+    }
+
+    private final RedstoneDetector clockDetector = new RedstoneDetector() {
+        @Override
+        void apply(Chunk chunk, RedstoneScanResult result) {
+            long chunkKey = ChunkKeys.of(chunk);
+            if (!isLagDetectionActive || protectedChunks.contains(chunkKey)) return;
+            LagMachine machine = findLagMachine(chunkKey, result);
+            if (machine == null) {
+                scanLinkedChunks(result);
+                return;
+            }
+            disableRedstone(machine.chunkKeys);
+            notifyLagMachineDetected(chunk, machine);
+        }
+    };
+
+    // Редстоун уже отключён по колебаниям или счётчику активности, снимок нужен для поиска петли, центра и компонентов.
+    // Если петля не найдена, удаляются колеблющиеся блоки, а без них - тактовые компоненты чанка, как раньше
+    private final RedstoneDetector activityDetector = new RedstoneDetector() {
+        @Override
+        void apply(Chunk chunk, RedstoneScanResult result) {
+            long chunkKey = ChunkKeys.of(chunk);
+            ChunkScan.Positions oscillating = oscillationTracker.getOscillating(chunkKey, tickMonitor.getCurrentTick(), configManager.getOscillationCriteria());
+            oscillationTracker.remove(chunkKey);
+            LagMachine machine = findLagMachine(chunkKey, result);
+            if (machine != null) {
+                disableRedstone(machine.chunkKeys);
+            } else if (oscillating.size() > 0) {
+                machine = new LagMachine(new long[]{chunkKey}, oscillating.get(0), oscillating, -1);
+            } else {
+                machine = new LagMachine(new long[]{chunkKey}, result.center, result.graph.getClockCapable(), -1);
+            }
+            notifyLagMachineDetected(chunk, machine);
+        }
+    };
+
+    private final RedstoneDetector cooldownDetector = new RedstoneDetector() {
+        @Override
+        void apply(Chunk chunk, RedstoneScanResult result) {
+            long chunkKey = ChunkKeys.of(chunk);
+            if (findLagMachine(chunkKey, result) != null) {
+                lagMachineRegistry.record("redstone", chunkKey, redstoneCooldown.get(chunkKey, 0L));
+                if (debugLogger.isEnabled(LogCategory.REDSTONE)) {
+                    debugLogger.debug(LogCategory.REDSTONE, "Лаг-машина всё ещё обнаружена в чанке ({}, {}), кулдаун продлён на {} секунд", chunk.getX(), chunk.getZ(), configManager.getLagDetectionCooldown() / 20);
+                }
+                return;
+            }
+            redstoneCooldown.remove(chunkKey, 0L);
+            lagMachineChunks.remove(chunkKey);
+            lastNotificationTime.remove(chunkKey, 0L);
+            if (debugLogger.isEnabled(LogCategory.REDSTONE)) {
+                debugLogger.debug(LogCategory.REDSTONE, "Кулдаун редстоуна истёк в чанке ({}, {}), лаг-машина не обнаружена, редстоун разрешён", chunk.getX(), chunk.getZ());
+            }
+        }
+    };
+
+    private final ScanScheduler.Visitor patternScanVisitor = new ScanScheduler.Visitor() {
+        @Override
+        public int getIntervalTicks() {
+            return configManager.getPatternScanInterval();
+        }
+
+        @Override
+        public void visit(Chunk chunk, long chunkKey) {
+            if (!configManager.isRedstoneOptimizationEnabled() || !isLagDetectionActive || !configManager.isPatternScanEnabled() || protectedChunks.contains(chunkKey)) return;
+            RedstoneScanResult cachedResult = redstoneScanCache.get(chunkKey);
+            if (cachedResult != null && (System.currentTimeMillis() - cachedResult.timestamp) < SCAN_CACHE_DURATION) return;
+            if (playerIndex.hasPlayersNearby(chunk, configManager.getRedstonePlayerRadius()) && chunkComposition.hasAny(chunkKey, ChunkComposition.MONITORED)) {
+                chunkScanner.submit(chunkKey, clockDetector);
+            }
+        }
+    };
+
     public RedstoneManager(OptimizationLagManager plugin, ConfigManager configManager) {
         this.plugin = plugin;
         this.configManager = configManager;
-        this.consoleLoggingEnabled = configManager.isConsoleLoggingEnabled();
+        this.tickMonitor = plugin.getTickMonitor();
+        this.adaptiveLimits = plugin.getAdaptiveLimits();
+        this.debugLogger = plugin.getDebugLogger();
+        this.playerIndex = plugin.getPlayerIndex();
+        this.chunkScanner = plugin.getChunkScanner();
+        this.chunkComposition = plugin.getChunkComposition();
+        this.scanScheduler = plugin.getScanScheduler();
+        this.enforcementQueue = plugin.getEnforcementQueue();
+        this.lagMachineRegistry = plugin.getLagMachineRegistry();
         this.isLagDetectionActive = configManager.isLagDetectionEnabled();
-        plugin.getServer().getPluginManager().registerEvents(this, plugin);
-        startRedstonePatternScan();
-        startTpsMonitor();
+        this.metricsManager = plugin.getMetricsManager();
+        this.cancelledLowTps = metricsManager.cancelled("redstone", "low-tps");
+        this.cancelledLimit = metricsManager.cancelled("redstone", "limit");
+        this.deferredLimit = metricsManager.deferred("redstone", "throttle");
+        metricsManager.cacheSize("redstone_updates", redstoneUpdates::size);
+        metricsManager.cacheSize("redstone_activity", redstoneActivity::size);
+        metricsManager.cacheSize("redstone_area_cooldowns", redstoneActivity::cooldownCount);
+        metricsManager.cacheSize("redstone_buckets", redstoneBuckets::size);
+        metricsManager.cacheSize("redstone_oscillations", oscillationTracker::size);
+        metricsManager.cacheSize("redstone_cooldowns", redstoneCooldown::size);
+        metricsManager.cacheSize("redstone_notifications", lastNotificationTime::size);
+        metricsManager.cacheSize("redstone_lag_machine_chunks", lagMachineChunks::size);
+        metricsManager.cacheSize("redstone_protected_chunks", protectedChunks::size);
+        metricsManager.cacheSize("redstone_scan_results", redstoneScanCache::size);
+        metricsManager.queueSize("redstone_deferred", redstoneDeferrals::size);
+        plugin.getListenerRegistrar().registerEvents(this, "redstone", configManager::isRedstoneOptimizationEnabled);
+        // Регистрируется всегда: включение оптимизации при перезагрузке конфига проверяется в visit
+        scanScheduler.register(patternScanVisitor);
+        tickMonitor.subscribe(this::checkTps);
         clearCaches();
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                applyDeferred();
+            }
+        }.runTaskTimer(plugin, 1L, 1L);
     }
 
     public boolean isLagDetectionActive() {
@@ -76,150 +264,110 @@ public class RedstoneManager implements Listener {
     }
 
     public boolean hasPlayersNearby(Chunk chunk, int radius) {
-        long currentTime = System.currentTimeMillis();
-        Long lastChecked = playerNearbyCacheTime.get(chunk);
-        if (lastChecked != null && (currentTime - lastChecked) < PLAYER_CACHE_DURATION) {
-            return playerNearbyCache.getOrDefault(chunk, false);
-        }
-
-        Location center = chunk.getBlock(8, 64, 8).getLocation();
-        boolean hasPlayers = false;
-        for (Player player : chunk.getWorld().getPlayers()) {
-            if (player.getLocation().distanceSquared(center) <= radius * radius) {
-                hasPlayers = true;
-                break;
-            }
-        }
-
-        playerNearbyCache.put(chunk, hasPlayers);
-        playerNearbyCacheTime.put(chunk, currentTime);
-        if (consoleLoggingEnabled) {
-            plugin.getLogger().info("Проверка игроков в радиусе " + radius + " от чанка (" + chunk.getX() + ", " + chunk.getZ() + "): " + (hasPlayers ? "игроки найдены" : "игроки не найдены"));
+        boolean hasPlayers = playerIndex.hasPlayersNearby(chunk, radius);
+        if (debugLogger.isEnabled(LogCategory.REDSTONE)) {
+            debugLogger.debug(LogCategory.REDSTONE, "Проверка игроков в радиусе {} от чанка ({}, {}): {}", radius, chunk.getX(), chunk.getZ(), (hasPlayers ? "игроки найдены" : "игроки не найдены"));
         }
         return hasPlayers;
     }
 
-    private double getCachedTps() {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastTpsCheck >= 1000) {
-            cachedTps = Bukkit.getTPS()[0];
-            lastTpsCheck = currentTime;
-        }
-        return cachedTps;
-    }
-
-    private void startTpsMonitor() {
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                double tps = Bukkit.getTPS()[0];
-                if (tps < configManager.getCriticalTpsThreshold() && !isRedstoneGloballyDisabled) {
-                    isRedstoneGloballyDisabled = true;
-                    redstoneCooldown.clear();
-                    lagMachineChunks.clear();
-                    if (consoleLoggingEnabled) {
-                        plugin.getLogger().warning("Критически низкий TPS (" + String.format("%.2f", tps) + "), редстоун временно отключён глобально!");
-                    }
-                    notifyAdmins(configManager.getMessages("tps-critical"), tps);
-                } else if (tps >= configManager.getRedstoneTpsThreshold() && isRedstoneGloballyDisabled) {
-                    isRedstoneGloballyDisabled = false;
-                    if (consoleLoggingEnabled) {
-                        plugin.getLogger().info("TPS восстановлен (" + String.format("%.2f", tps) + "), редстоун снова включён");
-                    }
-                    notifyAdmins(configManager.getMessages("tps-restored"), tps);
-                }
+    private void checkTps(TickStats stats) {
+        double tps = stats.getTps();
+        if (tps < configManager.getCriticalTpsThreshold() && !isRedstoneGloballyDisabled) {
+            isRedstoneGloballyDisabled = true;
+            redstoneCooldown.clear();
+            redstoneActivity.clearCooldowns();
+            lagMachineChunks.clear();
+            if (debugLogger.isEnabled(LogCategory.REDSTONE)) {
+                debugLogger.warning(LogCategory.REDSTONE, "Критически низкий TPS ({}), редстоун временно отключён глобально!", stats);
+            }
+            notifyAdmins(configManager.getMessageTemplates("tps-critical"), tps);
+        } else if (tps >= configManager.getRedstoneTpsThreshold() && isRedstoneGloballyDisabled) {
+            isRedstoneGloballyDisabled = false;
+            if (debugLogger.isEnabled(LogCategory.REDSTONE)) {
+                debugLogger.debug(LogCategory.REDSTONE, "TPS восстановлен ({}), редстоун снова включён", stats);
             }
-        }.runTaskTimer(plugin, 0L, 20L);
+            notifyAdmins(configManager.getMessageTemplates("tps-restored"), tps);
+        }
     }
 
-    private void notifyAdmins(List<String> messages, double tps) {
+    private void notifyAdmins(List<MessageTemplate> templates, double tps) {
+        String formattedTps = String.format("%.2f", tps);
+        List<String> messages = new ArrayList<>(templates.size());
+        for (MessageTemplate template : templates) {
+            messages.add(template.render(TPS_PLACEHOLDERS, formattedTps));
+        }
         AlertsCommand alertsCommand = ((CommandsHandler) plugin.getCommand("olm").getExecutor()).getAlertsCommand();
         for (Player player : Bukkit.getOnlinePlayers()) {
             if (player.hasPermission("olm.redstonelag") && alertsCommand.isAlertsEnabled(player.getName())) {
                 for (String message : messages) {
-                    player.sendMessage(message.replace("{tps}", String.format("%.2f", tps)));
+                    player.sendMessage(message);
                 }
             }
         }
         // Отправка в консоль, если включено
         if (configManager.isConsoleNotificationsEnabled()) {
-            for (String message : messages) {
-                plugin.getLogger().info(HexColors.colorize(message.replace("{tps}", String.format("%.2f", tps)), true, plugin.getLogger()));
+            for (MessageTemplate template : templates) {
+                plugin.getLogger().info(template.renderConsole(TPS_PLACEHOLDERS, formattedTps));
             }
         }
     }
 
-    private void notifyLagMachineDetected(Chunk chunk, Location centerLocation) {
+    // Кулдаун уведомлений ставится на все чанки лаг-машины, а не на квадрат 3x3 вокруг чанка сканирования
+    private void notifyLagMachineDetected(Chunk chunk, LagMachine machine) {
         long currentTime = System.currentTimeMillis();
-        for (int dx = -1; dx <= 1; dx++) {
-            for (int dz = -1; dz <= 1; dz++) {
-                Chunk nearbyChunk = chunk.getWorld().getChunkAt(chunk.getX() + dx, chunk.getZ() + dz);
-                Long lastNotified = lastNotificationTime.get(nearbyChunk);
-                if (lastNotified != null && (currentTime - lastNotified) < NOTIFICATION_COOLDOWN) {
-                    if (consoleLoggingEnabled) {
-                        plugin.getLogger().info("Уведомление о лаг-машине в чанке (" + chunk.getX() + ", " + chunk.getZ() + ") пропущено: соседний чанк на кулдауне");
-                    }
-                    return;
+        for (long chunkKey : machine.chunkKeys) {
+            long lastNotified = lastNotificationTime.get(chunkKey, -1L);
+            if (lastNotified >= 0 && (currentTime - lastNotified) < NOTIFICATION_COOLDOWN) {
+                if (debugLogger.isEnabled(LogCategory.REDSTONE)) {
+                    debugLogger.debug(LogCategory.REDSTONE, "Уведомление о лаг-машине в чанке ({}, {}) пропущено: чанк {} на кулдауне", chunk.getX(), chunk.getZ(), ChunkKeys.toString(chunkKey));
                 }
+                return;
             }
         }
 
-        for (int dx = -1; dx <= 1; dx++) {
-            for (int dz = -1; dz <= 1; dz++) {
-                Chunk nearbyChunk = chunk.getWorld().getChunkAt(chunk.getX() + dx, chunk.getZ() + dz);
-                lastNotificationTime.put(nearbyChunk, currentTime);
-            }
+        for (long chunkKey : machine.chunkKeys) {
+            lastNotificationTime.put(chunkKey, currentTime);
         }
 
-        int destroyedCount = destroyLagMachineComponents(chunk);
+        int destroyedCount = destroyLagMachineComponents(chunk, machine.components);
+        metricsManager.recordLagMachine("redstone", destroyedCount);
+        Location centerLocation = ChunkScan.blockAt(chunk, machine.center).getLocation();
 
         AlertsCommand alertsCommand = ((CommandsHandler) plugin.getCommand("olm").getExecutor()).getAlertsCommand();
-        configManager.getMessages("alerts.lag-machine-detected").forEach(message -> {
-            String formattedMessage = message
-                    .replace("{world}", chunk.getWorld().getName())
-                    .replace("{x}", String.valueOf(centerLocation.getBlockX()))
-                    .replace("{y}", String.valueOf(centerLocation.getBlockY()))
-                    .replace("{z}", String.valueOf(centerLocation.getBlockZ()))
-                    .replace("{count}", String.valueOf(destroyedCount))
-                    .replace("{type}", "редстоун/стойки для брони");
+        Object[] values = {chunk.getWorld().getName(), centerLocation.getBlockX(), centerLocation.getBlockY(), centerLocation.getBlockZ(),
+                destroyedCount, "редстоун/стойки для брони"};
+        for (MessageTemplate template : configManager.getMessageTemplates("alerts.lag-machine-detected")) {
+            String formattedMessage = template.render(LAG_MACHINE_PLACEHOLDERS, values);
             for (Player player : Bukkit.getOnlinePlayers()) {
                 if (player.hasPermission("olm.redstonelag") && alertsCommand.isAlertsEnabled(player.getName())) {
                     player.sendMessage(formattedMessage);
                 }
             }
             if (configManager.isConsoleNotificationsEnabled()) {
-                plugin.getLogger().info(HexColors.colorize(formattedMessage, true, plugin.getLogger()));
+                plugin.getLogger().info(template.renderConsole(LAG_MACHINE_PLACEHOLDERS, values));
             }
-        });
+        }
 
-        if (consoleLoggingEnabled) {
-            plugin.getLogger().warning("Обнаружена лаг-машина (редстоун/стойки для брони) в чанке (" + chunk.getX() + ", " + chunk.getZ() + ") в мире " + chunk.getWorld().getName() +
-                    " на координатах (" + centerLocation.getBlockX() + ", " + centerLocation.getBlockY() + ", " + centerLocation.getBlockZ() + "), удалено " + destroyedCount + " компонентов");
+        if (debugLogger.isEnabled(LogCategory.REDSTONE)) {
+            debugLogger.warning(LogCategory.REDSTONE, "Обнаружена лаг-машина (редстоун/стойки для брони) в чанке ({}, {}) в мире {} на координатах ({}, {}, {}), чанков: {}, период клока: {} тиков, удалено {} компонентов", chunk.getX(), chunk.getZ(), chunk.getWorld().getName(), centerLocation.getBlockX(), centerLocation.getBlockY(), centerLocation.getBlockZ(), machine.chunkKeys.length, machine.periodTicks < 0 ? "-" : String.valueOf(machine.periodTicks), destroyedCount);
         }
     }
 
-    private int destroyLagMachineComponents(Chunk chunk) {
+    private int destroyLagMachineComponents(Chunk chunk, ChunkScan.Positions lagMachineComponents) {
+        MaterialFlags materialFlags = configManager.getMaterialFlags();
         if (!configManager.isDestroyComponentsEnabled()) {
             return 0;
         }
 
         List<Block> components = new ArrayList<>();
         List<Entity> armorStands = new ArrayList<>();
-        List<String> monitoredBlocks = configManager.getMonitoredBlocks();
-        List<String> criticalBlocks = Arrays.asList("REDSTONE_TORCH", "REPEATER", "COMPARATOR", "OBSERVER", "PISTON", "STICKY_PISTON");
-
-        int minY = Math.max(chunk.getWorld().getMinHeight(), 64 - 64);
-        int maxY = Math.min(chunk.getWorld().getMaxHeight(), 64 + 64);
-
-        for (int x = 0; x < 16; x++) {
-            for (int z = 0; z < 16; z++) {
-                for (int y = minY; y <= maxY; y++) {
-                    Block block = chunk.getBlock(x, y, z);
-                    String blockType = block.getType().name();
-                    if (monitoredBlocks.contains(blockType) && criticalBlocks.contains(blockType)) {
-                        components.add(block);
-                    }
-                }
+
+        // Позиции взяты из снимка, поэтому блок перепроверяется: его могли сломать после сканирования
+        for (Block block : lagMachineComponents.toBlocks(chunk)) {
+            Material blockType = block.getType();
+            if (materialFlags.isMonitored(blockType) && materialFlags.isClockCapable(blockType)) {
+                components.add(block);
             }
         }
 
@@ -239,7 +387,6 @@ public class RedstoneManager implements Listener {
         toDestroy.addAll(armorStands);
         Collections.shuffle(toDestroy);
 
-        int destroyedCount = 0;
         List<Block> blocksToDestroy = new ArrayList<>();
         List<Entity> entitiesToDestroy = new ArrayList<>();
 
@@ -249,245 +396,187 @@ public class RedstoneManager implements Listener {
             } else if (obj instanceof Entity) {
                 entitiesToDestroy.add((Entity) obj);
             }
-            destroyedCount++;
-        }
-
-        if (!blocksToDestroy.isEmpty()) {
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    destroyBlocksInBatches(blocksToDestroy, chunk, 0);
-                }
-            }.runTaskAsynchronously(plugin);
-        }
-
-        if (!entitiesToDestroy.isEmpty()) {
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    destroyEntitiesInBatches(entitiesToDestroy, chunk);
-                }
-            }.runTaskAsynchronously(plugin);
         }
 
+        long chunkKey = ChunkKeys.of(chunk);
+        int destroyedCount = enforcementQueue.removeBlocks(chunkKey, blocksToDestroy, EnforcementQueue.PRIORITY_HIGH, componentRemoval);
+        destroyedCount += enforcementQueue.removeEntities(chunkKey, entitiesToDestroy, EnforcementQueue.PRIORITY_HIGH, LogCategory.REDSTONE);
         return destroyedCount;
     }
 
-    private void destroyBlocksInBatches(List<Block> blocks, Chunk chunk, int startIndex) {
-        if (startIndex >= blocks.size()) {
-            Bukkit.getScheduler().runTask(plugin, () -> {
-                for (Block block : blocks) {
-                    updateNeighboringBlocks(block, false);
-                }
-                if (consoleLoggingEnabled) {
-                    plugin.getLogger().info("Завершено удаление блоков в чанке (" + chunk.getX() + ", " + chunk.getZ() + ")");
-                }
-            });
-            return;
-        }
-
-        int endIndex = Math.min(startIndex + MAX_BLOCKS_PER_TICK, blocks.size());
-        List<Block> batch = blocks.subList(startIndex, endIndex);
-
-        Bukkit.getScheduler().runTask(plugin, () -> {
-            for (Block block : batch) {
-                block.setType(org.bukkit.Material.AIR, false);
-                if (consoleLoggingEnabled) {
-                    plugin.getLogger().info("Удалён блок " + block.getType().name() + " в чанке (" + chunk.getX() + ", " + chunk.getZ() +
-                            ") на координатах (" + block.getX() + ", " + block.getY() + ", " + block.getZ() + ")");
-                }
-            }
-        });
-
-        if (endIndex < blocks.size()) {
-            Bukkit.getScheduler().runTaskLater(plugin, () -> destroyBlocksInBatches(blocks, chunk, endIndex), 5L);
-        }
-    }
-
-    private void destroyEntitiesInBatches(List<Entity> entities, Chunk chunk) {
-        int batchSize = Math.min(MAX_BLOCKS_PER_TICK, entities.size());
-        List<Entity> batch = entities.subList(0, batchSize);
-
-        Bukkit.getScheduler().runTask(plugin, () -> {
-            for (Entity entity : batch) {
-                entity.remove();
-                if (consoleLoggingEnabled) {
-                    plugin.getLogger().info("Удалена стойка для брони в чанке (" + chunk.getX() + ", " + chunk.getZ() +
-                            ") на координатах (" + entity.getLocation().getX() + ", " + entity.getLocation().getY() + ", " + entity.getLocation().getZ() + ")");
-                }
-            }
-        });
-
-        if (batchSize < entities.size()) {
-            Bukkit.getScheduler().runTaskLater(plugin, () ->
-                    destroyEntitiesInBatches(entities.subList(batchSize, entities.size()), chunk), 5L);
-        }
-    }
-
     private void clearCaches() {
         new BukkitRunnable() {
             @Override
             public void run() {
                 long currentTime = System.currentTimeMillis();
-                playerNearbyCache.entrySet().removeIf(entry -> currentTime - playerNearbyCacheTime.get(entry.getKey()) > 60_000L);
-                redstoneScanCache.entrySet().removeIf(entry -> currentTime - entry.getValue().timestamp > 60_000L);
-                if (consoleLoggingEnabled) {
-                    plugin.getLogger().info("Очищены кэши редстоуна: " + playerNearbyCache.size() + " чанков в playerNearbyCache, " +
-                            redstoneScanCache.size() + " чанков в redstoneScanCache");
+                redstoneScanCache.removeIf((chunkKey, result) -> currentTime - result.timestamp > 60_000L);
+                checkCooldownExpiration();
+                lastNotificationTime.removeIf((chunkKey, notifiedAt) -> currentTime - notifiedAt >= NOTIFICATION_COOLDOWN);
+                redstoneUpdates.purgeIdle(tickMonitor.getCurrentTick());
+                redstoneActivity.purge(tickMonitor.getCurrentTick(), currentTime);
+                oscillationTracker.purgeIdle(tickMonitor.getCurrentTick(), 1200);
+                redstoneBuckets.purgeIdle(tickMonitor.getCurrentTick(), configManager.getRedstoneRefillPerTick(), configManager.getRedstoneBurst());
+                if (debugLogger.isEnabled(LogCategory.REDSTONE)) {
+                    debugLogger.debug(LogCategory.REDSTONE, "Очищены кэши редстоуна: {} чанков в redstoneScanCache", redstoneScanCache.size());
                 }
             }
         }.runTaskTimer(plugin, 0L, 1200L);
     }
 
-    private Location findLagMachineCenter(Chunk chunk) {
-        Map<Location, Integer> activityScores = new HashMap<>();
-        List<String> monitoredBlocks = configManager.getMonitoredBlocks();
-
-        int minY = Math.max(chunk.getWorld().getMinHeight(), 64 - 64);
-        int maxY = Math.min(chunk.getWorld().getMaxHeight(), 64 + 64);
-
-        for (int x = 0; x < 16; x++) {
-            for (int z = 0; z < 16; z++) {
-                for (int y = minY; y <= maxY; y++) {
-                    Block block = chunk.getBlock(x, y, z);
-                    String blockType = block.getType().name();
-                    if (monitoredBlocks.contains(blockType)) {
-                        int score = 0;
-                        if (blockType.equals("OBSERVER") || blockType.equals("REDSTONE_TORCH") || blockType.equals("REPEATER") || blockType.equals("PISTON") || blockType.equals("STICKY_PISTON")) {
-                            score += 5;
-                            for (BlockFace face : new BlockFace[]{BlockFace.NORTH, BlockFace.SOUTH, BlockFace.EAST, BlockFace.WEST}) {
-                                Block adjacent = block.getRelative(face);
-                                if (monitoredBlocks.contains(adjacent.getType().name())) {
-                                    score += 2;
-                                }
-                            }
-                        }
-                        activityScores.put(block.getLocation(), score);
-                    }
-                }
-            }
-        }
+    private RedstoneScanResult analyseRedstone(ChunkScan scan) {
+        MaterialFlags materialFlags = configManager.getMaterialFlags();
+        int minY = Math.max(scan.getMinHeight(), 64 - 64);
+        int maxY = Math.min(scan.getMaxHeight(), 64 + 64);
+        RedstoneGraph graph = RedstoneGraph.build(scan, materialFlags, minY, maxY, configManager.getMaxClockPeriodTicks());
+        int redstoneComponentCount = graph.getMonitoredCount();
+        boolean hasArmorStandMachine = false;
+        int maxScore = -1;
+        int center = graph.getClockCenter() >= 0 ? graph.getClockCenter()
+                : graph.getClockCapable().size() > 0 ? graph.getClockCapable().get(0) : ChunkScan.pack(8, 64, 8);
+
+        for (int i = 0; i < scan.getEntityCount(); i++) {
+            if (scan.getEntityType(i) != EntityType.ARMOR_STAND) continue;
+            int x = scan.getEntityX(i);
+            int y = scan.getEntityY(i);
+            int z = scan.getEntityZ(i);
+            int adjacentComponents = 0;
+            if (materialFlags.isMonitored(scan.getType(x, y, z - 1))) adjacentComponents++;
+            if (materialFlags.isMonitored(scan.getType(x, y, z + 1))) adjacentComponents++;
+            if (materialFlags.isMonitored(scan.getType(x + 1, y, z))) adjacentComponents++;
+            if (materialFlags.isMonitored(scan.getType(x - 1, y, z))) adjacentComponents++;
+            if (materialFlags.isMonitored(scan.getType(x, y + 1, z))) adjacentComponents++;
+            if (materialFlags.isMonitored(scan.getType(x, y - 1, z))) adjacentComponents++;
+            if (adjacentComponents > 0) {
+                hasArmorStandMachine = true;
+                redstoneComponentCount++;
+            }
+            // Центр по стойкам ищется, только если в чанке нет клока
+            int score = 3 + adjacentComponents * 2;
+            if (graph.getClockCenter() < 0 && score > maxScore) {
+                maxScore = score;
+                center = ChunkScan.pack(x, y, z);
+            }
+        }
+
+        return new RedstoneScanResult(graph, hasArmorStandMachine, redstoneComponentCount, scan.getCapturedAt(), center);
+    }
 
-        for (Entity entity : chunk.getEntities()) {
-            if (entity.getType() == EntityType.ARMOR_STAND) {
-                int score = 3;
-                for (BlockFace face : new BlockFace[]{BlockFace.NORTH, BlockFace.SOUTH, BlockFace.EAST, BlockFace.WEST, BlockFace.UP, BlockFace.DOWN}) {
-                    Block adjacent = entity.getLocation().getBlock().getRelative(face);
-                    if (monitoredBlocks.contains(adjacent.getType().name())) {
-                        score += 2;
-                    }
+    // Лаг-машина - клок из графа схемы: внутри чанка или через границы с уже просканированными соседями.
+    // Стойки для брони у редстоуна по-прежнему считаются лаг-машиной самого чанка
+    private LagMachine findLagMachine(long chunkKey, RedstoneScanResult result) {
+        int minComponents = configManager.getMinRedstoneComponents();
+        RedstoneGraph graph = result.graph;
+        if (result.componentCount >= minComponents) {
+            if (graph.getClockCount() > 0) {
+                return new LagMachine(new long[]{chunkKey}, graph.getClockCenter(), graph.getClockComponents(), graph.getFastestClockPeriod());
+            }
+        }
+        if (graph.getLinkedChunks().length > 0) {
+            RedstoneGraph.Clock clock = RedstoneGraph.findCrossChunkClock(collectCluster(result), configManager.getMaxClockPeriodTicks());
+            if (clock != null && clock.getCenter() >= 0) {
+                int componentCount = 0;
+                for (long clockChunk : clock.getChunkKeys()) {
+                    RedstoneScanResult clockResult = clockChunk == chunkKey ? result : redstoneScanCache.get(clockChunk);
+                    if (clockResult != null) componentCount += clockResult.componentCount;
+                }
+                if (componentCount >= minComponents) {
+                    return new LagMachine(clock.getChunkKeys(), clock.getCenter(), clock.getComponents(), clock.getPeriodTicks());
                 }
-                activityScores.put(entity.getLocation(), score);
             }
         }
+        if (result.hasArmorStandMachine && result.componentCount >= minComponents) {
+            return new LagMachine(new long[]{chunkKey}, result.center, graph.getClockCapable(), -1);
+        }
+        return null;
+    }
 
-        Location center = chunk.getBlock(8, 64, 8).getLocation();
-        int maxScore = -1;
-        for (Map.Entry<Location, Integer> entry : activityScores.entrySet()) {
-            if (entry.getValue() > maxScore) {
-                maxScore = entry.getValue();
-                center = entry.getKey();
+    // Чанк сканирования и связанные с ним схемой чанки из кэша, в ширину от чанка сканирования
+    private RedstoneGraph[] collectCluster(RedstoneScanResult result) {
+        List<RedstoneGraph> cluster = new ArrayList<>();
+        cluster.add(result.graph);
+        for (int i = 0; i < cluster.size() && cluster.size() < MAX_CLUSTER_CHUNKS; i++) {
+            for (long linked : cluster.get(i).getLinkedChunks()) {
+                RedstoneScanResult linkedResult = redstoneScanCache.get(linked);
+                if (linkedResult == null || cluster.contains(linkedResult.graph)) continue;
+                cluster.add(linkedResult.graph);
+                if (cluster.size() >= MAX_CLUSTER_CHUNKS) break;
             }
         }
-        return center;
+        return cluster.toArray(new RedstoneGraph[0]);
     }
 
-    private boolean detectRedstoneClock(Chunk chunk) {
-        long currentTime = System.currentTimeMillis();
-        RedstoneScanResult cachedResult = redstoneScanCache.get(chunk);
-        if (cachedResult != null && (currentTime - cachedResult.timestamp) < SCAN_CACHE_DURATION) {
-            return cachedResult.hasComplexClock && cachedResult.componentCount >= configManager.getMinRedstoneComponents();
-        }
-
-        int redstoneComponentCount = 0;
-        boolean hasComplexClock = false;
-        List<String> monitoredBlocks = configManager.getMonitoredBlocks();
-
-        int minY = Math.max(chunk.getWorld().getMinHeight(), 64 - 64);
-        int maxY = Math.min(chunk.getWorld().getMaxHeight(), 64 + 64);
-
-        for (int x = 0; x < 16; x++) {
-            for (int z = 0; z < 16; z++) {
-                for (int y = minY; y <= maxY; y++) {
-                    Block block = chunk.getBlock(x, y, z);
-                    String blockType = block.getType().name();
-                    if (monitoredBlocks.contains(blockType)) {
-                        redstoneComponentCount++;
-                        if (blockType.equals("REDSTONE_TORCH") || blockType.equals("REPEATER") || blockType.equals("COMPARATOR") || blockType.equals("OBSERVER") ||
-                                blockType.equals("PISTON") || blockType.equals("STICKY_PISTON")) {
-                            int connections = 0;
-                            for (BlockFace face : new BlockFace[]{BlockFace.NORTH, BlockFace.SOUTH, BlockFace.EAST, BlockFace.WEST}) {
-                                Block adjacent = block.getRelative(face);
-                                String adjacentType = adjacent.getType().name();
-                                if (monitoredBlocks.contains(adjacentType)) {
-                                    connections++;
-                                }
-                            }
-                            if (connections >= 2) {
-                                hasComplexClock = true;
-                            }
-                        }
-                    }
-                }
+    // Петля через границу видна, только когда просканированы обе стороны: соседи без результата ставятся в очередь
+    private void scanLinkedChunks(RedstoneScanResult result) {
+        for (long linked : result.graph.getLinkedChunks()) {
+            if (!redstoneScanCache.containsKey(linked) && !protectedChunks.contains(linked) && ChunkKeys.isLoaded(linked)) {
+                chunkScanner.submit(linked, clockDetector);
             }
         }
+    }
 
-        for (Entity entity : chunk.getEntities()) {
-            if (entity.getType() == EntityType.ARMOR_STAND) {
-                for (BlockFace face : new BlockFace[]{BlockFace.NORTH, BlockFace.SOUTH, BlockFace.EAST, BlockFace.WEST, BlockFace.UP, BlockFace.DOWN}) {
-                    Block adjacent = entity.getLocation().getBlock().getRelative(face);
-                    if (monitoredBlocks.contains(adjacent.getType().name())) {
-                        hasComplexClock = true;
-                        redstoneComponentCount++;
-                        break;
-                    }
-                }
+    // Чанки, уже стоящие на кулдауне, пропускаются: обход после обнаружения не записывает ту же машину в реестр второй раз
+    private void disableRedstone(long... chunkKeys) {
+        long cooldownMillis = configManager.getLagDetectionCooldownMillis();
+        long cooldownEnd = System.currentTimeMillis() + cooldownMillis;
+        for (long chunkKey : chunkKeys) {
+            if (protectedChunks.contains(chunkKey) || isOnCooldown(chunkKey)) continue;
+            redstoneCooldown.put(chunkKey, cooldownEnd);
+            lagMachineChunks.add(chunkKey);
+            lagMachineRegistry.record("redstone", chunkKey, cooldownEnd);
+            if (debugLogger.isEnabled(LogCategory.REDSTONE)) {
+                debugLogger.debug(LogCategory.REDSTONE, "Редстоун отключён в чанке {} на {} секунд", ChunkKeys.toString(chunkKey), (cooldownMillis / 1000));
             }
         }
-
-        redstoneScanCache.put(chunk, new RedstoneScanResult(hasComplexClock, redstoneComponentCount, currentTime));
-        return hasComplexClock && redstoneComponentCount >= configManager.getMinRedstoneComponents();
     }
 
-    private void disableRedstoneInChunk(Chunk chunk) {
-        long cooldownMillis = configManager.getLagDetectionCooldown() * 50L;
-        redstoneCooldown.put(chunk, System.currentTimeMillis() + cooldownMillis);
-        lagMachineChunks.add(chunk);
-        for (int dx = -1; dx <= 1; dx++) {
-            for (int dz = -1; dz <= 1; dz++) {
-                Chunk nearbyChunk = chunk.getWorld().getChunkAt(chunk.getX() + dx, chunk.getZ() + dz);
-                redstoneCooldown.put(nearbyChunk, System.currentTimeMillis() + cooldownMillis);
-                lagMachineChunks.add(nearbyChunk);
-            }
+    // Активность, набранная областью из нескольких чанков, отключает редстоун сразу во всей области одной записью:
+    // машина, разнесённая по углам соседних чанков, ловится так же, как машина внутри одного чанка
+    private void disableRedstone(int area, long chunkKey) {
+        if (area == RegionActivity.CHUNK) {
+            disableRedstone(chunkKey);
+            return;
         }
-        if (consoleLoggingEnabled) {
-            plugin.getLogger().info("Редстоун отключён в чанке (" + chunk.getX() + ", " + chunk.getZ() + ") и соседних на " + (cooldownMillis / 1000) + " секунд");
+        long cooldownMillis = configManager.getLagDetectionCooldownMillis();
+        long cooldownEnd = System.currentTimeMillis() + cooldownMillis;
+        redstoneActivity.setCooldown(area, chunkKey, cooldownEnd);
+        // В реестр попадает чанк, набравший порог области: после перезапуска кулдаун восстанавливается только на нём
+        lagMachineRegistry.record("redstone", chunkKey, cooldownEnd);
+        if (debugLogger.isEnabled(LogCategory.REDSTONE)) {
+            debugLogger.debug(LogCategory.REDSTONE, "Редстоун отключён в области ({}) вокруг чанка {} на {} секунд", RegionActivity.name(area), ChunkKeys.toString(chunkKey), (cooldownMillis / 1000));
         }
     }
 
+    // Кулдаун из реестра лаг-машин после перезапуска; по истечении чанк перепроверяется, как после обычного обнаружения
+    public void restoreCooldown(long chunkKey, long cooldownEnd) {
+        if (protectedChunks.contains(chunkKey)) return;
+        redstoneCooldown.put(chunkKey, Math.max(cooldownEnd, redstoneCooldown.get(chunkKey, 0L)));
+        lagMachineChunks.add(chunkKey);
+    }
+
+    private boolean isOnCooldown(long chunkKey) {
+        long currentTime = System.currentTimeMillis();
+        return currentTime < redstoneCooldown.get(chunkKey, 0L) || currentTime < redstoneActivity.getCooldown(chunkKey);
+    }
+
     private void checkCooldownExpiration() {
-        redstoneCooldown.entrySet().removeIf(entry -> {
-            Chunk chunk = entry.getKey();
-            long cooldownEnd = entry.getValue();
-            if (System.currentTimeMillis() >= cooldownEnd) {
-                if (!detectRedstoneClock(chunk)) {
-                    lagMachineChunks.remove(chunk);
-                    lastNotificationTime.remove(chunk);
-                    if (consoleLoggingEnabled) {
-                        plugin.getLogger().info("Кулдаун редстоуна истёк в чанке (" + chunk.getX() + ", " + chunk.getZ() + "), лаг-машина не обнаружена, редстоун разрешён");
-                    }
-                    return true;
-                } else {
-                    long cooldownMillis = configManager.getLagDetectionCooldown() * 50L;
-                    redstoneCooldown.put(chunk, System.currentTimeMillis() + cooldownMillis);
-                    if (consoleLoggingEnabled) {
-                        plugin.getLogger().info("Лаг-машина всё ещё обнаружена в чанке (" + chunk.getX() + ", " + chunk.getZ() + "), кулдаун продлён на " + (cooldownMillis / 1000) + " секунд");
-                    }
-                    return false;
-                }
+        long currentTime = System.currentTimeMillis();
+        List<Long> expired = new ArrayList<>();
+        redstoneCooldown.removeIf((chunkKey, cooldownEnd) -> {
+            if (currentTime < cooldownEnd) return false;
+            if (ChunkKeys.isLoaded(chunkKey)) {
+                expired.add(chunkKey);
+                return false;
             }
-            return false;
+            lagMachineChunks.remove(chunkKey);
+            lastNotificationTime.remove(chunkKey, 0L);
+            return true;
         });
+        // Пока идёт повторная проверка, кулдаун продлевается; снятие происходит по результату сканирования
+        long cooldownMillis = configManager.getLagDetectionCooldownMillis();
+        for (long chunkKey : expired) {
+            redstoneCooldown.put(chunkKey, currentTime + cooldownMillis);
+            chunkScanner.submit(chunkKey, cooldownDetector);
+        }
     }
 
     public void disableLagMachines() {
@@ -495,20 +584,31 @@ public class RedstoneManager implements Listener {
             @Override
             public void run() {
                 int disabledChunks = 0;
+                int queuedChunks = 0;
+                int tick = tickMonitor.getCurrentTick();
+                ConfigSnapshot config = configManager.getSnapshot();
                 for (World world : Bukkit.getWorlds()) {
                     if (world == null) continue;
                     for (Chunk chunk : world.getLoadedChunks()) {
-                        if (chunk == null || protectedChunks.contains(chunk)) continue;
-                        if (detectRedstoneClock(chunk) || redstoneActivityCounter.getOrDefault(chunk, 0) >= configManager.getLagDetectionThreshold()) {
-                            disableRedstoneInChunk(chunk);
-                            lagMachineChunks.add(chunk);
-                            notifyLagMachineDetected(chunk, findLagMachineCenter(chunk));
+                        if (chunk == null) continue;
+                        long chunkKey = ChunkKeys.of(chunk);
+                        if (protectedChunks.contains(chunkKey)) continue;
+                        // Без колебаний отключается область, набравшая порог, как при обычном подсчёте активности
+                        int area = config.isOscillationEnabled()
+                                ? (oscillationTracker.isOscillating(chunkKey, tick, config.getOscillationCriteria()) ? RegionActivity.CHUNK : -1)
+                                : redstoneActivity.exceeded(chunkKey, tick, config.getLagDetectionThreshold(),
+                                config.getClusterActivityThreshold(), config.getRegionActivityThreshold());
+                        if (area >= 0) {
+                            disableRedstone(area, chunkKey);
+                            chunkScanner.submit(chunkKey, activityDetector);
                             disabledChunks++;
+                        } else if (chunkComposition.hasAny(chunkKey, ChunkComposition.MONITORED) && chunkScanner.submit(chunkKey, clockDetector)) {
+                            queuedChunks++;
                         }
                     }
                 }
-                if (consoleLoggingEnabled) {
-                    plugin.getLogger().info("Отключено лаг-машин в " + disabledChunks + " чанках");
+                if (debugLogger.isEnabled(LogCategory.REDSTONE)) {
+                    debugLogger.debug(LogCategory.REDSTONE, "Отключено лаг-машин в {} чанках, на проверку поставлено {} чанков", disabledChunks, queuedChunks);
                 }
             }
         }.runTask(plugin);
@@ -516,147 +616,250 @@ public class RedstoneManager implements Listener {
 
     public void enableLagMachines() {
         redstoneCooldown.clear();
+        lagMachineRegistry.clearCooldowns();
         lagMachineChunks.clear();
         protectedChunks.clear();
-        redstoneActivityCounter.clear();
+        redstoneActivity.clear();
+        oscillationTracker.clear();
+        redstoneBuckets.clear();
+        redstoneDeferrals.clear();
         lastNotificationTime.clear();
         isLagDetectionActive = false;
         isRedstoneGloballyDisabled = false;
-        if (consoleLoggingEnabled) {
-            plugin.getLogger().info("Лаг-машины включены, все ограничения и кулдауны сброшены");
+        if (debugLogger.isEnabled(LogCategory.REDSTONE)) {
+            debugLogger.debug(LogCategory.REDSTONE, "Лаг-машины включены, все ограничения и кулдауны сброшены");
         }
     }
 
     public void disableProtectionForChunks() {
         protectedChunks.clear();
         isLagDetectionActive = true;
-        if (consoleLoggingEnabled) {
-            plugin.getLogger().info("Защита чанков снята, проверка лаг-машин возобновлена");
+        if (debugLogger.isEnabled(LogCategory.REDSTONE)) {
+            debugLogger.debug(LogCategory.REDSTONE, "Защита чанков снята, проверка лаг-машин возобновлена");
         }
     }
 
     public boolean allowRedstoneUpdate(Chunk chunk, Block block) {
-        String blockType = block.getType().name();
-        if (blockType.equals("LEVER") || blockType.equals("BUTTON") || blockType.equals("REDSTONE_TORCH")) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Обновление блока " + blockType + " в чанке (" + chunk.getX() + ", " + chunk.getZ() + ") разрешено (источник сигнала)");
+        return checkRedstoneUpdate(chunk, block) == UPDATE_ALLOWED;
+    }
+
+    // UPDATE_THROTTLED - обновление упёрлось в лимит частоты и может быть отложено, UPDATE_DENIED - запрещено совсем
+    private int checkRedstoneUpdate(Chunk chunk, Block block) {
+        Material blockType = block.getType();
+        long chunkKey = ChunkKeys.of(chunk);
+        ConfigSnapshot config = configManager.getSnapshot();
+        MaterialFlags materialFlags = config.getMaterialFlags();
+        if (materialFlags.isRedstoneSource(blockType)) {
+            if (debugLogger.isEnabled(LogCategory.REDSTONE, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.REDSTONE, "Обновление блока {} в чанке ({}, {}) разрешено (источник сигнала)", blockType, chunk.getX(), chunk.getZ());
             }
-            return true;
+            return UPDATE_ALLOWED;
         }
 
-        if (!configManager.isRedstoneOptimizationEnabled()) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Оптимизация редстоуна отключена, обновление блока " + blockType + " разрешено");
+        if (!config.isRedstoneOptimizationEnabled()) {
+            if (debugLogger.isEnabled(LogCategory.REDSTONE, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.REDSTONE, "Оптимизация редстоуна отключена, обновление блока {} разрешено", blockType);
             }
-            return true;
+            return UPDATE_ALLOWED;
         }
 
         if (isRedstoneGloballyDisabled) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Редстоун глобально заблокирован, обновление блока " + blockType + " отклонено");
+            if (debugLogger.isEnabled(LogCategory.REDSTONE, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.REDSTONE, "Редстоун глобально заблокирован, обновление блока {} отклонено", blockType);
             }
-            return false;
+            return UPDATE_DENIED;
         }
 
-        if (!isLagDetectionActive || protectedChunks.contains(chunk)) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Чанк (" + chunk.getX() + ", " + chunk.getZ() + ") защищён или лаг-детекция отключена, обновление редстоуна разрешено");
+        if (!isLagDetectionActive || protectedChunks.contains(chunkKey)) {
+            if (debugLogger.isEnabled(LogCategory.REDSTONE, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.REDSTONE, "Чанк ({}, {}) защищён или лаг-детекция отключена, обновление редстоуна разрешено", chunk.getX(), chunk.getZ());
             }
-            return true;
+            return UPDATE_ALLOWED;
         }
 
-        if (configManager.isPlayerRadiusCheckEnabled() && !hasPlayersNearby(chunk, configManager.getRedstonePlayerRadius())) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Редстоун отключён в чанке (" + chunk.getX() + ", " + chunk.getZ() + "): нет игроков в радиусе " + configManager.getRedstonePlayerRadius());
+        if (config.isPlayerRadiusCheckEnabled() && !hasPlayersNearby(chunk, config.getRedstonePlayerRadius())) {
+            if (debugLogger.isEnabled(LogCategory.REDSTONE, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.REDSTONE, "Редстоун отключён в чанке ({}, {}): нет игроков в радиусе {}", chunk.getX(), chunk.getZ(), config.getRedstonePlayerRadius());
             }
-            return false;
+            return UPDATE_DENIED;
         }
 
-        if (redstoneCooldown.containsKey(chunk) && System.currentTimeMillis() < redstoneCooldown.get(chunk)) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Редстоун в чанке (" + chunk.getX() + ", " + chunk.getZ() + ") на кулдауне");
+        if (isOnCooldown(chunkKey)) {
+            if (debugLogger.isEnabled(LogCategory.REDSTONE, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.REDSTONE, "Редстоун в чанке ({}, {}) на кулдауне", chunk.getX(), chunk.getZ());
             }
-            return false;
+            return UPDATE_DENIED;
         }
 
-        int updates = redstoneUpdates.getOrDefault(chunk, 0);
-        if (updates >= configManager.getMaxRedstoneUpdatesPerTick()) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Превышен лимит обновлений редстоуна (" + updates + "/" + configManager.getMaxRedstoneUpdatesPerTick() + ") в чанке (" + chunk.getX() + ", " + chunk.getZ() + ")");
+        int tick = tickMonitor.getCurrentTick();
+        int updates = redstoneUpdates.get(chunkKey, tick);
+        int maxUpdates = adaptiveLimits.getMaxRedstoneUpdatesPerTick();
+        if (!config.isRedstoneTokenBucketEnabled() && updates >= maxUpdates) {
+            if (debugLogger.isEnabled(LogCategory.REDSTONE, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.REDSTONE, "Превышен лимит обновлений редстоуна ({}/{}) в чанке ({}, {})", updates, maxUpdates, chunk.getX(), chunk.getZ());
             }
-            return false;
+            return UPDATE_THROTTLED;
         }
 
-        if (configManager.isDisableRedstoneLowTps() && getCachedTps() < configManager.getRedstoneTpsThreshold()) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("TPS " + String.format("%.2f", getCachedTps()) + " ниже порога " + configManager.getRedstoneTpsThreshold() + ", редстоун отключён для блока " + blockType);
+        double tps = tickMonitor.getStats().getTps();
+        // В адаптивном режиме редстоун ограничивается плавным лимитом обновлений, а не отключением по порогу
+        if (config.isDisableRedstoneLowTps() && !adaptiveLimits.isEnabled() && tps < config.getRedstoneTpsThreshold()) {
+            if (debugLogger.isEnabled(LogCategory.REDSTONE, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.REDSTONE, "TPS {} ниже порога {}, редстоун отключён для блока {}", String.format("%.2f", tps), config.getRedstoneTpsThreshold(), blockType);
             }
-            return false;
+            return UPDATE_DENIED;
         }
 
-        if (configManager.getWhitelistBlocks().contains(blockType)) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Блок " + blockType + " в чанке (" + chunk.getX() + ", " + chunk.getZ() + ") в белом списке, обновление разрешено");
+        if (materialFlags.isWhitelisted(blockType)) {
+            if (debugLogger.isEnabled(LogCategory.REDSTONE, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.REDSTONE, "Блок {} в чанке ({}, {}) в белом списке, обновление разрешено", blockType, chunk.getX(), chunk.getZ());
             }
-            return true;
+            return UPDATE_ALLOWED;
         }
 
-        if (configManager.isLagDetectionEnabled()) {
-            int activity = redstoneActivityCounter.getOrDefault(chunk, 0) + 1;
-            redstoneActivityCounter.put(chunk, activity);
-            Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                redstoneActivityCounter.computeIfPresent(chunk, (k, v) -> v > 1 ? v - 1 : null);
-            }, 200L);
-            if (activity >= configManager.getLagDetectionThreshold()) {
-                disableRedstoneInChunk(chunk);
-                lagMachineChunks.add(chunk);
-                notifyLagMachineDetected(chunk, findLagMachineCenter(chunk));
-                return false;
+        if (config.isLagDetectionEnabled() && !config.isOscillationEnabled()) {
+            int area = redstoneActivity.increment(chunkKey, tick, config.getLagDetectionThreshold(),
+                    config.getClusterActivityThreshold(), config.getRegionActivityThreshold());
+            if (area >= 0) {
+                disableRedstone(area, chunkKey);
+                chunkScanner.submit(chunkKey, activityDetector);
+                return UPDATE_DENIED;
             }
         }
 
-        redstoneUpdates.put(chunk, updates + 1);
-        if (consoleLoggingEnabled) {
-            plugin.getLogger().info("Обновление редстоуна для блока " + blockType + " в чанке (" + chunk.getX() + ", " + chunk.getZ() + "), текущее количество: " + (updates + 1));
+        // Токен забирается последним, чтобы отклонённые по другим причинам обновления не тратили запас
+        if (config.isRedstoneTokenBucketEnabled()) {
+            if (config.getRedstoneBucketRegionSize() != bucketRegionSize) {
+                redstoneBuckets.clear();
+                bucketRegionSize = config.getRedstoneBucketRegionSize();
+            }
+            long bucketKey = bucketKey(chunk, chunkKey, bucketRegionSize);
+            if (!redstoneBuckets.tryAcquire(bucketKey, tick, config.getRedstoneRefillPerTick(), config.getRedstoneBurst())) {
+                if (debugLogger.isEnabled(LogCategory.REDSTONE, DebugLogger.Level.DEBUG)) {
+                    debugLogger.debug(LogCategory.REDSTONE, "Корзина токенов редстоуна пуста для чанка ({}, {}), обновление блока {} отклонено", chunk.getX(), chunk.getZ(), blockType);
+                }
+                return UPDATE_THROTTLED;
+            }
+        }
+
+        updates = redstoneUpdates.increment(chunkKey, tick);
+        scanScheduler.heat(chunkKey, 1);
+        if (debugLogger.isEnabled(LogCategory.REDSTONE, DebugLogger.Level.DEBUG)) {
+            debugLogger.debug(LogCategory.REDSTONE, "Обновление редстоуна для блока {} в чанке ({}, {}), текущее количество: {}", blockType, chunk.getX(), chunk.getZ(), updates);
         }
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            redstoneUpdates.remove(chunk);
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Сброшено количество обновлений редстоуна для чанка (" + chunk.getX() + ", " + chunk.getZ() + ")");
+        return UPDATE_ALLOWED;
+    }
+
+    // Режим замедления: сигнал блока остаётся прежним, а новое значение применяется через delay-ticks тиков.
+    // Схема не застревает в половинчатом состоянии и не требует пересчёта соседей, клок просто работает медленнее
+    private boolean deferUpdate(BlockRedstoneEvent event) {
+        ConfigSnapshot config = configManager.getSnapshot();
+        if (!config.isRedstoneThrottleEnabled()) return false;
+        if (config.getRedstoneThrottleDelayTicks() != deferralDelayTicks) {
+            int flushed = redstoneDeferrals.flush(this::applyDeferredSignal);
+            deferralDelayTicks = config.getRedstoneThrottleDelayTicks();
+            if (flushed > 0 && debugLogger.isEnabled(LogCategory.REDSTONE)) {
+                debugLogger.debug(LogCategory.REDSTONE, "Задержка замедления редстоуна изменилась, применено {} отложенных обновлений", flushed);
             }
-        }, 1L);
+        }
+        Block block = event.getBlock();
+        int packed = ChunkScan.pack(block.getX() & 15, block.getY(), block.getZ() & 15);
+        int dueTick = tickMonitor.getCurrentTick() + deferralDelayTicks;
+        if (!redstoneDeferrals.defer(ChunkKeys.of(block), packed, dueTick)) return false;
+        event.setNewCurrent(event.getOldCurrent());
+        deferredLimit.inc();
+        if (debugLogger.isEnabled(LogCategory.REDSTONE, DebugLogger.Level.DEBUG)) {
+            debugLogger.debug(LogCategory.REDSTONE, "Обновление редстоуна для блока {} на координатах ({}, {}, {}) отложено на {} тиков", block.getType(), block.getX(), block.getY(), block.getZ(), config.getRedstoneThrottleDelayTicks());
+        }
         return true;
     }
 
-    @EventHandler
-    public void onRedstone(BlockRedstoneEvent event) {
-        if (!configManager.isRedstoneOptimizationEnabled()) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Оптимизация редстоуна отключена, событие редстоуна для блока " +
-                        event.getBlock().getType().name() + " в чанке (" +
-                        event.getBlock().getChunk().getX() + ", " + event.getBlock().getChunk().getZ() + ") пропущено");
-            }
-            return;
+    private void applyDeferred() {
+        if (redstoneDeferrals.size() == 0) return;
+        int applied = redstoneDeferrals.poll(tickMonitor.getCurrentTick(), configManager.getRedstoneThrottleApplyPerTick(), this::applyDeferredSignal);
+        if (applied > 0 && debugLogger.isEnabled(LogCategory.REDSTONE, DebugLogger.Level.DEBUG)) {
+            debugLogger.debug(LogCategory.REDSTONE, "Применено {} отложенных обновлений редстоуна, в очереди осталось {}", applied, redstoneDeferrals.size());
+        }
+    }
+
+    // Состояние блока выставляется напрямую с обновлением соседей, дальше по схеме сигнал идёт через обычные проверки.
+    // Сигнал читается со входов в момент применения: за время задержки источник мог погаснуть
+    private void applyDeferredSignal(long chunkKey, int packed) {
+        if (isRedstoneGloballyDisabled || isOnCooldown(chunkKey)) return;
+        Chunk chunk = ChunkKeys.chunkIfLoaded(chunkKey);
+        if (chunk == null) return;
+        Block block = ChunkScan.blockAt(chunk, packed);
+        BlockData data = block.getBlockData();
+        int current = inputPower(block, data);
+        boolean powered = current > 0;
+        boolean changed = false;
+        if (data instanceof AnaloguePowerable) {
+            AnaloguePowerable analogue = (AnaloguePowerable) data;
+            int power = Math.min(current, analogue.getMaximumPower());
+            if (analogue.getPower() != power) {
+                analogue.setPower(power);
+                changed = true;
+            }
+        } else if (data instanceof Powerable && ((Powerable) data).isPowered() != powered) {
+            ((Powerable) data).setPowered(powered);
+            changed = true;
+        }
+        if (data instanceof Openable && data instanceof Powerable && ((Openable) data).isOpen() != powered) {
+            ((Openable) data).setOpen(powered);
+            changed = true;
+        }
+        if (data instanceof Lightable && ((Lightable) data).isLit() != powered) {
+            ((Lightable) data).setLit(powered);
+            changed = true;
+        }
+        if (changed) {
+            block.setBlockData(data, true);
+        }
+    }
+
+    // Диод слушает только входную сторону, провод теряет единицу силы на каждом блоке провода, остальные блоки - все стороны
+    private static int inputPower(Block block, BlockData data) {
+        if (data instanceof Repeater || data instanceof Comparator) {
+            return block.getBlockPower(((Directional) data).getFacing());
+        }
+        if (!(data instanceof RedstoneWire)) {
+            return block.getBlockPower();
+        }
+        int power = 0;
+        for (BlockFace face : NEIGHBOUR_FACES) {
+            BlockData adjacent = block.getRelative(face).getBlockData();
+            power = Math.max(power, adjacent instanceof RedstoneWire ? ((RedstoneWire) adjacent).getPower() - 1 : block.getBlockPower(face));
         }
+        return power;
+    }
+
+    // Общая корзина на квадрат regionSize x regionSize чанков
+    private static long bucketKey(Chunk chunk, long chunkKey, int regionSize) {
+        if (regionSize == 1) return chunkKey;
+        return ChunkKeys.of(chunk.getWorld(), Math.floorDiv(chunk.getX(), regionSize), Math.floorDiv(chunk.getZ(), regionSize));
+    }
 
+    @EventHandler
+    public void onRedstone(BlockRedstoneEvent event) {
         try {
-            String blockType = event.getBlock().getType().name();
-            if (blockType.equals("LEVER") || blockType.equals("BUTTON") || blockType.equals("REDSTONE_TORCH")) {
-                if (consoleLoggingEnabled) {
-                    plugin.getLogger().info("Обновление блока " + blockType + " в чанке (" +
-                            event.getBlock().getChunk().getX() + ", " + event.getBlock().getChunk().getZ() +
-                            ") разрешено (источник сигнала)");
+            recordToggle(event);
+            Material blockType = event.getBlock().getType();
+            if (configManager.getMaterialFlags().isRedstoneSource(blockType)) {
+                if (debugLogger.isEnabled(LogCategory.REDSTONE, DebugLogger.Level.DEBUG)) {
+                    debugLogger.debug(LogCategory.REDSTONE, "Обновление блока {} в чанке ({}, {}) разрешено (источник сигнала)", blockType, event.getBlock().getChunk().getX(), event.getBlock().getChunk().getZ());
                 }
                 return;
             }
 
-            if (isRedstoneGloballyDisabled || !allowRedstoneUpdate(event.getBlock().getChunk(), event.getBlock())) {
+            int decision = isRedstoneGloballyDisabled ? UPDATE_DENIED : checkRedstoneUpdate(event.getBlock().getChunk(), event.getBlock());
+            if (decision == UPDATE_THROTTLED && deferUpdate(event)) {
+                return;
+            }
+            if (decision != UPDATE_ALLOWED) {
                 event.setNewCurrent(0);
-                if (consoleLoggingEnabled) {
-                    plugin.getLogger().info("Отменено обновление редстоуна для блока " + blockType +
-                            " в чанке (" + event.getBlock().getChunk().getX() + ", " +
-                            event.getBlock().getChunk().getZ() + ") из-за " +
-                            (isRedstoneGloballyDisabled ? "глобального отключения" : "ограничений"));
+                (isRedstoneGloballyDisabled ? cancelledLowTps : cancelledLimit).inc();
+                if (debugLogger.isEnabled(LogCategory.REDSTONE, DebugLogger.Level.DEBUG)) {
+                    debugLogger.debug(LogCategory.REDSTONE, "Отменено обновление редстоуна для блока {} в чанке ({}, {}) из-за {}", blockType, event.getBlock().getChunk().getX(), event.getBlock().getChunk().getZ(), (isRedstoneGloballyDisabled ? "глобального отключения" : "ограничений"));
                 }
                 updateNeighboringBlocks(event.getBlock(), false);
             }
@@ -666,135 +869,84 @@ public class RedstoneManager implements Listener {
         }
     }
 
-    @EventHandler
+    // Переключение - смена состояния сигнала блока (выключен/включён), изменение силы без смены состояния не считается.
+    // Источники тоже учитываются: клок из факелов переключает сами факелы
+    private void recordToggle(BlockRedstoneEvent event) {
+        ConfigSnapshot config = configManager.getSnapshot();
+        if (!isLagDetectionActive || !config.isLagDetectionEnabled() || !config.isOscillationEnabled()) return;
+        if ((event.getOldCurrent() > 0) == (event.getNewCurrent() > 0)) return;
+        Block block = event.getBlock();
+        long chunkKey = ChunkKeys.of(block);
+        if (protectedChunks.contains(chunkKey) || isOnCooldown(chunkKey)) return;
+        if (config.getMaterialFlags().isWhitelisted(block.getType())) return;
+        int tick = tickMonitor.getCurrentTick();
+        if (oscillationTracker.record(chunkKey, ChunkScan.pack(block.getX() & 15, block.getY(), block.getZ() & 15), tick, config.getOscillationCriteria())) {
+            if (debugLogger.isEnabled(LogCategory.REDSTONE, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.REDSTONE, "Блоки в чанке {} колеблются чаще {} Гц, редстоун отключается", ChunkKeys.toString(chunkKey), config.getOscillationCriteria().getMinFrequencyHz());
+            }
+            disableRedstone(chunkKey);
+            chunkScanner.submit(chunkKey, activityDetector);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlockBreak(BlockBreakEvent event) {
         Block block = event.getBlock();
-        String blockType = block.getType().name();
-        if (blockType.equals("LEVER") || blockType.equals("BUTTON") || blockType.equals("REDSTONE_TORCH")) {
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Разрушение блока-источника редстоуна " + blockType + " в чанке (" +
-                        block.getChunk().getX() + ", " + block.getChunk().getZ() +
-                        ") на координатах (" + block.getX() + ", " + block.getY() + ", " + block.getZ() + ")");
+        Material blockType = block.getType();
+        if (configManager.getMaterialFlags().isRedstoneSource(blockType)) {
+            if (debugLogger.isEnabled(LogCategory.REDSTONE, DebugLogger.Level.DEBUG)) {
+                debugLogger.debug(LogCategory.REDSTONE, "Разрушение блока-источника редстоуна {} в чанке ({}, {}) на координатах ({}, {}, {})", blockType, block.getChunk().getX(), block.getChunk().getZ(), block.getX(), block.getY(), block.getZ());
             }
             updateNeighboringBlocks(block, true);
         }
     }
 
+    // Из обработчиков событий соседи обновляются следующим тиком, одной задачей на блок
     private void updateNeighboringBlocks(Block block, boolean applyPhysics) {
-        for (BlockFace face : new BlockFace[]{BlockFace.NORTH, BlockFace.SOUTH, BlockFace.EAST, BlockFace.WEST, BlockFace.UP, BlockFace.DOWN}) {
+        Bukkit.getScheduler().runTask(plugin, () -> updateNeighbours(block, applyPhysics));
+    }
+
+    // Сразу, без планировщика: после удаления компонентов вызывается внутри шага EnforcementQueue и входит в его лимит времени
+    private void updateNeighbours(Block block, boolean applyPhysics) {
+        for (BlockFace face : NEIGHBOUR_FACES) {
             Block adjacent = block.getRelative(face);
-            String adjacentType = adjacent.getType().name();
-            Bukkit.getScheduler().runTask(plugin, () -> {
-                adjacent.getState().update(true, applyPhysics);
-                if (adjacentType.equals("REDSTONE_WIRE") && !hasActiveRedstoneSource(adjacent)) {
-                    adjacent.setType(adjacent.getType(), applyPhysics);
-                    if (consoleLoggingEnabled) {
-                        plugin.getLogger().info("Обновлён редстоун-провод в чанке (" + block.getChunk().getX() + ", " +
-                                block.getChunk().getZ() + ") на координатах (" + adjacent.getX() + ", " +
-                                adjacent.getY() + ", " + adjacent.getZ() + ")");
-                    }
+            Material adjacentType = adjacent.getType();
+            if (adjacentType == Material.AIR) continue;
+            adjacent.getState().update(true, applyPhysics);
+            if (adjacentType == Material.REDSTONE_WIRE && !hasActiveRedstoneSource(adjacent)) {
+                adjacent.setType(adjacentType, applyPhysics);
+                if (debugLogger.isEnabled(LogCategory.REDSTONE, DebugLogger.Level.DEBUG)) {
+                    debugLogger.debug(LogCategory.REDSTONE, "Обновлён редстоун-провод в чанке ({}, {}) на координатах ({}, {}, {})", block.getChunk().getX(), block.getChunk().getZ(), adjacent.getX(), adjacent.getY(), adjacent.getZ());
                 }
-            });
+            }
         }
     }
 
     private boolean hasActiveRedstoneSource(Block block) {
-        for (BlockFace face : new BlockFace[]{BlockFace.NORTH, BlockFace.SOUTH, BlockFace.EAST, BlockFace.WEST, BlockFace.UP, BlockFace.DOWN}) {
+        MaterialFlags materialFlags = configManager.getMaterialFlags();
+        for (BlockFace face : NEIGHBOUR_FACES) {
             Block adjacent = block.getRelative(face);
-            String adjacentType = adjacent.getType().name();
-            if (adjacentType.equals("LEVER") || adjacentType.equals("BUTTON") || block.getType().name().equals("REDSTONE_TORCH")) {
+            if (materialFlags.isRedstoneSource(adjacent.getType())) {
                 return true;
             }
         }
         return false;
     }
 
-    private void startRedstonePatternScan() {
-        if (!configManager.isPatternScanEnabled() || !configManager.isRedstoneOptimizationEnabled()) {
-            if (consoleLoggingEnabled) plugin.getLogger().info("Сканирование редстоун-цепей отключено");
-            return;
-        }
-
-        if (patternScanTask != null && !patternScanTask.isCancelled()) {
-            patternScanTask.cancel();
-        }
-
-        patternScanTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    if (!isLagDetectionActive || Bukkit.getOnlinePlayers().isEmpty()) {
-                        if (consoleLoggingEnabled) plugin.getLogger().info("Сканирование редстоуна приостановлено: нет игроков или детекция отключена");
-                        return;
-                    }
-                    long startTime = System.nanoTime();
-                    int scannedChunks = 0;
-                    List<Chunk> chunksToCheck = new ArrayList<>();
-
-                    for (World world : Bukkit.getWorlds()) {
-                        if (world == null || world.getPlayers().isEmpty()) continue;
-                        for (Chunk chunk : world.getLoadedChunks()) {
-                            if (chunk == null || protectedChunks.contains(chunk)) continue;
-                            if (hasPlayersNearby(chunk, configManager.getRedstonePlayerRadius())) {
-                                chunksToCheck.add(chunk);
-                                if (++scannedChunks >= 2) break;
-                            }
-                        }
-                        if (scannedChunks >= 2) break;
-                    }
-
-                    if (!chunksToCheck.isEmpty()) {
-                        new BukkitRunnable() {
-                            @Override
-                            public void run() {
-                                List<Chunk> lagChunks = new ArrayList<>();
-                                for (Chunk chunk : chunksToCheck) {
-                                    if (detectRedstoneClock(chunk)) {
-                                        lagChunks.add(chunk);
-                                    }
-                                }
-                                Bukkit.getScheduler().runTask(plugin, () -> {
-                                    for (Chunk chunk : lagChunks) {
-                                        disableRedstoneInChunk(chunk);
-                                        lagMachineChunks.add(chunk);
-                                        notifyLagMachineDetected(chunk, findLagMachineCenter(chunk));
-                                    }
-                                });
-                            }
-                        }.runTaskAsynchronously(plugin);
-                    }
-
-                    long duration = (System.nanoTime() - startTime) / 1_000_000;
-                    if (duration > 20 && consoleLoggingEnabled) {
-                        plugin.getLogger().warning("Сканирование редстоуна заняло " + duration + " мс, обработано чанков: " + scannedChunks);
-                    }
-                } catch (Exception e) {
-                    plugin.getLogger().severe("Ошибка сканирования редстоуна: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
-                }
-            }
-        };
-        patternScanTask.runTaskTimer(plugin, 0L, Math.max(configManager.getPatternScanInterval(), 12000L));
-    }
-
     public void resetRedstoneCooldowns() {
-        if (patternScanTask != null && !patternScanTask.isCancelled()) {
-            patternScanTask.cancel();
-            if (consoleLoggingEnabled) {
-                plugin.getLogger().info("Задача сканирования редстоуна отменена");
-            }
-        }
         redstoneCooldown.clear();
         lagMachineChunks.clear();
         protectedChunks.clear();
-        redstoneActivityCounter.clear();
+        redstoneActivity.clear();
+        oscillationTracker.clear();
+        redstoneBuckets.clear();
+        redstoneDeferrals.clear();
         lastNotificationTime.clear();
-        playerNearbyCache.clear();
-        playerNearbyCacheTime.clear();
         redstoneScanCache.clear();
         isLagDetectionActive = false;
         isRedstoneGloballyDisabled = false;
-        if (consoleLoggingEnabled) {
-            plugin.getLogger().info("Все кулдауны редстоуна и защита чанков сброшены");
+        if (debugLogger.isEnabled(LogCategory.REDSTONE)) {
+            debugLogger.debug(LogCategory.REDSTONE, "Все кулдауны редстоуна и защита чанков сброшены");
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,201 @@
+package org.gw.optimizationlagmanager.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.gw.optimizationlagmanager.OptimizationLagManager;
+import org.gw.optimizationlagmanager.utils.ChunkKeys;
+import org.gw.optimizationlagmanager.utils.DebugLogger;
+import org.gw.optimizationlagmanager.utils.LogCategory;
+import org.gw.optimizationlagmanager.utils.LongHashSet;
+import org.gw.optimizationlagmanager.utils.LongIntHashMap;
+import org.gw.optimizationlagmanager.utils.TickWindowCounter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ScanScheduler {
+    // Активность за последние 5 секунд, после которой чанк обходится вне очереди, но не чаще раза в 10 секунд
+    private static final int HOT_THRESHOLD = 200;
+    private static final int HOT_REVISIT_TICKS = 200;
+
+    private final ConfigManager configManager;
+    private final TickMonitor tickMonitor;
+    private final DebugLogger debugLogger;
+    private final List<Registration> registrations = new ArrayList<>();
+    private final TickWindowCounter heat = new TickWindowCounter(100, 5);
+    private final ArrayDeque<Long> hotQueue = new ArrayDeque<>();
+    private final LongHashSet hotQueued = new LongHashSet();
+    private final LongIntHashMap lastHotVisit = new LongIntHashMap();
+    private final BukkitRunnable tickTask;
+    private long[] cycle = new long[256];
+    private int cycleSize = 0;
+    private int cursor = 0;
+    private int cycleStartTick = 0;
+    private long cycleNanos = 0L;
+    private int lastCycleTicks = -1;
+    private int lastCycleChunks = 0;
+    private long lastCycleMicrosPerTick = 0L;
+
+    // Обходчик получает каждый загруженный чанк раз за цикл, если с его прошлого прохода прошло не меньше getIntervalTicks() тиков,
+    // и горячие чанки вне очереди. Вызывается в основном потоке, должен быть дешёвым: тяжёлую работу ставить в ChunkScanner
+    public interface Visitor {
+        int getIntervalTicks();
+
+        void visit(Chunk chunk, long chunkKey);
+    }
+
+    private static class Registration {
+        final Visitor visitor;
+        int lastPassTick;
+        boolean active = false;
+
+        Registration(Visitor visitor, int tick) {
+            this.visitor = visitor;
+            this.lastPassTick = tick - visitor.getIntervalTicks();
+        }
+    }
+
+    public ScanScheduler(OptimizationLagManager plugin, ConfigManager configManager) {
+        this.configManager = configManager;
+        this.tickMonitor = plugin.getTickMonitor();
+        this.debugLogger = plugin.getDebugLogger();
+        MetricsManager metricsManager = plugin.getMetricsManager();
+        metricsManager.queueSize("scan_hot_chunks", hotQueue::size);
+        metricsManager.cacheSize("scan_heat", heat::size);
+        metricsManager.cacheSize("scan_hot_visits", lastHotVisit::size);
+        this.tickTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                if (registrations.isEmpty() || Bukkit.getOnlinePlayers().isEmpty()) return;
+                long startTime = System.nanoTime();
+                int tick = tickMonitor.getCurrentTick();
+                visitHotChunks(tick, startTime);
+                visitCycleChunks(tick, startTime);
+                cycleNanos += System.nanoTime() - startTime;
+            }
+        };
+        tickTask.runTaskTimer(plugin, 1L, 1L);
+    }
+
+    public void register(Visitor visitor) {
+        registrations.add(new Registration(visitor, tickMonitor.getCurrentTick()));
+    }
+
+    // Только из основного потока
+    public void heat(long chunkKey, int amount) {
+        int tick = tickMonitor.getCurrentTick();
+        if (heat.add(chunkKey, tick, amount) < HOT_THRESHOLD || hotQueued.contains(chunkKey)) return;
+        if (tick - lastHotVisit.get(chunkKey, tick - HOT_REVISIT_TICKS) < HOT_REVISIT_TICKS) return;
+        hotQueued.add(chunkKey);
+        hotQueue.add(chunkKey);
+    }
+
+    // Только из основного потока. Ставит чанк в горячую очередь без набора активности, например по реестру лаг-машин
+    public boolean prioritise(long chunkKey) {
+        if (!hotQueued.add(chunkKey)) return false;
+        hotQueue.add(chunkKey);
+        return true;
+    }
+
+    public int getCycleSize() {
+        return cycleSize;
+    }
+
+    public int getCycleProgress() {
+        return cursor;
+    }
+
+    public int getLastCycleTicks() {
+        return lastCycleTicks;
+    }
+
+    public int getLastCycleChunks() {
+        return lastCycleChunks;
+    }
+
+    public long getLastCycleMicrosPerTick() {
+        return lastCycleMicrosPerTick;
+    }
+
+    public int getHotQueueSize() {
+        return hotQueue.size();
+    }
+
+    public void shutdown() {
+        tickTask.cancel();
+        hotQueue.clear();
+        hotQueued.clear();
+    }
+
+    private void visitHotChunks(int tick, long startTime) {
+        long budgetNanos = configManager.getSchedulerBudgetMicros() * 1000L;
+        while (!hotQueue.isEmpty() && System.nanoTime() - startTime < budgetNanos) {
+            long chunkKey = hotQueue.poll();
+            hotQueued.remove(chunkKey);
+            lastHotVisit.put(chunkKey, tick);
+            Chunk chunk = ChunkKeys.chunkIfLoaded(chunkKey);
+            if (chunk == null) continue;
+            for (Registration registration : registrations) {
+                registration.visitor.visit(chunk, chunkKey);
+            }
+        }
+    }
+
+    // Квота тика делит остаток цикла на оставшиеся до срока тики. Бюджет времени может её урезать,
+    // тогда долг переходит на следующие тики; в последний тик срока цикл дочищается без учёта бюджета
+    private void visitCycleChunks(int tick, long startTime) {
+        if (cursor >= cycleSize) startCycle(tick);
+        int ticksLeft = Math.max(1, cycleStartTick + configManager.getCoverageIntervalTicks() - tick);
+        int quota = (cycleSize - cursor + ticksLeft - 1) / ticksLeft;
+        long budgetNanos = configManager.getSchedulerBudgetMicros() * 1000L;
+        int visited = 0;
+
+        while (visited < quota && cursor < cycleSize) {
+            if (ticksLeft > 1 && System.nanoTime() - startTime >= budgetNanos) break;
+            long chunkKey = cycle[cursor++];
+            visited++;
+            Chunk chunk = ChunkKeys.chunkIfLoaded(chunkKey);
+            if (chunk == null) continue;
+            for (Registration registration : registrations) {
+                if (registration.active) registration.visitor.visit(chunk, chunkKey);
+            }
+        }
+    }
+
+    private void startCycle(int tick) {
+        if (cycleSize > 0) {
+            lastCycleTicks = tick - cycleStartTick;
+            lastCycleChunks = cycleSize;
+            lastCycleMicrosPerTick = cycleNanos / 1000 / Math.max(1, lastCycleTicks);
+            if (debugLogger.isEnabled(LogCategory.CHUNKS)) {
+                debugLogger.debug(LogCategory.CHUNKS, "Цикл обхода чанков завершён: {} чанков за {} тиков, в среднем {} мкс за тик", lastCycleChunks, lastCycleTicks, lastCycleMicrosPerTick);
+            }
+        }
+
+        // Чанки, загруженные по ходу цикла, попадут в следующий; выгруженные пропускаются при обходе
+        cycleSize = 0;
+        for (World world : Bukkit.getWorlds()) {
+            Chunk[] chunks = world.getLoadedChunks();
+            if (cycleSize + chunks.length > cycle.length) {
+                cycle = Arrays.copyOf(cycle, Math.max(cycle.length << 1, cycleSize + chunks.length));
+            }
+            for (Chunk chunk : chunks) {
+                cycle[cycleSize++] = ChunkKeys.of(chunk);
+            }
+        }
+        cursor = 0;
+        cycleStartTick = tick;
+        cycleNanos = 0L;
+
+        for (Registration registration : registrations) {
+            registration.active = tick - registration.lastPassTick >= registration.visitor.getIntervalTicks();
+            if (registration.active) registration.lastPassTick = tick;
+        }
+        heat.purgeIdle(tick);
+        lastHotVisit.removeIf((chunkKey, visitedAt) -> tick - visitedAt >= HOT_REVISIT_TICKS);
+    }
+}
@@ -0,0 +1,181 @@
+package org.gw.optimizationlagmanager.managers;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import com.destroystokyo.paper.event.server.ServerTickStartEvent;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.gw.optimizationlagmanager.OptimizationLagManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.StampedLock;
+
+public class TickMonitor implements Listener {
+    private static final int WINDOW_1S = 20;
+    private static final int WINDOW_10S = 200;
+    private static final int WINDOW_60S = 1200;
+    private static final long NANOS_PER_TICK = 50_000_000L;
+
+    private final OptimizationLagManager plugin;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final double[] msptSamples = new double[WINDOW_60S];
+    private final double[] sortBuffer = new double[WINDOW_60S];
+    private final long[] intervalSamples = new long[WINDOW_10S];
+    private int cursor = 0;
+    private int sampleCount = 0;
+    private double sum1s = 0.0;
+    private double sum10s = 0.0;
+    private double sum60s = 0.0;
+    private long intervalSum = 0L;
+    private int intervalCount = 0;
+    private long lastTickStartNanos = 0L;
+    private long currentInterval = NANOS_PER_TICK;
+    private double p95Mspt = 0.0;
+    private double p99Mspt = 0.0;
+    private volatile int currentTick = 0;
+    // Значения последнего тика пишутся в поля без выделения памяти, снимок TickStats собирается только по запросу
+    // читателя и кэшируется до следующего тика. Метрики читают снимок из своего потока, поэтому поля под StampedLock
+    private final StampedLock publishLock = new StampedLock();
+    private int publishedTick = 0;
+    private double lastMspt = 0.0;
+    private double averageMspt1s = 0.0;
+    private double averageMspt10s = 0.0;
+    private double averageMspt60s = 0.0;
+    private double publishedP95Mspt = 0.0;
+    private double publishedP99Mspt = 0.0;
+    private double tps = 20.0;
+    private volatile TickStats stats = TickStats.INITIAL;
+
+    public interface Subscriber {
+        void onTickStats(TickStats stats);
+    }
+
+    public TickMonitor(OptimizationLagManager plugin) {
+        this.plugin = plugin;
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    public TickStats getStats() {
+        TickStats cached = stats;
+        long stamp = publishLock.tryOptimisticRead();
+        int tick = publishedTick;
+        if (stamp != 0L && publishLock.validate(stamp) && cached.getTick() == tick) return cached;
+        TickStats snapshot = readSnapshot();
+        stats = snapshot;
+        return snapshot;
+    }
+
+    private TickStats readSnapshot() {
+        long stamp = publishLock.tryOptimisticRead();
+        if (stamp != 0L) {
+            TickStats snapshot = new TickStats(publishedTick, lastMspt, averageMspt1s, averageMspt10s, averageMspt60s,
+                    publishedP95Mspt, publishedP99Mspt, tps);
+            if (publishLock.validate(stamp)) return snapshot;
+        }
+        stamp = publishLock.readLock();
+        try {
+            return new TickStats(publishedTick, lastMspt, averageMspt1s, averageMspt10s, averageMspt60s,
+                    publishedP95Mspt, publishedP99Mspt, tps);
+        } finally {
+            publishLock.unlockRead(stamp);
+        }
+    }
+
+    public int getCurrentTick() {
+        return currentTick;
+    }
+
+    // Подписчики вызываются в основном потоке раз в секунду (20 тиков)
+    public void subscribe(Subscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTickStart(ServerTickStartEvent event) {
+        currentTick = event.getTickNumber();
+        long now = System.nanoTime();
+        if (lastTickStartNanos != 0L) {
+            currentInterval = Math.max(now - lastTickStartNanos, 1L);
+        }
+        lastTickStartNanos = now;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTickEnd(ServerTickEndEvent event) {
+        double mspt = event.getTickDuration();
+
+        sum60s += mspt - (sampleCount >= WINDOW_60S ? msptSamples[cursor] : 0.0);
+        sum10s += mspt - (sampleCount >= WINDOW_10S ? msptSamples[(cursor - WINDOW_10S + WINDOW_60S) % WINDOW_60S] : 0.0);
+        sum1s += mspt - (sampleCount >= WINDOW_1S ? msptSamples[(cursor - WINDOW_1S + WINDOW_60S) % WINDOW_60S] : 0.0);
+        msptSamples[cursor] = mspt;
+        cursor = (cursor + 1) % WINDOW_60S;
+        if (sampleCount < WINDOW_60S) sampleCount++;
+
+        int intervalSlot = event.getTickNumber() % WINDOW_10S;
+        if (intervalSlot < 0) intervalSlot += WINDOW_10S;
+        intervalSum += currentInterval - intervalSamples[intervalSlot];
+        intervalSamples[intervalSlot] = currentInterval;
+        if (intervalCount < WINDOW_10S) intervalCount++;
+
+        boolean secondElapsed = event.getTickNumber() % WINDOW_1S == 0;
+        if (secondElapsed) {
+            recomputeWindows();
+        }
+
+        long stamp = publishLock.writeLock();
+        try {
+            publishedTick = event.getTickNumber();
+            lastMspt = mspt;
+            averageMspt1s = sum1s / Math.min(sampleCount, WINDOW_1S);
+            averageMspt10s = sum10s / Math.min(sampleCount, WINDOW_10S);
+            averageMspt60s = sum60s / sampleCount;
+            publishedP95Mspt = p95Mspt;
+            publishedP99Mspt = p99Mspt;
+            tps = intervalSum > 0 ? Math.min(20.0, intervalCount * 1_000_000_000.0 / intervalSum) : 20.0;
+        } finally {
+            publishLock.unlockWrite(stamp);
+        }
+
+        if (secondElapsed && !subscribers.isEmpty()) {
+            TickStats snapshot = getStats();
+            for (Subscriber subscriber : subscribers) {
+                try {
+                    subscriber.onTickStats(snapshot);
+                } catch (Exception e) {
+                    plugin.getLogger().severe("Ошибка в обработчике статистики тиков: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+                }
+            }
+        }
+    }
+
+    private void recomputeWindows() {
+        // Пересчёт сумм с нуля убирает накопленную ошибку округления скользящих сумм
+        double total1s = 0.0;
+        double total10s = 0.0;
+        double total60s = 0.0;
+        for (int i = 0; i < sampleCount; i++) {
+            double sample = msptSamples[(cursor - 1 - i + WINDOW_60S) % WINDOW_60S];
+            if (i < WINDOW_1S) total1s += sample;
+            if (i < WINDOW_10S) total10s += sample;
+            total60s += sample;
+            sortBuffer[i] = sample;
+        }
+        sum1s = total1s;
+        sum10s = total10s;
+        sum60s = total60s;
+
+        Arrays.sort(sortBuffer, 0, sampleCount);
+        p95Mspt = sortBuffer[percentileIndex(0.95)];
+        p99Mspt = sortBuffer[percentileIndex(0.99)];
+    }
+
+    private int percentileIndex(double percentile) {
+        return Math.min(sampleCount - 1, (int) Math.ceil(percentile * sampleCount) - 1);
+    }
+}
@@ -0,0 +1,64 @@
+package org.gw.optimizationlagmanager.managers;
+
+public final class TickStats {
+    static final TickStats INITIAL = new TickStats(0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 20.0);
+
+    private final int tick;
+    private final double lastMspt;
+    private final double averageMspt1s;
+    private final double averageMspt10s;
+    private final double averageMspt60s;
+    private final double p95Mspt;
+    private final double p99Mspt;
+    private final double tps;
+
+    TickStats(int tick, double lastMspt, double averageMspt1s, double averageMspt10s, double averageMspt60s,
+              double p95Mspt, double p99Mspt, double tps) {
+        this.tick = tick;
+        this.lastMspt = lastMspt;
+        this.averageMspt1s = averageMspt1s;
+        this.averageMspt10s = averageMspt10s;
+        this.averageMspt60s = averageMspt60s;
+        this.p95Mspt = p95Mspt;
+        this.p99Mspt = p99Mspt;
+        this.tps = tps;
+    }
+
+    public int getTick() {
+        return tick;
+    }
+
+    public double getLastMspt() {
+        return lastMspt;
+    }
+
+    public double getAverageMspt1s() {
+        return averageMspt1s;
+    }
+
+    public double getAverageMspt10s() {
+        return averageMspt10s;
+    }
+
+    public double getAverageMspt60s() {
+        return averageMspt60s;
+    }
+
+    public double getP95Mspt() {
+        return p95Mspt;
+    }
+
+    public double getP99Mspt() {
+        return p99Mspt;
+    }
+
+    public double getTps() {
+        return tps;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TPS %.2f, MSPT %.2f (1с %.2f, 10с %.2f, 60с %.2f, p95 %.2f, p99 %.2f)",
+                tps, lastMspt, averageMspt1s, averageMspt10s, averageMspt60s, p95Mspt, p99Mspt);
+    }
+}
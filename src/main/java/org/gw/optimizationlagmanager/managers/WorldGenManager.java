@@ -2,19 +2,22 @@ package org.gw.optimizationlagmanager.managers;
 
 import org.bukkit.Bukkit;
 import org.bukkit.World;
-import org.bukkit.event.Listener;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.gw.optimizationlagmanager.OptimizationLagManager;
+import org.gw.optimizationlagmanager.utils.DebugLogger;
+import org.gw.optimizationlagmanager.utils.LogCategory;
 
-public class WorldGenManager implements Listener {
+public class WorldGenManager {
     private final OptimizationLagManager plugin;
     private final ConfigManager configManager;
+    private final TickMonitor tickMonitor;
+    private final DebugLogger debugLogger;
 
     public WorldGenManager(OptimizationLagManager plugin, ConfigManager configManager) {
         this.plugin = plugin;
         this.configManager = configManager;
-        plugin.getServer().getPluginManager().registerEvents(this, plugin);
-        configManager.isConsoleLoggingEnabled();
+        this.tickMonitor = plugin.getTickMonitor();
+        this.debugLogger = plugin.getDebugLogger();
         startWorldGenOptimization();
     }
 
@@ -36,11 +39,11 @@ public class WorldGenManager implements Listener {
                     int chunksPerTick = Math.max(1, Math.min(configManager.getChunksPerTick(), 5 / Math.max(1, playerCount / 20))); // Уменьшено
                     int chunksThisTick = 0;
 
-                    double tps = Bukkit.getTPS()[0];
+                    double tps = tickMonitor.getStats().getTps();
                     if (tps < configManager.getDynamicTpsThreshold()) {
                         chunksPerTick = Math.max(1, chunksPerTick / 2);
-                        if (configManager.isConsoleLoggingEnabled()) {
-                            plugin.getLogger().info("TPS " + String.format("%.2f", tps) + " ниже порога, уменьшено кол-во чанков за тик до " + chunksPerTick);
+                        if (debugLogger.isEnabled(LogCategory.WORLDGEN)) {
+                            debugLogger.debug(LogCategory.WORLDGEN, "TPS {} ниже порога, уменьшено кол-во чанков за тик до {}", String.format("%.2f", tps), chunksPerTick);
                         }
                     }
 
@@ -52,8 +55,8 @@ public class WorldGenManager implements Listener {
                                     world.loadChunk(x, z, true);
                                     chunksProcessed++;
                                     chunksThisTick++;
-                                    if (configManager.isConsoleLoggingEnabled()) {
-                                        plugin.getLogger().info("Сгенерирован чанк (" + x + ", " + z + ") в мире " + world.getName() + ", всего обработано: " + chunksProcessed);
+                                    if (debugLogger.isEnabled(LogCategory.WORLDGEN)) {
+                                        debugLogger.debug(LogCategory.WORLDGEN, "Сгенерирован чанк ({}, {}) в мире {}, всего обработано: {}", x, z, world.getName(), chunksProcessed);
                                     }
                                 }
                                 z++;
@@ -71,8 +74,8 @@ public class WorldGenManager implements Listener {
                         }
                     }
                     long duration = (System.nanoTime() - startTime) / 1_000_000;
-                    if (duration > 50 && configManager.isConsoleLoggingEnabled()) {
-                        plugin.getLogger().warning("Генерация чанков заняла " + duration + " мс, обработано за тик: " + chunksThisTick);
+                    if (duration > 50 && debugLogger.isEnabled(LogCategory.WORLDGEN)) {
+                        debugLogger.warning(LogCategory.WORLDGEN, "Генерация чанков заняла {} мс, обработано за тик: {}", duration, chunksThisTick);
                     }
                 } catch (Exception e) {
                     plugin.getLogger().severe("Ошибка в задаче генерации мира: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
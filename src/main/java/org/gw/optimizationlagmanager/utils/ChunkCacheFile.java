@@ -0,0 +1,103 @@
+package org.gw.optimizationlagmanager.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+public final class ChunkCacheFile {
+    // Формат: [магия OLMC][версия][число миров], по каждому миру [имя][число чанков][первый ключ zigzag][разности varint],
+    // в конце CRC32 всего предыдущего содержимого. Ключ чанка - (x << 32) | z, ключи мира отсортированы по возрастанию
+    private static final int MAGIC = 0x4F4C4D43;
+    private static final int VERSION = 1;
+
+    private ChunkCacheFile() {
+    }
+
+    public static long pack(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    public static int x(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    public static int z(long packed) {
+        return (int) packed;
+    }
+
+    // Массивы сортируются на месте. Запись идёт во временный файл, который затем заменяет основной
+    public static void write(File file, Map<String, long[]> worlds) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+        BinaryFiles.writeInt(buffer, MAGIC);
+        BinaryFiles.writeInt(buffer, VERSION);
+        BinaryFiles.writeVarLong(buffer, worlds.size());
+        for (Map.Entry<String, long[]> entry : worlds.entrySet()) {
+            BinaryFiles.writeString(buffer, entry.getKey());
+            long[] keys = entry.getValue();
+            Arrays.sort(keys);
+            BinaryFiles.writeVarLong(buffer, keys.length);
+            long previous = 0L;
+            for (int i = 0; i < keys.length; i++) {
+                BinaryFiles.writeVarLong(buffer, i == 0 ? BinaryFiles.zigzag(keys[0]) : keys[i] - previous);
+                previous = keys[i];
+            }
+        }
+        CRC32 crc = new CRC32();
+        byte[] body = buffer.toByteArray();
+        crc.update(body, 0, body.length);
+        BinaryFiles.writeInt(buffer, (int) crc.getValue());
+        BinaryFiles.writeAtomically(file, buffer.toByteArray());
+    }
+
+    // Файл читается целиком в память без отображения: отображённый файл на Windows не даёт заменить его при следующей записи
+    public static Map<String, long[]> read(File file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        // Минимум - заголовок, число миров в один байт и сумма: пустой кэш занимает 13 байт
+        if (bytes.length < 13) {
+            throw new IOException("некорректный размер файла " + file.getName() + ": " + bytes.length);
+        }
+        try {
+            ByteBuffer data = ByteBuffer.wrap(bytes);
+            int bodyLength = bytes.length - 4;
+            CRC32 crc = new CRC32();
+            ByteBuffer body = data.duplicate();
+            body.limit(bodyLength);
+            crc.update(body);
+            if ((int) crc.getValue() != data.getInt(bodyLength)) {
+                throw new IOException("контрольная сумма файла " + file.getName() + " не совпадает");
+            }
+
+            data.limit(bodyLength);
+            if (data.getInt() != MAGIC) {
+                throw new IOException("файл " + file.getName() + " не является кэшем чанков");
+            }
+            int version = data.getInt();
+            if (version != VERSION) {
+                throw new IOException("неподдерживаемая версия кэша чанков: " + version);
+            }
+            int worldCount = BinaryFiles.readLength(data);
+            Map<String, long[]> worlds = new LinkedHashMap<>();
+            for (int w = 0; w < worldCount; w++) {
+                String name = BinaryFiles.readString(data);
+                long[] keys = new long[BinaryFiles.readLength(data)];
+                long previous = 0L;
+                for (int i = 0; i < keys.length; i++) {
+                    long value = BinaryFiles.readVarLong(data);
+                    keys[i] = i == 0 ? BinaryFiles.unzigzag(value) : previous + value;
+                    previous = keys[i];
+                }
+                worlds.put(name, keys);
+            }
+            return worlds;
+        } catch (RuntimeException e) {
+            // Обрезанный или испорченный файл при верной сумме: выход за границы буфера
+            throw new IOException("повреждён файл " + file.getName() + ": " + e, e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.gw.optimizationlagmanager.utils;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class ChunkKeys {
+    // Раскладка ключа: [11 бит индекс мира][26 бит X чанка][26 бит Z чанка], старший бит всегда 0
+    private static final int COORD_BITS = 26;
+    private static final long COORD_MASK = (1L << COORD_BITS) - 1;
+    private static final int WORLD_SHIFT = COORD_BITS * 2;
+    private static final int MAX_WORLDS = 1 << 11;
+
+    private static final Map<UUID, Integer> worldIndexes = new ConcurrentHashMap<>();
+    private static volatile UUID[] worldsByIndex = new UUID[0];
+
+    private ChunkKeys() {
+    }
+
+    public static long of(Chunk chunk) {
+        return pack(worldIndex(chunk.getWorld()), chunk.getX(), chunk.getZ());
+    }
+
+    public static long of(World world, int chunkX, int chunkZ) {
+        return pack(worldIndex(world), chunkX, chunkZ);
+    }
+
+    public static long of(Block block) {
+        return pack(worldIndex(block.getWorld()), block.getX() >> 4, block.getZ() >> 4);
+    }
+
+    public static long of(Location location) {
+        return pack(worldIndex(location.getWorld()), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+
+    public static long pack(int worldIndex, int chunkX, int chunkZ) {
+        return ((long) worldIndex << WORLD_SHIFT) | ((chunkX & COORD_MASK) << COORD_BITS) | (chunkZ & COORD_MASK);
+    }
+
+    public static long offset(long key, int dx, int dz) {
+        return pack(worldIndex(key), x(key) + dx, z(key) + dz);
+    }
+
+    public static int worldIndex(long key) {
+        return (int) (key >>> WORLD_SHIFT);
+    }
+
+    public static int x(long key) {
+        return (int) (key << (64 - WORLD_SHIFT) >> (64 - COORD_BITS));
+    }
+
+    public static int z(long key) {
+        return (int) (key << (64 - COORD_BITS) >> (64 - COORD_BITS));
+    }
+
+    public static int worldIndex(World world) {
+        UUID uid = world.getUID();
+        Integer index = worldIndexes.get(uid);
+        return index != null ? index : registerWorld(uid);
+    }
+
+    private static synchronized int registerWorld(UUID uid) {
+        Integer index = worldIndexes.get(uid);
+        if (index != null) return index;
+        UUID[] current = worldsByIndex;
+        if (current.length >= MAX_WORLDS) {
+            throw new IllegalStateException("Превышено максимальное количество миров для ключей чанков: " + MAX_WORLDS);
+        }
+        UUID[] next = new UUID[current.length + 1];
+        System.arraycopy(current, 0, next, 0, current.length);
+        next[current.length] = uid;
+        worldsByIndex = next;
+        worldIndexes.put(uid, current.length);
+        return current.length;
+    }
+
+    public static World world(long key) {
+        UUID[] worlds = worldsByIndex;
+        int index = worldIndex(key);
+        return index < worlds.length ? Bukkit.getWorld(worlds[index]) : null;
+    }
+
+    public static boolean isLoaded(long key) {
+        World world = world(key);
+        return world != null && world.isChunkLoaded(x(key), z(key));
+    }
+
+    public static Chunk chunkIfLoaded(long key) {
+        World world = world(key);
+        if (world == null || !world.isChunkLoaded(x(key), z(key))) return null;
+        return world.getChunkAt(x(key), z(key));
+    }
+
+    public static String toString(long key) {
+        World world = world(key);
+        return (world != null ? world.getName() : "?") + " (" + x(key) + ", " + z(key) + ")";
+    }
+}
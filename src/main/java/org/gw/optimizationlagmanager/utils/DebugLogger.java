@@ -0,0 +1,494 @@
+package org.gw.optimizationlagmanager.utils;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.plugin.Plugin;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+public final class DebugLogger {
+    public enum Level {
+        DEBUG,
+        INFO,
+        WARNING
+    }
+
+    private static final long IDLE_PARK_NANOS = 5_000_000L;
+    private static final long DROP_REPORT_INTERVAL = 10_000L;
+    private static final String LOG_FILE_NAME = "debug";
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS")
+            .withZone(ZoneId.systemDefault());
+
+    private final Plugin plugin;
+    private final File logDirectory;
+    private final CategoryState[] categories = new CategoryState[LogCategory.values().length];
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong droppedOverflow = new AtomicLong();
+    private volatile Slot[] buffer;
+    private volatile boolean enabled = false;
+    private volatile int minLevel = Level.DEBUG.ordinal();
+    private volatile boolean consoleOutput = true;
+    private volatile boolean fileOutput = false;
+    private volatile long maxFileBytes = 10L * 1024 * 1024;
+    private volatile int maxFiles = 5;
+    private volatile boolean running = false;
+    private Thread drainThread;
+
+    // Поля ниже используются только потоком записи
+    private final StringBuilder lineBuilder = new StringBuilder(256);
+    private long head = 0L;
+    private long lastDropReport = 0L;
+    private Writer fileWriter;
+    private CountingOutputStream fileStream;
+
+    public DebugLogger(Plugin plugin) {
+        this.plugin = plugin;
+        this.logDirectory = new File(plugin.getDataFolder(), "logs");
+        for (LogCategory category : LogCategory.values()) {
+            categories[category.ordinal()] = new CategoryState();
+        }
+    }
+
+    public synchronized void configure(ConfigurationSection section) {
+        boolean enable = section != null && section.getBoolean("enabled", false);
+        if (section != null) {
+            minLevel = parseLevel(section.getString("level", "DEBUG")).ordinal();
+            consoleOutput = section.getBoolean("console", true);
+            fileOutput = section.getBoolean("file.enabled", false);
+            maxFileBytes = Math.max(1L, section.getLong("file.max-size-mb", 10L)) * 1024L * 1024L;
+            maxFiles = Math.max(1, section.getInt("file.max-files", 5));
+            for (LogCategory category : LogCategory.values()) {
+                CategoryState state = categories[category.ordinal()];
+                ConfigurationSection categorySection = section.getConfigurationSection("categories." + category.getConfigName());
+                state.enabled = categorySection == null || categorySection.getBoolean("enabled", true);
+                state.sampleRate = categorySection == null ? 1 : Math.max(1, categorySection.getInt("sample-rate", 1));
+                state.maxPerSecond = categorySection == null ? 0 : Math.max(0, categorySection.getInt("max-per-second", 0));
+            }
+        }
+        if (enable && buffer == null) {
+            buffer = createBuffer(section.getInt("queue-size", 8192));
+        }
+        if (enable && !running) {
+            running = true;
+            drainThread = new Thread(this::drainLoop, plugin.getName() + "-DebugLog");
+            drainThread.setDaemon(true);
+            drainThread.start();
+        }
+        enabled = enable;
+    }
+
+    public synchronized void shutdown() {
+        enabled = false;
+        if (!running) return;
+        running = false;
+        LockSupport.unpark(drainThread);
+        try {
+            drainThread.join(2000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drainThread = null;
+    }
+
+    public boolean isEnabled(LogCategory category) {
+        return enabled && categories[category.ordinal()].enabled;
+    }
+
+    // Для частых событий: учитывает ещё уровень, выборку и лимит в секунду, чтобы отброшенное сообщение
+    // не собирало аргументы. Отказ по выборке сдвигает счётчик здесь, пропуск - при записи в log()
+    public boolean isEnabled(LogCategory category, Level level) {
+        if (!enabled || level.ordinal() < minLevel) return false;
+        CategoryState state = categories[category.ordinal()];
+        return state.enabled && state.wouldAdmit(level);
+    }
+
+    public void debug(LogCategory category, String message) {
+        log(Level.DEBUG, category, message, 0, null, null, null, null, null);
+    }
+
+    public void debug(LogCategory category, String pattern, Object arg1) {
+        log(Level.DEBUG, category, pattern, 1, arg1, null, null, null, null);
+    }
+
+    public void debug(LogCategory category, String pattern, Object arg1, Object arg2) {
+        log(Level.DEBUG, category, pattern, 2, arg1, arg2, null, null, null);
+    }
+
+    public void debug(LogCategory category, String pattern, Object arg1, Object arg2, Object arg3) {
+        log(Level.DEBUG, category, pattern, 3, arg1, arg2, arg3, null, null);
+    }
+
+    public void debug(LogCategory category, String pattern, Object arg1, Object arg2, Object arg3, Object arg4) {
+        log(Level.DEBUG, category, pattern, 4, arg1, arg2, arg3, arg4, null);
+    }
+
+    public void debug(LogCategory category, String pattern, Object... args) {
+        log(Level.DEBUG, category, pattern, args.length, null, null, null, null, args);
+    }
+
+    public void info(LogCategory category, String message) {
+        log(Level.INFO, category, message, 0, null, null, null, null, null);
+    }
+
+    public void info(LogCategory category, String pattern, Object arg1) {
+        log(Level.INFO, category, pattern, 1, arg1, null, null, null, null);
+    }
+
+    public void info(LogCategory category, String pattern, Object arg1, Object arg2) {
+        log(Level.INFO, category, pattern, 2, arg1, arg2, null, null, null);
+    }
+
+    public void info(LogCategory category, String pattern, Object arg1, Object arg2, Object arg3) {
+        log(Level.INFO, category, pattern, 3, arg1, arg2, arg3, null, null);
+    }
+
+    public void info(LogCategory category, String pattern, Object arg1, Object arg2, Object arg3, Object arg4) {
+        log(Level.INFO, category, pattern, 4, arg1, arg2, arg3, arg4, null);
+    }
+
+    public void info(LogCategory category, String pattern, Object... args) {
+        log(Level.INFO, category, pattern, args.length, null, null, null, null, args);
+    }
+
+    public void warning(LogCategory category, String message) {
+        log(Level.WARNING, category, message, 0, null, null, null, null, null);
+    }
+
+    public void warning(LogCategory category, String pattern, Object arg1) {
+        log(Level.WARNING, category, pattern, 1, arg1, null, null, null, null);
+    }
+
+    public void warning(LogCategory category, String pattern, Object arg1, Object arg2) {
+        log(Level.WARNING, category, pattern, 2, arg1, arg2, null, null, null);
+    }
+
+    public void warning(LogCategory category, String pattern, Object arg1, Object arg2, Object arg3) {
+        log(Level.WARNING, category, pattern, 3, arg1, arg2, arg3, null, null);
+    }
+
+    public void warning(LogCategory category, String pattern, Object arg1, Object arg2, Object arg3, Object arg4) {
+        log(Level.WARNING, category, pattern, 4, arg1, arg2, arg3, arg4, null);
+    }
+
+    public void warning(LogCategory category, String pattern, Object... args) {
+        log(Level.WARNING, category, pattern, args.length, null, null, null, null, args);
+    }
+
+    private void log(Level level, LogCategory category, String pattern, int argCount,
+                     Object arg1, Object arg2, Object arg3, Object arg4, Object[] args) {
+        if (!enabled || level.ordinal() < minLevel) return;
+        CategoryState state = categories[category.ordinal()];
+        if (!state.enabled || !state.admit(level)) return;
+
+        Slot[] slots = buffer;
+        int mask = slots.length - 1;
+        long position = tail.get();
+        for (;;) {
+            Slot slot = slots[(int) position & mask];
+            long difference = slot.sequence - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slot.time = System.currentTimeMillis();
+                    slot.level = level;
+                    slot.category = category;
+                    slot.pattern = pattern;
+                    slot.argCount = argCount;
+                    slot.arg1 = arg1;
+                    slot.arg2 = arg2;
+                    slot.arg3 = arg3;
+                    slot.arg4 = arg4;
+                    slot.args = args;
+                    slot.sequence = position + 1;
+                    return;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                droppedOverflow.incrementAndGet();
+                return;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    private void drainLoop() {
+        while (running) {
+            if (drain() == 0) {
+                flushFile();
+                reportDropped(false);
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        drain();
+        reportDropped(true);
+        closeFile();
+    }
+
+    private int drain() {
+        Slot[] slots = buffer;
+        if (slots == null) return 0;
+        int mask = slots.length - 1;
+        int drained = 0;
+        for (;;) {
+            Slot slot = slots[(int) head & mask];
+            if (slot.sequence != head + 1) return drained;
+            try {
+                write(slot.time, slot.level, slot.category, format(slot));
+            } catch (Exception e) {
+                plugin.getLogger().severe("Ошибка записи отладочного лога: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+            }
+            slot.pattern = null;
+            slot.arg1 = null;
+            slot.arg2 = null;
+            slot.arg3 = null;
+            slot.arg4 = null;
+            slot.args = null;
+            slot.sequence = head + slots.length;
+            head++;
+            drained++;
+        }
+    }
+
+    private String format(Slot slot) {
+        String pattern = slot.pattern;
+        if (slot.argCount == 0 || pattern == null) return String.valueOf(pattern);
+        lineBuilder.setLength(0);
+        int argIndex = 0;
+        int start = 0;
+        int placeholder;
+        while (argIndex < slot.argCount && (placeholder = pattern.indexOf("{}", start)) >= 0) {
+            lineBuilder.append(pattern, start, placeholder).append(argumentAt(slot, argIndex++));
+            start = placeholder + 2;
+        }
+        lineBuilder.append(pattern, start, pattern.length());
+        return lineBuilder.toString();
+    }
+
+    private Object argumentAt(Slot slot, int index) {
+        if (slot.args != null) return slot.args[index];
+        switch (index) {
+            case 0:
+                return slot.arg1;
+            case 1:
+                return slot.arg2;
+            case 2:
+                return slot.arg3;
+            default:
+                return slot.arg4;
+        }
+    }
+
+    private void write(long time, Level level, LogCategory category, String message) throws IOException {
+        if (consoleOutput) {
+            String line = "[" + category.getConfigName() + "] " + message;
+            if (level == Level.WARNING) {
+                plugin.getLogger().warning(line);
+            } else {
+                plugin.getLogger().info(line);
+            }
+        }
+        if (fileOutput) {
+            Writer writer = openFile();
+            writer.write(TIME_FORMAT.format(Instant.ofEpochMilli(time)));
+            writer.write(" [");
+            writer.write(level.name());
+            writer.write("] [");
+            writer.write(category.getConfigName());
+            writer.write("] ");
+            writer.write(message);
+            writer.write(System.lineSeparator());
+            if (fileStream.count >= maxFileBytes) {
+                rotateFiles();
+            }
+        } else if (fileWriter != null) {
+            closeFile();
+        }
+    }
+
+    private void reportDropped(boolean force) {
+        long now = System.currentTimeMillis();
+        if (!force && now - lastDropReport < DROP_REPORT_INTERVAL) return;
+        lastDropReport = now;
+        long overflow = droppedOverflow.getAndSet(0);
+        if (overflow > 0) {
+            writeReport(now, "Пропущено " + overflow + " отладочных сообщений: очередь логов переполнена");
+        }
+        for (LogCategory category : LogCategory.values()) {
+            long limited = categories[category.ordinal()].limited.getAndSet(0);
+            if (limited > 0) {
+                writeReport(now, "Категория " + category.getConfigName() + ": подавлено " + limited + " сообщений лимитом в секунду");
+            }
+        }
+    }
+
+    private void writeReport(long time, String message) {
+        try {
+            write(time, Level.WARNING, LogCategory.GENERAL, message);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Ошибка записи отладочного лога: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+        }
+    }
+
+    private Writer openFile() throws IOException {
+        if (fileWriter == null) {
+            if (!logDirectory.exists() && !logDirectory.mkdirs()) {
+                throw new IOException("Не удалось создать папку " + logDirectory.getPath());
+            }
+            File file = new File(logDirectory, LOG_FILE_NAME + ".log");
+            fileStream = new CountingOutputStream(new FileOutputStream(file, true), file.length());
+            fileWriter = new BufferedWriter(new OutputStreamWriter(fileStream, StandardCharsets.UTF_8), 16 * 1024);
+        }
+        return fileWriter;
+    }
+
+    private void rotateFiles() throws IOException {
+        closeFile();
+        File oldest = new File(logDirectory, LOG_FILE_NAME + "." + maxFiles + ".log");
+        if (oldest.exists() && !oldest.delete()) {
+            throw new IOException("Не удалось удалить " + oldest.getName());
+        }
+        for (int index = maxFiles - 1; index >= 1; index--) {
+            File source = new File(logDirectory, LOG_FILE_NAME + "." + index + ".log");
+            if (source.exists() && !source.renameTo(new File(logDirectory, LOG_FILE_NAME + "." + (index + 1) + ".log"))) {
+                throw new IOException("Не удалось переименовать " + source.getName());
+            }
+        }
+        File current = new File(logDirectory, LOG_FILE_NAME + ".log");
+        if (current.exists() && !current.renameTo(new File(logDirectory, LOG_FILE_NAME + ".1.log"))) {
+            throw new IOException("Не удалось переименовать " + current.getName());
+        }
+    }
+
+    private void flushFile() {
+        if (fileWriter == null) return;
+        try {
+            fileWriter.flush();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Ошибка записи отладочного лога: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+        }
+    }
+
+    private void closeFile() {
+        if (fileWriter == null) return;
+        try {
+            fileWriter.close();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Ошибка закрытия отладочного лога: " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+        }
+        fileWriter = null;
+        fileStream = null;
+    }
+
+    private static Slot[] createBuffer(int requestedSize) {
+        int capacity = Integer.highestOneBit(Math.max(256, Math.min(requestedSize, 1 << 20)) - 1) << 1;
+        Slot[] slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot(i);
+        }
+        return slots;
+    }
+
+    private static Level parseLevel(String value) {
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (Exception e) {
+            return Level.DEBUG;
+        }
+    }
+
+    private static final class CategoryState {
+        private volatile boolean enabled = true;
+        private volatile int sampleRate = 1;
+        private volatile int maxPerSecond = 0;
+        private volatile long windowSecond = 0L;
+        private final AtomicInteger sampleCounter = new AtomicInteger();
+        private final AtomicInteger windowCount = new AtomicInteger();
+        private final AtomicLong limited = new AtomicLong();
+
+        private boolean wouldAdmit(Level level) {
+            int rate = sampleRate;
+            if (rate > 1 && level != Level.WARNING && (sampleCounter.get() & Integer.MAX_VALUE) % rate != 0) {
+                sampleCounter.incrementAndGet();
+                return false;
+            }
+            int limit = maxPerSecond;
+            if (limit > 0 && windowSecond == System.currentTimeMillis() / 1000L && windowCount.get() >= limit) {
+                limited.incrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        private boolean admit(Level level) {
+            int rate = sampleRate;
+            if (rate > 1 && level != Level.WARNING && (sampleCounter.getAndIncrement() & Integer.MAX_VALUE) % rate != 0) {
+                return false;
+            }
+            int limit = maxPerSecond;
+            if (limit <= 0) return true;
+            long second = System.currentTimeMillis() / 1000L;
+            if (second != windowSecond) {
+                windowSecond = second;
+                windowCount.set(0);
+            }
+            if (windowCount.incrementAndGet() > limit) {
+                limited.incrementAndGet();
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private static final class Slot {
+        private volatile long sequence;
+        private long time;
+        private Level level;
+        private LogCategory category;
+        private String pattern;
+        private int argCount;
+        private Object arg1;
+        private Object arg2;
+        private Object arg3;
+        private Object arg4;
+        private Object[] args;
+
+        private Slot(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out, long initialCount) {
+            super(out);
+            this.count = initialCount;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
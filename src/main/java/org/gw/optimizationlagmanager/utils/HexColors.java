@@ -8,6 +8,7 @@ import org.jetbrains.annotations.NotNull;
 
 public final class HexColors {
     private static final Pattern HEX_PATTERN = Pattern.compile("&#([A-Fa-f0-9]{6})");
+    private static final Pattern TRANSLATED_HEX_PATTERN = Pattern.compile("§x§([0-9A-Fa-f])§([0-9A-Fa-f])§([0-9A-Fa-f])§([0-9A-Fa-f])§([0-9A-Fa-f])§([0-9A-Fa-f])");
     private static final boolean SUPPORTS_ANSI = System.console() != null && System.getenv().get("TERM") != null;
     private static final String ANSI_RESET = "\u001B[0m";
     private static final String ANSI_YELLOW = "\u001B[33m";
@@ -38,14 +39,16 @@ public final class HexColors {
             return "";
         }
 
-        String translated = translate(message);
+        return toConsole(translate(message)) + consoleSuffix();
+    }
 
+    // Перевод уже переведённого текста в цвета консоли, без завершающего сброса цвета
+    public static String toConsole(String translated) {
         if (!SUPPORTS_ANSI) {
             return ChatColor.stripColor(translated);
         }
 
-        Pattern hexPattern = Pattern.compile("§x§([0-9A-Fa-f])§([0-9A-Fa-f])§([0-9A-Fa-f])§([0-9A-Fa-f])§([0-9A-Fa-f])§([0-9A-Fa-f])");
-        Matcher matcher = hexPattern.matcher(translated);
+        Matcher matcher = TRANSLATED_HEX_PATTERN.matcher(translated);
         StringBuffer sb = new StringBuffer();
 
         while (matcher.find()) {
@@ -58,13 +61,15 @@ public final class HexColors {
         }
         matcher.appendTail(sb);
 
-        String result = sb.toString()
+        return sb.toString()
                 .replace(ChatColor.YELLOW.toString(), ANSI_YELLOW)
                 .replace(ChatColor.GREEN.toString(), ANSI_GREEN)
                 .replace(ChatColor.RED.toString(), ANSI_RED)
                 .replace(ChatColor.WHITE.toString(), ANSI_WHITE)
                 .replace(ChatColor.RESET.toString(), ANSI_RESET);
+    }
 
-        return result + ANSI_RESET;
+    public static String consoleSuffix() {
+        return SUPPORTS_ANSI ? ANSI_RESET : "";
     }
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+package org.gw.optimizationlagmanager.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+public final class LagMachineRegistryFile {
+    // Формат: [магия OLMR][версия], дальше записи [длина тела varint][тело][CRC32 тела].
+    // Тело: [мир][ключ чанка zigzag][тип][оценка][время обнаружения][конец кулдауна][есть владелец][UUID владельца],
+    // ключ чанка - (x << 32) | z как в ChunkCacheFile, время в миллисекундах эпохи, тики после перезапуска не сравнимы.
+    // Новые записи дописываются в конец, позже записанная запись того же мира, чанка и типа заменяет прежнюю.
+    // Запись с неверной суммой или оборванная в конце файла (сервер упал во время записи) отбрасывается вместе с хвостом
+    private static final int MAGIC = 0x4F4C4D52;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+
+    private LagMachineRegistryFile() {
+    }
+
+    public static final class Record {
+        private final String world;
+        private final long chunk;
+        private final String type;
+        private final int score;
+        private final long lastSeen;
+        private final long cooldownEnd;
+        private final UUID owner;
+
+        public Record(String world, long chunk, String type, int score, long lastSeen, long cooldownEnd, UUID owner) {
+            this.world = world;
+            this.chunk = chunk;
+            this.type = type;
+            this.score = score;
+            this.lastSeen = lastSeen;
+            this.cooldownEnd = cooldownEnd;
+            this.owner = owner;
+        }
+
+        public String getWorld() { return world; }
+        public long getChunk() { return chunk; }
+        public String getType() { return type; }
+        public int getScore() { return score; }
+        public long getLastSeen() { return lastSeen; }
+        public long getCooldownEnd() { return cooldownEnd; }
+        public UUID getOwner() { return owner; }
+    }
+
+    // Дописывает записи в конец файла, отсутствующий или пустой файл создаётся с заголовком
+    public static void append(File file, List<Record> records) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(records.size() * 48 + HEADER_SIZE);
+        if (!file.exists() || file.length() < HEADER_SIZE) {
+            writeHeader(buffer);
+        }
+        for (Record record : records) {
+            writeRecord(buffer, record);
+        }
+        BinaryFiles.append(file, buffer.toByteArray());
+    }
+
+    // Сжатие: файл переписывается только актуальными записями через временный файл, который затем заменяет основной
+    public static void write(File file, Collection<Record> records) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(records.size() * 48 + HEADER_SIZE);
+        writeHeader(buffer);
+        for (Record record : records) {
+            writeRecord(buffer, record);
+        }
+        BinaryFiles.writeAtomically(file, buffer.toByteArray());
+    }
+
+    // Записи в порядке записи в файл, повторы не схлопываются
+    public static List<Record> read(File file) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        if (data.remaining() < HEADER_SIZE) {
+            throw new IOException("некорректный размер файла " + file.getName() + ": " + data.remaining());
+        }
+        if (data.getInt() != MAGIC) {
+            throw new IOException("файл " + file.getName() + " не является реестром лаг-машин");
+        }
+        int version = data.getInt();
+        if (version != VERSION) {
+            throw new IOException("неподдерживаемая версия реестра лаг-машин: " + version);
+        }
+        List<Record> records = new ArrayList<>();
+        CRC32 crc = new CRC32();
+        while (data.hasRemaining()) {
+            try {
+                long length = BinaryFiles.readVarLong(data);
+                if (length <= 0 || length + 4 > data.remaining()) break;
+                ByteBuffer body = data.slice();
+                body.limit((int) length);
+                crc.reset();
+                crc.update(body.array(), body.arrayOffset(), (int) length);
+                data.position(data.position() + (int) length);
+                if ((int) crc.getValue() != data.getInt()) break;
+                records.add(readRecord(body));
+            } catch (IOException | RuntimeException e) {
+                break;
+            }
+        }
+        return records;
+    }
+
+    private static void writeHeader(OutputStream out) throws IOException {
+        BinaryFiles.writeInt(out, MAGIC);
+        BinaryFiles.writeInt(out, VERSION);
+    }
+
+    private static void writeRecord(ByteArrayOutputStream out, Record record) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(48);
+        BinaryFiles.writeString(body, record.world);
+        BinaryFiles.writeVarLong(body, BinaryFiles.zigzag(record.chunk));
+        BinaryFiles.writeString(body, record.type);
+        BinaryFiles.writeVarLong(body, record.score);
+        BinaryFiles.writeVarLong(body, record.lastSeen);
+        BinaryFiles.writeVarLong(body, record.cooldownEnd);
+        if (record.owner != null) {
+            body.write(1);
+            BinaryFiles.writeLong(body, record.owner.getMostSignificantBits());
+            BinaryFiles.writeLong(body, record.owner.getLeastSignificantBits());
+        } else {
+            body.write(0);
+        }
+        byte[] bytes = body.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        BinaryFiles.writeVarLong(out, bytes.length);
+        out.write(bytes);
+        BinaryFiles.writeInt(out, (int) crc.getValue());
+    }
+
+    private static Record readRecord(ByteBuffer in) throws IOException {
+        String world = BinaryFiles.readString(in);
+        long chunk = BinaryFiles.unzigzag(BinaryFiles.readVarLong(in));
+        String type = BinaryFiles.readString(in);
+        int score = (int) BinaryFiles.readVarLong(in);
+        long lastSeen = BinaryFiles.readVarLong(in);
+        long cooldownEnd = BinaryFiles.readVarLong(in);
+        UUID owner = in.get() != 0 ? new UUID(in.getLong(), in.getLong()) : null;
+        return new Record(world, chunk, type, score, lastSeen, cooldownEnd, owner);
+    }
+}
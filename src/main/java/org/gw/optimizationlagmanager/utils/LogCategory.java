@@ -0,0 +1,23 @@
+package org.gw.optimizationlagmanager.utils;
+
+public enum LogCategory {
+    REDSTONE("redstone"),
+    PHYSICS("physics"),
+    FLUIDS("fluids"),
+    CHUNKS("chunks"),
+    ENTITIES("entities"),
+    SPAWNING("spawning"),
+    CONTAINERS("containers"),
+    WORLDGEN("worldgen"),
+    GENERAL("general");
+
+    private final String configName;
+
+    LogCategory(String configName) {
+        this.configName = configName;
+    }
+
+    public String getConfigName() {
+        return configName;
+    }
+}
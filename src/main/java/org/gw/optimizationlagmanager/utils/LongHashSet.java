@@ -0,0 +1,164 @@
+package org.gw.optimizationlagmanager.utils;
+
+import java.util.Arrays;
+
+public final class LongHashSet {
+    private long[] keys;
+    private int mask;
+    private int maxFill;
+    private int size;
+    private boolean hasZeroKey;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expectedSize) {
+        allocate(LongHashes.arraySize(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        mask = capacity - 1;
+        maxFill = LongHashes.maxFill(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) return hasZeroKey;
+        int index = LongHashes.mix(key) & mask;
+        long current;
+        while ((current = keys[index]) != 0) {
+            if (current == key) return true;
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public boolean add(long key) {
+        if (key == 0) {
+            if (hasZeroKey) return false;
+            hasZeroKey = true;
+            size++;
+            return true;
+        }
+        int index = LongHashes.mix(key) & mask;
+        while (keys[index] != 0) {
+            if (keys[index] == key) return false;
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        if (++size > maxFill) rehash(keys.length << 1);
+        return true;
+    }
+
+    public boolean remove(long key) {
+        if (key == 0) {
+            if (!hasZeroKey) return false;
+            hasZeroKey = false;
+            size--;
+            return true;
+        }
+        int index = LongHashes.mix(key) & mask;
+        long current;
+        while ((current = keys[index]) != 0) {
+            if (current == key) {
+                removeAt(index);
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(keys, 0L);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    public void forEach(Consumer consumer) {
+        if (hasZeroKey) consumer.accept(0L);
+        long[] k = keys;
+        for (int i = 0; i < k.length; i++) {
+            if (k[i] != 0) consumer.accept(k[i]);
+        }
+    }
+
+    public long[] toArray() {
+        long[] result = new long[size];
+        int count = 0;
+        if (hasZeroKey) result[count++] = 0L;
+        for (long key : keys) {
+            if (key != 0) result[count++] = key;
+        }
+        return result;
+    }
+
+    public int removeIf(Predicate predicate) {
+        long[] doomed = new long[Math.min(size, 64)];
+        int count = 0;
+        if (hasZeroKey && predicate.test(0L)) {
+            doomed[count++] = 0L;
+        }
+        long[] k = keys;
+        for (int i = 0; i < k.length; i++) {
+            if (k[i] != 0 && predicate.test(k[i])) {
+                if (count == doomed.length) doomed = Arrays.copyOf(doomed, doomed.length << 1);
+                doomed[count++] = k[i];
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            remove(doomed[i]);
+        }
+        return count;
+    }
+
+    private void removeAt(int index) {
+        size--;
+        int last;
+        int slot;
+        long current;
+        for (;;) {
+            last = index;
+            index = (index + 1) & mask;
+            for (;;) {
+                if ((current = keys[index]) == 0) {
+                    keys[last] = 0;
+                    return;
+                }
+                slot = LongHashes.mix(current) & mask;
+                if (last <= index ? (last >= slot || slot > index) : (last >= slot && slot > index)) break;
+                index = (index + 1) & mask;
+            }
+            keys[last] = current;
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        allocate(capacity);
+        for (long key : oldKeys) {
+            if (key == 0) continue;
+            int index = LongHashes.mix(key) & mask;
+            while (keys[index] != 0) index = (index + 1) & mask;
+            keys[index] = key;
+        }
+    }
+
+    public interface Consumer {
+        void accept(long key);
+    }
+
+    public interface Predicate {
+        boolean test(long key);
+    }
+}
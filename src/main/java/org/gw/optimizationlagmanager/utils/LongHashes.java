@@ -0,0 +1,28 @@
+package org.gw.optimizationlagmanager.utils;
+
+final class LongHashes {
+    static final float LOAD_FACTOR = 0.75f;
+
+    private LongHashes() {
+    }
+
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) (h ^ (h >>> 16));
+    }
+
+    static int arraySize(int expected) {
+        long needed = (long) Math.ceil(Math.max(expected, 2) / LOAD_FACTOR);
+        int size = 1;
+        while (size < needed) {
+            size <<= 1;
+            if (size >= (1 << 30)) break;
+        }
+        return Math.max(size, 4);
+    }
+
+    static int maxFill(int capacity) {
+        return Math.min((int) Math.ceil(capacity * LOAD_FACTOR), capacity - 1);
+    }
+}
@@ -0,0 +1,193 @@
+package org.gw.optimizationlagmanager.utils;
+
+import java.util.Arrays;
+
+public final class LongIntHashMap {
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int maxFill;
+    private int size;
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        allocate(LongHashes.arraySize(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        maxFill = LongHashes.maxFill(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) return hasZeroKey;
+        return indexOf(key) >= 0;
+    }
+
+    public int get(long key, int defaultValue) {
+        if (key == 0) return hasZeroKey ? zeroValue : defaultValue;
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : defaultValue;
+    }
+
+    public void put(long key, int value) {
+        if (key == 0) {
+            if (!hasZeroKey) size++;
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        int index = LongHashes.mix(key) & mask;
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > maxFill) rehash(keys.length << 1);
+    }
+
+    public int addTo(long key, int delta) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                size++;
+                hasZeroKey = true;
+                zeroValue = 0;
+            }
+            return zeroValue += delta;
+        }
+        int index = LongHashes.mix(key) & mask;
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                return values[index] += delta;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = delta;
+        if (++size > maxFill) rehash(keys.length << 1);
+        return delta;
+    }
+
+    public int remove(long key, int defaultValue) {
+        if (key == 0) {
+            if (!hasZeroKey) return defaultValue;
+            hasZeroKey = false;
+            size--;
+            return zeroValue;
+        }
+        int index = indexOf(key);
+        if (index < 0) return defaultValue;
+        int previous = values[index];
+        removeAt(index);
+        return previous;
+    }
+
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(keys, 0L);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    public void forEach(Consumer consumer) {
+        if (hasZeroKey) consumer.accept(0L, zeroValue);
+        long[] k = keys;
+        int[] v = values;
+        for (int i = 0; i < k.length; i++) {
+            if (k[i] != 0) consumer.accept(k[i], v[i]);
+        }
+    }
+
+    public int removeIf(Predicate predicate) {
+        long[] doomed = new long[Math.min(size, 64)];
+        int count = 0;
+        if (hasZeroKey && predicate.test(0L, zeroValue)) {
+            doomed[count++] = 0L;
+        }
+        long[] k = keys;
+        int[] v = values;
+        for (int i = 0; i < k.length; i++) {
+            if (k[i] != 0 && predicate.test(k[i], v[i])) {
+                if (count == doomed.length) doomed = Arrays.copyOf(doomed, doomed.length << 1);
+                doomed[count++] = k[i];
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            remove(doomed[i], 0);
+        }
+        return count;
+    }
+
+    private int indexOf(long key) {
+        int index = LongHashes.mix(key) & mask;
+        long current;
+        while ((current = keys[index]) != 0) {
+            if (current == key) return index;
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        size--;
+        int last;
+        int slot;
+        long current;
+        for (;;) {
+            last = index;
+            index = (index + 1) & mask;
+            for (;;) {
+                if ((current = keys[index]) == 0) {
+                    keys[last] = 0;
+                    return;
+                }
+                slot = LongHashes.mix(current) & mask;
+                if (last <= index ? (last >= slot || slot > index) : (last >= slot && slot > index)) break;
+                index = (index + 1) & mask;
+            }
+            keys[last] = current;
+            values[last] = values[index];
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == 0) continue;
+            int index = LongHashes.mix(key) & mask;
+            while (keys[index] != 0) index = (index + 1) & mask;
+            keys[index] = key;
+            values[index] = oldValues[i];
+        }
+    }
+
+    public interface Consumer {
+        void accept(long key, int value);
+    }
+
+    public interface Predicate {
+        boolean test(long key, int value);
+    }
+}
@@ -0,0 +1,194 @@
+package org.gw.optimizationlagmanager.utils;
+
+import java.util.Arrays;
+
+public final class LongObjectHashMap<V> {
+    private long[] keys;
+    private V[] values;
+    private int mask;
+    private int maxFill;
+    private int size;
+    private boolean hasZeroKey;
+    private V zeroValue;
+
+    public LongObjectHashMap() {
+        this(16);
+    }
+
+    public LongObjectHashMap(int expectedSize) {
+        allocate(LongHashes.arraySize(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = newArray(capacity);
+        mask = capacity - 1;
+        maxFill = LongHashes.maxFill(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) return hasZeroKey;
+        return indexOf(key) >= 0;
+    }
+
+    public V get(long key) {
+        if (key == 0) return hasZeroKey ? zeroValue : null;
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : null;
+    }
+
+    public void put(long key, V value) {
+        if (key == 0) {
+            if (!hasZeroKey) size++;
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        int index = LongHashes.mix(key) & mask;
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > maxFill) rehash(keys.length << 1);
+    }
+
+    public V computeIfAbsent(long key, Function<? extends V> factory) {
+        V value = get(key);
+        if (value == null) {
+            value = factory.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    public V remove(long key) {
+        if (key == 0) {
+            if (!hasZeroKey) return null;
+            V previous = zeroValue;
+            hasZeroKey = false;
+            zeroValue = null;
+            size--;
+            return previous;
+        }
+        int index = indexOf(key);
+        if (index < 0) return null;
+        V previous = values[index];
+        removeAt(index);
+        return previous;
+    }
+
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(keys, 0L);
+        Arrays.fill(values, null);
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    public void forEach(Consumer<? super V> consumer) {
+        if (hasZeroKey) consumer.accept(0L, zeroValue);
+        long[] k = keys;
+        V[] v = values;
+        for (int i = 0; i < k.length; i++) {
+            if (k[i] != 0) consumer.accept(k[i], v[i]);
+        }
+    }
+
+    public int removeIf(Predicate<? super V> predicate) {
+        long[] doomed = new long[Math.min(size, 64)];
+        int count = 0;
+        if (hasZeroKey && predicate.test(0L, zeroValue)) {
+            doomed[count++] = 0L;
+        }
+        long[] k = keys;
+        V[] v = values;
+        for (int i = 0; i < k.length; i++) {
+            if (k[i] != 0 && predicate.test(k[i], v[i])) {
+                if (count == doomed.length) doomed = Arrays.copyOf(doomed, doomed.length << 1);
+                doomed[count++] = k[i];
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            remove(doomed[i]);
+        }
+        return count;
+    }
+
+    private int indexOf(long key) {
+        int index = LongHashes.mix(key) & mask;
+        long current;
+        while ((current = keys[index]) != 0) {
+            if (current == key) return index;
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        size--;
+        int last;
+        int slot;
+        long current;
+        for (;;) {
+            last = index;
+            index = (index + 1) & mask;
+            for (;;) {
+                if ((current = keys[index]) == 0) {
+                    keys[last] = 0;
+                    values[last] = null;
+                    return;
+                }
+                slot = LongHashes.mix(current) & mask;
+                if (last <= index ? (last >= slot || slot > index) : (last >= slot && slot > index)) break;
+                index = (index + 1) & mask;
+            }
+            keys[last] = current;
+            values[last] = values[index];
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V[] newArray(int capacity) {
+        return (V[]) new Object[capacity];
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        V[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == 0) continue;
+            int index = LongHashes.mix(key) & mask;
+            while (keys[index] != 0) index = (index + 1) & mask;
+            keys[index] = key;
+            values[index] = oldValues[i];
+        }
+    }
+
+    public interface Consumer<V> {
+        void accept(long key, V value);
+    }
+
+    public interface Function<V> {
+        V apply(long key);
+    }
+
+    public interface Predicate<V> {
+        boolean test(long key, V value);
+    }
+}
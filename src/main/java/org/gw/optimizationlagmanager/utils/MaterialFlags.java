@@ -0,0 +1,212 @@
+package org.gw.optimizationlagmanager.utils;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Tag;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+public final class MaterialFlags {
+    public static final int REDSTONE_SOURCE = 1;
+    public static final int REDSTONE_COMPONENT = 1 << 1;
+    public static final int CLOCK_CAPABLE = 1 << 2;
+    public static final int FALLING = 1 << 3;
+    public static final int STATIC_SAND = 1 << 4;
+    public static final int WATER = 1 << 5;
+    public static final int LAVA = 1 << 6;
+    public static final int CONTAINER = 1 << 7;
+    public static final int COBWEB = 1 << 8;
+    public static final int RAIL = 1 << 9;
+    public static final int TRAPDOOR = 1 << 10;
+    public static final int MONITORED = 1 << 11;
+    public static final int WHITELISTED = 1 << 12;
+
+    private static final Material[] MATERIALS = Material.values();
+    private static final AtomicInteger VERSIONS = new AtomicInteger();
+    private static int[] builtinFlags;
+
+    // Неизменяемая таблица: собирается вместе со снимком настроек и публикуется в ConfigSnapshot одной ссылкой
+    private final Logger logger;
+    private final int[] flags;
+    private final int version;
+
+    public MaterialFlags(Logger logger, List<String> monitoredBlocks, List<String> whitelistBlocks) {
+        this.logger = logger;
+        int[] builtin = builtinFlags();
+        this.flags = Arrays.copyOf(builtin, builtin.length);
+        applyConfigList(flags, monitoredBlocks, MONITORED, "optimization.redstone.lag-detection.monitored-blocks");
+        applyConfigList(flags, whitelistBlocks, WHITELISTED, "optimization.redstone.whitelist-blocks");
+        this.version = VERSIONS.incrementAndGet();
+    }
+
+    // Своя у каждой таблицы, чтобы кэши по пользовательским флагам понимали, что устарели
+    public int getVersion() {
+        return version;
+    }
+
+    public boolean has(Material material, int mask) {
+        return (flags[material.ordinal()] & mask) != 0;
+    }
+
+    public boolean isRedstoneSource(Material material) {
+        return has(material, REDSTONE_SOURCE);
+    }
+
+    public boolean isRedstoneComponent(Material material) {
+        return has(material, REDSTONE_COMPONENT);
+    }
+
+    public boolean isClockCapable(Material material) {
+        return has(material, CLOCK_CAPABLE);
+    }
+
+    public boolean isFalling(Material material) {
+        return has(material, FALLING);
+    }
+
+    public boolean isStaticSand(Material material) {
+        return has(material, STATIC_SAND);
+    }
+
+    public boolean isWater(Material material) {
+        return has(material, WATER);
+    }
+
+    public boolean isLava(Material material) {
+        return has(material, LAVA);
+    }
+
+    public boolean isContainer(Material material) {
+        return has(material, CONTAINER);
+    }
+
+    public boolean isCobweb(Material material) {
+        return has(material, COBWEB);
+    }
+
+    public boolean isRail(Material material) {
+        return has(material, RAIL);
+    }
+
+    public boolean isTrapdoor(Material material) {
+        return has(material, TRAPDOOR);
+    }
+
+    public boolean isMonitored(Material material) {
+        return has(material, MONITORED);
+    }
+
+    public boolean isWhitelisted(Material material) {
+        return has(material, WHITELISTED);
+    }
+
+    // Встроенные флаги не зависят от конфига и считаются один раз, снимки собираются только в основном потоке
+    private static int[] builtinFlags() {
+        if (builtinFlags == null) {
+            builtinFlags = buildBuiltinFlags();
+        }
+        return builtinFlags;
+    }
+
+    private static int[] buildBuiltinFlags() {
+        int[] table = new int[MATERIALS.length];
+        for (Material material : MATERIALS) {
+            if (material.isLegacy()) continue;
+            int mask = 0;
+            if (material == Material.LEVER || material == Material.REDSTONE_TORCH || material == Material.REDSTONE_WALL_TORCH
+                    || Tag.BUTTONS.isTagged(material)) {
+                mask |= REDSTONE_SOURCE | REDSTONE_COMPONENT;
+            }
+            switch (material) {
+                case REDSTONE_WIRE:
+                    mask |= REDSTONE_COMPONENT;
+                    break;
+                case REDSTONE_TORCH:
+                case REDSTONE_WALL_TORCH:
+                case REPEATER:
+                case COMPARATOR:
+                case OBSERVER:
+                case PISTON:
+                case STICKY_PISTON:
+                    mask |= REDSTONE_COMPONENT | CLOCK_CAPABLE;
+                    break;
+                case SAND:
+                case RED_SAND:
+                case GRAVEL:
+                    mask |= STATIC_SAND;
+                    break;
+                case WATER:
+                    mask |= WATER;
+                    break;
+                case LAVA:
+                    mask |= LAVA;
+                    break;
+                case COBWEB:
+                    mask |= COBWEB;
+                    break;
+                case CHEST:
+                case TRAPPED_CHEST:
+                case FURNACE:
+                case BLAST_FURNACE:
+                case SMOKER:
+                case BARREL:
+                case DISPENSER:
+                case DROPPER:
+                case HOPPER:
+                case BREWING_STAND:
+                case ENDER_CHEST:
+                    mask |= CONTAINER;
+                    break;
+                default:
+                    break;
+            }
+            if (material.hasGravity()) mask |= FALLING;
+            if (Tag.SHULKER_BOXES.isTagged(material)) mask |= CONTAINER;
+            if (Tag.RAILS.isTagged(material)) mask |= RAIL;
+            if (Tag.TRAPDOORS.isTagged(material)) mask |= TRAPDOOR;
+            table[material.ordinal()] = mask;
+        }
+        return table;
+    }
+
+    // Имя из конфига - точное имя материала; группа блоков задаётся тегом Minecraft с решёткой: #trapdoors, #rails.
+    // Имена и теги, которые не нашлись, пишутся в лог и пропускаются
+    private void applyConfigList(int[] table, List<String> names, int flag, String path) {
+        if (names == null) return;
+        for (String raw : names) {
+            if (raw == null) continue;
+            String name = raw.trim();
+            if (name.isEmpty()) continue;
+            if (name.startsWith("#")) {
+                Tag<Material> tag = blockTag(name.substring(1));
+                if (tag == null) {
+                    logger.warning("Неизвестный тег блоков '" + raw + "' в " + path);
+                    continue;
+                }
+                for (Material material : tag.getValues()) {
+                    table[material.ordinal()] |= flag;
+                }
+                continue;
+            }
+            Material material = Material.getMaterial(name.toUpperCase(Locale.ROOT));
+            if (material == null || material.isLegacy()) {
+                logger.warning("Неизвестный блок '" + raw + "' в " + path);
+                continue;
+            }
+            table[material.ordinal()] |= flag;
+        }
+    }
+
+    private static Tag<Material> blockTag(String name) {
+        try {
+            return Bukkit.getTag(Tag.REGISTRY_BLOCKS, NamespacedKey.minecraft(name.toLowerCase(Locale.ROOT)), Material.class);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
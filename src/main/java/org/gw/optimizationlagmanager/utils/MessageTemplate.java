@@ -0,0 +1,118 @@
+package org.gw.optimizationlagmanager.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Сообщение из конфига, разобранное один раз при загрузке: цвета уже переведены, а плейсхолдеры {name}
+// вынесены в слоты между готовыми кусками текста. Подстановка - один проход StringBuilder без поиска по строке
+public final class MessageTemplate {
+    private final String text;
+    private final String[] literals;
+    private final String[] consoleLiterals;
+    private final String[] slotNames;
+    // Привязка слотов к порядку значений для последнего набора плейсхолдеров, пересчитывается при смене набора
+    private volatile Binding binding;
+
+    // Набор имён плейсхолдеров в порядке значений render: заводится константой у места вызова
+    public static final class Placeholders {
+        private final String[] names;
+
+        public Placeholders(String... names) {
+            this.names = names.clone();
+        }
+    }
+
+    private static final class Binding {
+        private final Placeholders placeholders;
+        private final int[] indexes;
+
+        private Binding(Placeholders placeholders, int[] indexes) {
+            this.placeholders = placeholders;
+            this.indexes = indexes;
+        }
+    }
+
+    private MessageTemplate(String text, String[] literals, String[] slotNames) {
+        this.text = text;
+        this.literals = literals;
+        this.slotNames = slotNames;
+        this.consoleLiterals = new String[literals.length];
+        for (int i = 0; i < literals.length; i++) {
+            consoleLiterals[i] = HexColors.toConsole(literals[i]);
+        }
+    }
+
+    public static MessageTemplate compile(String raw) {
+        String text = HexColors.translate(raw);
+        List<String> literals = new ArrayList<>();
+        List<String> slotNames = new ArrayList<>();
+        int literalStart = 0;
+        int open = text.indexOf('{');
+        while (open >= 0) {
+            int close = open + 1;
+            while (close < text.length() && isNameChar(text.charAt(close))) close++;
+            if (close < text.length() && close > open + 1 && text.charAt(close) == '}') {
+                literals.add(text.substring(literalStart, open));
+                slotNames.add(text.substring(open + 1, close));
+                literalStart = close + 1;
+                open = text.indexOf('{', literalStart);
+            } else {
+                open = text.indexOf('{', open + 1);
+            }
+        }
+        literals.add(text.substring(literalStart));
+        return new MessageTemplate(text, literals.toArray(new String[0]), slotNames.toArray(new String[0]));
+    }
+
+    // Готовый текст без подстановки
+    public String getText() {
+        return text;
+    }
+
+    // Значения идут в порядке имён из placeholders, слоты без значения остаются в тексте как есть
+    public String render(Placeholders placeholders, Object... values) {
+        return render(literals, placeholders, values);
+    }
+
+    // Тот же текст для консоли: цвета заранее переведены в ANSI или сняты, если терминал их не поддерживает
+    public String renderConsole(Placeholders placeholders, Object... values) {
+        return render(consoleLiterals, placeholders, values) + HexColors.consoleSuffix();
+    }
+
+    private String render(String[] parts, Placeholders placeholders, Object[] values) {
+        if (slotNames.length == 0) return parts[0];
+        int[] indexes = bind(placeholders);
+        StringBuilder builder = new StringBuilder(text.length() + 16 * slotNames.length);
+        for (int i = 0; i < slotNames.length; i++) {
+            builder.append(parts[i]);
+            int index = indexes[i];
+            if (index >= 0 && index < values.length) {
+                builder.append(values[index]);
+            } else {
+                builder.append('{').append(slotNames[i]).append('}');
+            }
+        }
+        return builder.append(parts[slotNames.length]).toString();
+    }
+
+    private int[] bind(Placeholders placeholders) {
+        Binding current = binding;
+        if (current != null && current.placeholders == placeholders) return current.indexes;
+        int[] indexes = new int[slotNames.length];
+        for (int i = 0; i < slotNames.length; i++) {
+            indexes[i] = -1;
+            for (int j = 0; j < placeholders.names.length; j++) {
+                if (placeholders.names[j].equals(slotNames[i])) {
+                    indexes[i] = j;
+                    break;
+                }
+            }
+        }
+        binding = new Binding(placeholders, indexes);
+        return indexes;
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+    }
+}
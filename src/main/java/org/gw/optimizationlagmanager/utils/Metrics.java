@@ -0,0 +1,214 @@
+package org.gw.optimizationlagmanager.utils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+public final class Metrics {
+    // Реестр метрик в текстовом формате Prometheus 0.0.4. Счётчики и гистограммы пишутся из любых потоков,
+    // значения gauge опрашиваются в основном потоке через sampleGauges, а поток HTTP только читает готовые значения
+    private static final long[] BUCKET_NANOS = {
+            1_000L, 5_000L, 10_000L, 25_000L, 50_000L, 100_000L, 250_000L, 500_000L,
+            1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L
+    };
+    private static final String[] BUCKET_LABELS = {
+            "0.000001", "0.000005", "0.00001", "0.000025", "0.00005", "0.0001", "0.00025", "0.0005",
+            "0.001", "0.0025", "0.005", "0.01", "0.025", "0.05"
+    };
+
+    private final List<Family<?>> families = new CopyOnWriteArrayList<>();
+
+    public Family<Counter> counter(String name, String help, String... labelNames) {
+        return register(new Family<>(name, help, "counter", labelNames, Counter::new));
+    }
+
+    public Family<Gauge> gauge(String name, String help, String... labelNames) {
+        return register(new Family<>(name, help, "gauge", labelNames, Gauge::new));
+    }
+
+    public Family<Histogram> histogram(String name, String help, String... labelNames) {
+        return register(new Family<>(name, help, "histogram", labelNames, Histogram::new));
+    }
+
+    // Только из основного потока: источники gauge читают структуры, не рассчитанные на другие потоки
+    public void sampleGauges() {
+        for (Family<?> family : families) {
+            if (!family.type.equals("gauge")) continue;
+            for (Object child : family.children.values()) {
+                ((Gauge) child).sample();
+            }
+        }
+    }
+
+    public String render() {
+        StringBuilder builder = new StringBuilder(8192);
+        for (Family<?> family : families) {
+            if (family.children.isEmpty()) continue;
+            builder.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            builder.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<List<String>, ?> entry : family.children.entrySet()) {
+                String labels = formatLabels(family.labelNames, entry.getKey());
+                Object child = entry.getValue();
+                if (child instanceof Counter) {
+                    appendSample(builder, family.name, labels, "", Long.toString(((Counter) child).get()));
+                } else if (child instanceof Gauge) {
+                    appendSample(builder, family.name, labels, "", formatDouble(((Gauge) child).value));
+                } else {
+                    ((Histogram) child).render(builder, family.name, labels);
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    private <T> Family<T> register(Family<T> family) {
+        for (Family<?> existing : families) {
+            if (existing.name.equals(family.name)) {
+                throw new IllegalArgumentException("Метрика уже зарегистрирована: " + family.name);
+            }
+        }
+        families.add(family);
+        return family;
+    }
+
+    private static void appendSample(StringBuilder builder, String name, String labels, String extraLabel, String value) {
+        builder.append(name);
+        if (!labels.isEmpty() || !extraLabel.isEmpty()) {
+            builder.append('{').append(labels);
+            if (!labels.isEmpty() && !extraLabel.isEmpty()) builder.append(',');
+            builder.append(extraLabel).append('}');
+        }
+        builder.append(' ').append(value).append('\n');
+    }
+
+    private static String formatLabels(String[] names, List<String> values) {
+        if (names.length == 0) return "";
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) builder.append(',');
+            builder.append(names[i]).append("=\"");
+            String value = values.get(i);
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                if (ch == '\\' || ch == '"') {
+                    builder.append('\\').append(ch);
+                } else if (ch == '\n') {
+                    builder.append("\\n");
+                } else {
+                    builder.append(ch);
+                }
+            }
+            builder.append('"');
+        }
+        return builder.toString();
+    }
+
+    private static String formatDouble(double value) {
+        if (Double.isNaN(value)) return "NaN";
+        if (Double.isInfinite(value)) return value > 0 ? "+Inf" : "-Inf";
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) return Long.toString((long) value);
+        return Double.toString(value);
+    }
+
+    public static final class Family<T> {
+        private final String name;
+        private final String help;
+        private final String type;
+        private final String[] labelNames;
+        private final Supplier<T> factory;
+        private final Map<List<String>, T> children = new ConcurrentHashMap<>();
+
+        private Family(String name, String help, String type, String[] labelNames, Supplier<T> factory) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.labelNames = labelNames;
+            this.factory = factory;
+        }
+
+        // Ряд с заданными значениями меток; результат стоит сохранить в поле, а не искать на каждом событии
+        public T labels(String... values) {
+            if (values.length != labelNames.length) {
+                throw new IllegalArgumentException("Метрика " + name + " ожидает меток: " + labelNames.length + ", передано: " + values.length);
+            }
+            return children.computeIfAbsent(Arrays.asList(values.clone()), key -> factory.get());
+        }
+
+        public void remove(String... values) {
+            children.remove(Arrays.asList(values));
+        }
+    }
+
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void inc() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            if (amount > 0) value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    public static final class Gauge {
+        private volatile DoubleSupplier source;
+        private volatile double value;
+
+        public void set(double value) {
+            this.source = null;
+            this.value = value;
+        }
+
+        public void setSource(DoubleSupplier source) {
+            this.source = source;
+        }
+
+        private void sample() {
+            DoubleSupplier current = source;
+            if (current != null) value = current.getAsDouble();
+        }
+    }
+
+    public static final class Histogram {
+        private final LongAdder[] buckets = new LongAdder[BUCKET_NANOS.length];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sumNanos = new LongAdder();
+
+        private Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        public void record(long nanos) {
+            int index = Arrays.binarySearch(BUCKET_NANOS, nanos);
+            if (index < 0) index = -index - 1;
+            if (index < buckets.length) buckets[index].increment();
+            count.increment();
+            sumNanos.add(nanos);
+        }
+
+        private void render(StringBuilder builder, String name, String labels) {
+            // Корзины читаются по очереди без блокировки, поэтому итог не может быть меньше накопленной суммы корзин
+            long cumulative = 0L;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulative += buckets[i].sum();
+                appendSample(builder, name + "_bucket", labels, "le=\"" + BUCKET_LABELS[i] + "\"", Long.toString(cumulative));
+            }
+            long total = Math.max(count.sum(), cumulative);
+            appendSample(builder, name + "_bucket", labels, "le=\"+Inf\"", Long.toString(total));
+            appendSample(builder, name + "_sum", labels, "", formatDouble(sumNanos.sum() / 1_000_000_000.0));
+            appendSample(builder, name + "_count", labels, "", Long.toString(total));
+        }
+    }
+}
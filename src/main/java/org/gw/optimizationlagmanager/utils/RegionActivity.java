@@ -0,0 +1,121 @@
+package org.gw.optimizationlagmanager.utils;
+
+public final class RegionActivity {
+    // Уровни агрегации: чанк, квадрат 4x4 чанка и область файла региона 32x32 чанка.
+    // Квадраты и регионы считаются в четырёх сетках, сдвинутых на половину клетки по X, по Z и по обеим осям:
+    // группа 2x2 чанка на стыке клеток целиком попадает в клетку хотя бы одной из сеток.
+    // Событие добавляется сразу во все сетки, ключ клетки - ключ чанка со сдвинутыми координатами
+    public static final int CHUNK = 0;
+    private static final int GRIDS = 9;
+    private static final int[] SHIFTS = {0, 2, 2, 2, 2, 5, 5, 5, 5};
+    private static final int[] OFFSETS_X = {0, 0, 2, 0, 2, 0, 16, 0, 16};
+    private static final int[] OFFSETS_Z = {0, 0, 0, 2, 2, 0, 0, 16, 16};
+    private static final String[] NAMES = {"чанк", "квадрат 4x4 чанка", "регион 32x32 чанка"};
+
+    private final TickWindowCounter[] counters = new TickWindowCounter[GRIDS];
+    private final LongLongHashMap[] cooldowns = new LongLongHashMap[GRIDS];
+
+    public RegionActivity(int windowTicks, int bucketCount) {
+        for (int grid = 0; grid < GRIDS; grid++) {
+            counters[grid] = new TickWindowCounter(windowTicks, bucketCount);
+            cooldowns[grid] = new LongLongHashMap();
+        }
+    }
+
+    // Область - номер сетки: CHUNK для самого чанка, дальше квадраты и регионы
+    public static String name(int area) {
+        return NAMES[level(area)];
+    }
+
+    // Порог уровня 0 или меньше отключает проверку на этом уровне, и его сетки не считаются вовсе.
+    // Возвращает область самого мелкого уровня, сумма которой за окно достигла порога, или -1
+    public int increment(long chunkKey, int tick, int chunkThreshold, int clusterThreshold, int regionThreshold) {
+        int exceeded = -1;
+        for (int grid = GRIDS - 1; grid >= 0; grid--) {
+            int threshold = threshold(grid, chunkThreshold, clusterThreshold, regionThreshold);
+            if (threshold <= 0) continue;
+            int total = counters[grid].increment(key(grid, chunkKey), tick);
+            if (total >= threshold && (exceeded < 0 || level(grid) <= level(exceeded))) exceeded = grid;
+        }
+        return exceeded;
+    }
+
+    public int exceeded(long chunkKey, int tick, int chunkThreshold, int clusterThreshold, int regionThreshold) {
+        for (int grid = 0; grid < GRIDS; grid++) {
+            int threshold = threshold(grid, chunkThreshold, clusterThreshold, regionThreshold);
+            if (threshold > 0 && counters[grid].get(key(grid, chunkKey), tick) >= threshold) return grid;
+        }
+        return -1;
+    }
+
+    public int get(int area, long chunkKey, int tick) {
+        return counters[area].get(key(area, chunkKey), tick);
+    }
+
+    public void setCooldown(int area, long chunkKey, long cooldownEnd) {
+        cooldowns[area].put(key(area, chunkKey), cooldownEnd);
+    }
+
+    // Самый поздний конец кулдауна чанка и областей, в которые он входит; 0, если кулдаунов нет
+    public long getCooldown(long chunkKey) {
+        long cooldownEnd = 0L;
+        for (int grid = 0; grid < GRIDS; grid++) {
+            LongLongHashMap gridCooldowns = cooldowns[grid];
+            if (gridCooldowns.isEmpty()) continue;
+            cooldownEnd = Math.max(cooldownEnd, gridCooldowns.get(key(grid, chunkKey), 0L));
+        }
+        return cooldownEnd;
+    }
+
+    public int size() {
+        int size = 0;
+        for (TickWindowCounter counter : counters) {
+            size += counter.size();
+        }
+        return size;
+    }
+
+    public int cooldownCount() {
+        int count = 0;
+        for (LongLongHashMap gridCooldowns : cooldowns) {
+            count += gridCooldowns.size();
+        }
+        return count;
+    }
+
+    public void purge(int tick, long currentTime) {
+        for (int grid = 0; grid < GRIDS; grid++) {
+            counters[grid].purgeIdle(tick);
+            cooldowns[grid].removeIf((key, cooldownEnd) -> currentTime >= cooldownEnd);
+        }
+    }
+
+    public void clearCooldowns() {
+        for (LongLongHashMap gridCooldowns : cooldowns) {
+            gridCooldowns.clear();
+        }
+    }
+
+    public void clear() {
+        for (TickWindowCounter counter : counters) {
+            counter.clear();
+        }
+        clearCooldowns();
+    }
+
+    private static long key(int grid, long chunkKey) {
+        if (grid == CHUNK) return chunkKey;
+        int shift = SHIFTS[grid];
+        return ChunkKeys.pack(ChunkKeys.worldIndex(chunkKey),
+                (ChunkKeys.x(chunkKey) + OFFSETS_X[grid]) >> shift, (ChunkKeys.z(chunkKey) + OFFSETS_Z[grid]) >> shift);
+    }
+
+    private static int level(int grid) {
+        return grid == CHUNK ? 0 : SHIFTS[grid] == 2 ? 1 : 2;
+    }
+
+    private static int threshold(int grid, int chunkThreshold, int clusterThreshold, int regionThreshold) {
+        int level = level(grid);
+        return level == 0 ? chunkThreshold : level == 1 ? clusterThreshold : regionThreshold;
+    }
+}
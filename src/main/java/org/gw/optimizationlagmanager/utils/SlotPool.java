@@ -0,0 +1,41 @@
+package org.gw.optimizationlagmanager.utils;
+
+import java.util.Arrays;
+
+// Номера слотов для структур с параллельными массивами на ключ: освобождённый слот выдаётся снова,
+// при нехватке ёмкость удваивается и владелец расширяет свои массивы в Growth. Содержимое слота чистит владелец
+public final class SlotPool {
+    private final Growth growth;
+    private int[] freeSlots;
+    private int freeCount = 0;
+    private int limit = 0;
+
+    public interface Growth {
+        void grow(int capacity);
+    }
+
+    public SlotPool(int capacity, Growth growth) {
+        this.growth = growth;
+        this.freeSlots = new int[capacity];
+    }
+
+    public int allocate() {
+        if (freeCount > 0) return freeSlots[--freeCount];
+        int slot = limit++;
+        if (slot == freeSlots.length) {
+            int capacity = freeSlots.length << 1;
+            freeSlots = Arrays.copyOf(freeSlots, capacity);
+            growth.grow(capacity);
+        }
+        return slot;
+    }
+
+    public void release(int slot) {
+        freeSlots[freeCount++] = slot;
+    }
+
+    public void clear() {
+        freeCount = 0;
+        limit = 0;
+    }
+}
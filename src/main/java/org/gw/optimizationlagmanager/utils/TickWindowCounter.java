@@ -0,0 +1,118 @@
+package org.gw.optimizationlagmanager.utils;
+
+import java.util.Arrays;
+
+public final class TickWindowCounter {
+    // Скользящее окно по тикам: на каждый ключ кольцо из bucketCount корзин по bucketTicks тиков,
+    // устаревшие корзины обнуляются лениво при следующем обращении к ключу
+    private final int bucketCount;
+    private final int bucketTicks;
+    private final LongIntHashMap slots = new LongIntHashMap();
+    private int[] counts;
+    private int[] totals;
+    private int[] lastBuckets;
+    private final SlotPool pool;
+
+    public TickWindowCounter(int windowTicks, int bucketCount) {
+        if (windowTicks <= 0 || bucketCount <= 0 || bucketCount > windowTicks) {
+            throw new IllegalArgumentException("Некорректное окно счётчика: " + windowTicks + " тиков, " + bucketCount + " корзин");
+        }
+        this.bucketCount = bucketCount;
+        this.bucketTicks = (windowTicks + bucketCount - 1) / bucketCount;
+        int capacity = 16;
+        this.counts = new int[capacity * bucketCount];
+        this.totals = new int[capacity];
+        this.lastBuckets = new int[capacity];
+        this.pool = new SlotPool(capacity, grown -> {
+            counts = Arrays.copyOf(counts, grown * bucketCount);
+            totals = Arrays.copyOf(totals, grown);
+            lastBuckets = Arrays.copyOf(lastBuckets, grown);
+        });
+    }
+
+    public int getWindowTicks() {
+        return bucketTicks * bucketCount;
+    }
+
+    public int increment(long key, int tick) {
+        return add(key, tick, 1);
+    }
+
+    public int add(long key, int tick, int delta) {
+        int bucket = Math.floorDiv(tick, bucketTicks);
+        int slot = slots.get(key, -1);
+        if (slot < 0) {
+            slot = allocateSlot(bucket);
+            slots.put(key, slot);
+        } else {
+            advance(slot, bucket);
+        }
+        counts[slot * bucketCount + Math.floorMod(bucket, bucketCount)] += delta;
+        return totals[slot] += delta;
+    }
+
+    public int get(long key, int tick) {
+        int slot = slots.get(key, -1);
+        if (slot < 0) return 0;
+        advance(slot, Math.floorDiv(tick, bucketTicks));
+        return totals[slot];
+    }
+
+    public void remove(long key) {
+        int slot = slots.remove(key, -1);
+        if (slot >= 0) pool.release(slot);
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    // Ключи с ненулевой суммой за окно, заканчивающееся на tick
+    public void forEach(int tick, LongIntHashMap.Consumer consumer) {
+        int bucket = Math.floorDiv(tick, bucketTicks);
+        slots.forEach((key, slot) -> {
+            advance(slot, bucket);
+            if (totals[slot] != 0) consumer.accept(key, totals[slot]);
+        });
+    }
+
+    public void clear() {
+        slots.clear();
+        pool.clear();
+    }
+
+    public int purgeIdle(int tick) {
+        int bucket = Math.floorDiv(tick, bucketTicks);
+        return slots.removeIf((key, slot) -> {
+            if (bucket - lastBuckets[slot] < bucketCount && totals[slot] != 0) return false;
+            pool.release(slot);
+            return true;
+        });
+    }
+
+    private void advance(int slot, int bucket) {
+        int last = lastBuckets[slot];
+        if (bucket <= last) return;
+        int base = slot * bucketCount;
+        if (bucket - last >= bucketCount) {
+            Arrays.fill(counts, base, base + bucketCount, 0);
+            totals[slot] = 0;
+        } else {
+            for (int b = last + 1; b <= bucket; b++) {
+                int index = base + Math.floorMod(b, bucketCount);
+                totals[slot] -= counts[index];
+                counts[index] = 0;
+            }
+        }
+        lastBuckets[slot] = bucket;
+    }
+
+    private int allocateSlot(int bucket) {
+        int slot = pool.allocate();
+        int base = slot * bucketCount;
+        Arrays.fill(counts, base, base + bucketCount, 0);
+        totals[slot] = 0;
+        lastBuckets[slot] = bucket;
+        return slot;
+    }
+}
@@ -0,0 +1,70 @@
+package org.gw.optimizationlagmanager.utils;
+
+import java.util.Arrays;
+
+// Корзина токенов на каждый ключ: за тик добавляется refillPerTick токенов, но не больше capacity.
+// Пополнение считается лениво по разнице тиков при обращении, новая корзина начинается полной
+public final class TokenBuckets {
+    private final LongIntHashMap slots = new LongIntHashMap();
+    private double[] tokens;
+    private int[] lastTicks;
+    private final SlotPool pool;
+
+    public TokenBuckets() {
+        int capacity = 16;
+        this.tokens = new double[capacity];
+        this.lastTicks = new int[capacity];
+        this.pool = new SlotPool(capacity, grown -> {
+            tokens = Arrays.copyOf(tokens, grown);
+            lastTicks = Arrays.copyOf(lastTicks, grown);
+        });
+    }
+
+    public boolean tryAcquire(long key, int tick, double refillPerTick, double capacity) {
+        int slot = slots.get(key, -1);
+        if (slot < 0) {
+            slot = pool.allocate();
+            slots.put(key, slot);
+            tokens[slot] = capacity;
+            lastTicks[slot] = tick;
+        } else {
+            refill(slot, tick, refillPerTick, capacity);
+        }
+        if (tokens[slot] < 1.0) return false;
+        tokens[slot] -= 1.0;
+        return true;
+    }
+
+    public double getTokens(long key, int tick, double refillPerTick, double capacity) {
+        int slot = slots.get(key, -1);
+        if (slot < 0) return capacity;
+        refill(slot, tick, refillPerTick, capacity);
+        return tokens[slot];
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    public void clear() {
+        slots.clear();
+        pool.clear();
+    }
+
+    // Корзина, которая успела наполниться, ничем не отличается от новой, поэтому удаляется без потери состояния
+    public int purgeIdle(int tick, double refillPerTick, double capacity) {
+        return slots.removeIf((key, slot) -> {
+            refill(slot, tick, refillPerTick, capacity);
+            if (tokens[slot] < capacity) return false;
+            pool.release(slot);
+            return true;
+        });
+    }
+
+    private void refill(int slot, int tick, double refillPerTick, double capacity) {
+        int elapsed = tick - lastTicks[slot];
+        if (elapsed <= 0) return;
+        tokens[slot] = Math.min(capacity, tokens[slot] + elapsed * refillPerTick);
+        lastTicks[slot] = tick;
+    }
+}
@@ -0,0 +1,52 @@
+package org.gw.optimizationlagmanager.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ChunkCacheFileTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void emptyCacheRoundTrip() throws IOException {
+        File file = new File(folder.getRoot(), "preloaded-chunks.bin");
+        ChunkCacheFile.write(file, new LinkedHashMap<>());
+        assertEquals(13L, file.length());
+        assertTrue(ChunkCacheFile.read(file).isEmpty());
+    }
+
+    @Test
+    public void worldsRoundTrip() throws IOException {
+        File file = new File(folder.getRoot(), "preloaded-chunks.bin");
+        Map<String, long[]> worlds = new LinkedHashMap<>();
+        worlds.put("world", new long[]{ChunkCacheFile.pack(3, -7), ChunkCacheFile.pack(-1, 0), ChunkCacheFile.pack(0, 0)});
+        worlds.put("world_nether", new long[0]);
+        ChunkCacheFile.write(file, worlds);
+
+        Map<String, long[]> read = ChunkCacheFile.read(file);
+        assertEquals(worlds.keySet(), read.keySet());
+        assertArrayEquals(worlds.get("world"), read.get("world"));
+        assertEquals(0, read.get("world_nether").length);
+        // Файл можно перезаписать сразу после чтения
+        ChunkCacheFile.write(file, new LinkedHashMap<>());
+        assertTrue(ChunkCacheFile.read(file).isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedCacheRejected() throws IOException {
+        File file = new File(folder.getRoot(), "preloaded-chunks.bin");
+        Files.write(file.toPath(), new byte[12]);
+        ChunkCacheFile.read(file);
+    }
+}